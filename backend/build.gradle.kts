@@ -4,6 +4,7 @@ plugins {
     java
     id("org.springframework.boot") version "3.3.5"
     id("io.spring.dependency-management") version "1.1.7"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.rapidphoto"
@@ -19,6 +20,8 @@ repositories {
     mavenCentral()
 }
 
+val blockHoundRuntime: Configuration by configurations.creating
+
 dependencies {
     // Spring Boot WebFlux
     implementation("org.springframework.boot:spring-boot-starter-webflux")
@@ -26,6 +29,7 @@ dependencies {
     implementation("org.springframework.boot:spring-boot-starter-aop")
     implementation("org.springframework.boot:spring-boot-starter-cache")
     implementation("com.github.ben-manes.caffeine:caffeine:3.1.8")
+    implementation("org.roaringbitmap:RoaringBitmap:1.0.6")
 
     // R2DBC for reactive database access
     implementation("org.springframework.boot:spring-boot-starter-data-r2dbc")
@@ -71,12 +75,45 @@ dependencies {
     testImplementation("com.nimbusds:nimbus-jose-jwt:9.37.3")
     testImplementation("org.springframework.security:spring-security-test")
     testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+
+    // BlockHound is installed by its JUnit Platform listener, only in JVMs that have it
+    blockHoundRuntime("io.projectreactor.tools:blockhound-junit-platform:1.0.9.RELEASE")
 }
 
 tasks.withType<Test> {
     useJUnitPlatform()
 }
 
+tasks.test {
+    useJUnitPlatform {
+        excludeTags("blockhound")
+    }
+}
+
+// Tests tagged "blockhound" run in their own JVM, since BlockHound.install() is JVM-wide
+val blockHoundTest by tasks.registering(Test::class) {
+    description = "Runs the tests tagged blockhound with BlockHound installed."
+    group = "verification"
+    testClassesDirs = sourceSets.test.get().output.classesDirs
+    classpath = sourceSets.test.get().runtimeClasspath + blockHoundRuntime
+    useJUnitPlatform {
+        includeTags("blockhound")
+    }
+    // BlockHound instruments JDK classes, which requires redefinition on JDK 13+
+    jvmArgs("-XX:+AllowRedefinitionToAddDeleteMethods")
+}
+
+tasks.check {
+    dependsOn(blockHoundTest)
+}
+
+// Microbenchmarks in src/jmh: ./gradlew jmh
+jmh {
+    warmupIterations.set(2)
+    iterations.set(5)
+    fork.set(1)
+}
+
 tasks.withType<BootRun> {
     val envFile = project.file(".env")
 
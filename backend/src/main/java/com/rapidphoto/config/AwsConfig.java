@@ -1,6 +1,7 @@
 package com.rapidphoto.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rapidphoto.features.gallery.application.S3UrlSigner;
 import io.awspring.cloud.sqs.config.SqsMessageListenerContainerFactory;
 import io.awspring.cloud.sqs.operations.SqsTemplate;
 import lombok.extern.slf4j.Slf4j;
@@ -11,6 +12,7 @@ import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.S3Configuration;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
 import software.amazon.awssdk.services.sqs.SqsAsyncClient;
 
@@ -44,6 +46,9 @@ public class AwsConfig {
     @Value("${aws.endpoint:#{null}}")
     private String awsEndpoint;
 
+    @Value("${aws.s3.bucket-name}")
+    private String bucketName;
+
     /**
      * S3 Presigner for generating presigned URLs.
      */
@@ -55,15 +60,25 @@ public class AwsConfig {
                 .region(Region.of(awsRegion))
                 .credentialsProvider(DefaultCredentialsProvider.create());
 
-        // For local development with LocalStack
+        // For local development with LocalStack; path-style like S3UrlSigner, so any local S3 stand-in works
         if (awsEndpoint != null && !awsEndpoint.isEmpty()) {
             log.info("Using custom AWS endpoint: {}", awsEndpoint);
-            builder.endpointOverride(URI.create(awsEndpoint));
+            builder.endpointOverride(URI.create(awsEndpoint))
+                    .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build());
         }
 
         return builder.build();
     }
 
+    /**
+     * Batch-oriented SigV4 signer for download URLs (reuses the derived signing key).
+     */
+    @Bean
+    public S3UrlSigner s3UrlSigner() {
+        URI endpointOverride = awsEndpoint != null && !awsEndpoint.isEmpty() ? URI.create(awsEndpoint) : null;
+        return new S3UrlSigner(DefaultCredentialsProvider.create(), awsRegion, bucketName, endpointOverride);
+    }
+
     /**
      * S3 synchronous client (used for some operations).
      */
@@ -76,7 +91,8 @@ public class AwsConfig {
                 .credentialsProvider(DefaultCredentialsProvider.create());
 
         if (awsEndpoint != null && !awsEndpoint.isEmpty()) {
-            builder.endpointOverride(URI.create(awsEndpoint));
+            builder.endpointOverride(URI.create(awsEndpoint))
+                    .forcePathStyle(true);
         }
 
         return builder.build();
@@ -94,7 +110,8 @@ public class AwsConfig {
                 .credentialsProvider(DefaultCredentialsProvider.create());
 
         if (awsEndpoint != null && !awsEndpoint.isEmpty()) {
-            builder.endpointOverride(URI.create(awsEndpoint));
+            builder.endpointOverride(URI.create(awsEndpoint))
+                    .forcePathStyle(true);
         }
 
         return builder.build();
@@ -2,7 +2,6 @@ package com.rapidphoto.config;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
@@ -14,36 +13,24 @@ import java.util.concurrent.TimeUnit;
 /**
  * Configuration for caching with Caffeine.
  *
- * Caches presigned S3 URLs to avoid regenerating them on every request.
- * URLs are cached for slightly less time than their expiration to ensure validity.
+ * Provides the Spring cache manager for {@code @Cacheable} use. Presigned S3 download
+ * URLs are not cached here: S3DownloadUrlService owns a dedicated refreshing cache
+ * whose lifetime follows each URL's signing window.
  */
 @Slf4j
 @Configuration
 @EnableCaching
 public class CacheConfig {
 
-    @Value("${aws.s3.download-url-expiration:15}")
-    private int downloadUrlExpirationMinutes;
-
     /**
-     * Configure Caffeine cache manager for presigned URLs.
-     *
-     * Cache TTL is set to 80% of URL expiration time to ensure URLs
-     * are always valid when served from cache.
+     * Configure Caffeine cache manager; caches are created on first use.
      */
     @Bean
     public CacheManager cacheManager() {
-        // Calculate cache expiration as 80% of presigned URL expiration
-        // This ensures URLs are refreshed before they expire
-        long cacheExpirationMinutes = (long) (downloadUrlExpirationMinutes * 0.8);
-
-        log.info("Configuring cache with {} minute TTL (presigned URLs expire in {} minutes)",
-                cacheExpirationMinutes, downloadUrlExpirationMinutes);
-
-        CaffeineCacheManager cacheManager = new CaffeineCacheManager("presignedUrls");
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
         cacheManager.setCaffeine(Caffeine.newBuilder()
-                .expireAfterWrite(cacheExpirationMinutes, TimeUnit.MINUTES)
-                .maximumSize(10000) // Cache up to 10k URLs (adjust based on needs)
+                .expireAfterWrite(10, TimeUnit.MINUTES)
+                .maximumSize(10000)
                 .recordStats()); // Enable statistics for monitoring
 
         // CRITICAL: Enable async mode for reactive types (Mono/Flux)
@@ -68,6 +68,8 @@ public class Photo {
 
     private String errorMessage;
 
+    private String contentSha256;  // Lowercase hex, set only when S3 verified the upload against it
+
     /**
      * Factory method to create a new photo from confirmed upload.
      */
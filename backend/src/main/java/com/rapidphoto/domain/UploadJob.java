@@ -10,6 +10,8 @@ import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.relational.core.mapping.Table;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -30,7 +32,7 @@ public class UploadJob {
 
     private String s3Key;  // originals/{userId}/{uuid}
 
-    private String presignedUrl;
+    private String presignedUrl;  // Null for multipart uploads (one URL per part)
 
     private String fileName;
 
@@ -55,6 +57,16 @@ public class UploadJob {
 
     private String errorMessage;
 
+    private String multipartUploadId;  // S3 multipart upload ID, null for single-PUT uploads
+
+    private Long partSize;
+
+    private Integer partCount;
+
+    private String[] partEtags;  // ETag per part number - 1, null while the part is pending
+
+    private String contentSha256;  // Client-computed SHA-256 (lowercase hex), if sent
+
     /**
      * Factory method to create a new upload job.
      */
@@ -75,6 +87,29 @@ public class UploadJob {
                 .build();
     }
 
+    /**
+     * Factory method to create a new multipart upload job.
+     */
+    public static UploadJob createMultipart(UUID userId, String s3Key, String multipartUploadId,
+                                            String fileName, Long fileSize, String mimeType,
+                                            long partSize, int partCount, Instant expiresAt) {
+        return UploadJob.builder()
+                .id(UUID.randomUUID())
+                .userId(userId)
+                .s3Key(s3Key)
+                .fileName(fileName)
+                .fileSize(fileSize)
+                .mimeType(mimeType)
+                .status("INITIATED")
+                .expiresAt(expiresAt)
+                .createdAt(Instant.now())
+                .multipartUploadId(multipartUploadId)
+                .partSize(partSize)
+                .partCount(partCount)
+                .partEtags(new String[partCount])
+                .build();
+    }
+
     /**
      * Confirm upload with ETag.
      */
@@ -113,6 +148,29 @@ public class UploadJob {
         return Instant.now().isAfter(expiresAt);
     }
 
+    /**
+     * Check if this is a multipart upload.
+     */
+    public boolean isMultipart() {
+        return multipartUploadId != null;
+    }
+
+    /**
+     * Part numbers (1-based) without a reported ETag, ascending; empty for single-PUT uploads.
+     */
+    public List<Integer> getMissingPartNumbers() {
+        List<Integer> missing = new ArrayList<>();
+        if (partCount == null) {
+            return missing;
+        }
+        for (int i = 0; i < partCount; i++) {
+            if (partEtags == null || i >= partEtags.length || partEtags[i] == null) {
+                missing.add(i + 1);
+            }
+        }
+        return missing;
+    }
+
     /**
      * Check if upload job can be confirmed.
      */
@@ -0,0 +1,30 @@
+package com.rapidphoto.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Number of a user's photos carrying a label.
+ * Keyed by (user_id, label_name); written only through {@code UserLabelCountRepository} queries.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("user_label_counts")
+public class UserLabelCount {
+
+    private UUID userId;
+
+    private String labelName;
+
+    private long photoCount;
+
+    private Instant updatedAt;
+}
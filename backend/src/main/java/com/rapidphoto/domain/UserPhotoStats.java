@@ -0,0 +1,55 @@
+package com.rapidphoto.domain;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Per-user photo counters.
+ * Maintained by database triggers on photos; read-only from the application.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("user_photo_stats")
+public class UserPhotoStats {
+
+    @Id
+    private UUID userId;
+
+    private long totalCount;
+
+    private long pendingProcessingCount;
+
+    private long processingCount;
+
+    private long readyCount;
+
+    private long failedCount;
+
+    /**
+     * Incremented on every change to the user's photos.
+     */
+    private long galleryVersion;
+
+    private Instant updatedAt;
+
+    /**
+     * Number of photos in the given status.
+     */
+    public long countFor(PhotoStatus status) {
+        return switch (status) {
+            case PENDING_PROCESSING -> pendingProcessingCount;
+            case PROCESSING -> processingCount;
+            case READY -> readyCount;
+            case FAILED -> failedCount;
+        };
+    }
+}
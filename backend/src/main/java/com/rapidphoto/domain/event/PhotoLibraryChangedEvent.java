@@ -0,0 +1,20 @@
+package com.rapidphoto.domain.event;
+
+import java.util.UUID;
+
+/**
+ * In-process event emitted whenever a user's photo library changes.
+ * Read-side caches listen to it to invalidate precisely the affected user.
+ */
+public record PhotoLibraryChangedEvent(
+    UUID userId,
+    UUID photoId,
+    ChangeType changeType
+) {
+
+    public enum ChangeType {
+        ADDED,      // Photo created on upload confirmation
+        PROCESSED,  // Processing results (status, versions, labels) stored
+        DELETED     // Photo and its versions/labels removed
+    }
+}
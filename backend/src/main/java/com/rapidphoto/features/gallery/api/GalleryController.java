@@ -2,8 +2,13 @@ package com.rapidphoto.features.gallery.api;
 
 import com.rapidphoto.domain.PhotoVersionType;
 import com.rapidphoto.features.gallery.api.dto.DownloadUrlResponse;
+import com.rapidphoto.features.gallery.api.dto.GeoClusterDto;
+import com.rapidphoto.features.gallery.api.dto.LabelFacetDto;
 import com.rapidphoto.features.gallery.api.dto.PagedPhotosResponse;
+import com.rapidphoto.features.gallery.api.dto.PhotoListItemDto;
 import com.rapidphoto.features.gallery.api.dto.PhotoResponse;
+import com.rapidphoto.features.gallery.api.dto.TagSuggestionDto;
+import com.rapidphoto.features.gallery.api.dto.TimelineResponse;
 import com.rapidphoto.features.gallery.application.*;
 import com.rapidphoto.security.SecurityContextUtils;
 import lombok.RequiredArgsConstructor;
@@ -12,13 +17,15 @@ import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
@@ -31,44 +38,108 @@ import java.util.concurrent.TimeUnit;
 @RequiredArgsConstructor
 public class GalleryController {
 
+    private static final String SORT_RELEVANCE = "relevance";
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final GetPhotosHandler getPhotosHandler;
     private final GetPhotoDetailHandler getPhotoDetailHandler;
     private final SearchPhotosHandler searchPhotosHandler;
     private final DeletePhotoHandler deletePhotoHandler;
     private final DownloadPhotoHandler downloadPhotoHandler;
+    private final GalleryVersionService galleryVersionService;
+    private final SuggestTagsHandler suggestTagsHandler;
+    private final GetLabelFacetsHandler getLabelFacetsHandler;
+    private final GeoSearchHandler geoSearchHandler;
+    private final GetTimelineHandler getTimelineHandler;
+    private final SearchPhotosByTextHandler searchPhotosByTextHandler;
 
     /**
      * GET /api/v1/photos
      * Get paginated list of photos for current user.
+     *
+     * Offset mode (default): {@code ?page=&size=}.
+     * Cursor mode: pass {@code cursor} (empty for the first page, then the returned
+     * {@code nextCursor}); the exact total is only computed with {@code includeTotal=true}.
      */
     @GetMapping(produces = MediaType.APPLICATION_JSON_VALUE)
     public Mono<ResponseEntity<PagedPhotosResponse>> getPhotos(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
             ServerWebExchange exchange) {
 
+        int pageIndex = Math.max(0, page);
+        int pageSize = boundedSize(size);
         return SecurityContextUtils.getCurrentUserId()
                 .flatMap(userId -> {
-                    log.debug("Get photos request from userId: {}, page: {}, size: {}", userId, page, size);
-                    return getPhotosHandler.getPhotos(userId, page, size);
-                })
-                .map(response -> {
-                    String etag = generateEtag(response);
-
-                    // Check if client has cached version
-                    if (checkEtagMatch(exchange, etag)) {
-                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
-                                .eTag(etag)
-                                .build();
-                    }
+                    String pageKey = cursor != null
+                            ? "cursor:" + cursor + ":" + pageSize + ":" + includeTotal
+                            : "page:" + pageIndex + ":" + pageSize;
 
-                    return ResponseEntity.ok()
-                            .eTag(etag)
-                            .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES))
-                            .body(response);
+                    // The ETag only depends on the gallery version, so a 304 skips all query work
+                    return galleryVersionService.galleryEtag(userId, pageKey)
+                            .flatMap(etag -> {
+                                if (checkEtagMatch(exchange, etag)) {
+                                    return Mono.just(GalleryController.<PagedPhotosResponse>notModified(etag));
+                                }
+
+                                Mono<PagedPhotosResponse> response;
+                                if (cursor != null) {
+                                    log.debug("Get photos request from userId: {}, cursor: {}, size: {}",
+                                            userId, cursor, pageSize);
+                                    response = getPhotosHandler.getPhotosByCursor(
+                                            userId, cursor.isEmpty() ? null : cursor, pageSize, includeTotal);
+                                } else {
+                                    log.debug("Get photos request from userId: {}, page: {}, size: {}",
+                                            userId, pageIndex, pageSize);
+                                    response = getPhotosHandler.getPhotos(userId, pageIndex, pageSize);
+                                }
+                                return response.map(body -> ResponseEntity.ok()
+                                        .eTag(etag)
+                                        .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES))
+                                        .body(body));
+                            });
                 });
     }
 
+    /**
+     * GET /api/v1/photos/stream
+     * Stream a page of photos as newline-delimited JSON, one item per line.
+     *
+     * Accepts the same {@code page}/{@code size}/{@code cursor} parameters as
+     * {@code GET /api/v1/photos}; each item carries the {@code cursor} to resume after it.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<PhotoListItemDto> streamPhotos(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor) {
+
+        return SecurityContextUtils.getCurrentUserId()
+                .flatMapMany(userId -> getPhotosHandler.streamPhotos(
+                        userId, cursor, Math.max(0, page), boundedSize(size)));
+    }
+
+    /**
+     * GET /api/v1/photos/stream (text/event-stream)
+     * Same stream as Server-Sent Events; the event id is the item's resume cursor.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<PhotoListItemDto>> streamPhotoEvents(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor) {
+
+        return SecurityContextUtils.getCurrentUserId()
+                .flatMapMany(userId -> getPhotosHandler.streamPhotos(
+                        userId, cursor, Math.max(0, page), boundedSize(size)))
+                .map(item -> ServerSentEvent.builder(item)
+                        .id(item.getCursor())
+                        .event("photo")
+                        .build());
+    }
+
     /**
      * GET /api/v1/photos/{photoId}
      * Get detailed photo information.
@@ -81,45 +152,164 @@ public class GalleryController {
         return SecurityContextUtils.getCurrentUserId()
                 .flatMap(userId -> {
                     log.debug("Get photo detail request for photoId: {}, userId: {}", photoId, userId);
-                    return getPhotoDetailHandler.getPhotoDetail(photoId, userId);
-                })
-                .map(response -> {
-                    String etag = generateEtag(response);
-
-                    // Check if client has cached version
-                    if (checkEtagMatch(exchange, etag)) {
-                        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
-                                .eTag(etag)
-                                .build();
-                    }
 
-                    return ResponseEntity.ok()
-                            .eTag(etag)
-                            .cacheControl(CacheControl.maxAge(10, TimeUnit.MINUTES))
-                            .body(response);
+                    // Unknown photos have no ETag; the handler then reports not found
+                    return galleryVersionService.photoEtag(photoId, userId)
+                            .map(Optional::of)
+                            .defaultIfEmpty(Optional.empty())
+                            .flatMap(etag -> {
+                                if (etag.isPresent() && checkEtagMatch(exchange, etag.get())) {
+                                    return Mono.just(GalleryController.<PhotoResponse>notModified(etag.get()));
+                                }
+
+                                return getPhotoDetailHandler.getPhotoDetail(photoId, userId)
+                                        .map(body -> {
+                                            ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                                                    .cacheControl(CacheControl.maxAge(10, TimeUnit.MINUTES));
+                                            etag.ifPresent(builder::eTag);
+                                            return builder.body(body);
+                                        });
+                            });
                 });
     }
 
     /**
      * GET /api/v1/photos/search
-     * Search photos by tags/labels.
+     * Search photos by tags/labels and/or by text ({@code q}) over file name and camera make/model.
+     *
+     * Offset mode (default): {@code ?page=&size=}. Cursor mode: pass {@code cursor}
+     * (empty for the first page, then the returned {@code nextCursor}); the total is
+     * only computed with {@code includeTotal=true}. With {@code sort=relevance}, pages
+     * are ranked by label confidence instead of recency.
      */
     @GetMapping(value = "/search", produces = MediaType.APPLICATION_JSON_VALUE)
     public Mono<ResponseEntity<PagedPhotosResponse>> searchPhotos(
-            @RequestParam String tags,
+            @RequestParam(required = false) String tags,
+            @RequestParam(required = false) String q,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "false") boolean includeTotal,
+            @RequestParam(defaultValue = "recent") String sort) {
 
+        int pageIndex = Math.max(0, page);
+        int pageSize = boundedSize(size);
         return SecurityContextUtils.getCurrentUserId()
                 .flatMap(userId -> {
-                    log.debug("Search photos request from userId: {}, tags: {}", userId, tags);
-                    return searchPhotosHandler.searchPhotosByTags(userId, tags, page, size);
+                    log.debug("Search photos request from userId: {}, tags: {}, q: {}", userId, tags, q);
+                    if (q != null && !q.isBlank()) {
+                        if (SORT_RELEVANCE.equalsIgnoreCase(sort)) {
+                            return Mono.error(new TagQuery.InvalidTagQueryException(
+                                    "sort=relevance cannot be combined with q"));
+                        }
+                        if (cursor != null) {
+                            return searchPhotosByTextHandler.searchPhotosByTextCursor(
+                                    userId, q, tags, cursor.isEmpty() ? null : cursor, pageSize, includeTotal);
+                        }
+                        return searchPhotosByTextHandler.searchPhotosByText(userId, q, tags, pageIndex, pageSize);
+                    }
+                    if (SORT_RELEVANCE.equalsIgnoreCase(sort)) {
+                        return searchPhotosHandler.searchPhotosByTagsRanked(userId, tags, pageIndex, pageSize);
+                    }
+                    if (cursor != null) {
+                        return searchPhotosHandler.searchPhotosByTagsCursor(
+                                userId, tags, cursor.isEmpty() ? null : cursor, pageSize, includeTotal);
+                    }
+                    return searchPhotosHandler.searchPhotosByTags(userId, tags, pageIndex, pageSize);
                 })
                 .map(response -> ResponseEntity.ok()
                         .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES))
                         .body(response));
     }
 
+    /**
+     * GET /api/v1/photos/tags/suggest
+     * Autocomplete tags: prefix completions, or fuzzy matches when nothing starts with {@code q}.
+     */
+    @GetMapping(value = "/tags/suggest", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<List<TagSuggestionDto>> suggestTags(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        return SecurityContextUtils.getCurrentUserId()
+                .flatMap(userId -> suggestTagsHandler.suggestTags(userId, q, limit));
+    }
+
+    /**
+     * GET /api/v1/photos/tags/facets
+     * Top tags with photo counts, optionally among the photos matching the {@code tags} filter.
+     */
+    @GetMapping(value = "/tags/facets", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<List<LabelFacetDto>> getTagFacets(
+            @RequestParam(required = false) String tags,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        return SecurityContextUtils.getCurrentUserId()
+                .flatMap(userId -> getLabelFacetsHandler.getFacets(userId, tags, limit));
+    }
+
+    /**
+     * GET /api/v1/photos/timeline
+     * Photo counts per year, month or day of capture time, for the timeline scrubber.
+     */
+    @GetMapping(value = "/timeline", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<TimelineResponse> getTimeline(
+            @RequestParam(defaultValue = "month") String granularity,
+            @RequestParam(defaultValue = "UTC") String timeZone) {
+
+        return SecurityContextUtils.getCurrentUserId()
+                .flatMap(userId -> getTimelineHandler.getTimeline(userId, granularity, timeZone));
+    }
+
+    /**
+     * GET /api/v1/photos/geo/bounds
+     * Geotagged photos inside a map viewport, newest first. {@code west > east} crosses the antimeridian.
+     */
+    @GetMapping(value = "/geo/bounds", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<List<PhotoListItemDto>> getPhotosInBounds(
+            @RequestParam double south,
+            @RequestParam double west,
+            @RequestParam double north,
+            @RequestParam double east,
+            @RequestParam(defaultValue = "200") int limit) {
+
+        return SecurityContextUtils.getCurrentUserId()
+                .flatMap(userId -> geoSearchHandler.findInBounds(
+                        userId, GeoBounds.of(south, west, north, east), limit));
+    }
+
+    /**
+     * GET /api/v1/photos/geo/nearby
+     * Geotagged photos within {@code radius} meters of a point, nearest first.
+     */
+    @GetMapping(value = "/geo/nearby", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<List<PhotoListItemDto>> getPhotosNearby(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(defaultValue = "1000") double radius,
+            @RequestParam(defaultValue = "200") int limit) {
+
+        return SecurityContextUtils.getCurrentUserId()
+                .flatMap(userId -> geoSearchHandler.findNearby(userId, lat, lon, radius, limit));
+    }
+
+    /**
+     * GET /api/v1/photos/geo/clusters
+     * Photo counts per grid cell of a map viewport at the given zoom level.
+     */
+    @GetMapping(value = "/geo/clusters", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<List<GeoClusterDto>> getPhotoClusters(
+            @RequestParam double south,
+            @RequestParam double west,
+            @RequestParam double north,
+            @RequestParam double east,
+            @RequestParam int zoom) {
+
+        return SecurityContextUtils.getCurrentUserId()
+                .flatMap(userId -> geoSearchHandler.findClusters(
+                        userId, GeoBounds.of(south, west, north, east), zoom));
+    }
+
     /**
      * DELETE /api/v1/photos/{photoId}
      * Delete a photo.
@@ -134,6 +324,19 @@ public class GalleryController {
                 });
     }
 
+    /**
+     * GET /api/v1/photos/{photoId}/download
+     * Get download URLs for the original and all versions, keyed by ORIGINAL or version type.
+     */
+    @GetMapping(value = "/{photoId}/download", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<Map<String, DownloadUrlResponse>> getAllDownloadUrls(@PathVariable UUID photoId) {
+        return SecurityContextUtils.getCurrentUserId()
+                .flatMap(userId -> {
+                    log.debug("Get all download URLs for photoId: {}, userId: {}", photoId, userId);
+                    return downloadPhotoHandler.getAllDownloadUrls(photoId, userId);
+                });
+    }
+
     /**
      * GET /api/v1/photos/{photoId}/download/original
      * Get download URL for original photo.
@@ -165,25 +368,23 @@ public class GalleryController {
     }
 
     /**
-     * Generate ETag for response.
+     * Page size clamped to 1..MAX_PAGE_SIZE; the cursor paths slice {@code size} rows off the result.
      */
-    private String generateEtag(Object response) {
-        try {
-            String content = response.toString();
-            MessageDigest digest = MessageDigest.getInstance("MD5");
-            byte[] hash = digest.digest(content.getBytes());
-            return "\"" + Base64.getEncoder().encodeToString(hash) + "\"";
-        } catch (NoSuchAlgorithmException e) {
-            log.warn("Failed to generate ETag", e);
-            return "\"" + UUID.randomUUID().toString() + "\"";
-        }
+    private static int boundedSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .build();
     }
 
     /**
-     * Check if client's ETag matches current resource.
+     * Check if any of the client's If-None-Match ETags matches the current resource.
      */
     private boolean checkEtagMatch(ServerWebExchange exchange, String etag) {
-        String ifNoneMatch = exchange.getRequest().getHeaders().getFirst("If-None-Match");
-        return ifNoneMatch != null && ifNoneMatch.equals(etag);
+        List<String> ifNoneMatch = exchange.getRequest().getHeaders().getIfNoneMatch();
+        return ifNoneMatch.contains(etag) || ifNoneMatch.contains("*");
     }
 }
@@ -2,7 +2,11 @@ package com.rapidphoto.features.gallery.api;
 
 import com.rapidphoto.features.gallery.application.DeletePhotoHandler;
 import com.rapidphoto.features.gallery.application.DownloadPhotoHandler;
+import com.rapidphoto.features.gallery.application.GeoBounds;
 import com.rapidphoto.features.gallery.application.GetPhotoDetailHandler;
+import com.rapidphoto.features.gallery.application.GetTimelineHandler;
+import com.rapidphoto.features.gallery.application.PhotoCursor;
+import com.rapidphoto.features.gallery.application.TagQuery;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -56,6 +60,71 @@ public class GalleryExceptionHandler {
         return Mono.just(ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse));
     }
 
+    /**
+     * Handle malformed pagination cursors.
+     */
+    @ExceptionHandler(PhotoCursor.InvalidCursorException.class)
+    public Mono<ResponseEntity<ErrorResponse>> handleInvalidCursor(PhotoCursor.InvalidCursorException ex) {
+        log.warn("Invalid cursor: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                ex.getMessage(),
+                Instant.now()
+        );
+
+        return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse));
+    }
+
+    /**
+     * Handle malformed boolean tag queries.
+     */
+    @ExceptionHandler(TagQuery.InvalidTagQueryException.class)
+    public Mono<ResponseEntity<ErrorResponse>> handleInvalidTagQuery(TagQuery.InvalidTagQueryException ex) {
+        log.warn("Invalid tag query: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                ex.getMessage(),
+                Instant.now()
+        );
+
+        return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse));
+    }
+
+    /**
+     * Handle out-of-range map coordinates.
+     */
+    @ExceptionHandler(GeoBounds.InvalidGeoQueryException.class)
+    public Mono<ResponseEntity<ErrorResponse>> handleInvalidGeoQuery(GeoBounds.InvalidGeoQueryException ex) {
+        log.warn("Invalid geo query: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                ex.getMessage(),
+                Instant.now()
+        );
+
+        return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse));
+    }
+
+    /**
+     * Handle unsupported timeline granularities and time zones.
+     */
+    @ExceptionHandler(GetTimelineHandler.InvalidTimelineQueryException.class)
+    public Mono<ResponseEntity<ErrorResponse>> handleInvalidTimelineQuery(
+            GetTimelineHandler.InvalidTimelineQueryException ex) {
+        log.warn("Invalid timeline query: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.BAD_REQUEST.value(),
+                ex.getMessage(),
+                Instant.now()
+        );
+
+        return Mono.just(ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse));
+    }
+
     /**
      * Error response structure.
      */
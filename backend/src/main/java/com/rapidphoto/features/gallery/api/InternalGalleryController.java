@@ -0,0 +1,53 @@
+package com.rapidphoto.features.gallery.api;
+
+import com.rapidphoto.features.gallery.api.dto.GalleryViewRebuildResponse;
+import com.rapidphoto.features.gallery.application.RebuildGalleryViewHandler;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Internal REST controller for gallery read-model maintenance.
+ * NOT exposed to external clients - secured by the same secret header as the Lambda callbacks.
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/internal/gallery-view")
+@RequiredArgsConstructor
+public class InternalGalleryController {
+
+    private final RebuildGalleryViewHandler rebuildGalleryViewHandler;
+
+    @Value("${lambda.secret:rapid-photo-lambda-secret-change-in-production}")
+    private String lambdaSecret;
+
+    /**
+     * POST /api/v1/internal/gallery-view/rebuild
+     * Re-project the gallery read model of one user ({@code userId}) or of everyone.
+     */
+    @PostMapping(value = "/rebuild", produces = MediaType.APPLICATION_JSON_VALUE)
+    public Mono<GalleryViewRebuildResponse> rebuild(
+            @RequestParam(required = false) UUID userId,
+            @RequestHeader(value = "X-Lambda-Secret", required = false) String providedSecret) {
+
+        if (providedSecret == null || !providedSecret.equals(lambdaSecret)) {
+            log.warn("Unauthorized gallery view rebuild attempt");
+            return Mono.error(new ResponseStatusException(HttpStatus.UNAUTHORIZED, "Invalid Lambda secret"));
+        }
+
+        Mono<Long> rows = userId != null
+                ? rebuildGalleryViewHandler.rebuildUser(userId)
+                : rebuildGalleryViewHandler.rebuildAll();
+        return rows.map(count -> GalleryViewRebuildResponse.builder()
+                .userId(userId)
+                .rows(count)
+                .build());
+    }
+}
@@ -0,0 +1,25 @@
+package com.rapidphoto.features.gallery.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * DTO for the result of a gallery read-model rebuild.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GalleryViewRebuildResponse {
+
+    /**
+     * The rebuilt user, or null for a full rebuild.
+     */
+    private UUID userId;
+
+    private long rows;
+}
@@ -0,0 +1,31 @@
+package com.rapidphoto.features.gallery.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for one map grid cell: how many photos it holds, where they are centered,
+ * and the cell's bounds (zoom in to these bounds to expand the cluster).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GeoClusterDto {
+
+    private long photoCount;
+
+    private double latitude;
+
+    private double longitude;
+
+    private double south;
+
+    private double west;
+
+    private double north;
+
+    private double east;
+}
@@ -0,0 +1,20 @@
+package com.rapidphoto.features.gallery.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a tag facet: a label and how many photos in the current filter carry it.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LabelFacetDto {
+
+    private String label;
+
+    private long photoCount;
+}
@@ -22,11 +22,19 @@ public class PagedPhotosResponse {
 
     private int size;
 
-    private long totalElements;
+    /**
+     * Exact total; null when the client did not request it in cursor mode.
+     */
+    private Long totalElements;
 
-    private int totalPages;
+    private Integer totalPages;
 
     private boolean hasNext;
 
     private boolean hasPrevious;
+
+    /**
+     * Opaque cursor for the next page (cursor mode only).
+     */
+    private String nextCursor;
 }
@@ -1,5 +1,6 @@
 package com.rapidphoto.features.gallery.api.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.rapidphoto.domain.PhotoStatus;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -38,4 +39,31 @@ public class PhotoListItemDto {
     private Instant createdAt;
 
     private Instant takenAt;
+
+    /**
+     * Position of the photo; only set on map (geo) responses.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double latitude;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double longitude;
+
+    /**
+     * Distance from the query center in meters; only set on radius search responses.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double distanceMeters;
+
+    /**
+     * Relevance score (mean confidence of the matched labels); only set on ranked search responses.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double score;
+
+    /**
+     * Cursor positioned after this item; only set on streamed responses so clients can resume.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String cursor;
 }
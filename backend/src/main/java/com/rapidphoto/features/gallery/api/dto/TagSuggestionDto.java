@@ -0,0 +1,25 @@
+package com.rapidphoto.features.gallery.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * DTO for a tag autocomplete suggestion.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TagSuggestionDto {
+
+    private String label;
+
+    private long photoCount;
+
+    /**
+     * True when suggested by fuzzy (trigram) matching rather than as a prefix completion.
+     */
+    private boolean fuzzy;
+}
@@ -0,0 +1,22 @@
+package com.rapidphoto.features.gallery.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * DTO for one timeline bucket: the photos captured from {@code start} until the next bucket.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimelineBucketDto {
+
+    private Instant start;
+
+    private long photoCount;
+}
@@ -0,0 +1,29 @@
+package com.rapidphoto.features.gallery.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Timeline histogram of a library: non-empty buckets by capture time, newest first.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimelineResponse {
+
+    /**
+     * YEAR, MONTH or DAY.
+     */
+    private String granularity;
+
+    private String timeZone;
+
+    private long totalCount;
+
+    private List<TimelineBucketDto> buckets;
+}
@@ -0,0 +1,194 @@
+package com.rapidphoto.features.gallery.application;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+import reactor.core.scheduler.Scheduler;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Coalesces single-key lookups from concurrent requests into batch queries.
+ *
+ * When the loader is idle, a key is loaded right away. While a batch is in flight,
+ * keys requested within a short window (or until the batch is full) are loaded with
+ * one call to the batch function, and each caller receives the value for its key.
+ * Callers asking for the same key in the same window share the lookup.
+ *
+ * The batch function runs with the subscriber context of the first caller in the
+ * batch (tracing, security). It is shared by the other callers, so loaders must not
+ * be used for reads that have to see the caller's transaction.
+ *
+ * @param <K> key type
+ * @param <V> value type; keys without a value complete empty
+ */
+@Slf4j
+public class BatchLoader<K, V> {
+
+    private final String name;
+    private final Function<Set<K>, Mono<Map<K, V>>> batchFunction;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Scheduler scheduler;
+    private final DistributionSummary batchSizes;
+
+    private Map<K, List<MonoSink<V>>> pending = new LinkedHashMap<>();
+    private Disposable scheduledDispatch;
+    private int inFlight;
+
+    /**
+     * @param batchFunction loads the values of many keys at once
+     * @param window        how long the first key of a batch waits for more keys while another batch is in flight
+     * @param maxBatchSize  distinct keys after which a batch is dispatched immediately
+     */
+    public BatchLoader(String name,
+                       Function<Set<K>, Mono<Map<K, V>>> batchFunction,
+                       Duration window,
+                       int maxBatchSize,
+                       Scheduler scheduler,
+                       MeterRegistry meterRegistry) {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        this.name = name;
+        this.batchFunction = batchFunction;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = maxBatchSize;
+        this.scheduler = scheduler;
+        this.batchSizes = DistributionSummary.builder("gallery.batch.size")
+                .description("Distinct keys per coalesced batch query")
+                .tag("loader", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Loader for one value per key, e.g. rows by primary key.
+     */
+    public static <K, V> BatchLoader<K, V> mapping(String name,
+                                                   Function<Set<K>, Flux<V>> batchQuery,
+                                                   Function<V, K> keyExtractor,
+                                                   Duration window,
+                                                   int maxBatchSize,
+                                                   Scheduler scheduler,
+                                                   MeterRegistry meterRegistry) {
+        return new BatchLoader<>(name,
+                keys -> batchQuery.apply(keys).collectMap(keyExtractor),
+                window, maxBatchSize, scheduler, meterRegistry);
+    }
+
+    /**
+     * Loader for all values per key, e.g. child rows by parent ID.
+     * Keys without values complete with an empty list.
+     */
+    public static <K, V> BatchLoader<K, List<V>> grouping(String name,
+                                                          Function<Set<K>, Flux<V>> batchQuery,
+                                                          Function<V, K> keyExtractor,
+                                                          Duration window,
+                                                          int maxBatchSize,
+                                                          Scheduler scheduler,
+                                                          MeterRegistry meterRegistry) {
+        return new BatchLoader<>(name,
+                keys -> batchQuery.apply(keys)
+                        .collectMultimap(keyExtractor)
+                        .map(grouped -> {
+                            Map<K, List<V>> values = new HashMap<>(Math.max(16, keys.size() * 4 / 3 + 1));
+                            keys.forEach(key -> values.put(key, grouped.containsKey(key)
+                                    ? List.copyOf(grouped.get(key))
+                                    : List.of()));
+                            return values;
+                        }),
+                window, maxBatchSize, scheduler, meterRegistry);
+    }
+
+    /**
+     * Load the value of a key as part of the next batch.
+     */
+    public Mono<V> load(K key) {
+        return Mono.create(sink -> enqueue(key, sink));
+    }
+
+    private void enqueue(K key, MonoSink<V> sink) {
+        Map<K, List<MonoSink<V>>> batch = null;
+        synchronized (this) {
+            pending.computeIfAbsent(key, k -> new ArrayList<>(1)).add(sink);
+            if (pending.size() >= maxBatchSize || inFlight == 0) {
+                batch = takePending();
+            } else if (scheduledDispatch == null) {
+                scheduledDispatch = scheduler.schedule(this::dispatchPending, windowNanos, TimeUnit.NANOSECONDS);
+            }
+        }
+        if (batch != null) {
+            dispatch(batch);
+        }
+    }
+
+    private void dispatchPending() {
+        Map<K, List<MonoSink<V>>> batch;
+        synchronized (this) {
+            // This task is the scheduled dispatch; do not cancel it while it runs
+            scheduledDispatch = null;
+            batch = takePending();
+        }
+        if (!batch.isEmpty()) {
+            dispatch(batch);
+        }
+    }
+
+    /**
+     * Detach the pending batch and count it as in flight; callers must hold the lock.
+     */
+    private Map<K, List<MonoSink<V>>> takePending() {
+        Map<K, List<MonoSink<V>>> batch = pending;
+        pending = new LinkedHashMap<>();
+        if (!batch.isEmpty()) {
+            inFlight++;
+        }
+        if (scheduledDispatch != null) {
+            scheduledDispatch.dispose();
+            scheduledDispatch = null;
+        }
+        return batch;
+    }
+
+    private void dispatch(Map<K, List<MonoSink<V>>> batch) {
+        batchSizes.record(batch.size());
+        log.debug("Dispatching {} batch of {} keys", name, batch.size());
+
+        MonoSink<V> first = batch.values().iterator().next().get(0);
+        Mono.defer(() -> batchFunction.apply(batch.keySet()))
+                .defaultIfEmpty(Map.of())
+                .contextWrite(first.contextView())
+                .doFinally(signal -> completed())
+                .subscribe(
+                        values -> batch.forEach((key, sinks) -> {
+                            V value = values.get(key);
+                            sinks.forEach(sink -> {
+                                if (value != null) {
+                                    sink.success(value);
+                                } else {
+                                    sink.success();
+                                }
+                            });
+                        }),
+                        error -> {
+                            log.warn("{} batch of {} keys failed", name, batch.size(), error);
+                            batch.values().forEach(sinks -> sinks.forEach(sink -> sink.error(error)));
+                        });
+    }
+
+    private synchronized void completed() {
+        inFlight--;
+    }
+}
@@ -1,12 +1,19 @@
 package com.rapidphoto.features.gallery.application;
 
+import com.rapidphoto.domain.event.PhotoLibraryChangedEvent;
+import com.rapidphoto.repository.PhotoGalleryViewRepository;
 import com.rapidphoto.repository.PhotoLabelRepository;
 import com.rapidphoto.repository.PhotoRepository;
 import com.rapidphoto.repository.PhotoVersionRepository;
+import com.rapidphoto.repository.UserLabelCountRepository;
 import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.NoTransactionException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalEventPublisher;
 import reactor.core.publisher.Mono;
 
 import java.util.UUID;
@@ -22,26 +29,46 @@ public class DeletePhotoHandler {
     private final PhotoRepository photoRepository;
     private final PhotoVersionRepository photoVersionRepository;
     private final PhotoLabelRepository photoLabelRepository;
+    private final UserLabelCountRepository userLabelCountRepository;
+    private final PhotoGalleryViewRepository photoGalleryViewRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     /**
      * Delete a photo and all its related data.
      */
     @Observed(name = "gallery.delete.photo")
+    @Transactional
     public Mono<Void> deletePhoto(UUID photoId, UUID userId) {
         log.info("Deleting photo: {}, userId: {}", photoId, userId);
 
         return photoRepository.findByIdAndUserId(photoId, userId)
                 .switchIfEmpty(Mono.error(new PhotoNotFoundException("Photo not found: " + photoId)))
                 .flatMap(photo -> {
-                    // Delete related data first (cascade should handle this, but explicit for clarity)
-                    return photoVersionRepository.deleteByPhotoId(photoId)
+                    // Label counts are decremented from the photo's labels, so before they are deleted
+                    return userLabelCountRepository.decrementLabelsForPhoto(userId, photoId)
+                            .then(userLabelCountRepository.deleteEmptyByUserId(userId))
+                            .then(photoGalleryViewRepository.deleteByPhotoId(photoId))
+                            // Delete related data first (cascade should handle this, but explicit for clarity)
+                            .then(photoVersionRepository.deleteByPhotoId(photoId))
                             .then(photoLabelRepository.deleteByPhotoId(photoId))
-                            .then(photoRepository.delete(photo));
+                            .then(photoRepository.delete(photo))
+                            .then(publishDeleted(userId, photoId));
                 })
                 .doOnSuccess(v -> log.info("Successfully deleted photo: {}", photoId))
                 .doOnError(error -> log.error("Failed to delete photo: {}", photoId, error));
     }
 
+    /**
+     * Publish the library change so it is delivered after the transaction commits.
+     */
+    private Mono<Void> publishDeleted(UUID userId, UUID photoId) {
+        PhotoLibraryChangedEvent event = new PhotoLibraryChangedEvent(
+                userId, photoId, PhotoLibraryChangedEvent.ChangeType.DELETED);
+        return new TransactionalEventPublisher(applicationEventPublisher).publishEvent(event)
+                .onErrorResume(NoTransactionException.class,
+                        e -> Mono.fromRunnable(() -> applicationEventPublisher.publishEvent(event)));
+    }
+
     /**
      * Exception thrown when photo is not found or user is not authorized.
      */
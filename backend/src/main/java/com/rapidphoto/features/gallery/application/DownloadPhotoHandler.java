@@ -4,14 +4,16 @@ import com.rapidphoto.domain.Photo;
 import com.rapidphoto.domain.PhotoVersion;
 import com.rapidphoto.domain.PhotoVersionType;
 import com.rapidphoto.features.gallery.api.dto.DownloadUrlResponse;
-import com.rapidphoto.repository.PhotoRepository;
-import com.rapidphoto.repository.PhotoVersionRepository;
 import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -22,11 +24,12 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class DownloadPhotoHandler {
 
-    private final PhotoRepository photoRepository;
-    private final PhotoVersionRepository photoVersionRepository;
+    private final GalleryBatchLoaders batchLoaders;
     private final S3DownloadUrlService s3DownloadUrlService;
     private final PhotoReadModelMapper mapper;
 
+    private static final String ORIGINAL = "ORIGINAL";
+
     /**
      * Generate download URL for original photo.
      */
@@ -34,7 +37,7 @@ public class DownloadPhotoHandler {
     public Mono<DownloadUrlResponse> getOriginalDownloadUrl(UUID photoId, UUID userId) {
         log.debug("Generating original download URL for photoId: {}, userId: {}", photoId, userId);
 
-        return photoRepository.findByIdAndUserId(photoId, userId)
+        return batchLoaders.photo(photoId, userId)
                 .switchIfEmpty(Mono.error(new PhotoNotFoundException("Photo not found: " + photoId)))
                 .flatMap(photo -> s3DownloadUrlService.generatePresignedGetUrl(photo.getOriginalS3Key())
                         .map(result -> mapper.toDownloadUrlResponse(
@@ -54,9 +57,12 @@ public class DownloadPhotoHandler {
         log.debug("Generating {} download URL for photoId: {}, userId: {}",
                 versionType, photoId, userId);
 
-        return photoRepository.findByIdAndUserId(photoId, userId)
+        return batchLoaders.photo(photoId, userId)
                 .switchIfEmpty(Mono.error(new PhotoNotFoundException("Photo not found: " + photoId)))
-                .flatMap(photo -> photoVersionRepository.findByPhotoIdAndVersionType(photoId, versionType)
+                .flatMap(photo -> batchLoaders.versions(photoId)
+                        .flatMap(versions -> Mono.justOrEmpty(versions.stream()
+                                .filter(version -> version.getVersionType() == versionType)
+                                .findFirst()))
                         .switchIfEmpty(Mono.error(new VersionNotFoundException(
                                 "Version " + versionType + " not found for photo: " + photoId)))
                         .flatMap(version -> s3DownloadUrlService.generatePresignedGetUrl(version.getS3Key())
@@ -68,6 +74,43 @@ public class DownloadPhotoHandler {
                         versionType, photoId));
     }
 
+    /**
+     * Generate download URLs for the original and every available version in one batch.
+     *
+     * @return responses keyed by {@code ORIGINAL} or the version type name
+     */
+    @Observed(name = "gallery.download.all")
+    public Mono<Map<String, DownloadUrlResponse>> getAllDownloadUrls(UUID photoId, UUID userId) {
+        log.debug("Generating all download URLs for photoId: {}, userId: {}", photoId, userId);
+
+        return batchLoaders.photo(photoId, userId)
+                .switchIfEmpty(Mono.error(new PhotoNotFoundException("Photo not found: " + photoId)))
+                .flatMap(photo -> batchLoaders.versions(photoId)
+                        .flatMap(versions -> {
+                            List<String> s3Keys = new ArrayList<>(versions.size() + 1);
+                            s3Keys.add(photo.getOriginalS3Key());
+                            versions.forEach(version -> s3Keys.add(version.getS3Key()));
+
+                            return s3DownloadUrlService.presignAll(s3Keys)
+                                    .map(urls -> {
+                                        Map<String, DownloadUrlResponse> responses = new LinkedHashMap<>();
+                                        responses.put(ORIGINAL, mapper.toDownloadUrlResponse(
+                                                urls.get(photo.getOriginalS3Key()),
+                                                photo.getFileName(),
+                                                photo.getFileSize()));
+                                        versions.forEach(version -> responses.put(
+                                                version.getVersionType().name(),
+                                                mapper.toDownloadUrlResponse(
+                                                        urls.get(version.getS3Key()),
+                                                        generateVersionFileName(photo.getFileName(), version),
+                                                        version.getFileSize())));
+                                        return responses;
+                                    });
+                        }))
+                .doOnSuccess(responses -> log.info("Generated {} download URLs for photoId: {}",
+                        responses.size(), photoId));
+    }
+
     private String generateVersionFileName(String originalFileName, PhotoVersion version) {
         String nameWithoutExtension = originalFileName.contains(".")
                 ? originalFileName.substring(0, originalFileName.lastIndexOf('.'))
@@ -0,0 +1,71 @@
+package com.rapidphoto.features.gallery.application;
+
+import com.rapidphoto.domain.Photo;
+import com.rapidphoto.domain.PhotoLabel;
+import com.rapidphoto.domain.PhotoVersion;
+import com.rapidphoto.repository.PhotoLabelRepository;
+import com.rapidphoto.repository.PhotoRepository;
+import com.rapidphoto.repository.PhotoVersionRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Shared batch loaders for per-photo lookups in the gallery handlers.
+ *
+ * Concurrent detail and download requests for the same or different photos are
+ * served by one {@code = ANY(:ids)} query per table and window instead of one
+ * query per request.
+ */
+@Component
+public class GalleryBatchLoaders {
+
+    private final BatchLoader<UUID, Photo> photos;
+    private final BatchLoader<UUID, List<PhotoVersion>> versions;
+    private final BatchLoader<UUID, List<PhotoLabel>> labels;
+
+    public GalleryBatchLoaders(PhotoRepository photoRepository,
+                               PhotoVersionRepository photoVersionRepository,
+                               PhotoLabelRepository photoLabelRepository,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.gallery.batch.window:2ms}") Duration window,
+                               @Value("${app.gallery.batch.max-size:100}") int maxBatchSize) {
+        this.photos = BatchLoader.mapping("photos",
+                ids -> photoRepository.findByIdIn(ids.toArray(UUID[]::new)),
+                Photo::getId, window, maxBatchSize, Schedulers.parallel(), meterRegistry);
+        this.versions = BatchLoader.grouping("photoVersions",
+                ids -> photoVersionRepository.findByPhotoIdIn(ids.toArray(UUID[]::new)),
+                PhotoVersion::getPhotoId, window, maxBatchSize, Schedulers.parallel(), meterRegistry);
+        this.labels = BatchLoader.grouping("photoLabels",
+                ids -> photoLabelRepository.findByPhotoIdIn(ids.toArray(UUID[]::new)),
+                PhotoLabel::getPhotoId, window, maxBatchSize, Schedulers.parallel(), meterRegistry);
+    }
+
+    /**
+     * Photo owned by the user; empty if it does not exist or belongs to someone else.
+     */
+    public Mono<Photo> photo(UUID photoId, UUID userId) {
+        return photos.load(photoId)
+                .filter(photo -> userId.equals(photo.getUserId()));
+    }
+
+    /**
+     * All versions of a photo (empty list if none).
+     */
+    public Mono<List<PhotoVersion>> versions(UUID photoId) {
+        return versions.load(photoId);
+    }
+
+    /**
+     * All labels of a photo (empty list if none).
+     */
+    public Mono<List<PhotoLabel>> labels(UUID photoId) {
+        return labels.load(photoId);
+    }
+}
@@ -0,0 +1,154 @@
+package com.rapidphoto.features.gallery.application;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rapidphoto.domain.event.PhotoLibraryChangedEvent;
+import com.rapidphoto.features.gallery.api.dto.PagedPhotosResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Per-user cache of the first gallery pages returned by GetPhotosHandler.
+ *
+ * Entries are grouped per user so a {@link PhotoLibraryChangedEvent} drops exactly
+ * that user's pages. A load that started before an invalidation writes into the
+ * detached page map and is never served. The TTL stays well below the presigned URL
+ * signing bucket so cached responses never hand out nearly expired URLs.
+ *
+ * Pages are tagged with the gallery version they were loaded at. Changes made through
+ * other nodes are not seen as events here, but they bump the version, so once the
+ * version cache expires the old pages miss and the body always matches the ETag.
+ */
+@Slf4j
+@Component
+public class GalleryPageCache {
+
+    private final GalleryVersionService galleryVersionService;
+    private final Cache<UUID, VersionedPages> pagesByUser;
+    private final int maxCachedPages;
+    private final int maxPagesPerUser;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter invalidationCounter;
+
+    public GalleryPageCache(GalleryVersionService galleryVersionService,
+                            MeterRegistry meterRegistry,
+                            @Value("${app.gallery.page-cache.pages:3}") int maxCachedPages,
+                            @Value("${app.gallery.page-cache.max-pages-per-user:16}") int maxPagesPerUser,
+                            @Value("${app.gallery.page-cache.ttl:60s}") Duration ttl,
+                            @Value("${app.gallery.page-cache.max-users:10000}") long maxUsers) {
+        this.galleryVersionService = galleryVersionService;
+        this.maxCachedPages = maxCachedPages;
+        this.maxPagesPerUser = maxPagesPerUser;
+        this.pagesByUser = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxUsers)
+                .build();
+
+        this.hitCounter = Counter.builder("gallery.page.cache")
+                .description("Gallery page cache lookups")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.missCounter = Counter.builder("gallery.page.cache")
+                .description("Gallery page cache lookups")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.invalidationCounter = Counter.builder("gallery.page.cache.invalidations")
+                .description("Number of per-user gallery page cache invalidations")
+                .register(meterRegistry);
+        Gauge.builder("gallery.page.cache.hit.ratio", this, GalleryPageCache::hitRatio)
+                .description("Fraction of gallery page lookups served from cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Whether the offset page is among the first N pages that are cached.
+     */
+    public boolean isCacheable(int page) {
+        return page >= 0 && page < maxCachedPages;
+    }
+
+    /**
+     * Return the cached page for the user's current gallery version or load (and cache) it.
+     *
+     * @param pageKey identifies the page shape within the user (mode, page, size)
+     */
+    public Mono<PagedPhotosResponse> getOrLoad(UUID userId,
+                                               String pageKey,
+                                               Supplier<Mono<PagedPhotosResponse>> loader) {
+        return galleryVersionService.currentVersion(userId)
+                .defaultIfEmpty(0L)
+                .flatMap(version -> {
+                    VersionedPages pages = pagesFor(userId, version);
+                    PagedPhotosResponse cached = pages.version() == version ? pages.pages().get(pageKey) : null;
+                    if (cached != null) {
+                        hitCounter.increment();
+                        return Mono.just(cached);
+                    }
+
+                    missCounter.increment();
+                    return loader.get().doOnNext(response -> {
+                        // Never cache into a newer version's map, and cap the page shapes per user
+                        if (pages.version() == version
+                                && (pages.pages().containsKey(pageKey) || pages.pages().size() < maxPagesPerUser)) {
+                            pages.pages().put(pageKey, response);
+                        }
+                    });
+                });
+    }
+
+    /**
+     * Page map of the user, replaced by an empty one when the gallery version moved on.
+     */
+    private VersionedPages pagesFor(UUID userId, long version) {
+        VersionedPages pages = pagesByUser.getIfPresent(userId);
+        if (pages != null && pages.version() >= version) {
+            return pages;
+        }
+        return pagesByUser.asMap().compute(userId, (id, current) ->
+                current != null && current.version() >= version
+                        ? current
+                        : new VersionedPages(version, new ConcurrentHashMap<>()));
+    }
+
+    /**
+     * Drop all cached pages of the user whose library changed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPhotoLibraryChanged(PhotoLibraryChangedEvent event) {
+        invalidate(event.userId());
+    }
+
+    public void invalidate(UUID userId) {
+        if (pagesByUser.asMap().remove(userId) != null) {
+            invalidationCounter.increment();
+            log.debug("Invalidated gallery page cache for userId: {}", userId);
+        }
+    }
+
+    public void invalidateAll() {
+        pagesByUser.invalidateAll();
+        log.debug("Invalidated gallery page cache for all users");
+    }
+
+    private double hitRatio() {
+        double hits = hitCounter.count();
+        double total = hits + missCounter.count();
+        return total == 0 ? 0 : hits / total;
+    }
+
+    private record VersionedPages(long version, Map<String, PagedPhotosResponse> pages) {
+    }
+}
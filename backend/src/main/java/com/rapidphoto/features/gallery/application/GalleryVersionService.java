@@ -0,0 +1,107 @@
+package com.rapidphoto.features.gallery.application;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rapidphoto.domain.event.PhotoLibraryChangedEvent;
+import com.rapidphoto.repository.PhotoRepository;
+import com.rapidphoto.repository.UserPhotoStatsRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Derives gallery ETags from version numbers instead of response bodies.
+ *
+ * Each user has a gallery version that a database trigger bumps on every photo
+ * change; photo details are versioned by {@code photos.updated_at}. ETags combine
+ * these with the request shape and the current URL signing window, so a matching
+ * If-None-Match can be answered before any query or presigning work.
+ *
+ * Gallery versions are cached per node and dropped on local
+ * {@link PhotoLibraryChangedEvent}s; changes made through other nodes become
+ * visible once the short TTL expires.
+ */
+@Slf4j
+@Service
+public class GalleryVersionService {
+
+    private final UserPhotoStatsRepository userPhotoStatsRepository;
+    private final PhotoRepository photoRepository;
+    private final S3DownloadUrlService s3DownloadUrlService;
+    private final AsyncCache<UUID, Long> versionsByUser;
+
+    public GalleryVersionService(UserPhotoStatsRepository userPhotoStatsRepository,
+                                 PhotoRepository photoRepository,
+                                 S3DownloadUrlService s3DownloadUrlService,
+                                 @Value("${app.gallery.version-cache.ttl:30s}") Duration ttl,
+                                 @Value("${app.gallery.version-cache.max-users:100000}") long maxUsers) {
+        this.userPhotoStatsRepository = userPhotoStatsRepository;
+        this.photoRepository = photoRepository;
+        this.s3DownloadUrlService = s3DownloadUrlService;
+        this.versionsByUser = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxUsers)
+                .buildAsync();
+    }
+
+    /**
+     * Current gallery version of the user.
+     */
+    public Mono<Long> currentVersion(UUID userId) {
+        return Mono.fromFuture(() -> versionsByUser.get(userId,
+                (id, executor) -> userPhotoStatsRepository.findGalleryVersionByUserId(id).toFuture()));
+    }
+
+    /**
+     * ETag for a gallery list page of the user.
+     *
+     * @param pageKey identifies the page shape (mode, page or cursor, size, options)
+     */
+    public Mono<String> galleryEtag(UUID userId, String pageKey) {
+        return currentVersion(userId)
+                .map(version -> etag("gallery", userId.toString(), Long.toString(version), pageKey,
+                        Long.toString(s3DownloadUrlService.currentSigningWindow())));
+    }
+
+    /**
+     * ETag for a photo detail; empty if the photo does not exist or belongs to another user.
+     */
+    public Mono<String> photoEtag(UUID photoId, UUID userId) {
+        return photoRepository.findUpdatedAtByIdAndUserId(photoId, userId)
+                .map(updatedAt -> etag("photo", photoId.toString(), updatedAt.toString(),
+                        Long.toString(s3DownloadUrlService.currentSigningWindow())));
+    }
+
+    /**
+     * Drop the cached version of the user whose library changed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPhotoLibraryChanged(PhotoLibraryChangedEvent event) {
+        versionsByUser.synchronous().invalidate(event.userId());
+        log.debug("Invalidated gallery version for userId: {}", event.userId());
+    }
+
+    private static String etag(String... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String part : parts) {
+                digest.update(part.getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            byte[] hash = Arrays.copyOf(digest.digest(), 16);
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.rapidphoto.features.gallery.application;
+
+/**
+ * Latitude/longitude bounding box in degrees.
+ * A box with {@code west > east} crosses the antimeridian.
+ */
+public record GeoBounds(double south, double west, double north, double east) {
+
+    static final double EARTH_RADIUS_METERS = 6_371_008.8;
+    static final double MAX_RADIUS_METERS = Math.PI * EARTH_RADIUS_METERS;
+
+    /**
+     * Validated bounding box as sent by a map viewport.
+     *
+     * @throws InvalidGeoQueryException if a coordinate is out of range or south is above north
+     */
+    public static GeoBounds of(double south, double west, double north, double east) {
+        requireLatitude(south);
+        requireLatitude(north);
+        requireLongitude(west);
+        requireLongitude(east);
+        if (south > north) {
+            throw new InvalidGeoQueryException("south must not be greater than north");
+        }
+        return new GeoBounds(south, west, north, east);
+    }
+
+    /**
+     * Smallest box containing the circle around a point, for narrowing a radius query.
+     * Circles reaching a pole or spanning all longitudes get the full longitude range.
+     *
+     * @throws InvalidGeoQueryException if the center is out of range or the radius is not positive
+     */
+    public static GeoBounds around(double latitude, double longitude, double radiusMeters) {
+        requireLatitude(latitude);
+        requireLongitude(longitude);
+        if (!(radiusMeters > 0) || radiusMeters > MAX_RADIUS_METERS) {
+            throw new InvalidGeoQueryException(
+                    "radius must be between 0 and " + (long) MAX_RADIUS_METERS + " meters");
+        }
+
+        double angularRadius = radiusMeters / EARTH_RADIUS_METERS;
+        double south = latitude - Math.toDegrees(angularRadius);
+        double north = latitude + Math.toDegrees(angularRadius);
+        if (south <= -90 || north >= 90) {
+            return new GeoBounds(Math.max(south, -90), -180, Math.min(north, 90), 180);
+        }
+
+        double sinLongitudeSpan = Math.sin(angularRadius) / Math.cos(Math.toRadians(latitude));
+        if (sinLongitudeSpan >= 1) {
+            return new GeoBounds(south, -180, north, 180);
+        }
+        double longitudeSpan = Math.toDegrees(Math.asin(sinLongitudeSpan));
+        return new GeoBounds(south, wrapLongitude(longitude - longitudeSpan), north,
+                wrapLongitude(longitude + longitudeSpan));
+    }
+
+    private static double wrapLongitude(double longitude) {
+        if (longitude < -180) {
+            return longitude + 360;
+        }
+        if (longitude > 180) {
+            return longitude - 360;
+        }
+        return longitude;
+    }
+
+    private static void requireLatitude(double latitude) {
+        if (!(latitude >= -90 && latitude <= 90)) {
+            throw new InvalidGeoQueryException("Latitude must be between -90 and 90: " + latitude);
+        }
+    }
+
+    private static void requireLongitude(double longitude) {
+        if (!(longitude >= -180 && longitude <= 180)) {
+            throw new InvalidGeoQueryException("Longitude must be between -180 and 180: " + longitude);
+        }
+    }
+
+    /**
+     * Exception thrown for out-of-range coordinates or radii.
+     */
+    public static class InvalidGeoQueryException extends RuntimeException {
+        public InvalidGeoQueryException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.rapidphoto.features.gallery.application;
+
+import com.rapidphoto.features.gallery.api.dto.GeoClusterDto;
+import com.rapidphoto.features.gallery.api.dto.PhotoListItemDto;
+import com.rapidphoto.repository.PhotoReadModelRepository;
+import com.rapidphoto.repository.projection.GeoCellRow;
+import com.rapidphoto.repository.projection.PhotoGeoRow;
+import com.rapidphoto.repository.projection.PhotoListRow;
+import io.micrometer.observation.annotation.Observed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Query handler for the map view.
+ *
+ * Bounding-box and radius searches return a bounded number of photos through the
+ * spatial index; anything denser is meant to be shown as clusters, which are
+ * counted per grid cell in Postgres so raw points never leave the database.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GeoSearchHandler {
+
+    private static final int MAX_LIMIT = 1000;
+    private static final int MAX_ZOOM = 22;
+    private static final int MAX_CLUSTERS = 2000;
+
+    /**
+     * Grid cells per map tile edge (a 256px tile gets 64px cells).
+     */
+    private static final int CELLS_PER_TILE_SHIFT = 2;
+
+    private final PhotoReadModelRepository photoReadModelRepository;
+    private final PhotoReadModelMapper mapper;
+
+    /**
+     * Geotagged photos inside the box, newest first.
+     */
+    @Observed(name = "gallery.query.geo-bounds")
+    public Mono<List<PhotoListItemDto>> findInBounds(UUID userId, GeoBounds bounds, int limit) {
+        log.debug("Geo bounds search for userId: {}, bounds: {}", userId, bounds);
+        return photoReadModelRepository.findGeoRowsInBounds(userId, bounds.south(), bounds.west(),
+                        bounds.north(), bounds.east(), boundedLimit(limit))
+                .collectList()
+                .flatMap(this::toPhotoListItems);
+    }
+
+    /**
+     * Geotagged photos within the radius of a point, nearest first.
+     */
+    @Observed(name = "gallery.query.geo-nearby")
+    public Mono<List<PhotoListItemDto>> findNearby(UUID userId, double latitude, double longitude,
+                                                   double radiusMeters, int limit) {
+        return Mono.fromCallable(() -> GeoBounds.around(latitude, longitude, radiusMeters))
+                .doOnNext(bounds -> log.debug("Geo nearby search for userId: {}, center: {},{}, radius: {}m",
+                        userId, latitude, longitude, radiusMeters))
+                .flatMap(bounds -> photoReadModelRepository.findGeoRowsNearby(userId, latitude, longitude,
+                                radiusMeters, bounds.south(), bounds.west(), bounds.north(), bounds.east(),
+                                boundedLimit(limit))
+                        .collectList())
+                .flatMap(this::toPhotoListItems);
+    }
+
+    /**
+     * Photo counts per grid cell inside the box, sized for the map zoom level.
+     */
+    @Observed(name = "gallery.query.geo-clusters")
+    public Mono<List<GeoClusterDto>> findClusters(UUID userId, GeoBounds bounds, int zoom) {
+        int boundedZoom = Math.max(0, Math.min(zoom, MAX_ZOOM));
+        double cellDegrees = 360.0 / (1L << (boundedZoom + CELLS_PER_TILE_SHIFT));
+        log.debug("Geo clusters for userId: {}, bounds: {}, zoom: {}", userId, bounds, boundedZoom);
+
+        return photoReadModelRepository.findGeoCells(userId, bounds.south(), bounds.west(),
+                        bounds.north(), bounds.east(), cellDegrees, MAX_CLUSTERS)
+                .map(row -> toCluster(row, cellDegrees))
+                .collectList();
+    }
+
+    private Mono<List<PhotoListItemDto>> toPhotoListItems(List<PhotoGeoRow> geoRows) {
+        if (geoRows.isEmpty()) {
+            return Mono.just(List.of());
+        }
+
+        return photoReadModelRepository.findByIds(geoRows.stream().map(PhotoGeoRow::id).toArray(UUID[]::new))
+                .collectMap(PhotoListRow::id)
+                .flatMap(rowsById -> {
+                    // Keep the geo query's order; skip photos deleted in between
+                    List<PhotoListRow> rows = geoRows.stream()
+                            .map(geoRow -> rowsById.get(geoRow.id()))
+                            .filter(Objects::nonNull)
+                            .toList();
+                    Map<UUID, PhotoGeoRow> geoRowsById = geoRows.stream()
+                            .collect(Collectors.toMap(PhotoGeoRow::id, Function.identity()));
+
+                    return mapper.toPhotoListItems(rows)
+                            .map(items -> {
+                                items.forEach(item -> {
+                                    PhotoGeoRow geoRow = geoRowsById.get(item.getId());
+                                    item.setLatitude(geoRow.latitude());
+                                    item.setLongitude(geoRow.longitude());
+                                    item.setDistanceMeters(geoRow.distanceMeters());
+                                });
+                                return items;
+                            });
+                });
+    }
+
+    private GeoClusterDto toCluster(GeoCellRow row, double cellDegrees) {
+        return GeoClusterDto.builder()
+                .photoCount(row.photoCount())
+                .latitude(row.latitude())
+                .longitude(row.longitude())
+                .south(Math.max(-90, row.cellRow() * cellDegrees))
+                .north(Math.min(90, (row.cellRow() + 1) * cellDegrees))
+                .west(Math.max(-180, row.cellColumn() * cellDegrees))
+                .east(Math.min(180, (row.cellColumn() + 1) * cellDegrees))
+                .build();
+    }
+
+    private int boundedLimit(int limit) {
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
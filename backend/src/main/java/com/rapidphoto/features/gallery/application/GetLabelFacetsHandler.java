@@ -0,0 +1,59 @@
+package com.rapidphoto.features.gallery.application;
+
+import com.rapidphoto.features.gallery.api.dto.LabelFacetDto;
+import com.rapidphoto.repository.UserLabelCountRepository;
+import io.micrometer.observation.annotation.Observed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Query handler for tag facets.
+ *
+ * Without a tag filter the top facets are read from the maintained per-user label
+ * counts. Within a tag filter they are co-occurrence counts from the in-memory
+ * label index. Neither path scans the user's labels in Postgres.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GetLabelFacetsHandler {
+
+    private static final int MAX_LIMIT = 100;
+
+    private final UserLabelCountRepository userLabelCountRepository;
+    private final PhotoLabelIndex photoLabelIndex;
+
+    /**
+     * Top labels of the user's photos, optionally among photos carrying all filter tags.
+     *
+     * @param tags comma-separated filter tags; null or blank for the whole library
+     */
+    @Observed(name = "gallery.query.tag-facets")
+    public Mono<List<LabelFacetDto>> getFacets(UUID userId, String tags, int limit) {
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<String> filterTags = tags != null ? SearchPhotosHandler.parseTags(tags) : List.of();
+        log.debug("Get tag facets for userId: {}, filter: {}, limit: {}", userId, filterTags, boundedLimit);
+
+        if (filterTags.isEmpty()) {
+            return userLabelCountRepository.findTopByUserId(userId, boundedLimit)
+                    .map(row -> LabelFacetDto.builder()
+                            .label(row.labelName())
+                            .photoCount(row.photoCount())
+                            .build())
+                    .collectList();
+        }
+
+        return photoLabelIndex.facets(userId, filterTags, boundedLimit)
+                .map(facets -> facets.stream()
+                        .map(facet -> LabelFacetDto.builder()
+                                .label(facet.label())
+                                .photoCount(facet.count())
+                                .build())
+                        .toList());
+    }
+}
@@ -2,9 +2,6 @@ package com.rapidphoto.features.gallery.application;
 
 import com.rapidphoto.domain.Photo;
 import com.rapidphoto.features.gallery.api.dto.PhotoResponse;
-import com.rapidphoto.repository.PhotoLabelRepository;
-import com.rapidphoto.repository.PhotoRepository;
-import com.rapidphoto.repository.PhotoVersionRepository;
 import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,19 +18,18 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class GetPhotoDetailHandler {
 
-    private final PhotoRepository photoRepository;
-    private final PhotoVersionRepository photoVersionRepository;
-    private final PhotoLabelRepository photoLabelRepository;
+    private final GalleryBatchLoaders batchLoaders;
     private final PhotoReadModelMapper mapper;
 
     /**
      * Get detailed photo information.
+     * Photo, version and label lookups are coalesced with concurrent requests.
      */
     @Observed(name = "gallery.query.photo-detail")
     public Mono<PhotoResponse> getPhotoDetail(UUID photoId, UUID userId) {
         log.debug("Fetching photo detail for photoId: {}, userId: {}", photoId, userId);
 
-        return photoRepository.findByIdAndUserId(photoId, userId)
+        return batchLoaders.photo(photoId, userId)
                 .switchIfEmpty(Mono.error(new PhotoNotFoundException("Photo not found: " + photoId)))
                 .flatMap(photo -> enrichWithVersionsAndLabels(photo))
                 .doOnSuccess(response -> log.info("Returned photo detail for photoId: {}", photoId))
@@ -42,8 +38,8 @@ public class GetPhotoDetailHandler {
 
     private Mono<PhotoResponse> enrichWithVersionsAndLabels(Photo photo) {
         return Mono.zip(
-                photoVersionRepository.findByPhotoId(photo.getId()).collectList(),
-                photoLabelRepository.findByPhotoId(photo.getId()).collectList()
+                batchLoaders.versions(photo.getId()),
+                batchLoaders.labels(photo.getId())
         ).flatMap(tuple -> mapper.toPhotoResponse(photo, tuple.getT1(), tuple.getT2()));
     }
 
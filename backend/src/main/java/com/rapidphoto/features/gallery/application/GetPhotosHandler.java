@@ -1,25 +1,20 @@
 package com.rapidphoto.features.gallery.application;
 
-import com.rapidphoto.domain.Photo;
-import com.rapidphoto.domain.PhotoVersionType;
 import com.rapidphoto.features.gallery.api.dto.PagedPhotosResponse;
 import com.rapidphoto.features.gallery.api.dto.PhotoListItemDto;
-import com.rapidphoto.repository.PhotoLabelRepository;
-import com.rapidphoto.repository.PhotoRepository;
-import com.rapidphoto.repository.PhotoVersionRepository;
+import com.rapidphoto.repository.PhotoReadModelRepository;
+import com.rapidphoto.repository.UserPhotoStatsRepository;
+import com.rapidphoto.repository.projection.PhotoListRow;
 import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.util.List;
-import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 /**
  * Query handler for getting paginated list of photos.
@@ -29,30 +24,40 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class GetPhotosHandler {
 
-    private final PhotoRepository photoRepository;
-    private final PhotoVersionRepository photoVersionRepository;
-    private final PhotoLabelRepository photoLabelRepository;
+    /**
+     * Rows signed concurrently while streaming; output order is preserved.
+     */
+    private static final int STREAM_SIGNING_CONCURRENCY = 4;
+
+    private final UserPhotoStatsRepository userPhotoStatsRepository;
+    private final PhotoReadModelRepository photoReadModelRepository;
     private final PhotoReadModelMapper mapper;
+    private final GalleryPageCache pageCache;
 
     /**
      * Get paginated list of photos for a user.
+     * The first pages are served from the per-user page cache.
      */
     @Observed(name = "gallery.query.photos")
     public Mono<PagedPhotosResponse> getPhotos(UUID userId, int page, int size) {
-        log.debug("Fetching photos for userId: {}, page: {}, size: {}", userId, page, size);
+        if (pageCache.isCacheable(page)) {
+            return pageCache.getOrLoad(userId, "page:" + page + ":" + size, () -> loadPhotos(userId, page, size));
+        }
+        return loadPhotos(userId, page, size);
+    }
 
-        Pageable pageable = PageRequest.of(page, size);
+    private Mono<PagedPhotosResponse> loadPhotos(UUID userId, int page, int size) {
+        log.debug("Fetching photos for userId: {}, page: {}, size: {}", userId, page, size);
 
-        return photoRepository.findByUserIdOrderByCreatedAtDesc(userId, pageable)
+        return photoReadModelRepository.findPageByUserId(userId, size, (long) page * size)
                 .collectList()
-                .flatMap(photos -> {
-                    if (photos.isEmpty()) {
+                .flatMap(rows -> {
+                    if (rows.isEmpty()) {
                         return Mono.just(createEmptyResponse(page, size));
                     }
 
-                    return enrichPhotosWithMetadata(photos)
-                            .collectList()
-                            .zipWith(photoRepository.countByUserId(userId))
+                    return mapper.toPhotoListItems(rows)
+                            .zipWith(userPhotoStatsRepository.findTotalCountByUserId(userId))
                             .map(tuple -> {
                                 List<PhotoListItemDto> items = tuple.getT1();
                                 long totalElements = tuple.getT2();
@@ -73,35 +78,97 @@ public class GetPhotosHandler {
                         response.getContent().size(), userId, page));
     }
 
-    private Flux<PhotoListItemDto> enrichPhotosWithMetadata(List<Photo> photos) {
-        List<UUID> photoIds = photos.stream().map(Photo::getId).collect(Collectors.toList());
-
-        // Get thumbnails for all photos
-        Mono<Map<UUID, String>> thumbnailsMono = photoVersionRepository
-                .findByPhotoIdInAndVersionType(photoIds, PhotoVersionType.THUMBNAIL)
-                .collectMap(version -> version.getPhotoId(), version -> version.getS3Key());
-
-        // Get labels for all photos
-        Mono<Map<UUID, List<String>>> labelsMono = Flux.fromIterable(photoIds)
-                .flatMap(photoId -> photoLabelRepository.findByPhotoId(photoId)
-                        .map(label -> label.getLabelName())
-                        .collectList()
-                        .map(labelList -> Map.entry(photoId, labelList)))
-                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
-
-        return Mono.zip(thumbnailsMono, labelsMono)
-                .flatMapMany(tuple -> {
-                    Map<UUID, String> thumbnails = tuple.getT1();
-                    Map<UUID, List<String>> labels = tuple.getT2();
-
-                    return Flux.fromIterable(photos)
-                            .flatMap(photo -> {
-                                String thumbnailS3Key = thumbnails.get(photo.getId());
-                                List<String> photoLabels = labels.getOrDefault(photo.getId(), List.of());
-
-                                return mapper.toPhotoListItem(photo, thumbnailS3Key, photoLabels);
+    /**
+     * Get a keyset (cursor) page of photos for a user.
+     *
+     * Seeks directly to the cursor position instead of scanning past an OFFSET, and
+     * fetches one extra row to determine whether a next page exists. The exact total
+     * count is only computed when explicitly requested.
+     *
+     * @param cursor opaque cursor from a previous page, or null for the first page
+     */
+    @Observed(name = "gallery.query.photos-cursor")
+    public Mono<PagedPhotosResponse> getPhotosByCursor(UUID userId, String cursor, int size, boolean includeTotal) {
+        if (cursor == null && pageCache.isCacheable(0)) {
+            return pageCache.getOrLoad(userId, "cursor:" + size + ":" + includeTotal,
+                    () -> loadPhotosByCursor(userId, null, size, includeTotal));
+        }
+        return loadPhotosByCursor(userId, cursor, size, includeTotal);
+    }
+
+    private Mono<PagedPhotosResponse> loadPhotosByCursor(UUID userId, String cursor, int size, boolean includeTotal) {
+        log.debug("Fetching photos for userId: {}, cursor: {}, size: {}", userId, cursor, size);
+
+        return Mono.defer(() -> {
+                    if (cursor == null) {
+                        return photoReadModelRepository.findFirstPageByUserId(userId, size + 1).collectList();
+                    }
+                    PhotoCursor after = PhotoCursor.decode(cursor);
+                    return photoReadModelRepository.findPageByUserIdAfterCursor(
+                            userId, after.createdAt(), after.id(), size + 1).collectList();
+                })
+                .flatMap(rows -> {
+                    boolean hasNext = rows.size() > size;
+                    List<PhotoListRow> pageRows = hasNext ? rows.subList(0, size) : rows;
+                    String nextCursor = hasNext ? PhotoCursor.of(pageRows.get(size - 1)).encode() : null;
+
+                    Mono<Optional<Long>> totalMono = includeTotal
+                            ? userPhotoStatsRepository.findTotalCountByUserId(userId).map(Optional::of)
+                            : Mono.just(Optional.empty());
+
+                    return mapper.toPhotoListItems(pageRows)
+                            .zipWith(totalMono)
+                            .map(tuple -> {
+                                Long totalElements = tuple.getT2().orElse(null);
+                                Integer totalPages = totalElements != null
+                                        ? (int) Math.ceil((double) totalElements / size)
+                                        : null;
+
+                                return PagedPhotosResponse.builder()
+                                        .content(tuple.getT1())
+                                        .size(size)
+                                        .totalElements(totalElements)
+                                        .totalPages(totalPages)
+                                        .hasNext(hasNext)
+                                        .hasPrevious(cursor != null)
+                                        .nextCursor(nextCursor)
+                                        .build();
                             });
-                });
+                })
+                .doOnSuccess(response -> log.info("Returned {} photos for userId: {}, hasNext: {}",
+                        response.getContent().size(), userId, response.isHasNext()));
+    }
+
+    /**
+     * Stream a page of photos item by item (NDJSON / SSE).
+     *
+     * Rows are pulled from the database on demand and each item is emitted as soon as
+     * its own URLs are signed, so the first thumbnail does not wait for the whole page.
+     * Demand from the client connection propagates back to the row fetch. Every item
+     * carries the cursor positioned after it, so a client can resume after the last
+     * item it rendered.
+     *
+     * @param cursor null for offset mode, empty for the first keyset page, or a cursor
+     *               from a previously streamed item
+     */
+    @Observed(name = "gallery.query.photos-stream")
+    public Flux<PhotoListItemDto> streamPhotos(UUID userId, String cursor, int page, int size) {
+        log.debug("Streaming photos for userId: {}, cursor: {}, page: {}, size: {}", userId, cursor, page, size);
+
+        return Flux.defer(() -> {
+                    if (cursor == null) {
+                        return photoReadModelRepository.findPageByUserId(userId, size, (long) page * size);
+                    }
+                    if (cursor.isEmpty()) {
+                        return photoReadModelRepository.findFirstPageByUserId(userId, size);
+                    }
+                    PhotoCursor after = PhotoCursor.decode(cursor);
+                    return photoReadModelRepository.findPageByUserIdAfterCursor(
+                            userId, after.createdAt(), after.id(), size);
+                })
+                .flatMapSequential(row -> mapper.toPhotoListItem(row)
+                                .doOnNext(item -> item.setCursor(PhotoCursor.of(row).encode())),
+                        STREAM_SIGNING_CONCURRENCY, 1);
     }
 
     private PagedPhotosResponse createEmptyResponse(int page, int size) {
@@ -109,7 +176,7 @@ public class GetPhotosHandler {
                 .content(List.of())
                 .page(page)
                 .size(size)
-                .totalElements(0)
+                .totalElements(0L)
                 .totalPages(0)
                 .hasNext(false)
                 .hasPrevious(false)
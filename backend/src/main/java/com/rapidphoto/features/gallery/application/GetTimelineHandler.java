@@ -0,0 +1,101 @@
+package com.rapidphoto.features.gallery.application;
+
+import com.rapidphoto.features.gallery.api.dto.TimelineBucketDto;
+import com.rapidphoto.features.gallery.api.dto.TimelineResponse;
+import com.rapidphoto.repository.PhotoReadModelRepository;
+import io.micrometer.observation.annotation.Observed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Query handler for the timeline scrubber: photo counts per year, month or day
+ * of capture time, computed in one aggregate query and cached per user.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GetTimelineHandler {
+
+    private final PhotoReadModelRepository photoReadModelRepository;
+    private final TimelineCache timelineCache;
+
+    /**
+     * Get the user's timeline histogram.
+     *
+     * @param granularity year, month or day (case-insensitive)
+     * @param timeZone    IANA time zone the buckets are aligned to
+     */
+    @Observed(name = "gallery.query.timeline")
+    public Mono<TimelineResponse> getTimeline(UUID userId, String granularity, String timeZone) {
+        return Mono.fromCallable(() -> new TimelineQuery(parseGranularity(granularity), parseTimeZone(timeZone)))
+                .flatMap(query -> timelineCache.getOrLoad(userId, query.granularity() + ":" + query.timeZone(),
+                        () -> loadTimeline(userId, query)));
+    }
+
+    private Mono<TimelineResponse> loadTimeline(UUID userId, TimelineQuery query) {
+        log.debug("Computing {} timeline for userId: {} in {}", query.granularity(), userId, query.timeZone());
+
+        return photoReadModelRepository.findTimelineBuckets(
+                        userId, query.granularity().name().toLowerCase(Locale.ROOT), query.timeZone())
+                .map(row -> TimelineBucketDto.builder()
+                        .start(row.bucketStart())
+                        .photoCount(row.photoCount())
+                        .build())
+                .collectList()
+                .map(buckets -> TimelineResponse.builder()
+                        .granularity(query.granularity().name())
+                        .timeZone(query.timeZone())
+                        .totalCount(buckets.stream().mapToLong(TimelineBucketDto::getPhotoCount).sum())
+                        .buckets(List.copyOf(buckets))
+                        .build());
+    }
+
+    private static Granularity parseGranularity(String granularity) {
+        try {
+            return Granularity.valueOf(granularity.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidTimelineQueryException("granularity must be one of year, month or day");
+        }
+    }
+
+    private static String parseTimeZone(String timeZone) {
+        ZoneId zone;
+        try {
+            zone = ZoneId.of(timeZone.trim());
+        } catch (DateTimeException e) {
+            throw new InvalidTimelineQueryException("Unknown time zone: " + timeZone);
+        }
+        // Postgres reads numeric offsets with POSIX (inverted) signs, so only region IDs are passed through
+        if (zone instanceof ZoneOffset) {
+            if (!zone.equals(ZoneOffset.UTC)) {
+                throw new InvalidTimelineQueryException("Use a region time zone such as Europe/Paris: " + timeZone);
+            }
+            return "UTC";
+        }
+        return zone.getId();
+    }
+
+    private enum Granularity {
+        YEAR, MONTH, DAY
+    }
+
+    private record TimelineQuery(Granularity granularity, String timeZone) {}
+
+    /**
+     * Exception thrown for unsupported granularities or unknown time zones.
+     */
+    public static class InvalidTimelineQueryException extends RuntimeException {
+        public InvalidTimelineQueryException(String message) {
+            super(message);
+        }
+    }
+}
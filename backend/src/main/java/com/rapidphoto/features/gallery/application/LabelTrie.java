@@ -0,0 +1,108 @@
+package com.rapidphoto.features.gallery.application;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Case-insensitive prefix trie of label names.
+ * Not thread-safe; guarded by the owning {@link UserLabelIndex}.
+ */
+final class LabelTrie {
+
+    private final Node root = new Node();
+    private int nodeCount = 1;
+
+    void insert(String label) {
+        Node node = root;
+        String key = normalize(label);
+        for (int i = 0; i < key.length(); i++) {
+            Node child = node.children.get(key.charAt(i));
+            if (child == null) {
+                child = new Node();
+                node.children.put(key.charAt(i), child);
+                nodeCount++;
+            }
+            node = child;
+        }
+        if (node.labels == null) {
+            node.labels = new TreeSet<>();
+        }
+        node.labels.add(label);
+    }
+
+    void remove(String label) {
+        String key = normalize(label);
+        Deque<Node> path = new ArrayDeque<>(key.length() + 1);
+        Node node = root;
+        path.push(node);
+        for (int i = 0; i < key.length(); i++) {
+            node = node.children.get(key.charAt(i));
+            if (node == null) {
+                return;
+            }
+            path.push(node);
+        }
+        if (node.labels == null || !node.labels.remove(label)) {
+            return;
+        }
+        if (node.labels.isEmpty()) {
+            node.labels = null;
+        }
+
+        // Prune nodes that no longer lead to any label
+        for (int i = key.length() - 1; i >= 0; i--) {
+            Node child = path.pop();
+            if (child.labels != null || !child.children.isEmpty()) {
+                break;
+            }
+            path.peek().children.remove(key.charAt(i));
+            nodeCount--;
+        }
+    }
+
+    /**
+     * All labels starting with the prefix (case-insensitive).
+     */
+    List<String> withPrefix(String prefix) {
+        Node node = root;
+        String key = normalize(prefix);
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.children.get(key.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+
+        List<String> labels = new ArrayList<>();
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(node);
+        while (!pending.isEmpty()) {
+            Node current = pending.pop();
+            if (current.labels != null) {
+                labels.addAll(current.labels);
+            }
+            current.children.values().forEach(pending::push);
+        }
+        return labels;
+    }
+
+    int nodeCount() {
+        return nodeCount;
+    }
+
+    private static String normalize(String value) {
+        return value.toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private Set<String> labels;
+    }
+}
@@ -0,0 +1,70 @@
+package com.rapidphoto.features.gallery.application;
+
+import com.rapidphoto.repository.projection.PhotoListRow;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque keyset cursor over the gallery sort order (created_at DESC, id DESC).
+ *
+ * Encoded as URL-safe Base64 of the creation time in epoch microseconds
+ * (PostgreSQL timestamp precision) followed by the photo UUID.
+ */
+public record PhotoCursor(Instant createdAt, UUID id) {
+
+    private static final int ENCODED_BYTES = Long.BYTES * 3;
+
+    /**
+     * Build the cursor pointing at the given row (the last item of a page).
+     */
+    public static PhotoCursor of(PhotoListRow row) {
+        return new PhotoCursor(row.createdAt(), row.id());
+    }
+
+    /**
+     * Encode cursor into its opaque string form.
+     */
+    public String encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(ENCODED_BYTES);
+        buffer.putLong(ChronoUnit.MICROS.between(Instant.EPOCH, createdAt));
+        buffer.putLong(id.getMostSignificantBits());
+        buffer.putLong(id.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * Decode an opaque cursor string.
+     *
+     * @throws InvalidCursorException if the value was not produced by {@link #encode()}
+     */
+    public static PhotoCursor decode(String value) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(value);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid pagination cursor");
+        }
+
+        if (bytes.length != ENCODED_BYTES) {
+            throw new InvalidCursorException("Invalid pagination cursor");
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        Instant createdAt = Instant.EPOCH.plus(buffer.getLong(), ChronoUnit.MICROS);
+        UUID id = new UUID(buffer.getLong(), buffer.getLong());
+        return new PhotoCursor(createdAt, id);
+    }
+
+    /**
+     * Exception thrown when a client supplies a malformed cursor.
+     */
+    public static class InvalidCursorException extends RuntimeException {
+        public InvalidCursorException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.rapidphoto.features.gallery.application;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rapidphoto.domain.event.PhotoLibraryChangedEvent;
+import com.rapidphoto.repository.PhotoReadModelRepository;
+import com.rapidphoto.repository.UserPhotoStatsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * In-process inverted label index for tag search, one {@link UserLabelIndex} per user.
+ *
+ * A user's index is loaded on their first search or autocomplete and then kept current from
+ * {@link PhotoLibraryChangedEvent}s published by upload confirmation, processing
+ * completion and deletion. Indexes are weighted by their approximate size and the
+ * least valuable users are evicted once the memory budget is exceeded.
+ *
+ * Events that race with a load, or that would break recency order, drop the user's
+ * index so it is rebuilt on the next search.
+ *
+ * Changes made through other nodes never arrive as events. Each index is tagged with
+ * the user's gallery version, which every photo, label and version change bumps; an
+ * index behind the current version is rebuilt before it is served. Local events move
+ * the tag to the version read after applying them, so a remote change that commits
+ * around a local one can be absorbed into that tag; indexes older than the max age
+ * are rebuilt regardless to bound how long such a change is missed.
+ */
+@Slf4j
+@Component
+public class PhotoLabelIndex {
+
+    private static final String CACHE_NAME = "labelIndex";
+
+    private final PhotoReadModelRepository photoReadModelRepository;
+    private final UserPhotoStatsRepository userPhotoStatsRepository;
+    private final GalleryVersionService galleryVersionService;
+    private final Duration maxAge;
+    private final AsyncCache<UUID, VersionedIndex> indexesByUser;
+
+    public PhotoLabelIndex(PhotoReadModelRepository photoReadModelRepository,
+                           UserPhotoStatsRepository userPhotoStatsRepository,
+                           GalleryVersionService galleryVersionService,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.gallery.label-index.max-memory:128MB}") DataSize maxMemory,
+                           @Value("${app.gallery.label-index.max-age:10m}") Duration maxAge) {
+        this.photoReadModelRepository = photoReadModelRepository;
+        this.userPhotoStatsRepository = userPhotoStatsRepository;
+        this.galleryVersionService = galleryVersionService;
+        this.maxAge = maxAge;
+        this.indexesByUser = Caffeine.newBuilder()
+                .maximumWeight(maxMemory.toKilobytes())
+                .weigher((UUID userId, VersionedIndex resident) -> resident.index().weightKilobytes())
+                .recordStats()
+                .buildAsync();
+        CaffeineCacheMetrics.monitor(meterRegistry, indexesByUser, CACHE_NAME);
+    }
+
+    /**
+     * Find the user's photos carrying all labels, newest first.
+     */
+    public Mono<LabelMatches> match(UUID userId, Collection<String> labels, long offset, int limit) {
+        return index(userId).map(index -> index.match(labels, offset, limit));
+    }
+
+    /**
+     * Find the user's photos matching a boolean tag query, newest first.
+     */
+    public Mono<LabelMatches> query(UUID userId, TagQuery query, long offset, int limit) {
+        return index(userId).map(index -> index.query(query, offset, limit));
+    }
+
+    /**
+     * Complete a label prefix from the user's labels, most used first.
+     */
+    public Mono<List<LabelCount>> suggest(UUID userId, String prefix, int limit) {
+        return index(userId).map(index -> index.suggest(prefix, limit));
+    }
+
+    /**
+     * Count the other labels of the user's photos carrying all filter labels, most photos first.
+     */
+    public Mono<List<LabelCount>> facets(UUID userId, Collection<String> filterLabels, int limit) {
+        return index(userId).map(index -> index.facets(filterLabels, limit));
+    }
+
+    /**
+     * The user's index, rebuilt first if it is behind the library or older than the max age.
+     */
+    private Mono<UserLabelIndex> index(UUID userId) {
+        return galleryVersionService.currentVersion(userId)
+                .defaultIfEmpty(0L)
+                .flatMap(version -> Mono.fromFuture(() -> {
+                    CompletableFuture<VersionedIndex> resident = resident(userId, version);
+                    return resident.thenCompose(loaded -> {
+                        if (loaded.version() >= version && loaded.loadedAt().plus(maxAge).isAfter(Instant.now())) {
+                            return CompletableFuture.completedFuture(loaded);
+                        }
+                        // Changed through another node since the load, or due for a rebuild
+                        log.debug("Label index of userId: {} is at version {}, current is {}",
+                                userId, loaded.version(), version);
+                        indexesByUser.asMap().remove(userId, resident);
+                        return resident(userId, version);
+                    });
+                }))
+                .map(VersionedIndex::index);
+    }
+
+    private CompletableFuture<VersionedIndex> resident(UUID userId, long version) {
+        return indexesByUser.get(userId, (id, executor) -> load(id, version).toFuture());
+    }
+
+    /**
+     * Load the user's index; {@code version} must have been read before, so the index
+     * holds at least every change up to it.
+     */
+    private Mono<VersionedIndex> load(UUID userId, long version) {
+        UserLabelIndex index = new UserLabelIndex();
+        return photoReadModelRepository.findLabelsRowsByUserId(userId)
+                .doOnNext(row -> index.put(row.id(), row.createdAt(), row.labels()))
+                .then(Mono.fromCallable(() -> {
+                    log.debug("Loaded label index for userId: {} at version {} ({} KB)",
+                            userId, version, index.weightKilobytes());
+                    return new VersionedIndex(version, index, Instant.now());
+                }));
+    }
+
+    /**
+     * Apply a library change to the user's index if it is resident.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPhotoLibraryChanged(PhotoLibraryChangedEvent event) {
+        UUID userId = event.userId();
+        CompletableFuture<VersionedIndex> resident = indexesByUser.getIfPresent(userId);
+        if (resident == null) {
+            return;
+        }
+        if (!resident.isDone() || resident.isCompletedExceptionally()) {
+            // The load may have read the library before this change
+            invalidate(userId);
+            return;
+        }
+
+        VersionedIndex loaded = resident.join();
+        // The version is read first, so the applied change covers at least that version
+        userPhotoStatsRepository.findGalleryVersionByUserId(userId)
+                .flatMap(version -> apply(loaded.index(), event).map(applied -> applied ? version : -1L))
+                .subscribe(version -> {
+                    if (version < 0) {
+                        invalidate(userId);
+                    } else {
+                        // Re-insert so the weight is recomputed, unless it was replaced meanwhile
+                        indexesByUser.asMap().replace(userId, resident, CompletableFuture.completedFuture(
+                                new VersionedIndex(Math.max(loaded.version(), version), loaded.index(),
+                                        loaded.loadedAt())));
+                    }
+                }, error -> {
+                    log.warn("Failed to update label index for photoId: {}", event.photoId(), error);
+                    invalidate(userId);
+                });
+    }
+
+    /**
+     * Apply one change to the index; false if it cannot be applied in place.
+     */
+    private Mono<Boolean> apply(UserLabelIndex index, PhotoLibraryChangedEvent event) {
+        if (event.changeType() == PhotoLibraryChangedEvent.ChangeType.DELETED) {
+            return Mono.fromCallable(() -> {
+                index.remove(event.photoId());
+                return true;
+            });
+        }
+        return photoReadModelRepository.findLabelsRowByPhotoId(event.photoId())
+                .map(row -> index.put(row.id(), row.createdAt(), row.labels()))
+                .defaultIfEmpty(true);
+    }
+
+    public void invalidate(UUID userId) {
+        indexesByUser.synchronous().invalidate(userId);
+        log.debug("Invalidated label index for userId: {}", userId);
+    }
+
+    public void invalidateAll() {
+        indexesByUser.synchronous().invalidateAll();
+        log.debug("Invalidated all label indexes");
+    }
+
+    /**
+     * A user's index, the gallery version it is current with and when it was loaded.
+     */
+    private record VersionedIndex(long version, UserLabelIndex index, Instant loadedAt) {}
+
+    /**
+     * A page of matching photo IDs (newest first) and the total number of matches.
+     */
+    public record LabelMatches(long total, List<UUID> photoIds) {
+
+        static final LabelMatches EMPTY = new LabelMatches(0, List.of());
+    }
+
+    /**
+     * A label and the number of the user's photos carrying it.
+     */
+    public record LabelCount(String label, long count) {}
+}
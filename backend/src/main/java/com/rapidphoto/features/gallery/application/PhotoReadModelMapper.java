@@ -3,14 +3,17 @@ package com.rapidphoto.features.gallery.application;
 import com.rapidphoto.domain.Photo;
 import com.rapidphoto.domain.PhotoLabel;
 import com.rapidphoto.domain.PhotoVersion;
+import com.rapidphoto.domain.PhotoVersionType;
 import com.rapidphoto.features.gallery.api.dto.*;
+import com.rapidphoto.repository.projection.PhotoListRow;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Mono;
 
-import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -25,34 +28,35 @@ public class PhotoReadModelMapper {
 
     /**
      * Map Photo with versions and labels to detailed PhotoResponse.
+     *
+     * The original and every version are presigned in one batch; nothing in this
+     * pipeline blocks, so it is safe to run on Netty event-loop threads.
      */
     public Mono<PhotoResponse> toPhotoResponse(Photo photo,
                                                  List<PhotoVersion> versions,
                                                  List<PhotoLabel> labels) {
-        return s3DownloadUrlService.generatePresignedGetUrl(photo.getOriginalS3Key())
-                .flatMap(originalUrlResult -> {
-                    // Find thumbnail version
-                    String thumbnailUrl = null;
-                    for (PhotoVersion version : versions) {
-                        if (version.isThumbnail()) {
-                            thumbnailUrl = s3DownloadUrlService.generatePresignedGetUrl(version.getS3Key())
-                                    .map(S3DownloadUrlService.DownloadUrlResult::downloadUrl)
-                                    .block();
-                            break;
-                        }
-                    }
-
-                    // Map versions to DTOs
+        List<String> s3Keys = new ArrayList<>(versions.size() + 1);
+        s3Keys.add(photo.getOriginalS3Key());
+        versions.forEach(version -> s3Keys.add(version.getS3Key()));
+
+        // Map labels to DTOs
+        List<PhotoLabelDto> labelDtos = labels.stream()
+                .map(this::toPhotoLabelDto)
+                .collect(Collectors.toList());
+
+        return s3DownloadUrlService.presignAll(s3Keys)
+                .map(urls -> {
                     List<PhotoVersionDto> versionDtos = versions.stream()
-                            .map(this::toPhotoVersionDto)
+                            .map(version -> toPhotoVersionDto(version, urlFor(urls, version.getS3Key())))
                             .collect(Collectors.toList());
 
-                    // Map labels to DTOs
-                    List<PhotoLabelDto> labelDtos = labels.stream()
-                            .map(this::toPhotoLabelDto)
-                            .collect(Collectors.toList());
+                    String thumbnailUrl = versionDtos.stream()
+                            .filter(dto -> dto.getVersionType() == PhotoVersionType.THUMBNAIL)
+                            .map(PhotoVersionDto::getUrl)
+                            .findFirst()
+                            .orElse(null);
 
-                    return Mono.just(PhotoResponse.builder()
+                    return PhotoResponse.builder()
                             .id(photo.getId())
                             .fileName(photo.getFileName())
                             .status(photo.getStatusEnum())
@@ -60,7 +64,7 @@ public class PhotoReadModelMapper {
                             .mimeType(photo.getMimeType())
                             .width(photo.getWidth())
                             .height(photo.getHeight())
-                            .originalUrl(originalUrlResult.downloadUrl())
+                            .originalUrl(urlFor(urls, photo.getOriginalS3Key()))
                             .thumbnailUrl(thumbnailUrl)
                             .versions(versionDtos)
                             .labels(labelDtos)
@@ -71,96 +75,75 @@ public class PhotoReadModelMapper {
                             .cameraModel(photo.getCameraModel())
                             .gpsLatitude(photo.getGpsLatitude())
                             .gpsLongitude(photo.getGpsLongitude())
-                            .build());
+                            .build();
                 });
     }
 
     /**
-     * Map Photo with limited data to PhotoListItemDto.
+     * Map gallery read-model rows to PhotoListItemDtos, preserving row order.
+     *
+     * Original and thumbnail URLs for the whole page are presigned in one batch.
+     * If presigning fails the items are still returned, without URLs.
      */
-    public Mono<PhotoListItemDto> toPhotoListItem(Photo photo,
-                                                    String thumbnailS3Key,
-                                                    List<String> labelNames) {
-        // Always generate original URL
-        return s3DownloadUrlService.generatePresignedGetUrl(photo.getOriginalS3Key())
-                .flatMap(originalUrlResult -> {
-                    String originalUrl = originalUrlResult.downloadUrl();
-
-                    // If no thumbnail, use original URL for thumbnail too
-                    if (thumbnailS3Key == null) {
-                        return Mono.just(PhotoListItemDto.builder()
-                                .id(photo.getId())
-                                .fileName(photo.getFileName())
-                                .status(photo.getStatusEnum())
-                                .thumbnailUrl(null)
-                                .originalUrl(originalUrl)
-                                .width(photo.getWidth())
-                                .height(photo.getHeight())
-                                .labels(labelNames)
-                                .createdAt(photo.getCreatedAt())
-                                .takenAt(photo.getTakenAt())
-                                .build());
-                    }
-
-                    // Generate thumbnail URL
-                    return s3DownloadUrlService.generatePresignedGetUrl(thumbnailS3Key)
-                            .map(thumbnailResult -> PhotoListItemDto.builder()
-                                    .id(photo.getId())
-                                    .fileName(photo.getFileName())
-                                    .status(photo.getStatusEnum())
-                                    .thumbnailUrl(thumbnailResult.downloadUrl())
-                                    .originalUrl(originalUrl)
-                                    .width(photo.getWidth())
-                                    .height(photo.getHeight())
-                                    .labels(labelNames)
-                                    .createdAt(photo.getCreatedAt())
-                                    .takenAt(photo.getTakenAt())
-                                    .build())
-                            .onErrorResume(error -> {
-                                log.warn("Failed to generate thumbnail URL for photo {}, using original", photo.getId(), error);
-                                return Mono.just(PhotoListItemDto.builder()
-                                        .id(photo.getId())
-                                        .fileName(photo.getFileName())
-                                        .status(photo.getStatusEnum())
-                                        .thumbnailUrl(null)
-                                        .originalUrl(originalUrl)
-                                        .width(photo.getWidth())
-                                        .height(photo.getHeight())
-                                        .labels(labelNames)
-                                        .createdAt(photo.getCreatedAt())
-                                        .takenAt(photo.getTakenAt())
-                                        .build());
-                            });
-                })
+    public Mono<List<PhotoListItemDto>> toPhotoListItems(List<PhotoListRow> rows) {
+        if (rows.isEmpty()) {
+            return Mono.just(List.of());
+        }
+
+        List<String> s3Keys = new ArrayList<>(rows.size() * 2);
+        for (PhotoListRow row : rows) {
+            s3Keys.add(row.originalS3Key());
+            if (row.thumbnailS3Key() != null) {
+                s3Keys.add(row.thumbnailS3Key());
+            }
+        }
+
+        return s3DownloadUrlService.presignAll(s3Keys)
                 .onErrorResume(error -> {
-                    log.error("Failed to generate original URL for photo {}", photo.getId(), error);
-                    return Mono.just(createPhotoListItemWithoutUrls(photo, labelNames));
-                });
+                    log.error("Failed to generate presigned URLs for {} photos", rows.size(), error);
+                    return Mono.just(Map.of());
+                })
+                .map(urls -> rows.stream()
+                        .map(row -> buildPhotoListItem(row,
+                                urlFor(urls, row.thumbnailS3Key()),
+                                urlFor(urls, row.originalS3Key())))
+                        .collect(Collectors.toList()));
     }
 
-    private PhotoListItemDto createPhotoListItemWithoutUrls(Photo photo, List<String> labelNames) {
+    /**
+     * Map a single gallery row, presigning only its own URLs.
+     * Used when streaming so each item can be emitted as soon as it is signed.
+     */
+    public Mono<PhotoListItemDto> toPhotoListItem(PhotoListRow row) {
+        return toPhotoListItems(List.of(row)).map(items -> items.get(0));
+    }
+
+    private PhotoListItemDto buildPhotoListItem(PhotoListRow row,
+                                                String thumbnailUrl,
+                                                String originalUrl) {
         return PhotoListItemDto.builder()
-                .id(photo.getId())
-                .fileName(photo.getFileName())
-                .status(photo.getStatusEnum())
-                .thumbnailUrl(null)
-                .originalUrl(null)
-                .width(photo.getWidth())
-                .height(photo.getHeight())
-                .labels(labelNames)
-                .createdAt(photo.getCreatedAt())
-                .takenAt(photo.getTakenAt())
+                .id(row.id())
+                .fileName(row.fileName())
+                .status(row.status())
+                .thumbnailUrl(thumbnailUrl)
+                .originalUrl(originalUrl)
+                .width(row.width())
+                .height(row.height())
+                .labels(row.labels() != null ? List.of(row.labels()) : List.of())
+                .createdAt(row.createdAt())
+                .takenAt(row.takenAt())
                 .build();
     }
 
+    private String urlFor(Map<String, S3DownloadUrlService.DownloadUrlResult> urls, String s3Key) {
+        S3DownloadUrlService.DownloadUrlResult result = s3Key != null ? urls.get(s3Key) : null;
+        return result != null ? result.downloadUrl() : null;
+    }
+
     /**
      * Map PhotoVersion to PhotoVersionDto with presigned URL.
      */
-    private PhotoVersionDto toPhotoVersionDto(PhotoVersion version) {
-        String url = s3DownloadUrlService.generatePresignedGetUrl(version.getS3Key())
-                .map(S3DownloadUrlService.DownloadUrlResult::downloadUrl)
-                .block();
-
+    private PhotoVersionDto toPhotoVersionDto(PhotoVersion version, String url) {
         return PhotoVersionDto.builder()
                 .versionType(version.getVersionType())
                 .url(url)
@@ -190,7 +173,7 @@ public class PhotoReadModelMapper {
                                                        Long fileSize) {
         return DownloadUrlResponse.builder()
                 .downloadUrl(result.downloadUrl())
-                .expiresAt(Instant.now().plusSeconds(result.expirationMinutes() * 60L))
+                .expiresAt(result.expiresAt())
                 .fileName(fileName)
                 .fileSize(fileSize)
                 .build();
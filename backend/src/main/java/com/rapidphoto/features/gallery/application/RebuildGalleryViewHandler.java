@@ -0,0 +1,59 @@
+package com.rapidphoto.features.gallery.application;
+
+import com.rapidphoto.repository.PhotoGalleryViewRepository;
+import io.micrometer.observation.annotation.Observed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Command handler that re-projects the gallery read model from the source tables,
+ * for backfills and for repairing drift after out-of-band writes.
+ *
+ * In-memory state derived from the read model (label indexes, cached pages) is
+ * dropped afterwards so it is reloaded from the rebuilt rows.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RebuildGalleryViewHandler {
+
+    private final PhotoGalleryViewRepository photoGalleryViewRepository;
+    private final PhotoLabelIndex photoLabelIndex;
+    private final GalleryPageCache galleryPageCache;
+
+    /**
+     * Rebuild one user's rows.
+     *
+     * @return number of rows written
+     */
+    @Observed(name = "gallery.rebuild.user")
+    public Mono<Long> rebuildUser(UUID userId) {
+        log.info("Rebuilding gallery view for userId: {}", userId);
+        return photoGalleryViewRepository.rebuildByUserId(userId)
+                .doOnSuccess(rows -> {
+                    photoLabelIndex.invalidate(userId);
+                    galleryPageCache.invalidate(userId);
+                    log.info("Rebuilt {} gallery view rows for userId: {}", rows, userId);
+                });
+    }
+
+    /**
+     * Rebuild every row.
+     *
+     * @return number of rows written
+     */
+    @Observed(name = "gallery.rebuild.all")
+    public Mono<Long> rebuildAll() {
+        log.info("Rebuilding gallery view for all users");
+        return photoGalleryViewRepository.rebuildAll()
+                .doOnSuccess(rows -> {
+                    photoLabelIndex.invalidateAll();
+                    galleryPageCache.invalidateAll();
+                    log.info("Rebuilt {} gallery view rows", rows);
+                });
+    }
+}
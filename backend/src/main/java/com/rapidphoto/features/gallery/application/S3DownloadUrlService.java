@@ -1,77 +1,202 @@
 package com.rapidphoto.features.gallery.application;
 
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
-import software.amazon.awssdk.services.s3.model.GetObjectRequest;
-import software.amazon.awssdk.services.s3.presigner.S3Presigner;
-import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
-import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
 
+import java.time.Clock;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Service for generating presigned GET URLs for downloading photos.
  * URLs are cached to avoid regenerating them on every request.
  *
- * Spring Cache abstraction supports reactive types (Mono/Flux):
- * - The emitted object is cached
- * - Cache lookups return a Mono backed by CompletableFuture
+ * Time-bucketed signing: the signing timestamp is floored to a bucket boundary
+ * (aws.s3.download-url-signing-bucket), so every node signing a key within the
+ * same window produces the byte-identical URL (given the same credentials).
+ * Browsers and CDNs can then cache images by URL, and response ETags stay stable.
+ *
+ * Cached URLs are refreshed in the background once their bucket has passed
+ * (refreshAfterWrite), and evicted before less than one bucket of validity
+ * remains, so a URL handed to a client is always valid for at least that long.
  */
 @Slf4j
 @Service
 public class S3DownloadUrlService {
 
-    private final S3Presigner s3Presigner;
-
-    @Value("${aws.s3.bucket-name}")
-    private String bucketName;
+    private static final String CACHE_NAME = "presignedUrls";
+    private static final long MAXIMUM_CACHE_SIZE = 10_000;
 
-    @Value("${aws.s3.download-url-expiration:15}")
-    private int downloadUrlExpirationMinutes;
+    private final S3UrlSigner s3UrlSigner;
+    private final Clock clock;
+    private final Duration expiration;
+    private final Duration signingBucket;
+    private final Duration minRemaining;
+    private final AsyncLoadingCache<String, DownloadUrlResult> presignedUrlCache;
 
     @Autowired
-    public S3DownloadUrlService(S3Presigner s3Presigner) {
-        this.s3Presigner = s3Presigner;
+    public S3DownloadUrlService(S3UrlSigner s3UrlSigner,
+                                MeterRegistry meterRegistry,
+                                @Value("${aws.s3.download-url-expiration:15}") int downloadUrlExpirationMinutes,
+                                @Value("${aws.s3.download-url-signing-bucket:5}") int signingBucketMinutes) {
+        this(s3UrlSigner, Clock.systemUTC(),
+                Duration.ofMinutes(downloadUrlExpirationMinutes), Duration.ofMinutes(signingBucketMinutes));
+        CaffeineCacheMetrics.monitor(meterRegistry, presignedUrlCache, CACHE_NAME);
+    }
+
+    /**
+     * @param signingBucket signing window; zero disables bucketing and signs with the current time
+     */
+    S3DownloadUrlService(S3UrlSigner s3UrlSigner, Clock clock, Duration expiration, Duration signingBucket) {
+        if (!signingBucket.isZero() && signingBucket.multipliedBy(2).compareTo(expiration) >= 0) {
+            throw new IllegalArgumentException("Signing bucket must be less than half the download URL expiration");
+        }
+
+        this.s3UrlSigner = s3UrlSigner;
+        this.clock = clock;
+        this.expiration = expiration;
+        this.signingBucket = signingBucket;
+
+        // Minimum validity left on any URL served from the cache
+        this.minRemaining = signingBucket.isZero() ? expiration.dividedBy(5) : signingBucket;
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(MAXIMUM_CACHE_SIZE)
+                .recordStats();
+        if (!signingBucket.isZero()) {
+            builder.refreshAfterWrite(signingBucket);
+        }
+        this.presignedUrlCache = builder
+                .expireAfter(new ValidityExpiry(minRemaining))
+                .buildAsync(new PresignedUrlLoader());
+
+        log.info("Presigned download URLs expire in {} with {} signing buckets", expiration,
+                signingBucket.isZero() ? "no" : signingBucket);
     }
 
     /**
      * Generate a presigned GET URL for downloading a file.
-     * Results are cached by S3 key to avoid regenerating URLs.
      *
-     * Spring's @Cacheable works with Mono<T>:
-     * - On cache miss: Mono executes and emitted value is cached
-     * - On cache hit: Cached value is wrapped in Mono (backed by CompletableFuture)
+     * Cache hits complete immediately; misses are signed on the cache executor,
+     * never on the calling (event-loop) thread.
      *
      * @param s3Key S3 key of the file
      * @return Presigned download URL wrapped in Mono
      */
-    @Cacheable(value = "presignedUrls", key = "#s3Key")
     public Mono<DownloadUrlResult> generatePresignedGetUrl(String s3Key) {
-        log.info("🔄 CACHE MISS: Generating NEW presigned URL for s3Key: {}", s3Key);
+        return Mono.fromFuture(() -> presignedUrlCache.get(s3Key));
+    }
 
-        return Mono.fromSupplier(() -> {
-            GetObjectRequest getObjectRequest = GetObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(s3Key)
-                    .build();
+    /**
+     * Generate presigned GET URLs for many keys at once.
+     *
+     * Cached URLs are reused; all misses are signed in a single batch with one
+     * credentials lookup and one signing key. Null keys are ignored.
+     *
+     * @return results keyed by S3 key
+     */
+    public Mono<Map<String, DownloadUrlResult>> presignAll(Collection<String> s3Keys) {
+        Set<String> keys = new LinkedHashSet<>(s3Keys);
+        keys.remove(null);
 
-            GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
-                    .signatureDuration(Duration.ofMinutes(downloadUrlExpirationMinutes))
-                    .getObjectRequest(getObjectRequest)
-                    .build();
+        if (keys.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        return Mono.fromFuture(() -> presignedUrlCache.getAll(keys));
+    }
+
+    /**
+     * Index of the current URL signing window.
+     * Changes whenever freshly served URLs may differ, so response ETags that include
+     * it never keep a client on URLs from an older window.
+     */
+    public long currentSigningWindow() {
+        Duration window = signingBucket.isZero() ? minRemaining : signingBucket;
+        return Math.floorDiv(clock.instant().toEpochMilli(), window.toMillis());
+    }
 
-            PresignedGetObjectRequest presignedRequest = s3Presigner.presignGetObject(presignRequest);
-            String url = presignedRequest.url().toString();
+    /**
+     * Start of the signing window containing the given instant.
+     */
+    Instant signingTime(Instant now) {
+        if (signingBucket.isZero()) {
+            return now;
+        }
+        long bucketMillis = signingBucket.toMillis();
+        return Instant.ofEpochMilli(now.toEpochMilli() - Math.floorMod(now.toEpochMilli(), bucketMillis));
+    }
+
+    private Map<String, DownloadUrlResult> sign(Collection<String> s3Keys) {
+        Instant signingTime = signingTime(clock.instant());
+        Instant expiresAt = signingTime.plus(expiration);
+        int expirationMinutes = (int) expiration.toMinutes();
+
+        Map<String, DownloadUrlResult> results = new HashMap<>(Math.max(16, s3Keys.size() * 4 / 3 + 1));
+        s3UrlSigner.presignGetAll(s3Keys, expiration, signingTime)
+                .forEach((key, url) -> results.put(key, new DownloadUrlResult(url, expirationMinutes, expiresAt)));
+        return results;
+    }
+
+    /**
+     * Expires each entry once less than {@code minRemaining} of its URL validity is left.
+     */
+    private final class ValidityExpiry implements Expiry<String, DownloadUrlResult> {
+
+        private final Duration minRemaining;
+
+        private ValidityExpiry(Duration minRemaining) {
+            this.minRemaining = minRemaining;
+        }
+
+        @Override
+        public long expireAfterCreate(String key, DownloadUrlResult result, long currentTime) {
+            Duration remaining = Duration.between(clock.instant(), result.expiresAt()).minus(minRemaining);
+            return remaining.isNegative() ? 0 : remaining.toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, DownloadUrlResult result, long currentTime, long currentDuration) {
+            // A refresh replaces the URL, so its lifetime starts over
+            return expireAfterCreate(key, result, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, DownloadUrlResult result, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    /**
+     * Signs cache misses and background refreshes; bulk lookups are signed as one batch.
+     */
+    private final class PresignedUrlLoader implements CacheLoader<String, DownloadUrlResult> {
 
-            log.info("✅ Generated and cached presigned URL for s3Key: {} (expiry: {}min)",
-                     s3Key, downloadUrlExpirationMinutes);
+        @Override
+        public DownloadUrlResult load(String s3Key) {
+            log.debug("Signing presigned URL for s3Key: {}", s3Key);
+            return sign(List.of(s3Key)).get(s3Key);
+        }
 
-            return new DownloadUrlResult(url, downloadUrlExpirationMinutes);
-        });
+        @Override
+        public Map<String, DownloadUrlResult> loadAll(Set<? extends String> s3Keys) {
+            log.debug("Signing {} presigned URLs", s3Keys.size());
+            return sign(new ArrayList<>(s3Keys));
+        }
     }
 
     /**
@@ -79,6 +204,7 @@ public class S3DownloadUrlService {
      */
     public record DownloadUrlResult(
             String downloadUrl,
-            int expirationMinutes
+            int expirationMinutes,
+            Instant expiresAt
     ) {}
 }
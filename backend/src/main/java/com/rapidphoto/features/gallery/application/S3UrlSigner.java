@@ -0,0 +1,276 @@
+package com.rapidphoto.features.gallery.application;
+
+import software.amazon.awssdk.auth.credentials.AwsCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.AwsSessionCredentials;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lightweight SigV4 query-string presigner for S3 GET requests.
+ *
+ * The SDK presigner rebuilds request objects, re-derives the signing key and runs
+ * its full interceptor chain for every URL. Here the signing key is derived once per
+ * day/secret and reused, the canonical query string is built once per batch, and
+ * each key only costs one SHA-256 and one HMAC on per-thread reusable buffers.
+ *
+ * Uses path-style URLs when an endpoint override (e.g. LocalStack) is configured,
+ * virtual-hosted style otherwise.
+ */
+public class S3UrlSigner {
+
+    private static final String ALGORITHM = "AWS4-HMAC-SHA256";
+    private static final String SERVICE = "s3";
+    private static final String TERMINATOR = "aws4_request";
+    private static final String HMAC_SHA256 = "HmacSHA256";
+    private static final long MAX_EXPIRY_SECONDS = Duration.ofDays(7).toSeconds();
+
+    private static final DateTimeFormatter AMZ_DATE_FORMAT =
+            DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    private static final byte[] HEX_LOWER = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final char[] HEX_UPPER = "0123456789ABCDEF".toCharArray();
+    private static final byte[] CANONICAL_REQUEST_PREFIX = "GET\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final AwsCredentialsProvider credentialsProvider;
+    private final String region;
+    private final String host;
+    private final String urlPrefix;
+    private final String pathPrefix;
+    private final ThreadLocal<SigningContext> signingContexts = ThreadLocal.withInitial(SigningContext::new);
+
+    private volatile SigningKey signingKey;
+
+    /**
+     * @param endpointOverride custom endpoint (path-style addressing), or null for AWS S3
+     */
+    public S3UrlSigner(AwsCredentialsProvider credentialsProvider,
+                       String region,
+                       String bucketName,
+                       URI endpointOverride) {
+        this.credentialsProvider = credentialsProvider;
+        this.region = region;
+
+        if (endpointOverride != null) {
+            this.host = endpointOverride.getPort() == -1
+                    ? endpointOverride.getHost()
+                    : endpointOverride.getHost() + ":" + endpointOverride.getPort();
+            this.urlPrefix = endpointOverride.getScheme() + "://" + host;
+            this.pathPrefix = "/" + bucketName;
+        } else {
+            String s3Host = "us-east-1".equals(region) ? "s3.amazonaws.com" : "s3." + region + ".amazonaws.com";
+            this.host = bucketName + "." + s3Host;
+            this.urlPrefix = "https://" + host;
+            this.pathPrefix = "";
+        }
+    }
+
+    /**
+     * Presign a single GET URL.
+     */
+    public String presignGet(String s3Key, Duration expiry, Instant signingTime) {
+        return presignGetAll(List.of(s3Key), expiry, signingTime).get(s3Key);
+    }
+
+    /**
+     * Presign GET URLs for many keys with the same expiry and signing time.
+     *
+     * @return URLs keyed by S3 key, in iteration order of the input (duplicates signed once)
+     */
+    public Map<String, String> presignGetAll(Collection<String> s3Keys, Duration expiry, Instant signingTime) {
+        long expirySeconds = expiry.toSeconds();
+        if (expirySeconds < 1 || expirySeconds > MAX_EXPIRY_SECONDS) {
+            throw new IllegalArgumentException("Presigned URL expiry must be between 1 second and 7 days");
+        }
+
+        AwsCredentials credentials = credentialsProvider.resolveCredentials();
+        String amzDate = AMZ_DATE_FORMAT.format(signingTime);
+        String dateStamp = amzDate.substring(0, 8);
+        String scope = dateStamp + "/" + region + "/" + SERVICE + "/" + TERMINATOR;
+
+        // Everything except the object path is shared by the whole batch
+        String canonicalQuery = canonicalQuery(credentials, scope, amzDate, expirySeconds);
+        String canonicalRequestSuffix = "\n" + canonicalQuery + "\nhost:" + host + "\n\nhost\nUNSIGNED-PAYLOAD";
+        byte[] stringToSignPrefix = (ALGORITHM + "\n" + amzDate + "\n" + scope + "\n")
+                .getBytes(StandardCharsets.US_ASCII);
+
+        SigningContext context = signingContexts.get();
+        Mac mac = context.mac(signingKey(credentials.secretAccessKey(), dateStamp));
+        MessageDigest digest = context.digest;
+        StringBuilder canonicalRequest = context.canonicalRequest;
+        byte[] hexDigest = context.hexDigest;
+
+        Map<String, String> urls = new LinkedHashMap<>(Math.max(16, s3Keys.size() * 4 / 3 + 1));
+        for (String s3Key : s3Keys) {
+            if (urls.containsKey(s3Key)) {
+                continue;
+            }
+
+            canonicalRequest.setLength(0);
+            canonicalRequest.append(pathPrefix).append('/');
+            appendUriEncoded(canonicalRequest, s3Key, false);
+            int pathLength = canonicalRequest.length();
+            canonicalRequest.append(canonicalRequestSuffix);
+
+            digest.update(CANONICAL_REQUEST_PREFIX);
+            digest.update(context.ascii(canonicalRequest), 0, canonicalRequest.length());
+            toHex(digest.digest(), hexDigest);
+
+            mac.update(stringToSignPrefix);
+            mac.update(hexDigest);
+            byte[] signature = mac.doFinal();
+
+            StringBuilder url = new StringBuilder(urlPrefix.length() + pathLength + canonicalQuery.length() + 82);
+            url.append(urlPrefix)
+                    .append(canonicalRequest, 0, pathLength)
+                    .append('?').append(canonicalQuery)
+                    .append("&X-Amz-Signature=");
+            for (byte b : signature) {
+                url.append((char) HEX_LOWER[(b >> 4) & 0xF]).append((char) HEX_LOWER[b & 0xF]);
+            }
+            urls.put(s3Key, url.toString());
+        }
+        return urls;
+    }
+
+    private String canonicalQuery(AwsCredentials credentials, String scope, String amzDate, long expirySeconds) {
+        // Parameters must be in byte order of their names
+        StringBuilder query = new StringBuilder(256);
+        query.append("X-Amz-Algorithm=").append(ALGORITHM);
+        query.append("&X-Amz-Credential=");
+        appendUriEncoded(query, credentials.accessKeyId() + "/" + scope, true);
+        query.append("&X-Amz-Date=").append(amzDate);
+        query.append("&X-Amz-Expires=").append(expirySeconds);
+        if (credentials instanceof AwsSessionCredentials sessionCredentials) {
+            query.append("&X-Amz-Security-Token=");
+            appendUriEncoded(query, sessionCredentials.sessionToken(), true);
+        }
+        query.append("&X-Amz-SignedHeaders=host");
+        return query.toString();
+    }
+
+    /**
+     * Return the cached signing key, deriving a new one when the date or secret changes.
+     */
+    private byte[] signingKey(String secretAccessKey, String dateStamp) {
+        SigningKey current = signingKey;
+        if (current != null && current.dateStamp().equals(dateStamp) && current.secretAccessKey().equals(secretAccessKey)) {
+            return current.key();
+        }
+
+        byte[] key = hmac(("AWS4" + secretAccessKey).getBytes(StandardCharsets.UTF_8), dateStamp);
+        key = hmac(key, region);
+        key = hmac(key, SERVICE);
+        key = hmac(key, TERMINATOR);
+        signingKey = new SigningKey(secretAccessKey, dateStamp, key);
+        return key;
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_SHA256);
+            mac.init(new SecretKeySpec(key, HMAC_SHA256));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to derive SigV4 signing key", e);
+        }
+    }
+
+    /**
+     * RFC 3986 encoding as required by SigV4; '/' is kept in object paths.
+     */
+    private static void appendUriEncoded(StringBuilder target, String value, boolean encodeSlash) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                // Non-ASCII keys are rare: encode their UTF-8 bytes instead
+                for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+                    appendEncodedByte(target, b & 0xFF, encodeSlash);
+                }
+                return;
+            }
+        }
+        for (int i = 0; i < value.length(); i++) {
+            appendEncodedByte(target, value.charAt(i), encodeSlash);
+        }
+    }
+
+    private static void appendEncodedByte(StringBuilder target, int b, boolean encodeSlash) {
+        if ((b >= 'A' && b <= 'Z') || (b >= 'a' && b <= 'z') || (b >= '0' && b <= '9')
+                || b == '-' || b == '_' || b == '.' || b == '~' || (b == '/' && !encodeSlash)) {
+            target.append((char) b);
+        } else {
+            target.append('%').append(HEX_UPPER[(b >> 4) & 0xF]).append(HEX_UPPER[b & 0xF]);
+        }
+    }
+
+    private static void toHex(byte[] bytes, byte[] target) {
+        for (int i = 0; i < bytes.length; i++) {
+            target[i * 2] = HEX_LOWER[(bytes[i] >> 4) & 0xF];
+            target[i * 2 + 1] = HEX_LOWER[bytes[i] & 0xF];
+        }
+    }
+
+    private record SigningKey(String secretAccessKey, String dateStamp, byte[] key) {}
+
+    /**
+     * Per-thread reusable crypto primitives and buffers (Mac/MessageDigest are not thread-safe).
+     */
+    private static final class SigningContext {
+        private final Mac mac;
+        private final MessageDigest digest;
+        private final StringBuilder canonicalRequest = new StringBuilder(512);
+        private final byte[] hexDigest = new byte[64];
+        private byte[] asciiBuffer = new byte[512];
+        private byte[] macKey;
+
+        private SigningContext() {
+            try {
+                this.mac = Mac.getInstance(HMAC_SHA256);
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("SigV4 algorithms unavailable", e);
+            }
+        }
+
+        /**
+         * Return the HMAC initialised with the given key, re-initialising only when the key changes.
+         */
+        private Mac mac(byte[] key) {
+            if (macKey != key) {
+                try {
+                    mac.init(new SecretKeySpec(key, HMAC_SHA256));
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException("Invalid SigV4 signing key", e);
+                }
+                macKey = key;
+            }
+            return mac;
+        }
+
+        /**
+         * Copy an ASCII-only builder into the reusable byte buffer.
+         */
+        private byte[] ascii(CharSequence value) {
+            int length = value.length();
+            if (asciiBuffer.length < length) {
+                asciiBuffer = new byte[Math.max(length, asciiBuffer.length * 2)];
+            }
+            for (int i = 0; i < length; i++) {
+                asciiBuffer[i] = (byte) value.charAt(i);
+            }
+            return asciiBuffer;
+        }
+    }
+}
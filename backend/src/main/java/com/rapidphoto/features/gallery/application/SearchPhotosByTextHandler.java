@@ -0,0 +1,193 @@
+package com.rapidphoto.features.gallery.application;
+
+import com.rapidphoto.features.gallery.api.dto.PagedPhotosResponse;
+import com.rapidphoto.repository.PhotoReadModelRepository;
+import com.rapidphoto.repository.projection.PhotoListRow;
+import io.micrometer.observation.annotation.Observed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Query handler for full-text search over file names and camera metadata,
+ * optionally narrowed to photos carrying all of the given tags.
+ *
+ * Text and label filters run in one statement over the gallery read model,
+ * served by its per-user GIN indexes.
+ * Every search term matches as a prefix, so "IMG_20" finds "IMG_2041.JPG" and
+ * "can" finds "Canon".
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchPhotosByTextHandler {
+
+    private static final int MAX_TERMS = 8;
+
+    private final PhotoReadModelRepository photoReadModelRepository;
+    private final PhotoReadModelMapper mapper;
+    private final SearchTotalCache searchTotalCache;
+
+    /**
+     * Offset page of matches, newest first, with the (cached) total.
+     *
+     * @param tags comma-separated tags the matches must all carry; null for none
+     */
+    @Observed(name = "gallery.query.search-text")
+    public Mono<PagedPhotosResponse> searchPhotosByText(UUID userId, String text, String tags, int page, int size) {
+        log.debug("Text search for userId: {}, text: {}, tags: {}", userId, text, tags);
+
+        return Mono.fromCallable(() -> TextSearch.of(text, tags))
+                .flatMap(search -> {
+                    if (search.textQuery().isEmpty()) {
+                        return Mono.just(PagedPhotosResponse.builder()
+                                .content(List.of())
+                                .page(page)
+                                .size(size)
+                                .totalElements(0L)
+                                .totalPages(0)
+                                .build());
+                    }
+
+                    Mono<Long> totalMono = countMatches(userId, search);
+                    return photoReadModelRepository.findTextSearchPageByUserId(userId, search.textQuery(),
+                                    search.labelNames(), size, (long) page * size)
+                            .collectList()
+                            .flatMap(mapper::toPhotoListItems)
+                            .zipWith(totalMono)
+                            .map(tuple -> {
+                                long totalElements = tuple.getT2();
+                                int totalPages = (int) Math.ceil((double) totalElements / size);
+
+                                return PagedPhotosResponse.builder()
+                                        .content(tuple.getT1())
+                                        .page(page)
+                                        .size(size)
+                                        .totalElements(totalElements)
+                                        .totalPages(totalPages)
+                                        .hasNext(page < totalPages - 1)
+                                        .hasPrevious(page > 0)
+                                        .build();
+                            });
+                })
+                .doOnSuccess(response -> log.info("Found {} photos matching text: {}, tags: {}",
+                        response.getContent().size(), text, tags));
+    }
+
+    /**
+     * Keyset page of matches, newest first; the total is only computed when requested.
+     *
+     * @param cursor opaque cursor from a previous page, or null for the first page
+     */
+    @Observed(name = "gallery.query.search-text-cursor")
+    public Mono<PagedPhotosResponse> searchPhotosByTextCursor(UUID userId,
+                                                              String text,
+                                                              String tags,
+                                                              String cursor,
+                                                              int size,
+                                                              boolean includeTotal) {
+        log.debug("Text search for userId: {}, text: {}, tags: {}, cursor: {}", userId, text, tags, cursor);
+
+        return Mono.fromCallable(() -> TextSearch.of(text, tags))
+                .flatMap(search -> {
+                    if (search.textQuery().isEmpty()) {
+                        return Mono.just(PagedPhotosResponse.builder()
+                                .content(List.of())
+                                .size(size)
+                                .totalElements(includeTotal ? 0L : null)
+                                .totalPages(includeTotal ? 0 : null)
+                                .hasPrevious(cursor != null)
+                                .build());
+                    }
+
+                    Mono<List<PhotoListRow>> rowsMono;
+                    if (cursor == null) {
+                        rowsMono = photoReadModelRepository.findTextSearchPageByUserId(userId, search.textQuery(),
+                                search.labelNames(), size + 1, 0).collectList();
+                    } else {
+                        PhotoCursor after = PhotoCursor.decode(cursor);
+                        rowsMono = photoReadModelRepository.findTextSearchPageByUserIdAfterCursor(userId,
+                                search.textQuery(), search.labelNames(), after.createdAt(), after.id(), size + 1)
+                                .collectList();
+                    }
+
+                    return rowsMono.flatMap(rows -> {
+                        boolean hasNext = rows.size() > size;
+                        List<PhotoListRow> pageRows = hasNext ? rows.subList(0, size) : rows;
+                        String nextCursor = hasNext ? PhotoCursor.of(pageRows.get(size - 1)).encode() : null;
+
+                        Mono<Optional<Long>> totalMono = includeTotal
+                                ? countMatches(userId, search).map(Optional::of)
+                                : Mono.just(Optional.empty());
+
+                        return mapper.toPhotoListItems(pageRows)
+                                .zipWith(totalMono)
+                                .map(tuple -> {
+                                    Long totalElements = tuple.getT2().orElse(null);
+                                    Integer totalPages = totalElements != null
+                                            ? (int) Math.ceil((double) totalElements / size)
+                                            : null;
+
+                                    return PagedPhotosResponse.builder()
+                                            .content(tuple.getT1())
+                                            .size(size)
+                                            .totalElements(totalElements)
+                                            .totalPages(totalPages)
+                                            .hasNext(hasNext)
+                                            .hasPrevious(cursor != null)
+                                            .nextCursor(nextCursor)
+                                            .build();
+                                });
+                    });
+                })
+                .doOnSuccess(response -> log.info("Found {} photos matching text: {}, tags: {}, hasNext: {}",
+                        response.getContent().size(), text, tags, response.isHasNext()));
+    }
+
+    private Mono<Long> countMatches(UUID userId, TextSearch search) {
+        String searchKey = "text:" + search.textQuery() + "|" + String.join(",", search.sortedLabelNames());
+        return searchTotalCache.getOrCount(userId, searchKey,
+                () -> photoReadModelRepository.countTextSearchByUserId(
+                        userId, search.textQuery(), search.labelNames()));
+    }
+
+    /**
+     * Build a prefix tsquery from free text: letters and digits only, so user input
+     * can never inject tsquery operators. Empty if the text has no searchable terms.
+     */
+    static String toPrefixTsQuery(String text) {
+        if (text == null) {
+            return "";
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+"))
+                .filter(term -> !term.isEmpty())
+                .distinct()
+                .limit(MAX_TERMS)
+                .map(term -> term + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+
+    private record TextSearch(String textQuery, String[] labelNames) {
+
+        static TextSearch of(String text, String tags) {
+            if (TagQuery.isExpression(tags)) {
+                throw new TagQuery.InvalidTagQueryException(
+                        "Text search can be combined with comma-separated tags only");
+            }
+            List<String> tagList = tags != null ? SearchPhotosHandler.parseTags(tags) : List.of();
+            return new TextSearch(toPrefixTsQuery(text), tagList.toArray(new String[0]));
+        }
+
+        List<String> sortedLabelNames() {
+            return Arrays.stream(labelNames).sorted().toList();
+        }
+    }
+}
@@ -1,23 +1,24 @@
 package com.rapidphoto.features.gallery.application;
 
-import com.rapidphoto.domain.Photo;
-import com.rapidphoto.domain.PhotoVersionType;
 import com.rapidphoto.features.gallery.api.dto.PagedPhotosResponse;
 import com.rapidphoto.features.gallery.api.dto.PhotoListItemDto;
 import com.rapidphoto.repository.PhotoLabelRepository;
-import com.rapidphoto.repository.PhotoRepository;
-import com.rapidphoto.repository.PhotoVersionRepository;
+import com.rapidphoto.repository.PhotoReadModelRepository;
+import com.rapidphoto.repository.projection.PhotoListRow;
+import com.rapidphoto.repository.projection.RankedPhotoRow;
 import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -29,15 +30,23 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class SearchPhotosHandler {
 
-    private final PhotoRepository photoRepository;
-    private final PhotoVersionRepository photoVersionRepository;
+    private static final BigDecimal MIN_CONFIDENCE = BigDecimal.valueOf(70);
+
+    /**
+     * Deepest rank served by relevance search; keeps Postgres' top-N heap small.
+     */
+    private static final int MAX_RANKED_RESULTS = 1000;
+
+    private final PhotoLabelIndex photoLabelIndex;
+    private final PhotoReadModelRepository photoReadModelRepository;
     private final PhotoLabelRepository photoLabelRepository;
     private final PhotoReadModelMapper mapper;
-
-    private static final BigDecimal MIN_CONFIDENCE = BigDecimal.valueOf(70);
+    private final SearchTotalCache searchTotalCache;
 
     /**
      * Search photos by label tags.
+     * Matches photos carrying all tags via the in-memory label index, newest first.
+     * {@code tags} may also be a boolean {@link TagQuery} such as {@code beach AND (dog OR cat) NOT night}.
      */
     @Observed(name = "gallery.query.search")
     public Mono<PagedPhotosResponse> searchPhotosByTags(UUID userId, String tags, int page, int size) {
@@ -47,49 +56,188 @@ public class SearchPhotosHandler {
             return Mono.just(createEmptyResponse(page, size));
         }
 
-        String[] tagArray = tags.trim().split(",");
-        List<String> tagList = Arrays.stream(tagArray)
-                .map(String::trim)
-                .filter(tag -> !tag.isEmpty())
-                .collect(Collectors.toList());
+        Mono<PhotoLabelIndex.LabelMatches> matchesMono;
+        if (TagQuery.isExpression(tags)) {
+            matchesMono = Mono.fromCallable(() -> TagQuery.parse(tags))
+                    .flatMap(query -> photoLabelIndex.query(userId, query, (long) page * size, size));
+        } else {
+            List<String> tagList = parseTags(tags);
+            if (tagList.isEmpty()) {
+                return Mono.just(createEmptyResponse(page, size));
+            }
 
-        if (tagList.isEmpty()) {
-            return Mono.just(createEmptyResponse(page, size));
+            // Find photos that have ALL specified tags
+            matchesMono = photoLabelIndex.match(userId, tagList, (long) page * size, size);
         }
 
-        // Find photos that have ALL specified tags
-        return photoLabelRepository
-                .findPhotoIdsByUserIdAndAllLabels(userId, tagList.toArray(new String[0]), tagList.size())
-                .collectList()
-                .flatMap(photoIds -> {
-                    if (photoIds.isEmpty()) {
-                        return Mono.just(createEmptyResponse(page, size));
+        return matchesMono
+                .flatMap(matches -> {
+                    if (matches.photoIds().isEmpty()) {
+                        return Mono.just(createEmptyResponse(page, size, matches.total()));
                     }
 
-                    return fetchPhotosWithMetadata(photoIds, page, size);
+                    return fetchPhotosWithMetadata(matches, page, size);
                 })
                 .doOnSuccess(response -> log.info("Found {} photos matching tags: {}",
                         response.getContent().size(), tags));
     }
 
-    private Mono<PagedPhotosResponse> fetchPhotosWithMetadata(List<UUID> photoIds, int page, int size) {
-        // Apply pagination
-        int skip = page * size;
-        int limit = Math.min(size, photoIds.size() - skip);
+    /**
+     * Search photos by label tags with keyset (cursor) pagination, newest first.
+     *
+     * The page is fetched in SQL with one extra row to detect a next page, so the
+     * cost is proportional to the page size. The total is only computed when
+     * requested and is cached per user and search until the library changes.
+     *
+     * Boolean tag queries are only served page by page from the label index.
+     *
+     * @param cursor opaque cursor from a previous page, or null for the first page
+     */
+    @Observed(name = "gallery.query.search-cursor")
+    public Mono<PagedPhotosResponse> searchPhotosByTagsCursor(UUID userId,
+                                                             String tags,
+                                                             String cursor,
+                                                             int size,
+                                                             boolean includeTotal) {
+        log.debug("Searching photos for userId: {}, tags: {}, cursor: {}", userId, tags, cursor);
+
+        if (TagQuery.isExpression(tags)) {
+            return Mono.error(new TagQuery.InvalidTagQueryException(
+                    "Boolean tag queries support page-based pagination only"));
+        }
 
-        if (skip >= photoIds.size() || limit <= 0) {
-            return Mono.just(createEmptyResponse(page, size));
+        List<String> tagList = tags != null ? parseTags(tags) : List.of();
+        if (tagList.isEmpty()) {
+            return Mono.just(PagedPhotosResponse.builder()
+                    .content(List.of())
+                    .size(size)
+                    .totalElements(includeTotal ? 0L : null)
+                    .totalPages(includeTotal ? 0 : null)
+                    .hasNext(false)
+                    .hasPrevious(cursor != null)
+                    .build());
         }
 
-        List<UUID> paginatedIds = photoIds.subList(skip, skip + limit);
+        String[] labelNames = tagList.toArray(new String[0]);
+        return Mono.defer(() -> {
+                    if (cursor == null) {
+                        return photoReadModelRepository.findFirstSearchPageByUserId(
+                                userId, labelNames, size + 1).collectList();
+                    }
+                    PhotoCursor after = PhotoCursor.decode(cursor);
+                    return photoReadModelRepository.findSearchPageByUserIdAfterCursor(
+                            userId, labelNames, after.createdAt(), after.id(), size + 1)
+                            .collectList();
+                })
+                .flatMap(rows -> {
+                    boolean hasNext = rows.size() > size;
+                    List<PhotoListRow> pageRows = hasNext ? rows.subList(0, size) : rows;
+                    String nextCursor = hasNext ? PhotoCursor.of(pageRows.get(size - 1)).encode() : null;
+
+                    Mono<Optional<Long>> totalMono = includeTotal
+                            ? searchTotalCache.getOrCount(userId, String.join(",", tagList.stream().sorted().toList()),
+                                    () -> photoReadModelRepository.countSearchByUserId(userId, labelNames))
+                                    .map(Optional::of)
+                            : Mono.just(Optional.empty());
 
-        return Flux.fromIterable(paginatedIds)
-                .flatMap(photoRepository::findById)
+                    return mapper.toPhotoListItems(pageRows)
+                            .zipWith(totalMono)
+                            .map(tuple -> {
+                                Long totalElements = tuple.getT2().orElse(null);
+                                Integer totalPages = totalElements != null
+                                        ? (int) Math.ceil((double) totalElements / size)
+                                        : null;
+
+                                return PagedPhotosResponse.builder()
+                                        .content(tuple.getT1())
+                                        .size(size)
+                                        .totalElements(totalElements)
+                                        .totalPages(totalPages)
+                                        .hasNext(hasNext)
+                                        .hasPrevious(cursor != null)
+                                        .nextCursor(nextCursor)
+                                        .build();
+                            });
+                })
+                .doOnSuccess(response -> log.info("Found {} photos matching tags: {}, hasNext: {}",
+                        response.getContent().size(), tags, response.isHasNext()));
+    }
+
+    /**
+     * Search photos by label tags, most relevant first.
+     *
+     * Photos carrying all tags with at least {@link #MIN_CONFIDENCE} are scored by the
+     * mean confidence of those labels. Only the requested top ranks are kept, so the
+     * match set is never sorted in full; ranks beyond {@link #MAX_RANKED_RESULTS} are
+     * not served. The total is not computed.
+     */
+    @Observed(name = "gallery.query.search-ranked")
+    public Mono<PagedPhotosResponse> searchPhotosByTagsRanked(UUID userId, String tags, int page, int size) {
+        log.debug("Ranked search for userId: {}, tags: {}, page: {}", userId, tags, page);
+
+        if (TagQuery.isExpression(tags)) {
+            return Mono.error(new TagQuery.InvalidTagQueryException(
+                    "Relevance ranking supports comma-separated tags only"));
+        }
+        List<String> tagList = tags != null ? parseTags(tags) : List.of();
+        long offset = (long) page * size;
+        if (tagList.isEmpty() || offset >= MAX_RANKED_RESULTS) {
+            return Mono.just(createRankedResponse(List.of(), page, size, false));
+        }
+
+        // One extra row detects a next page
+        int limit = (int) Math.min(size + 1, MAX_RANKED_RESULTS - offset);
+        String[] labelNames = tagList.toArray(new String[0]);
+        return photoLabelRepository.findTopRankedPhotosByUserIdAndAllLabels(
+                        userId, labelNames, labelNames.length, MIN_CONFIDENCE, limit, offset)
                 .collectList()
-                .flatMap(photos -> enrichPhotosWithMetadata(photos, paginatedIds)
-                        .collectList()
+                .flatMap(ranked -> {
+                    boolean hasNext = ranked.size() > size;
+                    List<RankedPhotoRow> pageRanks = hasNext ? ranked.subList(0, size) : ranked;
+                    if (pageRanks.isEmpty()) {
+                        return Mono.just(createRankedResponse(List.of(), page, size, false));
+                    }
+
+                    Map<UUID, Double> scores = pageRanks.stream()
+                            .collect(Collectors.toMap(RankedPhotoRow::photoId, RankedPhotoRow::score));
+                    return photoReadModelRepository.findByIds(scores.keySet().toArray(new UUID[0]))
+                            .collectMap(PhotoListRow::id)
+                            .flatMap(rowsById -> mapper.toPhotoListItems(pageRanks.stream()
+                                    .map(rank -> rowsById.get(rank.photoId()))
+                                    .filter(Objects::nonNull)
+                                    .collect(Collectors.toList())))
+                            .map(items -> {
+                                items.forEach(item -> item.setScore(scores.get(item.getId())));
+                                return createRankedResponse(items, page, size, hasNext);
+                            });
+                })
+                .doOnSuccess(response -> log.info("Found {} ranked photos matching tags: {}",
+                        response.getContent().size(), tags));
+    }
+
+    /**
+     * Split comma-separated tags into distinct, trimmed, non-empty names.
+     */
+    static List<String> parseTags(String tags) {
+        return List.copyOf(Arrays.stream(tags.trim().split(","))
+                .map(String::trim)
+                .filter(tag -> !tag.isEmpty())
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+    }
+
+    private Mono<PagedPhotosResponse> fetchPhotosWithMetadata(PhotoLabelIndex.LabelMatches matches,
+                                                              int page,
+                                                              int size) {
+        List<UUID> pageIds = matches.photoIds();
+
+        return photoReadModelRepository.findByIds(pageIds.toArray(new UUID[0]))
+                .collectMap(PhotoListRow::id)
+                .flatMap(rowsById -> mapper.toPhotoListItems(pageIds.stream()
+                                .map(rowsById::get)
+                                .filter(Objects::nonNull)
+                                .collect(Collectors.toList()))
                         .map(items -> {
-                            int totalElements = photoIds.size();
+                            long totalElements = matches.total();
                             int totalPages = (int) Math.ceil((double) totalElements / size);
 
                             return PagedPhotosResponse.builder()
@@ -104,44 +252,33 @@ public class SearchPhotosHandler {
                         }));
     }
 
-    private Flux<PhotoListItemDto> enrichPhotosWithMetadata(List<Photo> photos, List<UUID> photoIds) {
-        // Get thumbnails for photos
-        Mono<Map<UUID, String>> thumbnailsMono = photoVersionRepository
-                .findByPhotoIdInAndVersionType(photoIds, PhotoVersionType.THUMBNAIL)
-                .collectMap(version -> version.getPhotoId(), version -> version.getS3Key());
-
-        // Get labels for photos
-        Mono<Map<UUID, List<String>>> labelsMono = Flux.fromIterable(photoIds)
-                .flatMap(photoId -> photoLabelRepository.findByPhotoId(photoId)
-                        .map(label -> label.getLabelName())
-                        .collectList()
-                        .map(labelList -> Map.entry(photoId, labelList)))
-                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
-
-        return Mono.zip(thumbnailsMono, labelsMono)
-                .flatMapMany(tuple -> {
-                    Map<UUID, String> thumbnails = tuple.getT1();
-                    Map<UUID, List<String>> labels = tuple.getT2();
-
-                    return Flux.fromIterable(photos)
-                            .flatMap(photo -> {
-                                String thumbnailS3Key = thumbnails.get(photo.getId());
-                                List<String> photoLabels = labels.getOrDefault(photo.getId(), List.of());
-
-                                return mapper.toPhotoListItem(photo, thumbnailS3Key, photoLabels);
-                            });
-                });
+    private PagedPhotosResponse createRankedResponse(List<PhotoListItemDto> items, int page, int size,
+                                                     boolean hasNext) {
+        return PagedPhotosResponse.builder()
+                .content(items)
+                .page(page)
+                .size(size)
+                .hasNext(hasNext)
+                .hasPrevious(page > 0)
+                .build();
     }
 
     private PagedPhotosResponse createEmptyResponse(int page, int size) {
+        return createEmptyResponse(page, size, 0);
+    }
+
+    /**
+     * Empty page; the total is non-zero when the page lies beyond the last match.
+     */
+    private PagedPhotosResponse createEmptyResponse(int page, int size, long totalElements) {
         return PagedPhotosResponse.builder()
                 .content(List.of())
                 .page(page)
                 .size(size)
-                .totalElements(0)
-                .totalPages(0)
+                .totalElements(totalElements)
+                .totalPages((int) Math.ceil((double) totalElements / size))
                 .hasNext(false)
-                .hasPrevious(false)
+                .hasPrevious(page > 0 && totalElements > 0)
                 .build();
     }
 }
@@ -0,0 +1,96 @@
+package com.rapidphoto.features.gallery.application;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rapidphoto.domain.event.PhotoLibraryChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Per-user cache of tag search totals.
+ *
+ * Counting every match is the only part of a keyset search whose cost grows with
+ * the number of matches, so it is computed on request and reused across pages.
+ * A user's totals are dropped whenever their library changes.
+ *
+ * Totals are tagged with the gallery version they were counted at, so changes made
+ * through other nodes make them miss once the version cache expires, like
+ * {@link GalleryPageCache}. The number of cached searches per user is capped.
+ */
+@Component
+public class SearchTotalCache {
+
+    private final GalleryVersionService galleryVersionService;
+    private final Cache<UUID, VersionedTotals> totalsByUser;
+    private final int maxTotalsPerUser;
+
+    public SearchTotalCache(GalleryVersionService galleryVersionService,
+                            @Value("${app.gallery.search-total-cache.ttl:5m}") Duration ttl,
+                            @Value("${app.gallery.search-total-cache.max-users:10000}") long maxUsers,
+                            @Value("${app.gallery.search-total-cache.max-totals-per-user:64}") int maxTotalsPerUser) {
+        this.galleryVersionService = galleryVersionService;
+        this.maxTotalsPerUser = maxTotalsPerUser;
+        this.totalsByUser = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxUsers)
+                .build();
+    }
+
+    /**
+     * Return the cached total for the user's search at the current gallery version or count (and cache) it.
+     *
+     * @param searchKey normalized search terms
+     */
+    public Mono<Long> getOrCount(UUID userId, String searchKey, Supplier<Mono<Long>> counter) {
+        return galleryVersionService.currentVersion(userId)
+                .defaultIfEmpty(0L)
+                .flatMap(version -> {
+                    VersionedTotals totals = totalsFor(userId, version);
+                    Long cached = totals.version() == version ? totals.totals().get(searchKey) : null;
+                    if (cached != null) {
+                        return Mono.just(cached);
+                    }
+                    return counter.get().doOnNext(total -> {
+                        // Never cache into a newer version's map, and cap the searches per user
+                        if (totals.version() == version
+                                && (totals.totals().containsKey(searchKey)
+                                        || totals.totals().size() < maxTotalsPerUser)) {
+                            totals.totals().put(searchKey, total);
+                        }
+                    });
+                });
+    }
+
+    /**
+     * Totals of the user, replaced by an empty map when the gallery version moved on.
+     */
+    private VersionedTotals totalsFor(UUID userId, long version) {
+        VersionedTotals totals = totalsByUser.getIfPresent(userId);
+        if (totals != null && totals.version() >= version) {
+            return totals;
+        }
+        return totalsByUser.asMap().compute(userId, (id, current) ->
+                current != null && current.version() >= version
+                        ? current
+                        : new VersionedTotals(version, new ConcurrentHashMap<>()));
+    }
+
+    /**
+     * Drop the totals of the user whose library changed.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPhotoLibraryChanged(PhotoLibraryChangedEvent event) {
+        totalsByUser.invalidate(event.userId());
+    }
+
+    private record VersionedTotals(long version, Map<String, Long> totals) {
+    }
+}
@@ -0,0 +1,64 @@
+package com.rapidphoto.features.gallery.application;
+
+import com.rapidphoto.features.gallery.api.dto.TagSuggestionDto;
+import com.rapidphoto.repository.PhotoLabelRepository;
+import io.micrometer.observation.annotation.Observed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Query handler for tag autocomplete.
+ *
+ * Prefix completions come from the in-memory label index (no database round trip
+ * once the user's index is resident). Only when nothing starts with the input is
+ * Postgres asked for trigram matches, to recover from typos.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SuggestTagsHandler {
+
+    private static final int MAX_LIMIT = 50;
+    private static final int MIN_FUZZY_LENGTH = 3;
+
+    private final PhotoLabelIndex photoLabelIndex;
+    private final PhotoLabelRepository photoLabelRepository;
+
+    /**
+     * Suggest tags for the text typed so far.
+     */
+    @Observed(name = "gallery.query.tag-suggest")
+    public Mono<List<TagSuggestionDto>> suggestTags(UUID userId, String query, int limit) {
+        String prefix = query != null ? query.trim() : "";
+        if (prefix.isEmpty()) {
+            return Mono.just(List.of());
+        }
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        return photoLabelIndex.suggest(userId, prefix, boundedLimit)
+                .flatMap(completions -> {
+                    if (!completions.isEmpty() || prefix.length() < MIN_FUZZY_LENGTH) {
+                        return Mono.just(completions.stream()
+                                .map(completion -> TagSuggestionDto.builder()
+                                        .label(completion.label())
+                                        .photoCount(completion.count())
+                                        .build())
+                                .toList());
+                    }
+
+                    log.debug("No prefix completions for '{}', falling back to trigram matching", prefix);
+                    return photoLabelRepository.findSimilarLabelsByUserId(userId, prefix, boundedLimit)
+                            .map(row -> TagSuggestionDto.builder()
+                                    .label(row.labelName())
+                                    .photoCount(row.photoCount())
+                                    .fuzzy(true)
+                                    .build())
+                            .collectList();
+                });
+    }
+}
@@ -0,0 +1,62 @@
+package com.rapidphoto.features.gallery.application;
+
+import java.util.List;
+
+/**
+ * Boolean tag query, e.g. {@code beach AND (dog OR cat) NOT night}.
+ *
+ * <pre>
+ * query   := and ("OR" and)*
+ * and     := unary (["AND"] unary)*
+ * unary   := "NOT" unary | primary
+ * primary := "(" query ")" | label | '"' label with spaces '"'
+ * </pre>
+ *
+ * Operators are upper case; adjacent terms are ANDed. Plain comma-separated tag
+ * lists are not expressions and keep their all-tags meaning.
+ */
+public sealed interface TagQuery {
+
+    int MAX_LENGTH = 1000;
+    int MAX_TERMS = 32;
+    int MAX_DEPTH = 8;
+
+    record Label(String name) implements TagQuery {}
+
+    record And(List<TagQuery> operands) implements TagQuery {}
+
+    record Or(List<TagQuery> operands) implements TagQuery {}
+
+    record Not(TagQuery operand) implements TagQuery {}
+
+    /**
+     * Whether the input uses the query language rather than a comma-separated list.
+     */
+    static boolean isExpression(String input) {
+        return input != null && TagQueryParser.EXPRESSION_MARKER.matcher(input).find();
+    }
+
+    /**
+     * Parse an expression into a tree.
+     *
+     * @throws InvalidTagQueryException if the input is malformed or exceeds the size limits
+     */
+    static TagQuery parse(String input) {
+        if (input == null || input.isBlank()) {
+            throw new InvalidTagQueryException("Tag query is empty");
+        }
+        if (input.length() > MAX_LENGTH) {
+            throw new InvalidTagQueryException("Tag query is longer than " + MAX_LENGTH + " characters");
+        }
+        return new TagQueryParser(TagQueryParser.tokenize(input)).parse();
+    }
+
+    /**
+     * Exception thrown for malformed or oversized tag queries.
+     */
+    class InvalidTagQueryException extends RuntimeException {
+        public InvalidTagQueryException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package com.rapidphoto.features.gallery.application;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Recursive descent parser for {@link TagQuery} over whitespace and parenthesis separated tokens.
+ */
+final class TagQueryParser {
+
+    static final Pattern EXPRESSION_MARKER = Pattern.compile("[()\"]|\\b(AND|OR|NOT)\\b");
+
+    private static final String AND = "AND";
+    private static final String OR = "OR";
+    private static final String NOT = "NOT";
+    private static final String OPEN = "(";
+    private static final String CLOSE = ")";
+
+    private final List<Token> tokens;
+    private int position;
+    private int terms;
+    private int depth;
+
+    TagQueryParser(List<Token> tokens) {
+        this.tokens = tokens;
+    }
+
+    TagQuery parse() {
+        TagQuery query = parseOr();
+        if (position < tokens.size()) {
+            throw new TagQuery.InvalidTagQueryException(
+                    "Unexpected '" + tokens.get(position).text() + "' in tag query");
+        }
+        return query;
+    }
+
+    private TagQuery parseOr() {
+        List<TagQuery> operands = new ArrayList<>();
+        operands.add(parseAnd());
+        while (nextIs(OR)) {
+            position++;
+            operands.add(parseAnd());
+        }
+        return operands.size() == 1 ? operands.get(0) : new TagQuery.Or(List.copyOf(operands));
+    }
+
+    private TagQuery parseAnd() {
+        List<TagQuery> operands = new ArrayList<>();
+        operands.add(parseUnary());
+        while (position < tokens.size() && !nextIs(OR) && !nextIs(CLOSE)) {
+            if (nextIs(AND)) {
+                position++;
+            }
+            operands.add(parseUnary());
+        }
+        return operands.size() == 1 ? operands.get(0) : new TagQuery.And(List.copyOf(operands));
+    }
+
+    private TagQuery parseUnary() {
+        if (nextIs(NOT)) {
+            position++;
+            return new TagQuery.Not(nested(this::parseUnary));
+        }
+        if (nextIs(OPEN)) {
+            position++;
+            TagQuery inner = nested(this::parseOr);
+            if (!nextIs(CLOSE)) {
+                throw new TagQuery.InvalidTagQueryException("Missing ')' in tag query");
+            }
+            position++;
+            return inner;
+        }
+        if (position >= tokens.size()) {
+            throw new TagQuery.InvalidTagQueryException("Tag query ends with an operator");
+        }
+
+        Token token = tokens.get(position++);
+        if (!token.quoted() && (isOperator(token.text()) || token.text().equals(CLOSE))) {
+            throw new TagQuery.InvalidTagQueryException("Expected a tag but found '" + token.text() + "'");
+        }
+        if (++terms > TagQuery.MAX_TERMS) {
+            throw new TagQuery.InvalidTagQueryException(
+                    "Tag query has more than " + TagQuery.MAX_TERMS + " tags");
+        }
+        return new TagQuery.Label(token.text());
+    }
+
+    private TagQuery nested(Supplier<TagQuery> rule) {
+        if (++depth > TagQuery.MAX_DEPTH) {
+            throw new TagQuery.InvalidTagQueryException(
+                    "Tag query is nested deeper than " + TagQuery.MAX_DEPTH + " levels");
+        }
+        TagQuery query = rule.get();
+        depth--;
+        return query;
+    }
+
+    private boolean nextIs(String keyword) {
+        if (position >= tokens.size()) {
+            return false;
+        }
+        Token token = tokens.get(position);
+        return !token.quoted() && token.text().equals(keyword);
+    }
+
+    private static boolean isOperator(String text) {
+        return text.equals(AND) || text.equals(OR) || text.equals(NOT) || text.equals(OPEN);
+    }
+
+    static List<Token> tokenize(String input) {
+        List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < input.length()) {
+            char c = input.charAt(i);
+            if (Character.isWhitespace(c) || c == ',') {
+                i++;
+            } else if (c == '(' || c == ')') {
+                tokens.add(new Token(String.valueOf(c), false));
+                i++;
+            } else if (c == '"') {
+                int end = input.indexOf('"', i + 1);
+                if (end < 0) {
+                    throw new TagQuery.InvalidTagQueryException("Unterminated quote in tag query");
+                }
+                String label = input.substring(i + 1, end).trim();
+                if (label.isEmpty()) {
+                    throw new TagQuery.InvalidTagQueryException("Empty quoted tag in tag query");
+                }
+                tokens.add(new Token(label, true));
+                i = end + 1;
+            } else {
+                int start = i;
+                while (i < input.length() && !Character.isWhitespace(input.charAt(i))
+                        && "(),\"".indexOf(input.charAt(i)) < 0) {
+                    i++;
+                }
+                tokens.add(new Token(input.substring(start, i), false));
+            }
+        }
+        return tokens;
+    }
+
+    record Token(String text, boolean quoted) {}
+}
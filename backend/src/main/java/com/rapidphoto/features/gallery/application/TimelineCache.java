@@ -0,0 +1,67 @@
+package com.rapidphoto.features.gallery.application;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rapidphoto.domain.event.PhotoLibraryChangedEvent;
+import com.rapidphoto.features.gallery.api.dto.TimelineResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Per-user cache of timeline histograms.
+ *
+ * Bucketing a large library reads every photo of the user, so histograms are
+ * computed once per granularity and time zone and reused until a photo is added
+ * or deleted. Processing does not change capture times and keeps the entries.
+ * A load that started before an invalidation writes into the detached map and is
+ * never served.
+ */
+@Component
+public class TimelineCache {
+
+    private final Cache<UUID, Map<String, TimelineResponse>> timelinesByUser;
+
+    public TimelineCache(@Value("${app.gallery.timeline-cache.ttl:1h}") Duration ttl,
+                         @Value("${app.gallery.timeline-cache.max-users:10000}") long maxUsers) {
+        this.timelinesByUser = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxUsers)
+                .build();
+    }
+
+    /**
+     * Return the cached histogram for the user or load (and cache) it.
+     *
+     * @param timelineKey identifies the histogram within the user (granularity, time zone)
+     */
+    public Mono<TimelineResponse> getOrLoad(UUID userId,
+                                            String timelineKey,
+                                            Supplier<Mono<TimelineResponse>> loader) {
+        return Mono.defer(() -> {
+            Map<String, TimelineResponse> timelines = timelinesByUser.get(userId, id -> new ConcurrentHashMap<>());
+            TimelineResponse cached = timelines.get(timelineKey);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            return loader.get().doOnNext(timeline -> timelines.put(timelineKey, timeline));
+        });
+    }
+
+    /**
+     * Drop the histograms of the user whose photos were added or deleted.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPhotoLibraryChanged(PhotoLibraryChangedEvent event) {
+        if (event.changeType() != PhotoLibraryChangedEvent.ChangeType.PROCESSED) {
+            timelinesByUser.invalidate(event.userId());
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.rapidphoto.features.gallery.application;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Inverted label index of one user's photos.
+ *
+ * Photos get dense ordinals in creation order, so a higher ordinal is a newer photo.
+ * Each label maps to a compressed bitmap of the ordinals carrying it; multi-label
+ * queries are bitmap intersections, read newest first. Label names are also kept
+ * in a prefix trie for autocomplete, with photo counts taken from the bitmaps.
+ * Facet counts within a tag filter are intersection cardinalities, computed
+ * without materializing the intersections.
+ *
+ * Boolean {@link TagQuery}s are evaluated within a shrinking candidate set: AND
+ * operands run rarest first (by their estimated cardinality), so every further
+ * operand only touches the photos still matching, and NOT operands are subtracted
+ * last from what remains.
+ */
+final class UserLabelIndex {
+
+    private static final int BYTES_PER_PHOTO = 112;
+    private static final int BYTES_PER_LABEL = 96;
+    private static final int BYTES_PER_TRIE_NODE = 72;
+
+    private final List<UUID> photoIds = new ArrayList<>();
+    private final Map<UUID, Integer> ordinals = new HashMap<>();
+    private final Map<String, RoaringBitmap> bitmaps = new HashMap<>();
+    private final RoaringBitmap live = new RoaringBitmap();
+    private final Set<UUID> removed = new HashSet<>();
+    private final LabelTrie labelTrie = new LabelTrie();
+    private Instant newestCreatedAt;
+
+    /**
+     * Add a photo or replace its labels.
+     *
+     * @return false if a new photo is older than the newest indexed one; its ordinal
+     *         would break recency order, so the index must be rebuilt
+     */
+    synchronized boolean put(UUID photoId, Instant createdAt, String[] labels) {
+        if (removed.contains(photoId)) {
+            return true;
+        }
+
+        Integer ordinal = ordinals.get(photoId);
+        if (ordinal == null) {
+            if (newestCreatedAt != null && createdAt.isBefore(newestCreatedAt)) {
+                return false;
+            }
+            ordinal = photoIds.size();
+            photoIds.add(photoId);
+            ordinals.put(photoId, ordinal);
+            live.add(ordinal);
+            newestCreatedAt = createdAt;
+        } else {
+            clearLabels(ordinal);
+        }
+
+        for (String label : labels) {
+            RoaringBitmap bitmap = bitmaps.get(label);
+            if (bitmap == null) {
+                bitmap = new RoaringBitmap();
+                bitmaps.put(label, bitmap);
+                labelTrie.insert(label);
+            }
+            bitmap.add(ordinal);
+        }
+        return true;
+    }
+
+    /**
+     * Remove a photo; later puts of the same photo (stale reads) are ignored.
+     */
+    synchronized void remove(UUID photoId) {
+        removed.add(photoId);
+        Integer ordinal = ordinals.remove(photoId);
+        if (ordinal != null) {
+            photoIds.set(ordinal, null);
+            live.remove(ordinal);
+            clearLabels(ordinal);
+        }
+    }
+
+    /**
+     * Photos carrying all labels, newest first.
+     *
+     * @param offset number of matches to skip
+     * @param limit  maximum number of photo IDs to return
+     */
+    synchronized PhotoLabelIndex.LabelMatches match(Collection<String> labels, long offset, int limit) {
+        RoaringBitmap matched = intersect(labels);
+        if (matched == null) {
+            return PhotoLabelIndex.LabelMatches.EMPTY;
+        }
+        return page(matched, offset, limit);
+    }
+
+    /**
+     * Photos matching a boolean tag query, newest first.
+     *
+     * @param offset number of matches to skip
+     * @param limit  maximum number of photo IDs to return
+     */
+    synchronized PhotoLabelIndex.LabelMatches query(TagQuery query, long offset, int limit) {
+        return page(evaluate(query, live), offset, limit);
+    }
+
+    private PhotoLabelIndex.LabelMatches page(RoaringBitmap matched, long offset, int limit) {
+        int total = matched.getCardinality();
+
+        // Highest ordinals are the newest photos: select from the top without iterating the rest
+        List<UUID> page = new ArrayList<>(Math.max(0, Math.min(limit, total)));
+        for (long rank = offset; rank < total && rank < offset + limit; rank++) {
+            page.add(photoIds.get(matched.select((int) (total - 1 - rank))));
+        }
+        return new PhotoLabelIndex.LabelMatches(total, page);
+    }
+
+    /**
+     * Labels starting with the prefix (case-insensitive), most used first.
+     */
+    synchronized List<PhotoLabelIndex.LabelCount> suggest(String prefix, int limit) {
+        return labelTrie.withPrefix(prefix).stream()
+                .map(label -> new PhotoLabelIndex.LabelCount(label, bitmaps.get(label).getCardinality()))
+                .sorted(Comparator.comparingLong(PhotoLabelIndex.LabelCount::count).reversed()
+                        .thenComparing(PhotoLabelIndex.LabelCount::label))
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Other labels of the photos carrying all filter labels, with the number of those
+     * photos carrying each, most photos first.
+     */
+    synchronized List<PhotoLabelIndex.LabelCount> facets(Collection<String> filterLabels, int limit) {
+        RoaringBitmap matched = intersect(filterLabels);
+        if (matched == null) {
+            return List.of();
+        }
+        Set<String> excluded = new HashSet<>(filterLabels);
+        return bitmaps.entrySet().stream()
+                .filter(entry -> !excluded.contains(entry.getKey()))
+                .map(entry -> new PhotoLabelIndex.LabelCount(
+                        entry.getKey(), RoaringBitmap.andCardinality(matched, entry.getValue())))
+                .filter(facet -> facet.count() > 0)
+                .sorted(Comparator.comparingLong(PhotoLabelIndex.LabelCount::count).reversed()
+                        .thenComparing(PhotoLabelIndex.LabelCount::label))
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Approximate heap footprint in kilobytes, used as the cache weight.
+     */
+    synchronized int weightKilobytes() {
+        long bytes = (long) photoIds.size() * BYTES_PER_PHOTO + (long) removed.size() * BYTES_PER_PHOTO
+                + (long) labelTrie.nodeCount() * BYTES_PER_TRIE_NODE + live.getSizeInBytes();
+        for (Map.Entry<String, RoaringBitmap> entry : bitmaps.entrySet()) {
+            bytes += BYTES_PER_LABEL + entry.getKey().length() * 2L + entry.getValue().getSizeInBytes();
+        }
+        return (int) Math.min(Integer.MAX_VALUE, bytes / 1024 + 1);
+    }
+
+    /**
+     * Ordinals carrying all labels; null if there are no labels or one is unknown.
+     * A single label returns the live bitmap, which callers must not modify.
+     */
+    private RoaringBitmap intersect(Collection<String> labels) {
+        Set<String> distinctLabels = new LinkedHashSet<>(labels);
+        RoaringBitmap[] sets = new RoaringBitmap[distinctLabels.size()];
+        int i = 0;
+        for (String label : distinctLabels) {
+            RoaringBitmap bitmap = bitmaps.get(label);
+            if (bitmap == null) {
+                return null;
+            }
+            sets[i++] = bitmap;
+        }
+        if (sets.length == 0) {
+            return null;
+        }
+        return sets.length == 1 ? sets[0] : FastAggregation.and(sets);
+    }
+
+    /**
+     * Photos within the candidate set matching the query. Never modifies its inputs,
+     * but may return the candidate set itself, so the result must not be modified.
+     */
+    private RoaringBitmap evaluate(TagQuery query, RoaringBitmap candidates) {
+        if (query instanceof TagQuery.Label label) {
+            RoaringBitmap bitmap = bitmaps.get(label.name());
+            return bitmap != null ? RoaringBitmap.and(candidates, bitmap) : new RoaringBitmap();
+        }
+        if (query instanceof TagQuery.Not not) {
+            return RoaringBitmap.andNot(candidates, evaluate(not.operand(), candidates));
+        }
+        if (query instanceof TagQuery.Or or) {
+            RoaringBitmap union = new RoaringBitmap();
+            for (TagQuery operand : or.operands()) {
+                union.or(evaluate(operand, candidates));
+                if (union.getCardinality() == candidates.getCardinality()) {
+                    break;
+                }
+            }
+            return union;
+        }
+
+        List<TagQuery> positives = new ArrayList<>();
+        List<TagQuery> negatives = new ArrayList<>();
+        for (TagQuery operand : ((TagQuery.And) query).operands()) {
+            if (operand instanceof TagQuery.Not not) {
+                negatives.add(not.operand());
+            } else {
+                positives.add(operand);
+            }
+        }
+        positives.sort(Comparator.comparingLong(this::estimate));
+
+        RoaringBitmap matched = candidates;
+        for (TagQuery operand : positives) {
+            if (matched.isEmpty()) {
+                return matched;
+            }
+            matched = evaluate(operand, matched);
+        }
+        for (TagQuery operand : negatives) {
+            if (matched.isEmpty()) {
+                return matched;
+            }
+            matched = RoaringBitmap.andNot(matched, evaluate(operand, matched));
+        }
+        return matched;
+    }
+
+    /**
+     * Upper bound on the number of photos matching the query, from label cardinalities.
+     */
+    private long estimate(TagQuery query) {
+        if (query instanceof TagQuery.Label label) {
+            RoaringBitmap bitmap = bitmaps.get(label.name());
+            return bitmap != null ? bitmap.getLongCardinality() : 0;
+        }
+        if (query instanceof TagQuery.Or or) {
+            return Math.min(live.getLongCardinality(), or.operands().stream().mapToLong(this::estimate).sum());
+        }
+        if (query instanceof TagQuery.And and) {
+            return and.operands().stream().mapToLong(this::estimate).min().orElse(0);
+        }
+        return live.getLongCardinality();
+    }
+
+    private void clearLabels(int ordinal) {
+        Iterator<Map.Entry<String, RoaringBitmap>> iterator = bitmaps.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, RoaringBitmap> entry = iterator.next();
+            if (entry.getValue().checkedRemove(ordinal) && entry.getValue().isEmpty()) {
+                iterator.remove();
+                labelTrie.remove(entry.getKey());
+            }
+        }
+    }
+}
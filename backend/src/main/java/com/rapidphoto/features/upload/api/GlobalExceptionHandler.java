@@ -1,6 +1,7 @@
 package com.rapidphoto.features.upload.api;
 
 import com.rapidphoto.features.upload.application.ConfirmUploadHandler;
+import com.rapidphoto.features.upload.application.MultipartUploadHandler;
 import com.rapidphoto.features.upload.application.PhotoEventPublisher;
 import com.rapidphoto.features.upload.application.UploadPolicyService;
 import lombok.extern.slf4j.Slf4j;
@@ -135,6 +136,60 @@ public class GlobalExceptionHandler {
         return Mono.just(ResponseEntity.status(HttpStatus.GONE).body(errorResponse));
     }
 
+    /**
+     * Handle confirmations of failed or aborted uploads.
+     */
+    @ExceptionHandler(ConfirmUploadHandler.InvalidUploadStateException.class)
+    public Mono<ResponseEntity<ErrorResponse>> handleInvalidUploadState(
+            ConfirmUploadHandler.InvalidUploadStateException ex) {
+        log.warn("Invalid upload state: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                ex.getMessage(),
+                null,
+                Instant.now()
+        );
+
+        return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse));
+    }
+
+    /**
+     * Handle uploads whose content does not match the declared SHA-256.
+     */
+    @ExceptionHandler(ConfirmUploadHandler.ContentChecksumMismatchException.class)
+    public Mono<ResponseEntity<ErrorResponse>> handleContentChecksumMismatch(
+            ConfirmUploadHandler.ContentChecksumMismatchException ex) {
+        log.warn("Content checksum mismatch: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.UNPROCESSABLE_ENTITY.value(),
+                ex.getMessage(),
+                null,
+                Instant.now()
+        );
+
+        return Mono.just(ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(errorResponse));
+    }
+
+    /**
+     * Handle multipart upload state errors.
+     */
+    @ExceptionHandler(MultipartUploadHandler.InvalidMultipartUploadException.class)
+    public Mono<ResponseEntity<ErrorResponse>> handleInvalidMultipartUpload(
+            MultipartUploadHandler.InvalidMultipartUploadException ex) {
+        log.warn("Invalid multipart upload request: {}", ex.getMessage());
+
+        ErrorResponse errorResponse = new ErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                ex.getMessage(),
+                null,
+                Instant.now()
+        );
+
+        return Mono.just(ResponseEntity.status(HttpStatus.CONFLICT).body(errorResponse));
+    }
+
     /**
      * Handle event publish errors.
      */
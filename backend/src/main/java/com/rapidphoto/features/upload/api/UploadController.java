@@ -2,10 +2,15 @@ package com.rapidphoto.features.upload.api;
 
 import com.rapidphoto.features.upload.api.dto.*;
 import com.rapidphoto.features.upload.application.BatchUploadStatusHandler;
+import com.rapidphoto.features.upload.application.ConfirmUploadBatchHandler;
 import com.rapidphoto.features.upload.application.ConfirmUploadHandler;
 import com.rapidphoto.features.upload.application.GeneratePresignedUrlHandler;
+import com.rapidphoto.features.upload.application.MultipartUploadHandler;
+import com.rapidphoto.features.upload.domain.command.CompleteMultipartUploadCommand;
+import com.rapidphoto.features.upload.domain.command.ConfirmUploadBatchCommand;
 import com.rapidphoto.features.upload.domain.command.ConfirmUploadCommand;
 import com.rapidphoto.features.upload.domain.command.GeneratePresignedUrlCommand;
+import com.rapidphoto.features.upload.domain.command.RecordUploadPartCommand;
 import com.rapidphoto.security.SecurityContextUtils;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -15,11 +20,14 @@ import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Mono;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
  * REST controller for upload operations.
- * Implements GeneratePresignedUrl, ConfirmUpload, and batch status endpoints.
+ * Implements GeneratePresignedUrl, ConfirmUpload, multipart upload, and batch status endpoints.
  */
 @Slf4j
 @RestController
@@ -29,7 +37,9 @@ public class UploadController {
 
     private final GeneratePresignedUrlHandler generatePresignedUrlHandler;
     private final ConfirmUploadHandler confirmUploadHandler;
+    private final ConfirmUploadBatchHandler confirmUploadBatchHandler;
     private final BatchUploadStatusHandler batchUploadStatusHandler;
+    private final MultipartUploadHandler multipartUploadHandler;
 
     /**
      * POST /api/v1/uploads/initiate
@@ -49,13 +59,41 @@ public class UploadController {
                             userId,
                             request.getFileName(),
                             request.getFileSize(),
-                            request.getMimeType()
+                            request.getMimeType(),
+                            request.getSha256()
                     );
 
                     return generatePresignedUrlHandler.handle(command);
                 });
     }
 
+    /**
+     * POST /api/v1/uploads/initiate-batch
+     * Generate presigned URLs for many files with one limit check and one insert.
+     */
+    @PostMapping(value = "/initiate-batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<BatchGeneratePresignedUrlResponse> initiateUploadBatch(
+            @Valid @RequestBody BatchGeneratePresignedUrlRequest request) {
+
+        return SecurityContextUtils.getCurrentUserId()
+                .flatMap(userId -> {
+                    log.info("Initiate upload batch request from userId: {}, files: {}",
+                            userId, request.getFiles().size());
+
+                    List<GeneratePresignedUrlCommand> commands = request.getFiles().stream()
+                            .map(file -> new GeneratePresignedUrlCommand(
+                                    userId,
+                                    file.getFileName(),
+                                    file.getFileSize(),
+                                    file.getMimeType(),
+                                    file.getSha256()))
+                            .toList();
+
+                    return generatePresignedUrlHandler.handleBatch(userId, commands);
+                });
+    }
+
     /**
      * POST /api/v1/uploads/{uploadId}/confirm
      * Confirm that an upload has been completed.
@@ -81,6 +119,106 @@ public class UploadController {
                 });
     }
 
+    /**
+     * POST /api/v1/uploads/confirm-batch
+     * Confirm many completed uploads with set-based writes and batched SQS publishing.
+     */
+    @PostMapping(value = "/confirm-batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<BatchConfirmUploadResponse> confirmUploadBatch(
+            @Valid @RequestBody BatchConfirmUploadRequest request) {
+
+        return SecurityContextUtils.getCurrentUserId()
+                .flatMap(userId -> {
+                    log.info("Confirm upload batch request from userId: {}, uploads: {}",
+                            userId, request.getUploads().size());
+
+                    // A repeated upload ID keeps its first ETag
+                    Map<UUID, String> etagsByUploadId = new LinkedHashMap<>();
+                    request.getUploads().forEach(upload ->
+                            etagsByUploadId.putIfAbsent(upload.getUploadId(), upload.getEtag()));
+
+                    return confirmUploadBatchHandler.handle(new ConfirmUploadBatchCommand(userId, etagsByUploadId));
+                });
+    }
+
+    /**
+     * POST /api/v1/uploads/initiate-multipart
+     * Start a multipart upload with one presigned URL per part.
+     */
+    @PostMapping(value = "/initiate-multipart", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.CREATED)
+    public Mono<InitiateMultipartUploadResponse> initiateMultipartUpload(
+            @Valid @RequestBody GeneratePresignedUrlRequest request) {
+
+        return SecurityContextUtils.getCurrentUserId()
+                .flatMap(userId -> {
+                    log.info("Initiate multipart upload request from userId: {}, fileName: {}",
+                            userId, request.getFileName());
+
+                    GeneratePresignedUrlCommand command = new GeneratePresignedUrlCommand(
+                            userId,
+                            request.getFileName(),
+                            request.getFileSize(),
+                            request.getMimeType(),
+                            request.getSha256()
+                    );
+
+                    return multipartUploadHandler.initiate(command);
+                });
+    }
+
+    /**
+     * PUT /api/v1/uploads/{uploadId}/parts/{partNumber}
+     * Record an uploaded part, so an interrupted upload can resume with the missing parts.
+     */
+    @PutMapping(value = "/{uploadId}/parts/{partNumber}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<MultipartUploadStatusResponse> recordUploadPart(
+            @PathVariable UUID uploadId,
+            @PathVariable int partNumber,
+            @Valid @RequestBody UploadPartEtagRequest request) {
+
+        return SecurityContextUtils.getCurrentUserId()
+                .flatMap(userId -> multipartUploadHandler.recordPart(
+                        new RecordUploadPartCommand(uploadId, userId, partNumber, request.getEtag())));
+    }
+
+    /**
+     * POST /api/v1/uploads/{uploadId}/complete-multipart
+     * Assemble the uploaded parts in S3 and confirm the upload.
+     */
+    @PostMapping(value = "/{uploadId}/complete-multipart", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseStatus(HttpStatus.OK)
+    public Mono<ConfirmUploadResponse> completeMultipartUpload(
+            @PathVariable UUID uploadId,
+            @Valid @RequestBody CompleteMultipartUploadRequest request) {
+
+        return SecurityContextUtils.getCurrentUserId()
+                .flatMap(userId -> {
+                    log.info("Complete multipart upload request for uploadId: {}, userId: {}",
+                            uploadId, userId);
+
+                    Map<Integer, String> etagsByPartNumber = new LinkedHashMap<>();
+                    request.getParts().forEach(part ->
+                            etagsByPartNumber.put(part.getPartNumber(), part.getEtag()));
+
+                    return multipartUploadHandler.complete(
+                            new CompleteMultipartUploadCommand(uploadId, userId, etagsByPartNumber));
+                });
+    }
+
+    /**
+     * DELETE /api/v1/uploads/{uploadId}/multipart
+     * Abort a multipart upload and discard its uploaded parts.
+     */
+    @DeleteMapping("/{uploadId}/multipart")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public Mono<Void> abortMultipartUpload(@PathVariable UUID uploadId) {
+        return SecurityContextUtils.getCurrentUserId()
+                .flatMap(userId -> multipartUploadHandler.abort(uploadId, userId));
+    }
+
     /**
      * GET /api/v1/uploads/batch/status
      * Get batch upload status combining UploadJob and Photo states.
@@ -0,0 +1,36 @@
+package com.rapidphoto.features.upload.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Request to confirm many completed uploads at once, each with its S3 ETag.
+ */
+@Data
+public class BatchConfirmUploadRequest {
+
+    @NotEmpty(message = "At least one upload is required")
+    @Size(max = 100, message = "A batch must not exceed 100 uploads")
+    private List<@Valid Upload> uploads;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Upload {
+
+        @NotNull(message = "Upload ID is required")
+        private UUID uploadId;
+
+        @NotBlank(message = "ETag is required")
+        private String etag;
+    }
+}
@@ -0,0 +1,33 @@
+package com.rapidphoto.features.upload.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Response after confirming a batch of uploads.
+ * Uploads that could not be confirmed are reported individually; they do not fail the batch.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchConfirmUploadResponse {
+
+    private List<ConfirmUploadResponse> confirmed;
+
+    private List<FailedUpload> failed;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FailedUpload {
+        private UUID uploadId;
+        private String error;
+    }
+}
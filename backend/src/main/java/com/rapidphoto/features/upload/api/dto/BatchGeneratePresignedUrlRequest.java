@@ -0,0 +1,19 @@
+package com.rapidphoto.features.upload.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Request to generate presigned URLs for many files at once.
+ */
+@Data
+public class BatchGeneratePresignedUrlRequest {
+
+    @NotEmpty(message = "At least one file is required")
+    @Size(max = 100, message = "A batch must not exceed 100 files")
+    private List<@Valid GeneratePresignedUrlRequest> files;
+}
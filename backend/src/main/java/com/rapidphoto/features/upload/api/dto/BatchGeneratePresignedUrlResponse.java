@@ -0,0 +1,20 @@
+package com.rapidphoto.features.upload.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Response with one presigned upload per requested file, in request order.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchGeneratePresignedUrlResponse {
+
+    private List<GeneratePresignedUrlResponse> uploads;
+}
@@ -0,0 +1,35 @@
+package com.rapidphoto.features.upload.api.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Request to complete a multipart upload.
+ * Parts already recorded one by one may be omitted.
+ */
+@Data
+public class CompleteMultipartUploadRequest {
+
+    private List<@Valid Part> parts = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Part {
+
+        @NotNull(message = "Part number is required")
+        @Min(value = 1, message = "Part numbers start at 1")
+        private Integer partNumber;
+
+        @NotBlank(message = "ETag is required")
+        private String etag;
+    }
+}
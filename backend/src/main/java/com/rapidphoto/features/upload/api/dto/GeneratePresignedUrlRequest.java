@@ -22,4 +22,11 @@ public class GeneratePresignedUrlRequest {
     @Pattern(regexp = "^image/(jpeg|jpg|png|gif|webp|heic|heif)$",
              message = "Only image files are allowed (JPEG, PNG, GIF, WebP, HEIC, HEIF)")
     private String mimeType;
+
+    /**
+     * Optional SHA-256 of the file as hex. A file the user already uploaded is not
+     * uploaded again, and a new upload is verified against it.
+     */
+    @Pattern(regexp = "^[0-9a-fA-F]{64}$", message = "SHA-256 must be 64 hex characters")
+    private String sha256;
 }
@@ -10,6 +10,9 @@ import java.util.UUID;
 
 /**
  * Response containing presigned URL and upload job details.
+ *
+ * When {@code alreadyPresent} is true the user already has a photo with the file's
+ * SHA-256: only {@code photoId} and the file details are set, and nothing needs to be uploaded.
  */
 @Data
 @Builder
@@ -30,4 +33,14 @@ public class GeneratePresignedUrlResponse {
     private Long fileSize;
 
     private String mimeType;
+
+    /**
+     * Base64 SHA-256 the upload is signed with; send it as the {@code x-amz-checksum-sha256}
+     * header of the PUT. Null when the request had no SHA-256.
+     */
+    private String checksumSha256;
+
+    private Boolean alreadyPresent;
+
+    private UUID photoId;
 }
@@ -0,0 +1,55 @@
+package com.rapidphoto.features.upload.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Response for a multipart upload: one presigned PUT URL per part.
+ * Every part is {@code partSize} bytes except the last, which holds the remainder.
+ *
+ * When {@code alreadyPresent} is true the user already has a photo with the file's
+ * SHA-256: only {@code photoId} and the file details are set, and no upload was started.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InitiateMultipartUploadResponse {
+
+    private UUID uploadId;
+
+    private String s3Key;
+
+    private Long partSize;
+
+    private Integer partCount;
+
+    private List<Part> parts;
+
+    private Instant expiresAt;
+
+    private String fileName;
+
+    private Long fileSize;
+
+    private String mimeType;
+
+    private Boolean alreadyPresent;
+
+    private UUID photoId;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Part {
+        private Integer partNumber;
+        private String presignedUrl;
+    }
+}
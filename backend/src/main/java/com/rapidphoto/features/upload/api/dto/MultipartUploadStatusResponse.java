@@ -0,0 +1,27 @@
+package com.rapidphoto.features.upload.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Part progress of a multipart upload.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultipartUploadStatusResponse {
+
+    private UUID uploadId;
+
+    private Integer partCount;
+
+    private Integer completedParts;
+
+    private List<Integer> missingParts;
+}
@@ -0,0 +1,18 @@
+package com.rapidphoto.features.upload.api.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Request to record a part of a multipart upload as uploaded.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UploadPartEtagRequest {
+
+    @NotBlank(message = "ETag is required")
+    private String etag;
+}
@@ -0,0 +1,185 @@
+package com.rapidphoto.features.upload.application;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.rapidphoto.repository.UploadJobRepository;
+import com.rapidphoto.repository.projection.ActiveUploadCountRow;
+import com.rapidphoto.repository.projection.ExpiredUploadRow;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-user count of active (initiated, not yet confirmed) uploads, kept in memory
+ * so the concurrent upload limit is an atomic compare-and-increment instead of a
+ * COUNT over upload_jobs on every initiate.
+ *
+ * A user's counter is seeded from the database on first use. Initiates reserve
+ * slots, confirms and aborts release them, and the scheduled reconciliation
+ * expires overdue upload jobs (releasing their slots and aborting their multipart
+ * uploads in S3) and resets counters that drifted from the database, e.g. after a
+ * crash between reserve and release.
+ *
+ * Counters are per node, so uploads confirmed or initiated through other nodes
+ * are not seen here until the next reconciliation, which resets counters to the
+ * database count of all nodes. Denials never query the database: a recount would
+ * miss this node's reservations whose jobs are not committed yet, and a burst past
+ * the limit would turn back into one COUNT per initiate.
+ */
+@Slf4j
+@Component
+public class ActiveUploadCounter {
+
+    private static final int RECONCILE_BATCH_SIZE = 1000;
+    private static final int ABORT_CONCURRENCY = 8;
+
+    private final UploadJobRepository uploadJobRepository;
+    private final S3MultipartUploadService s3MultipartUploadService;
+    private final AsyncCache<UUID, AtomicLong> countsByUser;
+
+    public ActiveUploadCounter(UploadJobRepository uploadJobRepository,
+                               S3MultipartUploadService s3MultipartUploadService,
+                               @Value("${app.upload.active-counter.idle-ttl:1h}") Duration idleTtl,
+                               @Value("${app.upload.active-counter.max-users:100000}") long maxUsers) {
+        this.uploadJobRepository = uploadJobRepository;
+        this.s3MultipartUploadService = s3MultipartUploadService;
+        this.countsByUser = Caffeine.newBuilder()
+                .expireAfterAccess(idleTtl)
+                .maximumSize(maxUsers)
+                .buildAsync();
+    }
+
+    /**
+     * Reserve slots for uploads about to be initiated, if they all fit the limit.
+     *
+     * @param requested number of slots; reserved all or nothing
+     * @return whether the slots were reserved, with the active count before
+     */
+    public Mono<Reservation> tryReserve(UUID userId, int requested, long limit) {
+        return counter(userId).map(count -> {
+            while (true) {
+                long active = count.get();
+                if (active + requested > limit) {
+                    return new Reservation(false, active);
+                }
+                if (count.compareAndSet(active, active + requested)) {
+                    return new Reservation(true, active);
+                }
+            }
+        });
+    }
+
+    /**
+     * Release slots of uploads that were confirmed, aborted, expired or never created.
+     * A user without a counter on this node has nothing to release; their next
+     * seed reads the released state from the database.
+     */
+    public void release(UUID userId, int count) {
+        CompletableFuture<AtomicLong> future = countsByUser.getIfPresent(userId);
+        if (future != null) {
+            future.thenAccept(counter -> counter.updateAndGet(active -> Math.max(0, active - count)));
+        }
+    }
+
+    /**
+     * Expire overdue upload jobs, then reset drifted counters to the database count.
+     *
+     * A counter that changes while its user is recounted is left for the next run,
+     * so concurrent reservations and releases are never overwritten.
+     *
+     * @return number of counters corrected
+     */
+    @Scheduled(initialDelayString = "${app.upload.active-counter.reconcile-interval:PT30S}",
+               fixedDelayString = "${app.upload.active-counter.reconcile-interval:PT30S}")
+    public Mono<Long> reconcile() {
+        return uploadJobRepository.expireInitiatedJobs(Instant.now())
+                .doOnNext(expired -> release(expired.userId(), 1))
+                .flatMap(expired -> abortMultipartUpload(expired).thenReturn(expired), ABORT_CONCURRENCY)
+                .count()
+                .doOnNext(expired -> {
+                    if (expired > 0) {
+                        log.info("Expired {} upload jobs", expired);
+                    }
+                })
+                .thenMany(Flux.defer(() -> Flux.fromIterable(snapshot().entrySet())))
+                .buffer(RECONCILE_BATCH_SIZE)
+                .concatMap(this::reconcileBatch)
+                .reduce(0L, Long::sum)
+                .doOnNext(corrected -> {
+                    if (corrected > 0) {
+                        log.warn("Reconciled active upload counter drift for {} users", corrected);
+                    }
+                });
+    }
+
+    /**
+     * Free the parts of an expired multipart upload. A failed abort is left to the
+     * bucket's incomplete multipart upload lifecycle rule.
+     */
+    private Mono<Void> abortMultipartUpload(ExpiredUploadRow expired) {
+        if (expired.multipartUploadId() == null) {
+            return Mono.empty();
+        }
+        return s3MultipartUploadService.abortMultipartUpload(expired.s3Key(), expired.multipartUploadId())
+                .onErrorResume(error -> {
+                    log.warn("Failed to abort expired multipart upload for s3Key: {}", expired.s3Key(), error);
+                    return Mono.empty();
+                });
+    }
+
+    private Mono<Long> reconcileBatch(List<Map.Entry<UUID, Long>> counted) {
+        UUID[] userIds = counted.stream().map(Map.Entry::getKey).toArray(UUID[]::new);
+        return uploadJobRepository.countActiveUploadsByUserIds(userIds)
+                .collectMap(ActiveUploadCountRow::userId, ActiveUploadCountRow::activeUploads)
+                .map(activeByUser -> counted.stream()
+                        .filter(entry -> {
+                            long actual = activeByUser.getOrDefault(entry.getKey(), 0L);
+                            if (actual == entry.getValue()) {
+                                return false;
+                            }
+                            CompletableFuture<AtomicLong> future = countsByUser.getIfPresent(entry.getKey());
+                            AtomicLong counter = future != null ? future.getNow(null) : null;
+                            return counter != null && counter.compareAndSet(entry.getValue(), actual);
+                        })
+                        .count());
+    }
+
+    /**
+     * Current value of every seeded counter; counters still being seeded are skipped.
+     */
+    private Map<UUID, Long> snapshot() {
+        Map<UUID, Long> counts = new HashMap<>();
+        countsByUser.asMap().forEach((userId, future) -> {
+            if (future.isDone() && !future.isCompletedExceptionally()) {
+                counts.put(userId, future.join().get());
+            }
+        });
+        return counts;
+    }
+
+    private Mono<AtomicLong> counter(UUID userId) {
+        return Mono.fromFuture(() -> countsByUser.get(userId,
+                (id, executor) -> uploadJobRepository.countActiveUploadsByUserId(id)
+                        .map(AtomicLong::new)
+                        .toFuture()));
+    }
+
+    /**
+     * Outcome of a reservation attempt.
+     *
+     * @param active active uploads of the user before this reservation
+     */
+    public record Reservation(boolean granted, long active) {}
+}
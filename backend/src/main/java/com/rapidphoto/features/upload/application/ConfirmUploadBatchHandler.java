@@ -0,0 +1,329 @@
+package com.rapidphoto.features.upload.application;
+
+import com.rapidphoto.domain.Photo;
+import com.rapidphoto.domain.PhotoStatus;
+import com.rapidphoto.domain.event.PhotoLibraryChangedEvent;
+import com.rapidphoto.features.upload.api.dto.BatchConfirmUploadResponse;
+import com.rapidphoto.features.upload.api.dto.ConfirmUploadResponse;
+import com.rapidphoto.features.upload.domain.command.ConfirmUploadBatchCommand;
+import com.rapidphoto.features.upload.domain.event.PhotoUploadConfirmedEvent;
+import com.rapidphoto.repository.PhotoGalleryViewRepository;
+import com.rapidphoto.repository.PhotoRepository;
+import com.rapidphoto.repository.UploadJobRepository;
+import com.rapidphoto.repository.projection.ConfirmedUploadRow;
+import com.rapidphoto.repository.projection.UploadConfirmationRow;
+import io.micrometer.observation.annotation.Observed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Command handler for confirming a batch of uploads with set-based SQL.
+ *
+ * One select loads the jobs with any photos already created from them, one update
+ * confirms the jobs, one insert creates the missing photos, and the processing
+ * events go out through SQS SendMessageBatch. Like the single confirm, it is
+ * idempotent: uploads that already have a photo return that photo, and a photo
+ * created concurrently by another confirm is returned instead of a duplicate.
+ * Uploads initiated with a SHA-256 are checked against the checksum S3 stored,
+ * a few at a time; mismatches fail, and only verified hashes are kept on the photos.
+ * The photo insert, the job update and the gallery view projection commit together.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ConfirmUploadBatchHandler {
+
+    private static final String CONFIRMED_MESSAGE = "Upload confirmed successfully. Photo is pending processing.";
+    private static final String ALREADY_CONFIRMED_MESSAGE = "Upload already confirmed.";
+    private static final String CHECKSUM_MISMATCH_MESSAGE = "Uploaded content does not match its SHA-256";
+    private static final int CHECKSUM_CONCURRENCY = 8;
+
+    private final UploadJobRepository uploadJobRepository;
+    private final PhotoRepository photoRepository;
+    private final PhotoGalleryViewRepository photoGalleryViewRepository;
+    private final PhotoEventPublisher photoEventPublisher;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final UploadPolicyService uploadPolicyService;
+    private final S3ChecksumService s3ChecksumService;
+    private final TransactionalOperator transactionalOperator;
+
+    /**
+     * Handle the ConfirmUploadBatch command.
+     *
+     * @param command The command
+     * @return Confirmed uploads in request order, and the uploads that could not be confirmed
+     */
+    @Observed(name = "upload.confirm.batch")
+    public Mono<BatchConfirmUploadResponse> handle(ConfirmUploadBatchCommand command) {
+        UUID userId = command.userId();
+        Map<UUID, String> etagsByUploadId = command.etagsByUploadId();
+        log.info("Confirming {} uploads for userId: {}", etagsByUploadId.size(), userId);
+
+        return uploadJobRepository.findConfirmationRowsByIdsAndUserId(
+                        etagsByUploadId.keySet().toArray(UUID[]::new), userId)
+                .collectMap(UploadConfirmationRow::id)
+                .flatMap(rowsById -> {
+                    Map<UUID, ConfirmUploadResponse> confirmed = new HashMap<>();
+                    List<BatchConfirmUploadResponse.FailedUpload> failed = new ArrayList<>();
+                    Map<UUID, UploadConfirmationRow> toCreate = new LinkedHashMap<>();
+
+                    Instant now = Instant.now();
+                    for (UUID uploadId : etagsByUploadId.keySet()) {
+                        UploadConfirmationRow row = rowsById.get(uploadId);
+                        if (row == null) {
+                            failed.add(failure(uploadId, "Upload job not found: " + uploadId));
+                        } else if (row.photoId() != null) {
+                            log.warn("Upload job {} already confirmed", uploadId);
+                            confirmed.put(uploadId, toResponse(
+                                    row.photoId(), uploadId, row.photoStatus(), ALREADY_CONFIRMED_MESSAGE));
+                        } else if ("EXPIRED".equals(row.status())
+                                || (!"CONFIRMED".equals(row.status()) && now.isAfter(row.expiresAt()))) {
+                            failed.add(failure(uploadId, "Upload job has expired"));
+                        } else if (!isConfirmable(row.status())) {
+                            // Failed and aborted uploads stay failed
+                            failed.add(failure(uploadId, "Upload cannot be confirmed: " + row.status()));
+                        } else if (row.multipart() && !"CONFIRMED".equals(row.status())
+                                && !ConfirmUploadHandler.isCompletedMultipart(row.status(), row.etag())) {
+                            failed.add(failure(uploadId, "Multipart upload must be completed before it is confirmed"));
+                        } else {
+                            toCreate.put(uploadId, row);
+                        }
+                    }
+
+                    return verifyContentSha256s(userId, toCreate, failed)
+                            .flatMap(contentSha256s -> createPhotos(
+                                    userId, etagsByUploadId, toCreate, contentSha256s, failed))
+                            .map(created -> {
+                                confirmed.putAll(created);
+                                List<ConfirmUploadResponse> ordered = etagsByUploadId.keySet().stream()
+                                        .filter(confirmed::containsKey)
+                                        .map(confirmed::get)
+                                        .toList();
+                                return BatchConfirmUploadResponse.builder()
+                                        .confirmed(ordered)
+                                        .failed(failed)
+                                        .build();
+                            });
+                })
+                .doOnSuccess(response -> log.info("Confirmed {} uploads for userId: {}, {} failed",
+                        response.getConfirmed().size(), userId, response.getFailed().size()))
+                .doOnError(error -> log.error("Failed to confirm upload batch for userId: {}", userId, error));
+    }
+
+    /**
+     * Check the uploads initiated with a SHA-256 against S3. Mismatching uploads are
+     * failed and removed from {@code toCreate}.
+     *
+     * @return verified SHA-256 by upload ID
+     */
+    private Mono<Map<UUID, String>> verifyContentSha256s(UUID userId,
+                                                         Map<UUID, UploadConfirmationRow> toCreate,
+                                                         List<BatchConfirmUploadResponse.FailedUpload> failed) {
+        return Flux.fromIterable(List.copyOf(toCreate.values()))
+                .filter(row -> row.contentSha256() != null)
+                .flatMap(row -> s3ChecksumService.verifySha256(row.s3Key(), row.contentSha256())
+                        .map(verification -> Map.entry(row, verification)), CHECKSUM_CONCURRENCY)
+                .collectList()
+                .flatMap(verifications -> {
+                    Map<UUID, String> verified = new HashMap<>();
+                    List<UUID> mismatched = new ArrayList<>();
+                    verifications.forEach(entry -> {
+                        UploadConfirmationRow row = entry.getKey();
+                        if (entry.getValue() == S3ChecksumService.ChecksumVerification.VERIFIED) {
+                            verified.put(row.id(), row.contentSha256());
+                        } else if (entry.getValue() == S3ChecksumService.ChecksumVerification.MISMATCH) {
+                            mismatched.add(row.id());
+                        }
+                    });
+                    if (mismatched.isEmpty()) {
+                        return Mono.just(verified);
+                    }
+
+                    mismatched.forEach(uploadId -> {
+                        toCreate.remove(uploadId);
+                        failed.add(failure(uploadId, CHECKSUM_MISMATCH_MESSAGE));
+                    });
+                    return Flux.fromIterable(mismatched)
+                            .concatMap(uploadId -> uploadJobRepository.markFailed(uploadId, "Content SHA-256 mismatch"))
+                            .reduce(0L, Long::sum)
+                            .doOnNext(failedJobs -> {
+                                if (failedJobs > 0) {
+                                    uploadPolicyService.releaseUploadSlots(userId, failedJobs.intValue());
+                                }
+                            })
+                            .thenReturn(verified);
+                });
+    }
+
+    /**
+     * Confirm the jobs with one update and create their photos with one insert.
+     * Jobs that expired or failed since they were read are added to {@code failed}.
+     *
+     * @param contentSha256s verified SHA-256 by upload ID
+     * @return confirm responses by upload ID
+     */
+    private Mono<Map<UUID, ConfirmUploadResponse>> createPhotos(UUID userId,
+                                                                Map<UUID, String> etagsByUploadId,
+                                                                Map<UUID, UploadConfirmationRow> toCreate,
+                                                                Map<UUID, String> contentSha256s,
+                                                                List<BatchConfirmUploadResponse.FailedUpload> failed) {
+        if (toCreate.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+
+        Instant now = Instant.now();
+        return uploadJobRepository.confirmAll(
+                        toCreate.keySet().toArray(UUID[]::new),
+                        toCreate.keySet().stream().map(etagsByUploadId::get).toArray(String[]::new),
+                        now)
+                .collectList()
+                .flatMap(confirmedRows -> insertAndProject(confirmedRows, contentSha256s, now))
+                // Job confirmations, photos and their projection commit together
+                .as(transactionalOperator::transactional)
+                .flatMap(created -> {
+                    toCreate.keySet().stream()
+                            .filter(uploadId -> !created.photoIdsByUploadId().containsKey(uploadId))
+                            .forEach(uploadId -> failed.add(failure(uploadId, "Upload job has expired or failed")));
+
+                    Map<UUID, ConfirmUploadResponse> responses = new HashMap<>();
+                    created.insertedUploadIds().forEach(uploadId -> responses.put(uploadId, toResponse(
+                            created.photoIdsByUploadId().get(uploadId), uploadId,
+                            PhotoStatus.PENDING_PROCESSING.name(), CONFIRMED_MESSAGE)));
+
+                    return publishConfirmed(userId, toCreate, created, now)
+                            .then(findConcurrentlyCreated(created.concurrentUploadIds()))
+                            .map(concurrent -> {
+                                responses.putAll(concurrent);
+                                return responses;
+                            });
+                });
+    }
+
+    /**
+     * Create photos for the confirmed jobs that have none yet and project them into the gallery view.
+     */
+    private Mono<CreatedPhotos> insertAndProject(List<ConfirmedUploadRow> confirmedRows,
+                                                 Map<UUID, String> contentSha256s,
+                                                 Instant createdAt) {
+        Map<UUID, UUID> photoIdsByUploadId = new LinkedHashMap<>();
+        confirmedRows.forEach(row -> photoIdsByUploadId.put(row.id(), UUID.randomUUID()));
+        // Jobs confirmed before (their photos since deleted) released their slots then
+        int releasedSlots = (int) confirmedRows.stream().filter(ConfirmedUploadRow::wasActive).count();
+        if (photoIdsByUploadId.isEmpty()) {
+            return Mono.just(new CreatedPhotos(photoIdsByUploadId, List.of(), List.of(), 0));
+        }
+
+        return photoRepository.insertPendingFromUploadJobs(
+                        photoIdsByUploadId.values().toArray(UUID[]::new),
+                        photoIdsByUploadId.keySet().toArray(UUID[]::new),
+                        photoIdsByUploadId.keySet().stream().map(contentSha256s::get).toArray(String[]::new),
+                        createdAt)
+                .collect(Collectors.toSet())
+                .flatMap(insertedPhotoIds -> {
+                    List<UUID> insertedUploadIds = new ArrayList<>();
+                    List<UUID> concurrentUploadIds = new ArrayList<>();
+                    photoIdsByUploadId.forEach((uploadId, photoId) ->
+                            (insertedPhotoIds.contains(photoId) ? insertedUploadIds : concurrentUploadIds)
+                                    .add(uploadId));
+
+                    CreatedPhotos created = new CreatedPhotos(
+                            photoIdsByUploadId, insertedUploadIds, concurrentUploadIds, releasedSlots);
+                    if (insertedPhotoIds.isEmpty()) {
+                        return Mono.just(created);
+                    }
+                    return photoGalleryViewRepository.refreshAll(insertedPhotoIds.toArray(UUID[]::new))
+                            .thenReturn(created);
+                });
+    }
+
+    /**
+     * Release the confirmed jobs' slots and announce the new photos, once they are committed.
+     */
+    private Mono<Void> publishConfirmed(UUID userId,
+                                        Map<UUID, UploadConfirmationRow> rowsByUploadId,
+                                        CreatedPhotos created,
+                                        Instant confirmedAt) {
+        uploadPolicyService.releaseUploadSlots(userId, created.releasedSlots());
+        if (created.insertedUploadIds().isEmpty()) {
+            return Mono.empty();
+        }
+
+        List<PhotoUploadConfirmedEvent> events = created.insertedUploadIds().stream()
+                .map(uploadId -> {
+                    UploadConfirmationRow row = rowsByUploadId.get(uploadId);
+                    return new PhotoUploadConfirmedEvent(
+                            created.photoIdsByUploadId().get(uploadId),
+                            uploadId,
+                            userId,
+                            row.s3Key(),
+                            row.fileName(),
+                            row.fileSize(),
+                            row.mimeType(),
+                            confirmedAt
+                    );
+                })
+                .toList();
+
+        return Mono.fromRunnable(() -> {
+                    for (UUID uploadId : created.insertedUploadIds()) {
+                        applicationEventPublisher.publishEvent(new PhotoLibraryChangedEvent(
+                                userId, created.photoIdsByUploadId().get(uploadId),
+                                PhotoLibraryChangedEvent.ChangeType.ADDED));
+                    }
+                })
+                .then(photoEventPublisher.publishPhotoUploadConfirmedBatch(events));
+    }
+
+    private Mono<Map<UUID, ConfirmUploadResponse>> findConcurrentlyCreated(List<UUID> uploadIds) {
+        if (uploadIds.isEmpty()) {
+            return Mono.just(Map.of());
+        }
+        log.info("Photos for {} uploads were created by a concurrent confirm", uploadIds.size());
+        return photoRepository.findByUploadJobIdIn(uploadIds.toArray(UUID[]::new))
+                .collectMap(Photo::getUploadJobId, photo -> toResponse(photo.getId(), photo.getUploadJobId(),
+                        photo.getStatus() != null ? photo.getStatus().name() : null, ALREADY_CONFIRMED_MESSAGE));
+    }
+
+    private static boolean isConfirmable(String status) {
+        return "INITIATED".equals(status) || "UPLOADED".equals(status) || "CONFIRMED".equals(status);
+    }
+
+    private ConfirmUploadResponse toResponse(UUID photoId, UUID uploadId, String status, String message) {
+        return ConfirmUploadResponse.builder()
+                .photoId(photoId)
+                .uploadId(uploadId)
+                .status(status)
+                .message(message)
+                .build();
+    }
+
+    /**
+     * Photo IDs assigned to the confirmed uploads, the uploads whose photos this batch
+     * inserted, those a concurrent confirm created first, and the slots to release.
+     */
+    private record CreatedPhotos(Map<UUID, UUID> photoIdsByUploadId,
+                                 List<UUID> insertedUploadIds,
+                                 List<UUID> concurrentUploadIds,
+                                 int releasedSlots) {}
+
+    private BatchConfirmUploadResponse.FailedUpload failure(UUID uploadId, String error) {
+        return BatchConfirmUploadResponse.FailedUpload.builder()
+                .uploadId(uploadId)
+                .error(error)
+                .build();
+    }
+}
@@ -3,22 +3,29 @@ package com.rapidphoto.features.upload.application;
 import com.rapidphoto.domain.Photo;
 import com.rapidphoto.domain.UploadJob;
 import com.rapidphoto.domain.UploadJobStatus;
+import com.rapidphoto.domain.event.PhotoLibraryChangedEvent;
 import com.rapidphoto.features.upload.api.dto.ConfirmUploadResponse;
 import com.rapidphoto.features.upload.domain.command.ConfirmUploadCommand;
 import com.rapidphoto.features.upload.domain.event.PhotoUploadConfirmedEvent;
+import com.rapidphoto.repository.PhotoGalleryViewRepository;
 import com.rapidphoto.repository.PhotoRepository;
 import com.rapidphoto.repository.UploadJobRepository;
 import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
 import reactor.core.publisher.Mono;
 
 import java.time.Instant;
+import java.util.Optional;
 
 /**
  * Command handler for ConfirmUpload.
  * Validates ETag, creates Photo aggregate, and publishes event to SQS.
+ * Uploads initiated with a SHA-256 are checked against the checksum S3 stored,
+ * and only a verified hash is kept on the photo for deduplication.
  */
 @Slf4j
 @Service
@@ -27,7 +34,12 @@ public class ConfirmUploadHandler {
 
     private final UploadJobRepository uploadJobRepository;
     private final PhotoRepository photoRepository;
+    private final PhotoGalleryViewRepository photoGalleryViewRepository;
     private final PhotoEventPublisher photoEventPublisher;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final UploadPolicyService uploadPolicyService;
+    private final S3ChecksumService s3ChecksumService;
+    private final TransactionalOperator transactionalOperator;
 
     /**
      * Handle the ConfirmUpload command.
@@ -72,11 +84,23 @@ public class ConfirmUploadHandler {
         }
 
         // Check expiration
-        if (uploadJob.isExpired()) {
+        if ("EXPIRED".equals(uploadJob.getStatus()) || uploadJob.isExpired()) {
             return Mono.error(new UploadExpiredException(
                     "Upload job has expired"));
         }
 
+        // Failed and aborted uploads stay failed
+        if (!"INITIATED".equals(uploadJob.getStatus()) && !"UPLOADED".equals(uploadJob.getStatus())) {
+            return Mono.error(new InvalidUploadStateException(
+                    "Upload cannot be confirmed: " + uploadJob.getStatus()));
+        }
+
+        // S3 only has the object once the multipart upload was completed
+        if (uploadJob.isMultipart() && !isCompletedMultipart(uploadJob.getStatus(), uploadJob.getEtag())) {
+            return Mono.error(new InvalidUploadStateException(
+                    "Multipart upload must be completed before it is confirmed"));
+        }
+
         // Update upload job with UPLOADED status first (will be CONFIRMED after photo creation)
         uploadJob.setStatus("UPLOADED");
         uploadJob.setEtag(command.etag());
@@ -84,6 +108,13 @@ public class ConfirmUploadHandler {
         return Mono.just(uploadJob);
     }
 
+    /**
+     * Whether a multipart upload was assembled by {@link MultipartUploadHandler#complete}.
+     */
+    static boolean isCompletedMultipart(String status, String etag) {
+        return "UPLOADED".equals(status) && etag != null;
+    }
+
     /**
      * Check if photo already exists for this upload, otherwise create it.
      * This prevents duplicate photo creation if confirm is called multiple times.
@@ -95,16 +126,58 @@ public class ConfirmUploadHandler {
                             uploadJob.getId(), existingPhoto.getId());
                     return Mono.just(existingPhoto);
                 })
-                .switchIfEmpty(Mono.defer(() -> {
-                    log.info("Creating new photo for uploadJobId: {}", uploadJob.getId());
-                    Photo newPhoto = Photo.fromUploadJob(uploadJob);
-                    return photoRepository.saveWithEnumCast(newPhoto)
-                            .flatMap(savedPhoto -> publishEvent(savedPhoto, uploadJob)
-                                    .thenReturn(savedPhoto));
-                }));
+                .switchIfEmpty(Mono.defer(() -> verifiedContentSha256(uploadJob)
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty())
+                        .flatMap(contentSha256 -> createPhoto(uploadJob, contentSha256.orElse(null)))));
+    }
+
+    private Mono<Photo> createPhoto(UploadJob uploadJob, String contentSha256) {
+        log.info("Creating new photo for uploadJobId: {}", uploadJob.getId());
+        Photo newPhoto = Photo.fromUploadJob(uploadJob);
+        newPhoto.setContentSha256(contentSha256);
+        return photoRepository.saveWithEnumCast(newPhoto)
+                // Photo and projection commit together, before the change is announced
+                .flatMap(savedPhoto -> photoGalleryViewRepository.refresh(savedPhoto.getId())
+                        .thenReturn(savedPhoto))
+                .as(transactionalOperator::transactional)
+                .doOnNext(savedPhoto -> applicationEventPublisher.publishEvent(new PhotoLibraryChangedEvent(
+                        savedPhoto.getUserId(), savedPhoto.getId(), PhotoLibraryChangedEvent.ChangeType.ADDED)))
+                .flatMap(savedPhoto -> publishEvent(savedPhoto, uploadJob)
+                        .thenReturn(savedPhoto));
+    }
+
+    /**
+     * The upload's SHA-256 if S3 confirms the object has it; empty if the upload had
+     * none or S3 stored no checksum. A mismatch fails the upload job.
+     */
+    private Mono<String> verifiedContentSha256(UploadJob uploadJob) {
+        if (uploadJob.getContentSha256() == null) {
+            return Mono.empty();
+        }
+        return s3ChecksumService.verifySha256(uploadJob.getS3Key(), uploadJob.getContentSha256())
+                .flatMap(verification -> {
+                    switch (verification) {
+                        case VERIFIED:
+                            return Mono.just(uploadJob.getContentSha256());
+                        case MISMATCH:
+                            return uploadJobRepository.markFailed(uploadJob.getId(), "Content SHA-256 mismatch")
+                                    .doOnNext(failed -> {
+                                        if (failed > 0) {
+                                            uploadPolicyService.releaseUploadSlots(uploadJob.getUserId(), 1);
+                                        }
+                                    })
+                                    .then(Mono.error(new ContentChecksumMismatchException(
+                                            "Uploaded content does not match its SHA-256")));
+                        default:
+                            return Mono.empty();
+                    }
+                });
     }
 
     private Mono<Void> publishEvent(Photo photo, UploadJob uploadJob) {
+        // A job confirmed before (its photo since deleted) released its slot then
+        boolean wasActive = !"CONFIRMED".equals(uploadJob.getStatus());
         // Mark upload job as confirmed now
         uploadJob.confirm(uploadJob.getEtag());
         return uploadJobRepository.updateStatusWithEnumCast(
@@ -112,7 +185,12 @@ public class ConfirmUploadHandler {
                 uploadJob.getStatus(),
                 uploadJob.getEtag(),
                 uploadJob.getConfirmedAt()
-        ).then(Mono.defer(() -> {
+        ).doOnSuccess(ignored -> {
+            if (wasActive) {
+                uploadPolicyService.releaseUploadSlots(uploadJob.getUserId(), 1);
+            }
+        })
+        .then(Mono.defer(() -> {
             PhotoUploadConfirmedEvent event = new PhotoUploadConfirmedEvent(
                     photo.getId(),
                     uploadJob.getId(),
@@ -154,6 +232,24 @@ public class ConfirmUploadHandler {
         }
     }
 
+    /**
+     * Exception thrown when the uploaded object does not match the declared SHA-256.
+     */
+    public static class ContentChecksumMismatchException extends RuntimeException {
+        public ContentChecksumMismatchException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Exception thrown when the upload job's status does not allow confirming it.
+     */
+    public static class InvalidUploadStateException extends RuntimeException {
+        public InvalidUploadStateException(String message) {
+            super(message);
+        }
+    }
+
     /**
      * Exception thrown when upload has expired.
      */
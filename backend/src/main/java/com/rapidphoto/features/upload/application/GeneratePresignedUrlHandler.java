@@ -1,20 +1,33 @@
 package com.rapidphoto.features.upload.application;
 
+import com.rapidphoto.domain.Photo;
 import com.rapidphoto.domain.UploadJob;
+import com.rapidphoto.features.upload.api.dto.BatchGeneratePresignedUrlResponse;
 import com.rapidphoto.features.upload.api.dto.GeneratePresignedUrlResponse;
 import com.rapidphoto.features.upload.domain.command.GeneratePresignedUrlCommand;
+import com.rapidphoto.repository.PhotoRepository;
 import com.rapidphoto.repository.UploadJobRepository;
 import io.micrometer.observation.annotation.Observed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
 
 /**
  * Command handler for GeneratePresignedUrl.
  * Validates constraints, generates presigned URL, and persists UploadJob.
+ *
+ * Files sent with a SHA-256 the user already has a photo for are answered with that
+ * photo instead: no upload slot, presigned URL or upload job.
  */
 @Slf4j
 @Service
@@ -24,6 +37,7 @@ public class GeneratePresignedUrlHandler {
     private final UploadPolicyService uploadPolicyService;
     private final S3PresignedUrlService s3PresignedUrlService;
     private final UploadJobRepository uploadJobRepository;
+    private final PhotoRepository photoRepository;
 
     /**
      * Handle the GeneratePresignedUrl command.
@@ -36,21 +50,138 @@ public class GeneratePresignedUrlHandler {
         log.info("Generating presigned URL for userId: {}, fileName: {}, fileSize: {}",
                 command.userId(), command.fileName(), command.fileSize());
 
-        return uploadPolicyService.verifyUploadLimit(command.userId())
-                .then(uploadPolicyService.validateFile(command.fileSize(), command.mimeType()))
-                .then(s3PresignedUrlService.generatePresignedPutUrl(
-                        command.userId(),
-                        command.fileName(),
-                        command.mimeType()))
-                .flatMap(presignedResult -> createUploadJob(command, presignedResult))
-                .flatMap(uploadJobRepository::saveWithEnumCast)
-                .map(this::toResponse)
-                .doOnSuccess(response -> log.info("Successfully generated presigned URL, uploadId: {}",
-                        response.getUploadId()))
+        Mono<Photo> existingPhoto = command.sha256() != null
+                ? photoRepository.findFirstByUserIdAndContentSha256(command.userId(), command.sha256())
+                : Mono.empty();
+
+        return existingPhoto
+                .map(photo -> toAlreadyPresentResponse(command, photo.getId()))
+                .switchIfEmpty(Mono.defer(() -> uploadPolicyService.verifyUploadLimit(command.userId())
+                        .then(Mono.defer(() -> uploadPolicyService.validateFile(command.fileSize(), command.mimeType())
+                                .then(Mono.defer(() -> s3PresignedUrlService.generatePresignedPutUrl(
+                                        command.userId(),
+                                        command.fileName(),
+                                        command.mimeType(),
+                                        command.sha256())))
+                                .flatMap(presignedResult -> createUploadJob(command, presignedResult))
+                                .flatMap(uploadJobRepository::saveWithEnumCast)
+                                // The slot reserved by the limit check has no upload job to release it
+                                .doOnError(error -> uploadPolicyService.releaseUploadSlots(command.userId(), 1))))
+                        .map(this::toResponse)))
+                .doOnSuccess(response -> log.info("Successfully generated presigned URL, uploadId: {}, photoId: {}",
+                        response.getUploadId(), response.getPhotoId()))
                 .doOnError(error -> log.error("Failed to generate presigned URL for userId: {}",
                         command.userId(), error));
     }
 
+    /**
+     * Handle GeneratePresignedUrl for a batch of files of one user.
+     *
+     * One query finds the files the user already has, by SHA-256. For the others the
+     * upload limit is checked once, every file is presigned (local signing, no S3
+     * call) and all upload jobs are persisted with one multi-row insert. The batch
+     * fails as a whole if any file to upload is invalid.
+     *
+     * @param userId   The uploading user
+     * @param commands One command per file, all for {@code userId}
+     * @return Response with one upload per file, in command order
+     */
+    @Observed(name = "upload.generate.presigned-url.batch")
+    public Mono<BatchGeneratePresignedUrlResponse> handleBatch(UUID userId,
+                                                               List<GeneratePresignedUrlCommand> commands) {
+        log.info("Generating {} presigned URLs for userId: {}", commands.size(), userId);
+
+        return findExistingPhotoIds(userId, commands)
+                .flatMap(photoIdsBySha256 -> {
+                    List<GeneratePresignedUrlCommand> toUpload = commands.stream()
+                            .filter(command -> command.sha256() == null
+                                    || !photoIdsBySha256.containsKey(command.sha256()))
+                            .toList();
+
+                    return initiateBatch(userId, toUpload)
+                            .map(uploadJobs -> {
+                                Iterator<UploadJob> created = uploadJobs.iterator();
+                                List<GeneratePresignedUrlResponse> uploads = new ArrayList<>(commands.size());
+                                for (GeneratePresignedUrlCommand command : commands) {
+                                    UUID photoId = command.sha256() != null
+                                            ? photoIdsBySha256.get(command.sha256())
+                                            : null;
+                                    uploads.add(photoId != null
+                                            ? toAlreadyPresentResponse(command, photoId)
+                                            : toResponse(created.next()));
+                                }
+                                return BatchGeneratePresignedUrlResponse.builder()
+                                        .uploads(uploads)
+                                        .build();
+                            });
+                })
+                .doOnSuccess(response -> log.info("Successfully generated {} presigned URLs for userId: {}",
+                        response.getUploads().size(), userId))
+                .doOnError(error -> log.error("Failed to generate presigned URL batch for userId: {}",
+                        userId, error));
+    }
+
+    private Mono<List<UploadJob>> initiateBatch(UUID userId, List<GeneratePresignedUrlCommand> commands) {
+        if (commands.isEmpty()) {
+            return Mono.just(List.of());
+        }
+
+        return uploadPolicyService.verifyUploadLimit(userId, commands.size())
+                .then(Mono.defer(() -> Flux.fromIterable(commands)
+                        .concatMap(command -> uploadPolicyService.validateFile(command.fileSize(), command.mimeType()))
+                        .thenMany(Flux.fromIterable(commands))
+                        .concatMap(command -> s3PresignedUrlService.generatePresignedPutUrl(
+                                userId,
+                                command.fileName(),
+                                command.mimeType(),
+                                command.sha256()))
+                        .collectList()
+                        .map(presignedResults -> createUploadJobs(userId, commands, presignedResults))
+                        .flatMap(uploadJobRepository::saveAllWithEnumCast)
+                        .doOnError(error -> uploadPolicyService.releaseUploadSlots(userId, commands.size()))));
+    }
+
+    /**
+     * IDs of the user's photos with the SHA-256 of any of the files, by SHA-256.
+     */
+    private Mono<Map<String, UUID>> findExistingPhotoIds(UUID userId, List<GeneratePresignedUrlCommand> commands) {
+        String[] sha256s = commands.stream()
+                .map(GeneratePresignedUrlCommand::sha256)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toArray(String[]::new);
+        if (sha256s.length == 0) {
+            return Mono.just(Map.of());
+        }
+        return photoRepository.findByUserIdAndContentSha256In(userId, sha256s)
+                .collectMap(Photo::getContentSha256, Photo::getId);
+    }
+
+    private List<UploadJob> createUploadJobs(UUID userId,
+                                             List<GeneratePresignedUrlCommand> commands,
+                                             List<S3PresignedUrlService.PresignedUrlResult> presignedResults) {
+        // One expiry for the batch, so the jobs can be inserted with shared values
+        Instant expiresAt = Instant.now().plusSeconds(presignedResults.get(0).expirationMinutes() * 60L);
+
+        List<UploadJob> uploadJobs = new ArrayList<>(commands.size());
+        for (int i = 0; i < commands.size(); i++) {
+            GeneratePresignedUrlCommand command = commands.get(i);
+            S3PresignedUrlService.PresignedUrlResult presignedResult = presignedResults.get(i);
+            UploadJob uploadJob = UploadJob.create(
+                    userId,
+                    presignedResult.s3Key(),
+                    presignedResult.presignedUrl(),
+                    command.fileName(),
+                    command.fileSize(),
+                    command.mimeType(),
+                    expiresAt
+            );
+            uploadJob.setContentSha256(command.sha256());
+            uploadJobs.add(uploadJob);
+        }
+        return uploadJobs;
+    }
+
     private Mono<UploadJob> createUploadJob(GeneratePresignedUrlCommand command,
                                              S3PresignedUrlService.PresignedUrlResult presignedResult) {
         Instant expiresAt = Instant.now().plusSeconds(presignedResult.expirationMinutes() * 60L);
@@ -64,6 +195,7 @@ public class GeneratePresignedUrlHandler {
                 command.mimeType(),
                 expiresAt
         );
+        uploadJob.setContentSha256(command.sha256());
 
         return Mono.just(uploadJob);
     }
@@ -77,6 +209,22 @@ public class GeneratePresignedUrlHandler {
                 .fileName(uploadJob.getFileName())
                 .fileSize(uploadJob.getFileSize())
                 .mimeType(uploadJob.getMimeType())
+                .checksumSha256(uploadJob.getContentSha256() != null
+                        ? S3ChecksumService.toBase64(uploadJob.getContentSha256())
+                        : null)
+                .alreadyPresent(false)
+                .build();
+    }
+
+    private GeneratePresignedUrlResponse toAlreadyPresentResponse(GeneratePresignedUrlCommand command, UUID photoId) {
+        log.info("File already present for userId: {}, fileName: {}, photoId: {}",
+                command.userId(), command.fileName(), photoId);
+        return GeneratePresignedUrlResponse.builder()
+                .fileName(command.fileName())
+                .fileSize(command.fileSize())
+                .mimeType(command.mimeType())
+                .alreadyPresent(true)
+                .photoId(photoId)
                 .build();
     }
 }
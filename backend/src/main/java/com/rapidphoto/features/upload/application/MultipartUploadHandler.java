@@ -0,0 +1,294 @@
+package com.rapidphoto.features.upload.application;
+
+import com.rapidphoto.domain.Photo;
+import com.rapidphoto.domain.UploadJob;
+import com.rapidphoto.features.upload.api.dto.ConfirmUploadResponse;
+import com.rapidphoto.features.upload.api.dto.InitiateMultipartUploadResponse;
+import com.rapidphoto.features.upload.api.dto.MultipartUploadStatusResponse;
+import com.rapidphoto.features.upload.domain.command.CompleteMultipartUploadCommand;
+import com.rapidphoto.features.upload.domain.command.ConfirmUploadCommand;
+import com.rapidphoto.features.upload.domain.command.GeneratePresignedUrlCommand;
+import com.rapidphoto.features.upload.domain.command.RecordUploadPartCommand;
+import com.rapidphoto.repository.PhotoRepository;
+import com.rapidphoto.repository.UploadJobRepository;
+import io.micrometer.observation.annotation.Observed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Command handler for multipart uploads.
+ *
+ * Initiate creates the S3 multipart upload and returns a presigned URL per part.
+ * Clients upload parts in parallel, optionally recording each part's ETag as it
+ * lands so an interrupted upload can resume with only the missing parts, then
+ * complete the upload, which assembles the object and confirms it like a
+ * single-PUT upload.
+ *
+ * A file sent with a SHA-256 the user already has a photo for is not uploaded
+ * again. Multipart uploads are not verified against the SHA-256, since S3 only
+ * keeps a checksum of the part checksums for them, so their photos get no content hash.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MultipartUploadHandler {
+
+    private final UploadPolicyService uploadPolicyService;
+    private final S3MultipartUploadService s3MultipartUploadService;
+    private final UploadJobRepository uploadJobRepository;
+    private final PhotoRepository photoRepository;
+    private final ConfirmUploadHandler confirmUploadHandler;
+
+    /**
+     * Create a multipart upload job with presigned part URLs.
+     */
+    @Observed(name = "upload.multipart.initiate")
+    public Mono<InitiateMultipartUploadResponse> initiate(GeneratePresignedUrlCommand command) {
+        log.info("Initiating multipart upload for userId: {}, fileName: {}, fileSize: {}",
+                command.userId(), command.fileName(), command.fileSize());
+
+        Mono<Photo> existingPhoto = command.sha256() != null
+                ? photoRepository.findFirstByUserIdAndContentSha256(command.userId(), command.sha256())
+                : Mono.empty();
+
+        return existingPhoto
+                .map(photo -> toAlreadyPresentResponse(command, photo.getId()))
+                .switchIfEmpty(Mono.defer(() -> uploadPolicyService.verifyUploadLimit(command.userId())
+                        .then(Mono.defer(() -> uploadPolicyService.validateFile(command.fileSize(), command.mimeType())
+                                .then(Mono.defer(() -> s3MultipartUploadService.createMultipartUpload(
+                                        command.userId(),
+                                        command.fileSize(),
+                                        command.mimeType())))
+                                .flatMap(result -> createUploadJob(command, result))
+                                // The slot reserved by the limit check has no upload job to release it
+                                .doOnError(error -> uploadPolicyService.releaseUploadSlots(command.userId(), 1))))))
+                .doOnSuccess(response -> log.info("Initiated multipart upload, uploadId: {}, parts: {}, photoId: {}",
+                        response.getUploadId(), response.getPartCount(), response.getPhotoId()))
+                .doOnError(error -> log.error("Failed to initiate multipart upload for userId: {}",
+                        command.userId(), error));
+    }
+
+    private Mono<InitiateMultipartUploadResponse> createUploadJob(
+            GeneratePresignedUrlCommand command,
+            S3MultipartUploadService.MultipartUploadResult result) {
+        Instant expiresAt = Instant.now().plusSeconds(result.expirationMinutes() * 60L);
+        UploadJob uploadJob = UploadJob.createMultipart(
+                command.userId(),
+                result.s3Key(),
+                result.multipartUploadId(),
+                command.fileName(),
+                command.fileSize(),
+                command.mimeType(),
+                result.partSize(),
+                result.partCount(),
+                expiresAt
+        );
+
+        return uploadJobRepository.saveMultipartWithEnumCast(uploadJob)
+                // Don't leave an untracked multipart upload behind in S3
+                .onErrorResume(error -> s3MultipartUploadService
+                        .abortMultipartUpload(result.s3Key(), result.multipartUploadId())
+                        .onErrorResume(abortError -> Mono.empty())
+                        .then(Mono.error(error)))
+                .map(savedJob -> toInitiateResponse(savedJob, result.partUrls()));
+    }
+
+    /**
+     * Record the ETag of an uploaded part.
+     *
+     * @return Part progress, including parts recorded concurrently
+     */
+    @Observed(name = "upload.multipart.record-part")
+    public Mono<MultipartUploadStatusResponse> recordPart(RecordUploadPartCommand command) {
+        log.debug("Recording part {} of uploadId: {}", command.partNumber(), command.uploadId());
+
+        return findMultipartUploadJob(command.uploadId(), command.userId())
+                .flatMap(uploadJob -> {
+                    if (!"INITIATED".equals(uploadJob.getStatus())) {
+                        return Mono.error(new InvalidMultipartUploadException(
+                                "Upload is no longer accepting parts: " + uploadJob.getStatus()));
+                    }
+                    if (command.partNumber() < 1 || command.partNumber() > uploadJob.getPartCount()) {
+                        return Mono.error(new InvalidMultipartUploadException(
+                                "Part number must be between 1 and " + uploadJob.getPartCount()));
+                    }
+                    return uploadJobRepository.updatePartEtag(uploadJob.getId(), command.partNumber(),
+                                    command.etag())
+                            .then(uploadJobRepository.findById(uploadJob.getId()));
+                })
+                .map(this::toStatusResponse);
+    }
+
+    /**
+     * Complete the multipart upload in S3 and confirm it.
+     *
+     * Retrying after S3 already assembled the object skips straight to the
+     * (idempotent) confirmation, also when the job was never marked uploaded
+     * because the S3 response was lost.
+     */
+    @Observed(name = "upload.multipart.complete")
+    public Mono<ConfirmUploadResponse> complete(CompleteMultipartUploadCommand command) {
+        log.info("Completing multipart upload for uploadId: {}, userId: {}",
+                command.uploadId(), command.userId());
+
+        return findMultipartUploadJob(command.uploadId(), command.userId())
+                .flatMap(uploadJob -> {
+                    if ("CONFIRMED".equals(uploadJob.getStatus())
+                            || ("UPLOADED".equals(uploadJob.getStatus()) && uploadJob.getEtag() != null)) {
+                        return confirm(uploadJob, uploadJob.getEtag());
+                    }
+                    if (uploadJob.isExpired()) {
+                        return Mono.error(new ConfirmUploadHandler.UploadExpiredException(
+                                "Upload job has expired"));
+                    }
+                    if (!"INITIATED".equals(uploadJob.getStatus())) {
+                        return Mono.error(new InvalidMultipartUploadException(
+                                "Upload cannot be completed: " + uploadJob.getStatus()));
+                    }
+
+                    String[] reported = new String[uploadJob.getPartCount()];
+                    for (Map.Entry<Integer, String> part : command.etagsByPartNumber().entrySet()) {
+                        if (part.getKey() < 1 || part.getKey() > reported.length) {
+                            return Mono.error(new InvalidMultipartUploadException(
+                                    "Part number must be between 1 and " + reported.length));
+                        }
+                        reported[part.getKey() - 1] = part.getValue();
+                    }
+
+                    String[] partEtags = uploadJob.getPartEtags().clone();
+                    for (int i = 0; i < reported.length; i++) {
+                        if (reported[i] != null) {
+                            partEtags[i] = reported[i];
+                        }
+                    }
+                    uploadJob.setPartEtags(partEtags);
+
+                    List<Integer> missingParts = uploadJob.getMissingPartNumbers();
+                    if (!missingParts.isEmpty()) {
+                        return Mono.error(new InvalidMultipartUploadException(
+                                "Missing parts: " + missingParts));
+                    }
+
+                    return uploadJobRepository.updatePartEtags(uploadJob.getId(), reported)
+                            .then(s3MultipartUploadService.completeMultipartUpload(
+                                    uploadJob.getS3Key(),
+                                    uploadJob.getMultipartUploadId(),
+                                    partEtags))
+                            .flatMap(etag -> uploadJobRepository.updateStatusWithEnumCast(
+                                    uploadJob.getId(), "UPLOADED", etag, null).thenReturn(etag))
+                            .flatMap(etag -> confirm(uploadJob, etag));
+                })
+                .doOnError(error -> log.error("Failed to complete multipart upload for uploadId: {}",
+                        command.uploadId(), error));
+    }
+
+    /**
+     * Abort the multipart upload in S3 and mark the job failed.
+     */
+    @Observed(name = "upload.multipart.abort")
+    public Mono<Void> abort(UUID uploadId, UUID userId) {
+        log.info("Aborting multipart upload for uploadId: {}, userId: {}", uploadId, userId);
+
+        return findMultipartUploadJob(uploadId, userId)
+                .flatMap(uploadJob -> {
+                    if ("CONFIRMED".equals(uploadJob.getStatus()) || "UPLOADED".equals(uploadJob.getStatus())) {
+                        return Mono.error(new InvalidMultipartUploadException(
+                                "Upload is already completed"));
+                    }
+                    return s3MultipartUploadService.abortMultipartUpload(
+                                    uploadJob.getS3Key(), uploadJob.getMultipartUploadId())
+                            .then(uploadJobRepository.markFailed(uploadJob.getId(), "Multipart upload aborted"))
+                            // Only the abort that ends the upload frees its slot
+                            .doOnNext(failed -> {
+                                if (failed > 0) {
+                                    uploadPolicyService.releaseUploadSlots(userId, 1);
+                                }
+                            })
+                            .then();
+                });
+    }
+
+    private Mono<ConfirmUploadResponse> confirm(UploadJob uploadJob, String etag) {
+        return confirmUploadHandler.handle(new ConfirmUploadCommand(uploadJob.getId(), uploadJob.getUserId(), etag));
+    }
+
+    private Mono<UploadJob> findMultipartUploadJob(UUID uploadId, UUID userId) {
+        return uploadJobRepository.findById(uploadId)
+                .switchIfEmpty(Mono.error(new ConfirmUploadHandler.UploadJobNotFoundException(
+                        "Upload job not found: " + uploadId)))
+                .flatMap(uploadJob -> {
+                    if (!uploadJob.getUserId().equals(userId)) {
+                        return Mono.error(new ConfirmUploadHandler.UnauthorizedUploadAccessException(
+                                "Upload job does not belong to user"));
+                    }
+                    if (!uploadJob.isMultipart()) {
+                        return Mono.error(new InvalidMultipartUploadException(
+                                "Upload is not a multipart upload"));
+                    }
+                    return Mono.just(uploadJob);
+                });
+    }
+
+    private InitiateMultipartUploadResponse toInitiateResponse(UploadJob uploadJob, List<String> partUrls) {
+        List<InitiateMultipartUploadResponse.Part> parts = new ArrayList<>(partUrls.size());
+        for (int i = 0; i < partUrls.size(); i++) {
+            parts.add(InitiateMultipartUploadResponse.Part.builder()
+                    .partNumber(i + 1)
+                    .presignedUrl(partUrls.get(i))
+                    .build());
+        }
+
+        return InitiateMultipartUploadResponse.builder()
+                .uploadId(uploadJob.getId())
+                .s3Key(uploadJob.getS3Key())
+                .partSize(uploadJob.getPartSize())
+                .partCount(uploadJob.getPartCount())
+                .parts(parts)
+                .expiresAt(uploadJob.getExpiresAt())
+                .fileName(uploadJob.getFileName())
+                .fileSize(uploadJob.getFileSize())
+                .mimeType(uploadJob.getMimeType())
+                .alreadyPresent(false)
+                .build();
+    }
+
+    private InitiateMultipartUploadResponse toAlreadyPresentResponse(GeneratePresignedUrlCommand command,
+                                                                     UUID photoId) {
+        log.info("File already present for userId: {}, fileName: {}, photoId: {}",
+                command.userId(), command.fileName(), photoId);
+        return InitiateMultipartUploadResponse.builder()
+                .fileName(command.fileName())
+                .fileSize(command.fileSize())
+                .mimeType(command.mimeType())
+                .alreadyPresent(true)
+                .photoId(photoId)
+                .build();
+    }
+
+    private MultipartUploadStatusResponse toStatusResponse(UploadJob uploadJob) {
+        List<Integer> missingParts = uploadJob.getMissingPartNumbers();
+        return MultipartUploadStatusResponse.builder()
+                .uploadId(uploadJob.getId())
+                .partCount(uploadJob.getPartCount())
+                .completedParts(uploadJob.getPartCount() - missingParts.size())
+                .missingParts(missingParts)
+                .build();
+    }
+
+    /**
+     * Exception thrown when a multipart upload request does not fit the upload's state.
+     */
+    public static class InvalidMultipartUploadException extends RuntimeException {
+        public InvalidMultipartUploadException(String message) {
+            super(message);
+        }
+    }
+}
@@ -6,9 +6,15 @@ import io.awspring.cloud.sqs.operations.SqsTemplate;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Service for publishing photo events to SQS.
  */
@@ -17,6 +23,11 @@ import reactor.core.publisher.Mono;
 @RequiredArgsConstructor
 public class PhotoEventPublisher {
 
+    /**
+     * SQS SendMessageBatch accepts at most 10 entries.
+     */
+    private static final int SQS_BATCH_SIZE = 10;
+
     private final SqsTemplate sqsTemplate;
     private final ObjectMapper objectMapper;
 
@@ -50,6 +61,47 @@ public class PhotoEventPublisher {
         });
     }
 
+    /**
+     * Publish many PhotoUploadConfirmedEvents with SendMessageBatch, 10 per request.
+     * Batches are sent one after another; the first failed batch fails the whole publish.
+     *
+     * @param events The upload confirmed events
+     * @return Mono that completes when every event is published
+     */
+    public Mono<Void> publishPhotoUploadConfirmedBatch(List<PhotoUploadConfirmedEvent> events) {
+        return Flux.fromIterable(events)
+                .buffer(SQS_BATCH_SIZE)
+                .concatMap(this::sendBatch)
+                .then();
+    }
+
+    private Mono<Void> sendBatch(List<PhotoUploadConfirmedEvent> events) {
+        return Mono.defer(() -> {
+                    List<Message<String>> messages = new ArrayList<>(events.size());
+                    for (PhotoUploadConfirmedEvent event : events) {
+                        messages.add(MessageBuilder.withPayload(toMessageBody(event)).build());
+                    }
+                    log.info("Publishing {} PhotoUploadConfirmedEvents to queue: {}",
+                            messages.size(), photoUploadQueueName);
+                    return Mono.fromFuture(sqsTemplate.sendManyAsync(photoUploadQueueName, messages));
+                })
+                .onErrorMap(e -> !(e instanceof EventPublishException), e -> {
+                    log.error("Failed to publish PhotoUploadConfirmedEvent batch for photoIds: {}",
+                            events.stream().map(PhotoUploadConfirmedEvent::photoId).toList(), e);
+                    return new EventPublishException("Failed to publish upload confirmed events", e);
+                })
+                .then();
+    }
+
+    private String toMessageBody(PhotoUploadConfirmedEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (Exception e) {
+            throw new EventPublishException("Failed to serialize upload confirmed event for photoId: "
+                    + event.photoId(), e);
+        }
+    }
+
     /**
      * Exception thrown when event publishing fails.
      */
@@ -4,14 +4,20 @@ import com.rapidphoto.domain.Photo;
 import com.rapidphoto.domain.PhotoLabel;
 import com.rapidphoto.domain.PhotoVersion;
 import com.rapidphoto.domain.PhotoVersionType;
+import com.rapidphoto.domain.event.PhotoLibraryChangedEvent;
 import com.rapidphoto.features.upload.api.dto.ProcessingCompleteRequest;
+import com.rapidphoto.repository.PhotoGalleryViewRepository;
 import com.rapidphoto.repository.PhotoLabelRepository;
 import com.rapidphoto.repository.PhotoRepository;
 import com.rapidphoto.repository.PhotoVersionRepository;
+import com.rapidphoto.repository.UserLabelCountRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.NoTransactionException;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.reactive.TransactionalEventPublisher;
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
@@ -31,6 +37,9 @@ public class ProcessingCompleteHandler {
     private final PhotoRepository photoRepository;
     private final PhotoVersionRepository photoVersionRepository;
     private final PhotoLabelRepository photoLabelRepository;
+    private final UserLabelCountRepository userLabelCountRepository;
+    private final PhotoGalleryViewRepository photoGalleryViewRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
 
     @Transactional
     public Mono<Void> handle(UUID photoId, ProcessingCompleteRequest request) {
@@ -88,17 +97,38 @@ public class ProcessingCompleteHandler {
 
                                     return photoLabelRepository.save(label);
                                 })
-                                .then();
+                                .map(PhotoLabel::getLabelName)
+                                .distinct()
+                                .collectList()
+                                .filter(labelNames -> !labelNames.isEmpty())
+                                // Same transaction as the label inserts, so a rejected redelivery never double counts
+                                .flatMap(labelNames -> userLabelCountRepository.incrementLabels(
+                                        photo.getUserId(), labelNames.toArray(String[]::new)));
                     }
 
                     return updatePhoto.then(Mono.when(saveVersions, saveLabels)
-                            .doOnSuccess(v -> log.info("Successfully updated photo {} with processing results", photoId)));
+                            .doOnSuccess(v -> log.info("Successfully updated photo {} with processing results", photoId)))
+                            // Re-project after versions and labels are written, in the same transaction
+                            .then(photoGalleryViewRepository.refresh(photoId))
+                            .then(publishProcessed(photo));
                 })
                 .switchIfEmpty(Mono.fromRunnable(() ->
                         log.warn("Photo {} not found when handling processing complete callback. Skipping.", photoId)))
                 .then();
     }
 
+    /**
+     * Publish the library change so it is delivered after the transaction commits;
+     * listeners must never observe (and re-cache) pre-commit state.
+     */
+    private Mono<Void> publishProcessed(Photo photo) {
+        PhotoLibraryChangedEvent event = new PhotoLibraryChangedEvent(
+                photo.getUserId(), photo.getId(), PhotoLibraryChangedEvent.ChangeType.PROCESSED);
+        return new TransactionalEventPublisher(applicationEventPublisher).publishEvent(event)
+                .onErrorResume(NoTransactionException.class,
+                        e -> Mono.fromRunnable(() -> applicationEventPublisher.publishEvent(event)));
+    }
+
     private void logSchemaExample(UUID photoId) {
         String example = new StringBuilder()
                 .append("\nPhotoVersion DB schema example (required columns)\n")
@@ -0,0 +1,74 @@
+package com.rapidphoto.features.upload.application;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.ChecksumMode;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Service for verifying uploaded objects against the SHA-256 the client declared.
+ *
+ * Uploads presigned with a SHA-256 are already checked by S3 when the PUT arrives;
+ * this reads the checksum S3 stored with the object, so confirmation only records a
+ * content hash the object actually has.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class S3ChecksumService {
+
+    private final S3AsyncClient s3AsyncClient;
+
+    @Value("${aws.s3.bucket-name}")
+    private String bucketName;
+
+    /**
+     * Compare the object's stored SHA-256 with the expected one.
+     *
+     * @param expectedSha256 Lowercase hex SHA-256
+     * @return UNAVAILABLE if S3 stored no SHA-256 for the object
+     */
+    public Mono<ChecksumVerification> verifySha256(String s3Key, String expectedSha256) {
+        HeadObjectRequest request = HeadObjectRequest.builder()
+                .bucket(bucketName)
+                .key(s3Key)
+                .checksumMode(ChecksumMode.ENABLED)
+                .build();
+
+        return Mono.fromFuture(() -> s3AsyncClient.headObject(request))
+                .map(response -> {
+                    if (response.checksumSHA256() == null) {
+                        log.debug("No SHA-256 stored for s3Key: {}", s3Key);
+                        return ChecksumVerification.UNAVAILABLE;
+                    }
+                    if (!response.checksumSHA256().equals(toBase64(expectedSha256))) {
+                        log.warn("SHA-256 mismatch for s3Key: {}", s3Key);
+                        return ChecksumVerification.MISMATCH;
+                    }
+                    return ChecksumVerification.VERIFIED;
+                });
+    }
+
+    /**
+     * Hex SHA-256 to the base64 form S3 uses in {@code x-amz-checksum-sha256}.
+     */
+    public static String toBase64(String sha256Hex) {
+        return Base64.getEncoder().encodeToString(HexFormat.of().parseHex(sha256Hex));
+    }
+
+    /**
+     * Outcome of a checksum verification.
+     */
+    public enum ChecksumVerification {
+        VERIFIED,
+        MISMATCH,
+        UNAVAILABLE
+    }
+}
@@ -0,0 +1,196 @@
+package com.rapidphoto.features.upload.application;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.model.AbortMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompleteMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.CompletedMultipartUpload;
+import software.amazon.awssdk.services.s3.model.CompletedPart;
+import software.amazon.awssdk.services.s3.model.CreateMultipartUploadRequest;
+import software.amazon.awssdk.services.s3.model.HeadObjectRequest;
+import software.amazon.awssdk.services.s3.model.NoSuchKeyException;
+import software.amazon.awssdk.services.s3.model.NoSuchUploadException;
+import software.amazon.awssdk.services.s3.model.UploadPartRequest;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.UploadPartPresignRequest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Service for S3 multipart uploads with presigned part URLs.
+ *
+ * The backend creates and completes the multipart upload; clients PUT the parts
+ * straight to S3, in parallel, and only re-send parts that failed.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class S3MultipartUploadService {
+
+    /**
+     * S3 minimum size of every part but the last.
+     */
+    static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+
+    /**
+     * S3 maximum number of parts per upload.
+     */
+    static final int MAX_PARTS = 10_000;
+
+    private final S3AsyncClient s3AsyncClient;
+    private final S3Presigner s3Presigner;
+
+    @Value("${aws.s3.bucket-name}")
+    private String bucketName;
+
+    @Value("${aws.s3.multipart-url-expiration:60}")
+    private int multipartUrlExpirationMinutes;
+
+    /**
+     * Create a multipart upload and presign a PUT URL for every part.
+     *
+     * @param userId   User ID for the S3 key pattern
+     * @param fileSize File size, which determines the part layout
+     * @param mimeType File MIME type
+     * @return Upload ID, part layout and part URLs in part number order
+     */
+    public Mono<MultipartUploadResult> createMultipartUpload(UUID userId, long fileSize, String mimeType) {
+        String s3Key = String.format("originals/%s/%s", userId, UUID.randomUUID());
+        long partSize = partSize(fileSize);
+        int partCount = (int) ((fileSize + partSize - 1) / partSize);
+
+        CreateMultipartUploadRequest request = CreateMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(s3Key)
+                .contentType(mimeType)
+                .build();
+
+        return Mono.fromFuture(() -> s3AsyncClient.createMultipartUpload(request))
+                .map(response -> {
+                    List<String> partUrls = new ArrayList<>(partCount);
+                    for (int partNumber = 1; partNumber <= partCount; partNumber++) {
+                        partUrls.add(presignPart(s3Key, response.uploadId(), partNumber));
+                    }
+
+                    log.info("Created multipart upload for userId: {}, s3Key: {}, parts: {} x {} bytes",
+                            userId, s3Key, partCount, partSize);
+
+                    return new MultipartUploadResult(s3Key, response.uploadId(), partSize, partUrls,
+                            multipartUrlExpirationMinutes);
+                });
+    }
+
+    /**
+     * Assemble the object from its parts.
+     *
+     * An upload S3 no longer knows whose object exists was already completed, e.g.
+     * by a request whose response was lost; keys are unique per upload, so that
+     * object is this upload's and its ETag is returned.
+     *
+     * @param partEtags ETag per part, index 0 is part 1; all parts must be present
+     * @return ETag of the assembled object
+     */
+    public Mono<String> completeMultipartUpload(String s3Key, String multipartUploadId, String[] partEtags) {
+        List<CompletedPart> parts = new ArrayList<>(partEtags.length);
+        for (int i = 0; i < partEtags.length; i++) {
+            parts.add(CompletedPart.builder().partNumber(i + 1).eTag(partEtags[i]).build());
+        }
+
+        CompleteMultipartUploadRequest request = CompleteMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(s3Key)
+                .uploadId(multipartUploadId)
+                .multipartUpload(CompletedMultipartUpload.builder().parts(parts).build())
+                .build();
+
+        return Mono.fromFuture(() -> s3AsyncClient.completeMultipartUpload(request))
+                .map(response -> response.eTag())
+                .onErrorResume(NoSuchUploadException.class, e -> findObjectEtag(s3Key)
+                        .doOnNext(etag -> log.info("Multipart upload already completed for s3Key: {}", s3Key))
+                        .switchIfEmpty(Mono.error(e)))
+                .doOnSuccess(etag -> log.info("Completed multipart upload for s3Key: {}, parts: {}",
+                        s3Key, partEtags.length));
+    }
+
+    /**
+     * ETag of the object, or empty if it does not exist.
+     */
+    private Mono<String> findObjectEtag(String s3Key) {
+        HeadObjectRequest request = HeadObjectRequest.builder()
+                .bucket(bucketName)
+                .key(s3Key)
+                .build();
+
+        return Mono.fromFuture(() -> s3AsyncClient.headObject(request))
+                .map(response -> response.eTag())
+                .onErrorResume(NoSuchKeyException.class, e -> Mono.empty());
+    }
+
+    /**
+     * Abort a multipart upload, freeing its stored parts. An upload S3 no longer
+     * knows (already aborted or completed) is not an error.
+     */
+    public Mono<Void> abortMultipartUpload(String s3Key, String multipartUploadId) {
+        AbortMultipartUploadRequest request = AbortMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(s3Key)
+                .uploadId(multipartUploadId)
+                .build();
+
+        return Mono.fromFuture(() -> s3AsyncClient.abortMultipartUpload(request))
+                .then()
+                .onErrorResume(NoSuchUploadException.class, e -> {
+                    log.debug("Multipart upload already gone for s3Key: {}", s3Key);
+                    return Mono.empty();
+                })
+                .doOnSuccess(ignored -> log.info("Aborted multipart upload for s3Key: {}", s3Key));
+    }
+
+    /**
+     * Part size for a file: the S3 minimum, grown only as far as needed to stay
+     * within the part limit. Small parts mean more parallelism and cheaper retries.
+     */
+    static long partSize(long fileSize) {
+        return Math.max(MIN_PART_SIZE, (fileSize + MAX_PARTS - 1) / MAX_PARTS);
+    }
+
+    private String presignPart(String s3Key, String multipartUploadId, int partNumber) {
+        UploadPartRequest uploadPartRequest = UploadPartRequest.builder()
+                .bucket(bucketName)
+                .key(s3Key)
+                .uploadId(multipartUploadId)
+                .partNumber(partNumber)
+                .build();
+
+        UploadPartPresignRequest presignRequest = UploadPartPresignRequest.builder()
+                .signatureDuration(Duration.ofMinutes(multipartUrlExpirationMinutes))
+                .uploadPartRequest(uploadPartRequest)
+                .build();
+
+        return s3Presigner.presignUploadPart(presignRequest).url().toString();
+    }
+
+    /**
+     * Result of creating a multipart upload.
+     *
+     * @param partUrls presigned PUT URL per part, index 0 is part 1
+     */
+    public record MultipartUploadResult(
+            String s3Key,
+            String multipartUploadId,
+            long partSize,
+            List<String> partUrls,
+            int expirationMinutes
+    ) {
+        public int partCount() {
+            return partUrls.size();
+        }
+    }
+}
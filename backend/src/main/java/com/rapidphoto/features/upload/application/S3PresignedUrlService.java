@@ -35,9 +35,12 @@ public class S3PresignedUrlService {
      * @param userId   User ID for the S3 key pattern
      * @param fileName File name
      * @param mimeType File MIME type
+     * @param sha256   Hex SHA-256 of the file, or null. When set, the URL is signed with
+     *                 the checksum header and S3 rejects a body that does not match it.
      * @return Presigned URL details
      */
-    public Mono<PresignedUrlResult> generatePresignedPutUrl(UUID userId, String fileName, String mimeType) {
+    public Mono<PresignedUrlResult> generatePresignedPutUrl(UUID userId, String fileName, String mimeType,
+                                                            String sha256) {
         return Mono.fromCallable(() -> {
             // Generate S3 key: originals/{userId}/{uuid}
             String fileId = UUID.randomUUID().toString();
@@ -49,6 +52,7 @@ public class S3PresignedUrlService {
                     .bucket(bucketName)
                     .key(s3Key)
                     .contentType(mimeType)
+                    .checksumSHA256(sha256 != null ? S3ChecksumService.toBase64(sha256) : null)
                     .build();
 
             PutObjectPresignRequest presignRequest = PutObjectPresignRequest.builder()
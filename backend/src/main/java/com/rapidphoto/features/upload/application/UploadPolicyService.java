@@ -1,6 +1,5 @@
 package com.rapidphoto.features.upload.application;
 
-import com.rapidphoto.repository.UploadJobRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -19,30 +18,58 @@ public class UploadPolicyService {
     private static final long MAX_FILE_SIZE = 100_000_000L; // 100MB
     private static final long MAX_CONCURRENT_UPLOADS = 100;
 
-    private final UploadJobRepository uploadJobRepository;
+    private final ActiveUploadCounter activeUploadCounter;
 
     /**
-     * Verify user can initiate a new upload based on concurrent upload limits.
+     * Verify user can initiate a new upload based on concurrent upload limits,
+     * and reserve a slot for it.
      *
      * @param userId User ID
      * @return Mono that completes if verification passes, errors otherwise
      */
     public Mono<Void> verifyUploadLimit(UUID userId) {
-        return uploadJobRepository.countActiveUploadsByUserId(userId)
-                .flatMap(count -> {
-                    if (count >= MAX_CONCURRENT_UPLOADS) {
-                        log.warn("User {} exceeded concurrent upload limit: {}/{}",
-                                userId, count, MAX_CONCURRENT_UPLOADS);
+        return verifyUploadLimit(userId, 1);
+    }
+
+    /**
+     * Verify user can initiate a batch of uploads and reserve slots for all of them,
+     * with one in-memory compare-and-increment for the whole batch.
+     *
+     * Reserved slots are released when the uploads are confirmed, aborted or expire;
+     * callers must release them with {@link #releaseUploadSlots} if the initiate fails.
+     *
+     * @param userId    User ID
+     * @param requested Number of uploads about to be initiated
+     * @return Mono that completes if the whole batch fits the limit, errors otherwise
+     */
+    public Mono<Void> verifyUploadLimit(UUID userId, int requested) {
+        return activeUploadCounter.tryReserve(userId, requested, MAX_CONCURRENT_UPLOADS)
+                .flatMap(reservation -> {
+                    if (!reservation.granted()) {
+                        log.warn("User {} exceeded concurrent upload limit: {}+{}/{}",
+                                userId, reservation.active(), requested, MAX_CONCURRENT_UPLOADS);
                         return Mono.error(new UploadLimitExceededException(
-                                String.format("Maximum concurrent uploads (%d) exceeded. Current active uploads: %d",
-                                        MAX_CONCURRENT_UPLOADS, count)));
+                                String.format("Maximum concurrent uploads (%d) exceeded. "
+                                                + "Current active uploads: %d, requested: %d",
+                                        MAX_CONCURRENT_UPLOADS, reservation.active(), requested)));
                     }
                     log.debug("User {} has {} active uploads (limit: {})",
-                            userId, count, MAX_CONCURRENT_UPLOADS);
+                            userId, reservation.active() + requested, MAX_CONCURRENT_UPLOADS);
                     return Mono.empty();
                 });
     }
 
+    /**
+     * Release upload slots that are no longer active: their uploads were confirmed
+     * or aborted, or their initiate failed after the limit check.
+     *
+     * @param userId User ID
+     * @param count  Number of slots to release
+     */
+    public void releaseUploadSlots(UUID userId, int count) {
+        activeUploadCounter.release(userId, count);
+    }
+
     /**
      * Validate file size and MIME type.
      *
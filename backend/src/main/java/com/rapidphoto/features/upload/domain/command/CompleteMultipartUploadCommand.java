@@ -0,0 +1,14 @@
+package com.rapidphoto.features.upload.domain.command;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Command to complete a multipart upload and confirm it.
+ * Parts not given here must have been recorded before.
+ */
+public record CompleteMultipartUploadCommand(
+    UUID uploadId,
+    UUID userId,
+    Map<Integer, String> etagsByPartNumber
+) {}
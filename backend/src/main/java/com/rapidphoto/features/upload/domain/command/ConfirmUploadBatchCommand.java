@@ -0,0 +1,14 @@
+package com.rapidphoto.features.upload.domain.command;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Command to confirm many uploads of one user.
+ *
+ * @param etagsByUploadId S3 ETag of each upload, in request order
+ */
+public record ConfirmUploadBatchCommand(
+    UUID userId,
+    Map<UUID, String> etagsByUploadId
+) {}
@@ -1,13 +1,25 @@
 package com.rapidphoto.features.upload.domain.command;
 
+import java.util.Locale;
 import java.util.UUID;
 
 /**
  * Command to generate a presigned URL for upload.
+ *
+ * @param sha256 Client-computed SHA-256 of the file as hex, or null
  */
 public record GeneratePresignedUrlCommand(
     UUID userId,
     String fileName,
     Long fileSize,
-    String mimeType
-) {}
+    String mimeType,
+    String sha256
+) {
+    public GeneratePresignedUrlCommand {
+        sha256 = sha256 != null ? sha256.toLowerCase(Locale.ROOT) : null;
+    }
+
+    public GeneratePresignedUrlCommand(UUID userId, String fileName, Long fileSize, String mimeType) {
+        this(userId, fileName, fileSize, mimeType, null);
+    }
+}
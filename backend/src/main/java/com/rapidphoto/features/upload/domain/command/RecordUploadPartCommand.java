@@ -0,0 +1,13 @@
+package com.rapidphoto.features.upload.domain.command;
+
+import java.util.UUID;
+
+/**
+ * Command to record an uploaded part of a multipart upload.
+ */
+public record RecordUploadPartCommand(
+    UUID uploadId,
+    UUID userId,
+    int partNumber,
+    String etag
+) {}
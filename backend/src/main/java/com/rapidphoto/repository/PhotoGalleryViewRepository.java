@@ -0,0 +1,88 @@
+package com.rapidphoto.repository;
+
+import com.rapidphoto.domain.Photo;
+import org.springframework.data.r2dbc.repository.Modifying;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.Repository;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Write side of the denormalized {@code photo_gallery_view} read model.
+ *
+ * Command handlers refresh a photo's row after changing its source rows, within the
+ * same transaction where they have one. Every write re-projects from the source
+ * tables, so a refresh is idempotent and a rebuild repairs any drift.
+ * Reads go through {@link PhotoReadModelRepository}.
+ */
+@org.springframework.stereotype.Repository
+public interface PhotoGalleryViewRepository extends Repository<Photo, UUID> {
+
+    String PROJECTION_UPSERT = """
+            INSERT INTO photo_gallery_view (photo_id, user_id, file_name, status, original_s3_key, thumbnail_s3_key,
+                                            width, height, labels, search_vector, created_at, taken_at, updated_at)
+            SELECT p.id, p.user_id, p.file_name, p.status, p.original_s3_key, t.s3_key,
+                   p.width, p.height, COALESCE(l.labels, '{}'), p.search_vector, p.created_at, p.taken_at,
+                   CURRENT_TIMESTAMP
+            FROM photos p
+            LEFT JOIN photo_versions t ON t.photo_id = p.id AND t.version_type = 'THUMBNAIL'
+            LEFT JOIN LATERAL (
+                SELECT array_agg(pl.label_name ORDER BY pl.confidence DESC) AS labels
+                FROM photo_labels pl
+                WHERE pl.photo_id = p.id
+            ) l ON true
+            """;
+
+    String PROJECTION_CONFLICT = """
+            ON CONFLICT (photo_id) DO UPDATE SET
+                file_name = EXCLUDED.file_name,
+                status = EXCLUDED.status,
+                original_s3_key = EXCLUDED.original_s3_key,
+                thumbnail_s3_key = EXCLUDED.thumbnail_s3_key,
+                width = EXCLUDED.width,
+                height = EXCLUDED.height,
+                labels = EXCLUDED.labels,
+                search_vector = EXCLUDED.search_vector,
+                created_at = EXCLUDED.created_at,
+                taken_at = EXCLUDED.taken_at,
+                updated_at = EXCLUDED.updated_at
+            """;
+
+    /**
+     * Re-project one photo; a no-op if the photo does not exist.
+     */
+    @Query(PROJECTION_UPSERT + "WHERE p.id = :photoId\n" + PROJECTION_CONFLICT)
+    Mono<Void> refresh(UUID photoId);
+
+    /**
+     * Re-project many photos in one statement.
+     */
+    @Query(PROJECTION_UPSERT + "WHERE p.id = ANY(:photoIds)\n" + PROJECTION_CONFLICT)
+    Mono<Void> refreshAll(UUID[] photoIds);
+
+    /**
+     * Drop a photo's row. Deleting the photo cascades too; this keeps the view
+     * consistent while the rest of the delete is still in flight.
+     */
+    @Query("DELETE FROM photo_gallery_view WHERE photo_id = :photoId")
+    Mono<Void> deleteByPhotoId(UUID photoId);
+
+    /**
+     * Re-project every photo of a user.
+     *
+     * @return number of rows written
+     */
+    @Modifying
+    @Query(PROJECTION_UPSERT + "WHERE p.user_id = :userId\n" + PROJECTION_CONFLICT)
+    Mono<Long> rebuildByUserId(UUID userId);
+
+    /**
+     * Re-project every photo.
+     *
+     * @return number of rows written
+     */
+    @Modifying
+    @Query(PROJECTION_UPSERT + PROJECTION_CONFLICT)
+    Mono<Long> rebuildAll();
+}
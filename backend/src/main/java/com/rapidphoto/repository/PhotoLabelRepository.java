@@ -1,6 +1,8 @@
 package com.rapidphoto.repository;
 
 import com.rapidphoto.domain.PhotoLabel;
+import com.rapidphoto.repository.projection.LabelCountRow;
+import com.rapidphoto.repository.projection.RankedPhotoRow;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
@@ -21,6 +23,12 @@ public interface PhotoLabelRepository extends ReactiveCrudRepository<PhotoLabel,
      */
     Flux<PhotoLabel> findByPhotoId(UUID photoId);
 
+    /**
+     * Find all labels for many photos in one query.
+     */
+    @Query("SELECT * FROM photo_labels WHERE photo_id = ANY(:photoIds)")
+    Flux<PhotoLabel> findByPhotoIdIn(UUID[] photoIds);
+
     /**
      * Find labels for a photo with minimum confidence.
      */
@@ -57,6 +65,17 @@ public interface PhotoLabelRepository extends ReactiveCrudRepository<PhotoLabel,
            "ORDER BY pl.confidence DESC")
     Flux<PhotoLabel> searchByUserIdAndLabelPattern(UUID userId, String labelPattern, BigDecimal minConfidence);
 
+    /**
+     * Find the user's labels similar to a (possibly misspelled) query, using the trigram index.
+     */
+    @Query("SELECT pl.label_name, COUNT(DISTINCT pl.photo_id) AS photo_count FROM photo_labels pl " +
+           "JOIN photos p ON pl.photo_id = p.id " +
+           "WHERE p.user_id = :userId AND pl.label_name % :query " +
+           "GROUP BY pl.label_name " +
+           "ORDER BY similarity(pl.label_name, :query) DESC, photo_count DESC " +
+           "LIMIT :limit")
+    Flux<LabelCountRow> findSimilarLabelsByUserId(UUID userId, String query, int limit);
+
     /**
      * Find photos with multiple labels (tag intersection).
      * Returns photo IDs that have all specified labels.
@@ -68,6 +87,35 @@ public interface PhotoLabelRepository extends ReactiveCrudRepository<PhotoLabel,
            "HAVING COUNT(DISTINCT pl.label_name) = :labelCount")
     Flux<UUID> findPhotoIdsByUserIdAndAllLabels(UUID userId, String[] labelNames, int labelCount);
 
+    /**
+     * Find the top photos of a user carrying all labels with at least the minimum
+     * confidence, ranked by the mean confidence of those labels (newest first on ties).
+     * ORDER BY ... LIMIT lets Postgres keep only the top rows in a bounded heap
+     * instead of sorting every match.
+     */
+    @Query("SELECT pl.photo_id, CAST(AVG(pl.confidence) AS double precision) AS score " +
+           "FROM photo_labels pl " +
+           "JOIN photos p ON pl.photo_id = p.id " +
+           "WHERE p.user_id = :userId AND pl.label_name = ANY(:labelNames) " +
+           "AND pl.confidence >= :minConfidence " +
+           "GROUP BY pl.photo_id, p.created_at " +
+           "HAVING COUNT(DISTINCT pl.label_name) = :labelCount " +
+           "ORDER BY score DESC, p.created_at DESC, pl.photo_id DESC " +
+           "LIMIT :limit OFFSET :offset")
+    Flux<RankedPhotoRow> findTopRankedPhotosByUserIdAndAllLabels(UUID userId, String[] labelNames, int labelCount,
+                                                                 BigDecimal minConfidence, int limit, long offset);
+
+    /**
+     * Count photos of a user that have all specified labels.
+     */
+    @Query("SELECT COUNT(*) FROM (" +
+           "SELECT pl.photo_id FROM photo_labels pl " +
+           "JOIN photos p ON pl.photo_id = p.id " +
+           "WHERE p.user_id = :userId AND pl.label_name = ANY(:labelNames) " +
+           "GROUP BY pl.photo_id " +
+           "HAVING COUNT(DISTINCT pl.label_name) = :labelCount) matches")
+    Mono<Long> countPhotosByUserIdAndAllLabels(UUID userId, String[] labelNames, int labelCount);
+
     /**
      * Count labels for a photo.
      */
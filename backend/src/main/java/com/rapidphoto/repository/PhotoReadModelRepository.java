@@ -0,0 +1,251 @@
+package com.rapidphoto.repository;
+
+import com.rapidphoto.domain.Photo;
+import com.rapidphoto.repository.projection.GeoCellRow;
+import com.rapidphoto.repository.projection.PhotoGeoRow;
+import com.rapidphoto.repository.projection.PhotoLabelsRow;
+import com.rapidphoto.repository.projection.PhotoListRow;
+import com.rapidphoto.repository.projection.TimelineBucketRow;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Read-model queries for gallery pages.
+ *
+ * Gallery, search and label index queries read the denormalized
+ * {@code photo_gallery_view}, which carries each photo's thumbnail key and labels,
+ * so a page is a single-table index scan and one round trip regardless of its size.
+ * Map and timeline queries aggregate over {@code photos} directly.
+ */
+@org.springframework.stereotype.Repository
+public interface PhotoReadModelRepository extends Repository<Photo, UUID> {
+
+    String LIST_ROW_SELECT = """
+            SELECT photo_id AS id, file_name, status, original_s3_key, width, height,
+                   created_at, taken_at, thumbnail_s3_key, labels
+            FROM photo_gallery_view
+            """;
+
+    /**
+     * Restricts {@code photo_gallery_view} to rows carrying all {@code :labelNames},
+     * served by idx_photo_gallery_view_user_labels. An empty {@code :labelNames}
+     * matches every photo.
+     */
+    String ALL_LABELS_FILTER = """
+            AND labels @> CAST(:labelNames AS varchar[])
+            """;
+
+    /**
+     * Restricts {@code photo_gallery_view} to rows of {@code :userId} matching the
+     * {@code :textQuery} tsquery, served by idx_photo_gallery_view_user_search_vector.
+     */
+    String TEXT_SEARCH_FILTER = """
+            WHERE user_id = :userId AND search_vector @@ to_tsquery('simple', :textQuery)
+            """;
+
+    String LABELS_ROW_SELECT = """
+            SELECT photo_id AS id, created_at, labels
+            FROM photo_gallery_view
+            """;
+
+    /**
+     * Geotagged photos of :userId inside (:south, :west, :north, :east), served by
+     * idx_photos_user_geo. A box with west > east crosses the antimeridian.
+     */
+    String GEO_BOUNDS_FILTER = """
+            WHERE user_id = :userId
+              AND gps_latitude IS NOT NULL
+              AND gps_latitude BETWEEN CAST(:south AS numeric) AND CAST(:north AS numeric)
+              AND CASE WHEN :west <= :east
+                       THEN gps_longitude BETWEEN CAST(:west AS numeric) AND CAST(:east AS numeric)
+                       ELSE gps_longitude >= CAST(:west AS numeric) OR gps_longitude <= CAST(:east AS numeric)
+                  END
+            """;
+
+    /**
+     * Find an offset page of list rows for a user, newest first.
+     */
+    @Query(LIST_ROW_SELECT + """
+            WHERE user_id = :userId
+            ORDER BY created_at DESC, photo_id DESC
+            LIMIT :limit OFFSET :offset
+            """)
+    Flux<PhotoListRow> findPageByUserId(UUID userId, int limit, long offset);
+
+    /**
+     * Find the first keyset page of list rows for a user, newest first.
+     */
+    @Query(LIST_ROW_SELECT + """
+            WHERE user_id = :userId
+            ORDER BY created_at DESC, photo_id DESC
+            LIMIT :limit
+            """)
+    Flux<PhotoListRow> findFirstPageByUserId(UUID userId, int limit);
+
+    /**
+     * Find the keyset page of list rows strictly after the (createdAt, id) cursor.
+     */
+    @Query(LIST_ROW_SELECT + """
+            WHERE user_id = :userId AND (created_at, photo_id) < (:createdAt, :id)
+            ORDER BY created_at DESC, photo_id DESC
+            LIMIT :limit
+            """)
+    Flux<PhotoListRow> findPageByUserIdAfterCursor(UUID userId, Instant createdAt, UUID id, int limit);
+
+    /**
+     * Find the first keyset page of photos carrying all labels, newest first.
+     */
+    @Query(LIST_ROW_SELECT + """
+            WHERE user_id = :userId
+            """ + ALL_LABELS_FILTER + """
+            ORDER BY created_at DESC, photo_id DESC
+            LIMIT :limit
+            """)
+    Flux<PhotoListRow> findFirstSearchPageByUserId(UUID userId, String[] labelNames, int limit);
+
+    /**
+     * Find the keyset page of photos carrying all labels strictly after the (createdAt, id) cursor.
+     */
+    @Query(LIST_ROW_SELECT + """
+            WHERE user_id = :userId AND (created_at, photo_id) < (:createdAt, :id)
+            """ + ALL_LABELS_FILTER + """
+            ORDER BY created_at DESC, photo_id DESC
+            LIMIT :limit
+            """)
+    Flux<PhotoListRow> findSearchPageByUserIdAfterCursor(UUID userId, String[] labelNames,
+                                                         Instant createdAt, UUID id, int limit);
+
+    /**
+     * Count photos carrying all labels.
+     */
+    @Query("SELECT COUNT(*) FROM photo_gallery_view WHERE user_id = :userId " + ALL_LABELS_FILTER)
+    Mono<Long> countSearchByUserId(UUID userId, String[] labelNames);
+
+    /**
+     * Find an offset page of photos matching the text query and carrying all labels, newest first.
+     */
+    @Query(LIST_ROW_SELECT + TEXT_SEARCH_FILTER + ALL_LABELS_FILTER + """
+            ORDER BY created_at DESC, photo_id DESC
+            LIMIT :limit OFFSET :offset
+            """)
+    Flux<PhotoListRow> findTextSearchPageByUserId(UUID userId, String textQuery, String[] labelNames,
+                                                  int limit, long offset);
+
+    /**
+     * Find the keyset page of photos matching the text query and carrying all labels
+     * strictly after the (createdAt, id) cursor.
+     */
+    @Query(LIST_ROW_SELECT + TEXT_SEARCH_FILTER + """
+            AND (created_at, photo_id) < (:createdAt, :id)
+            """ + ALL_LABELS_FILTER + """
+            ORDER BY created_at DESC, photo_id DESC
+            LIMIT :limit
+            """)
+    Flux<PhotoListRow> findTextSearchPageByUserIdAfterCursor(UUID userId, String textQuery, String[] labelNames,
+                                                             Instant createdAt, UUID id, int limit);
+
+    /**
+     * Count photos matching the text query and carrying all labels.
+     */
+    @Query("SELECT COUNT(*) FROM photo_gallery_view " + TEXT_SEARCH_FILTER + ALL_LABELS_FILTER)
+    Mono<Long> countTextSearchByUserId(UUID userId, String textQuery, String[] labelNames);
+
+    /**
+     * Find list rows for a set of photo IDs (order is not guaranteed).
+     */
+    @Query(LIST_ROW_SELECT + "WHERE photo_id = ANY(:ids)")
+    Flux<PhotoListRow> findByIds(UUID[] ids);
+
+    /**
+     * Find every photo of a user with its label names, oldest first (label index load).
+     */
+    @Query(LABELS_ROW_SELECT + """
+            WHERE user_id = :userId
+            ORDER BY created_at, photo_id
+            """)
+    Flux<PhotoLabelsRow> findLabelsRowsByUserId(UUID userId);
+
+    /**
+     * Find one photo with its label names (incremental label index update).
+     */
+    @Query(LABELS_ROW_SELECT + "WHERE photo_id = :photoId")
+    Mono<PhotoLabelsRow> findLabelsRowByPhotoId(UUID photoId);
+
+    /**
+     * Find geotagged photos inside a bounding box, newest first.
+     */
+    @Query("""
+            SELECT id, CAST(gps_latitude AS double precision) AS latitude,
+                   CAST(gps_longitude AS double precision) AS longitude,
+                   CAST(NULL AS double precision) AS distance_meters
+            FROM photos
+            """ + GEO_BOUNDS_FILTER + """
+            ORDER BY created_at DESC, id DESC
+            LIMIT :limit
+            """)
+    Flux<PhotoGeoRow> findGeoRowsInBounds(UUID userId, double south, double west, double north, double east,
+                                          int limit);
+
+    /**
+     * Find geotagged photos within a radius, nearest first.
+     * The bounding box must contain the circle; it only narrows the index scan.
+     */
+    @Query("""
+            SELECT id, latitude, longitude, distance_meters FROM (
+                SELECT id, CAST(gps_latitude AS double precision) AS latitude,
+                       CAST(gps_longitude AS double precision) AS longitude,
+                       2 * 6371008.8 * asin(sqrt(
+                           power(sin(radians(gps_latitude - :latitude) / 2), 2)
+                           + cos(radians(:latitude)) * cos(radians(gps_latitude))
+                             * power(sin(radians(gps_longitude - :longitude) / 2), 2))) AS distance_meters
+                FROM photos
+            """ + GEO_BOUNDS_FILTER + """
+            ) candidates
+            WHERE distance_meters <= :radiusMeters
+            ORDER BY distance_meters, id
+            LIMIT :limit
+            """)
+    Flux<PhotoGeoRow> findGeoRowsNearby(UUID userId, double latitude, double longitude, double radiusMeters,
+                                        double south, double west, double north, double east, int limit);
+
+    /**
+     * Count geotagged photos per grid cell inside a bounding box, densest cells first.
+     *
+     * @param cellDegrees cell edge length in degrees
+     */
+    @Query("""
+            SELECT CAST(floor(gps_latitude / :cellDegrees) AS bigint) AS cell_row,
+                   CAST(floor(gps_longitude / :cellDegrees) AS bigint) AS cell_column,
+                   COUNT(*) AS photo_count,
+                   CAST(AVG(gps_latitude) AS double precision) AS latitude,
+                   CAST(AVG(gps_longitude) AS double precision) AS longitude
+            FROM photos
+            """ + GEO_BOUNDS_FILTER + """
+            GROUP BY cell_row, cell_column
+            ORDER BY photo_count DESC, cell_row, cell_column
+            LIMIT :limit
+            """)
+    Flux<GeoCellRow> findGeoCells(UUID userId, double south, double west, double north, double east,
+                                  double cellDegrees, int limit);
+
+    /**
+     * Count the user's photos per capture time bucket, newest first.
+     *
+     * @param unit     date_trunc unit: year, month or day
+     * @param timeZone IANA time zone the buckets are aligned to
+     */
+    @Query("""
+            SELECT date_trunc(:unit, COALESCE(taken_at, created_at), :timeZone) AS bucket_start,
+                   COUNT(*) AS photo_count
+            FROM photos
+            WHERE user_id = :userId
+            GROUP BY bucket_start
+            ORDER BY bucket_start DESC
+            """)
+    Flux<TimelineBucketRow> findTimelineBuckets(UUID userId, String unit, String timeZone);
+}
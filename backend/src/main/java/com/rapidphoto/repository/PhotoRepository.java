@@ -45,6 +45,18 @@ public interface PhotoRepository extends ReactiveCrudRepository<Photo, UUID> {
      */
     Mono<Photo> findByIdAndUserId(UUID id, UUID userId);
 
+    /**
+     * Find many photos by ID in one query.
+     */
+    @Query("SELECT * FROM photos WHERE id = ANY(:ids)")
+    Flux<Photo> findByIdIn(UUID[] ids);
+
+    /**
+     * Last modification time of a photo owned by the user (versions and labels included).
+     */
+    @Query("SELECT updated_at FROM photos WHERE id = :id AND user_id = :userId")
+    Mono<Instant> findUpdatedAtByIdAndUserId(UUID id, UUID userId);
+
     /**
      * Count photos by user ID.
      */
@@ -61,6 +73,48 @@ public interface PhotoRepository extends ReactiveCrudRepository<Photo, UUID> {
      */
     Mono<Photo> findByUploadJobId(UUID uploadJobId);
 
+    /**
+     * Find the photos created from any of the upload jobs.
+     */
+    @Query("SELECT * FROM photos WHERE upload_job_id = ANY(:uploadJobIds)")
+    Flux<Photo> findByUploadJobIdIn(UUID[] uploadJobIds);
+
+    /**
+     * Create pending photos from upload jobs in one statement, {@code photoIds[i]} for
+     * {@code uploadJobIds[i]} with verified content hash {@code contentSha256s[i]} (or null).
+     * Jobs that already have a photo are skipped.
+     *
+     * @return IDs of the photos actually inserted
+     */
+    @Query("""
+            INSERT INTO photos (id, user_id, upload_job_id, original_s3_key, status, file_name, file_size, mime_type,
+                                content_sha256, created_at, updated_at)
+            SELECT u.photo_id, j.user_id, j.id, j.s3_key, 'PENDING_PROCESSING'::photo_status, j.file_name,
+                   j.file_size, j.mime_type, u.content_sha256, :createdAt, :createdAt
+            FROM unnest(:photoIds, :uploadJobIds, CAST(:contentSha256s AS varchar[]))
+                AS u(photo_id, upload_job_id, content_sha256)
+            JOIN upload_jobs j ON j.id = u.upload_job_id
+            WHERE NOT EXISTS (SELECT 1 FROM photos p WHERE p.upload_job_id = j.id)
+            RETURNING id
+            """)
+    Flux<UUID> insertPendingFromUploadJobs(UUID[] photoIds, UUID[] uploadJobIds, String[] contentSha256s,
+                                           Instant createdAt);
+
+    /**
+     * Photos of the user with any of the content hashes (verified at upload).
+     * Failed photos are skipped so the same file can be uploaded again.
+     */
+    @Query("SELECT * FROM photos WHERE user_id = :userId AND content_sha256 = ANY(:contentSha256s) " +
+           "AND status <> 'FAILED'")
+    Flux<Photo> findByUserIdAndContentSha256In(UUID userId, String[] contentSha256s);
+
+    /**
+     * A photo of the user with the content hash, if any.
+     */
+    default Mono<Photo> findFirstByUserIdAndContentSha256(UUID userId, String contentSha256) {
+        return findByUserIdAndContentSha256In(userId, new String[]{contentSha256}).next();
+    }
+
     /**
      * Find photos pending processing (for monitoring).
      */
@@ -89,15 +143,18 @@ public interface PhotoRepository extends ReactiveCrudRepository<Photo, UUID> {
      * This is needed because R2DBC doesn't automatically cast String to PostgreSQL ENUM types.
      */
     @Query("INSERT INTO photos (id, user_id, upload_job_id, original_s3_key, status, file_name, file_size, mime_type, " +
-           "width, height, taken_at, camera_make, camera_model, gps_latitude, gps_longitude, created_at, updated_at, processed_at, error_message) " +
+           "width, height, taken_at, camera_make, camera_model, gps_latitude, gps_longitude, created_at, updated_at, processed_at, error_message, " +
+           "content_sha256) " +
            "VALUES (:id, :userId, :uploadJobId, :originalS3Key, :status::photo_status, :fileName, :fileSize, :mimeType, " +
-           ":width, :height, :takenAt, :cameraMake, :cameraModel, :gpsLatitude, :gpsLongitude, :createdAt, :updatedAt, :processedAt, :errorMessage)")
+           ":width, :height, :takenAt, :cameraMake, :cameraModel, :gpsLatitude, :gpsLongitude, :createdAt, :updatedAt, :processedAt, :errorMessage, " +
+           ":contentSha256)")
     Mono<Void> saveWithEnumCast(UUID id, UUID userId, UUID uploadJobId, String originalS3Key, String status,
                                 String fileName, Long fileSize, String mimeType,
                                 Integer width, Integer height, Instant takenAt,
                                 String cameraMake, String cameraModel,
                                 BigDecimal gpsLatitude, BigDecimal gpsLongitude, Instant createdAt,
-                                Instant updatedAt, Instant processedAt, String errorMessage);
+                                Instant updatedAt, Instant processedAt, String errorMessage,
+                                String contentSha256);
 
     /**
      * Convenience method to persist a Photo aggregate with enum casting.
@@ -130,7 +187,8 @@ public interface PhotoRepository extends ReactiveCrudRepository<Photo, UUID> {
                 createdAt,
                 updatedAt,
                 photo.getProcessedAt(),
-                photo.getErrorMessage()
+                photo.getErrorMessage(),
+                photo.getContentSha256()
         ).thenReturn(photo);
     }
 
@@ -47,6 +47,12 @@ public interface PhotoVersionRepository extends ReactiveCrudRepository<PhotoVers
      */
     Flux<PhotoVersion> findByPhotoId(UUID photoId);
 
+    /**
+     * Find all versions for many photos in one query.
+     */
+    @Query("SELECT * FROM photo_versions WHERE photo_id = ANY(:photoIds)")
+    Flux<PhotoVersion> findByPhotoIdIn(UUID[] photoIds);
+
     /**
      * Find specific version type for a photo.
      */
@@ -2,6 +2,11 @@ package com.rapidphoto.repository;
 
 import com.rapidphoto.domain.UploadJob;
 import com.rapidphoto.domain.UploadJobStatus;
+import com.rapidphoto.repository.projection.ActiveUploadCountRow;
+import com.rapidphoto.repository.projection.ConfirmedUploadRow;
+import com.rapidphoto.repository.projection.ExpiredUploadRow;
+import com.rapidphoto.repository.projection.UploadConfirmationRow;
+import org.springframework.data.r2dbc.repository.Modifying;
 import org.springframework.data.r2dbc.repository.Query;
 import org.springframework.data.repository.reactive.ReactiveCrudRepository;
 import org.springframework.stereotype.Repository;
@@ -9,6 +14,7 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -34,6 +40,29 @@ public interface UploadJobRepository extends ReactiveCrudRepository<UploadJob, U
     @Query("SELECT COUNT(*) FROM upload_jobs WHERE user_id = :userId AND status IN ('INITIATED', 'UPLOADED')")
     Mono<Long> countActiveUploadsByUserId(UUID userId);
 
+    /**
+     * Count active upload jobs of many users at once; users without any are not returned.
+     */
+    @Query("""
+            SELECT user_id, COUNT(*) AS active_uploads
+            FROM upload_jobs
+            WHERE user_id = ANY(:userIds) AND status IN ('INITIATED', 'UPLOADED')
+            GROUP BY user_id
+            """)
+    Flux<ActiveUploadCountRow> countActiveUploadsByUserIds(UUID[] userIds);
+
+    /**
+     * Mark INITIATED upload jobs past their expiry as EXPIRED.
+     *
+     * @return the owner and S3 upload of every expired job
+     */
+    @Query("""
+            UPDATE upload_jobs SET status = 'EXPIRED'::upload_job_status
+            WHERE status = 'INITIATED' AND expires_at < :now
+            RETURNING user_id, s3_key, multipart_upload_id
+            """)
+    Flux<ExpiredUploadRow> expireInitiatedJobs(Instant now);
+
     /**
      * Find expired upload jobs that are still in INITIATED status.
      */
@@ -54,11 +83,14 @@ public interface UploadJobRepository extends ReactiveCrudRepository<UploadJob, U
      * Custom save method with explicit ENUM casting for status field.
      * This is needed because R2DBC doesn't automatically cast String to PostgreSQL ENUM types.
      */
-    @Query("INSERT INTO upload_jobs (id, user_id, s3_key, presigned_url, file_name, file_size, mime_type, status, expires_at, created_at) " +
-           "VALUES (:id, :userId, :s3Key, :presignedUrl, :fileName, :fileSize, :mimeType, :status::upload_job_status, :expiresAt, :createdAt)")
+    @Query("INSERT INTO upload_jobs (id, user_id, s3_key, presigned_url, file_name, file_size, mime_type, status, expires_at, created_at, " +
+           "content_sha256) " +
+           "VALUES (:id, :userId, :s3Key, :presignedUrl, :fileName, :fileSize, :mimeType, :status::upload_job_status, :expiresAt, :createdAt, " +
+           ":contentSha256)")
     Mono<Void> saveWithEnumCast(UUID id, UUID userId, String s3Key, String presignedUrl,
                                 String fileName, Long fileSize, String mimeType,
-                                String status, Instant expiresAt, Instant createdAt);
+                                String status, Instant expiresAt, Instant createdAt,
+                                String contentSha256);
 
     /**
      * Convenience method to persist an UploadJob aggregate with enum casting.
@@ -80,10 +112,177 @@ public interface UploadJobRepository extends ReactiveCrudRepository<UploadJob, U
                 uploadJob.getMimeType(),
                 uploadJob.getStatus(),
                 uploadJob.getExpiresAt(),
-                createdAt
+                createdAt,
+                uploadJob.getContentSha256()
+        ).thenReturn(uploadJob);
+    }
+
+    /**
+     * Multi-row insert of upload jobs sharing user, status, expiry and creation time,
+     * one array element per job.
+     */
+    @Query("""
+            INSERT INTO upload_jobs (id, user_id, s3_key, presigned_url, file_name, file_size, mime_type,
+                                     content_sha256, status, expires_at, created_at)
+            SELECT j.id, :userId, j.s3_key, j.presigned_url, j.file_name, j.file_size, j.mime_type,
+                   j.content_sha256, :status::upload_job_status, :expiresAt, :createdAt
+            FROM unnest(:ids, :s3Keys, :presignedUrls, :fileNames, :fileSizes, :mimeTypes,
+                        CAST(:contentSha256s AS varchar[]))
+                AS j(id, s3_key, presigned_url, file_name, file_size, mime_type, content_sha256)
+            """)
+    Mono<Void> saveAllWithEnumCast(UUID userId, String status, Instant expiresAt, Instant createdAt,
+                                   UUID[] ids, String[] s3Keys, String[] presignedUrls,
+                                   String[] fileNames, Long[] fileSizes, String[] mimeTypes,
+                                   String[] contentSha256s);
+
+    /**
+     * Convenience method to persist the upload jobs of one batch in a single statement.
+     * All jobs must belong to the same user and share status and expiry.
+     */
+    default Mono<List<UploadJob>> saveAllWithEnumCast(List<UploadJob> uploadJobs) {
+        if (uploadJobs.isEmpty()) {
+            return Mono.just(uploadJobs);
+        }
+
+        UploadJob first = uploadJobs.get(0);
+        Instant createdAt = Instant.now();
+        int size = uploadJobs.size();
+        UUID[] ids = new UUID[size];
+        String[] s3Keys = new String[size];
+        String[] presignedUrls = new String[size];
+        String[] fileNames = new String[size];
+        Long[] fileSizes = new Long[size];
+        String[] mimeTypes = new String[size];
+        String[] contentSha256s = new String[size];
+
+        for (int i = 0; i < size; i++) {
+            UploadJob uploadJob = uploadJobs.get(i);
+            if (!uploadJob.getUserId().equals(first.getUserId())) {
+                throw new IllegalArgumentException("Upload jobs of a batch must belong to one user");
+            }
+            uploadJob.setId(uploadJob.getId() != null ? uploadJob.getId() : UUID.randomUUID());
+            uploadJob.setCreatedAt(createdAt);
+
+            ids[i] = uploadJob.getId();
+            s3Keys[i] = uploadJob.getS3Key();
+            presignedUrls[i] = uploadJob.getPresignedUrl();
+            fileNames[i] = uploadJob.getFileName();
+            fileSizes[i] = uploadJob.getFileSize();
+            mimeTypes[i] = uploadJob.getMimeType();
+            contentSha256s[i] = uploadJob.getContentSha256();
+        }
+
+        return saveAllWithEnumCast(first.getUserId(), first.getStatus(), first.getExpiresAt(), createdAt,
+                ids, s3Keys, presignedUrls, fileNames, fileSizes, mimeTypes, contentSha256s)
+                .thenReturn(uploadJobs);
+    }
+
+    /**
+     * Insert a multipart upload job with all parts pending.
+     */
+    @Query("""
+            INSERT INTO upload_jobs (id, user_id, s3_key, file_name, file_size, mime_type, status, expires_at,
+                                     created_at, multipart_upload_id, part_size, part_count, part_etags)
+            VALUES (:id, :userId, :s3Key, :fileName, :fileSize, :mimeType, :status::upload_job_status, :expiresAt,
+                    :createdAt, :multipartUploadId, :partSize, :partCount,
+                    array_fill(NULL::varchar, ARRAY[:partCount]))
+            """)
+    Mono<Void> saveMultipartWithEnumCast(UUID id, UUID userId, String s3Key, String fileName, Long fileSize,
+                                         String mimeType, String status, Instant expiresAt, Instant createdAt,
+                                         String multipartUploadId, Long partSize, Integer partCount);
+
+    /**
+     * Convenience method to persist a multipart UploadJob aggregate with enum casting.
+     */
+    default Mono<UploadJob> saveMultipartWithEnumCast(UploadJob uploadJob) {
+        Instant createdAt = uploadJob.getCreatedAt() != null ? uploadJob.getCreatedAt() : Instant.now();
+        uploadJob.setCreatedAt(createdAt);
+
+        return saveMultipartWithEnumCast(
+                uploadJob.getId(),
+                uploadJob.getUserId(),
+                uploadJob.getS3Key(),
+                uploadJob.getFileName(),
+                uploadJob.getFileSize(),
+                uploadJob.getMimeType(),
+                uploadJob.getStatus(),
+                uploadJob.getExpiresAt(),
+                createdAt,
+                uploadJob.getMultipartUploadId(),
+                uploadJob.getPartSize(),
+                uploadJob.getPartCount()
         ).thenReturn(uploadJob);
     }
 
+    /**
+     * Record the ETag of one part. Only that array element is written, so parts
+     * reported concurrently never overwrite each other.
+     */
+    @Query("""
+            UPDATE upload_jobs SET part_etags[:partNumber] = :etag, updated_at = CURRENT_TIMESTAMP
+            WHERE id = :id AND multipart_upload_id IS NOT NULL AND :partNumber BETWEEN 1 AND part_count
+            """)
+    Mono<Void> updatePartEtag(UUID id, int partNumber, String etag);
+
+    /**
+     * Record the ETags of many parts; null elements keep the stored ETag.
+     */
+    @Query("""
+            UPDATE upload_jobs j SET part_etags = ARRAY(
+                SELECT COALESCE(u.etag, stored.etag)
+                FROM unnest(j.part_etags) WITH ORDINALITY AS stored(etag, part_number)
+                LEFT JOIN unnest(CAST(:etags AS varchar[])) WITH ORDINALITY AS u(etag, part_number)
+                    ON u.part_number = stored.part_number
+                ORDER BY stored.part_number
+            ), updated_at = CURRENT_TIMESTAMP
+            WHERE j.id = :id AND j.multipart_upload_id IS NOT NULL
+            """)
+    Mono<Void> updatePartEtags(UUID id, String[] etags);
+
+    /**
+     * Mark an active (INITIATED or UPLOADED) upload job failed with a reason.
+     *
+     * @return 1 if the job was active, 0 if it already had a final status
+     */
+    @Modifying
+    @Query("UPDATE upload_jobs SET status = 'FAILED'::upload_job_status, error_message = :errorMessage " +
+           "WHERE id = :id AND status IN ('INITIATED', 'UPLOADED')")
+    Mono<Long> markFailed(UUID id, String errorMessage);
+
+    /**
+     * Find the user's upload jobs among the IDs with the photo created from each, if any.
+     * Jobs of other users are not returned.
+     */
+    @Query("""
+            SELECT j.id, j.s3_key, j.file_name, j.file_size, j.mime_type, j.status::text AS status, j.expires_at,
+                   j.content_sha256, j.multipart_upload_id IS NOT NULL AS multipart, j.etag,
+                   p.id AS photo_id, p.status::text AS photo_status
+            FROM upload_jobs j
+            LEFT JOIN photos p ON p.upload_job_id = j.id
+            WHERE j.id = ANY(:ids) AND j.user_id = :userId
+            """)
+    Flux<UploadConfirmationRow> findConfirmationRowsByIdsAndUserId(UUID[] ids, UUID userId);
+
+    /**
+     * Mark many upload jobs confirmed in one statement, each with its own ETag.
+     * Jobs are locked first, so a job expired or failed since it was read is skipped
+     * instead of flipped back to CONFIRMED.
+     *
+     * @return the confirmed jobs, and whether each was still active before
+     */
+    @Query("""
+            WITH locked AS (
+                SELECT id, status FROM upload_jobs
+                WHERE id = ANY(:ids) AND status IN ('INITIATED', 'UPLOADED', 'CONFIRMED')
+                FOR UPDATE
+            )
+            UPDATE upload_jobs j SET status = 'CONFIRMED'::upload_job_status, etag = u.etag, confirmed_at = :confirmedAt
+            FROM locked l, unnest(:ids, :etags) AS u(id, etag)
+            WHERE j.id = l.id AND j.id = u.id
+            RETURNING j.id, l.status <> 'CONFIRMED' AS was_active
+            """)
+    Flux<ConfirmedUploadRow> confirmAll(UUID[] ids, String[] etags, Instant confirmedAt);
+
     /**
      * Custom update method with explicit ENUM casting for status field.
      */
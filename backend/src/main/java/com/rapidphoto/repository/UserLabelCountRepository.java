@@ -0,0 +1,61 @@
+package com.rapidphoto.repository;
+
+import com.rapidphoto.domain.UserLabelCount;
+import com.rapidphoto.repository.projection.LabelCountRow;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Reactive repository for the incrementally maintained per-user label counts.
+ */
+@org.springframework.stereotype.Repository
+public interface UserLabelCountRepository extends Repository<UserLabelCount, UUID> {
+
+    /**
+     * Count one more photo for each label.
+     *
+     * @param labelNames distinct labels newly added to a single photo
+     */
+    @Query("""
+            INSERT INTO user_label_counts (user_id, label_name, photo_count, updated_at)
+            SELECT :userId, label_name, 1, CURRENT_TIMESTAMP FROM unnest(:labelNames) AS label_name
+            ON CONFLICT (user_id, label_name) DO UPDATE SET
+                photo_count = user_label_counts.photo_count + 1,
+                updated_at = EXCLUDED.updated_at
+            """)
+    Mono<Void> incrementLabels(UUID userId, String[] labelNames);
+
+    /**
+     * Count one photo less for each label of the photo.
+     * Must run before the photo's labels are deleted.
+     */
+    @Query("""
+            UPDATE user_label_counts SET
+                photo_count = photo_count - 1,
+                updated_at = CURRENT_TIMESTAMP
+            WHERE user_id = :userId
+              AND label_name IN (SELECT label_name FROM photo_labels WHERE photo_id = :photoId)
+            """)
+    Mono<Void> decrementLabelsForPhoto(UUID userId, UUID photoId);
+
+    /**
+     * Drop labels the user no longer has any photo for.
+     */
+    @Query("DELETE FROM user_label_counts WHERE user_id = :userId AND photo_count <= 0")
+    Mono<Void> deleteEmptyByUserId(UUID userId);
+
+    /**
+     * The user's most used labels, most photos first.
+     */
+    @Query("""
+            SELECT label_name, photo_count FROM user_label_counts
+            WHERE user_id = :userId AND photo_count > 0
+            ORDER BY photo_count DESC, label_name
+            LIMIT :limit
+            """)
+    Flux<LabelCountRow> findTopByUserId(UUID userId, int limit);
+}
@@ -0,0 +1,84 @@
+package com.rapidphoto.repository;
+
+import com.rapidphoto.domain.UserPhotoStats;
+import org.springframework.data.r2dbc.repository.Query;
+import org.springframework.data.repository.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Reactive repository for trigger-maintained per-user photo counters.
+ */
+@org.springframework.stereotype.Repository
+public interface UserPhotoStatsRepository extends Repository<UserPhotoStats, UUID> {
+
+    String ACTUAL_COUNTS_SELECT = """
+            SELECT user_id,
+                   COUNT(*) AS total_count,
+                   COUNT(*) FILTER (WHERE status = 'PENDING_PROCESSING') AS pending_processing_count,
+                   COUNT(*) FILTER (WHERE status = 'PROCESSING') AS processing_count,
+                   COUNT(*) FILTER (WHERE status = 'READY') AS ready_count,
+                   COUNT(*) FILTER (WHERE status = 'FAILED') AS failed_count
+            FROM photos
+            """;
+
+    /**
+     * Find counters for a user (empty if the user never had a photo).
+     */
+    Mono<UserPhotoStats> findById(UUID userId);
+
+    /**
+     * Total number of photos owned by the user; 0 if no counters exist yet.
+     */
+    @Query("SELECT COALESCE((SELECT total_count FROM user_photo_stats WHERE user_id = :userId), 0)")
+    Mono<Long> findTotalCountByUserId(UUID userId);
+
+    /**
+     * Current gallery version of the user; 0 if no counters exist yet.
+     */
+    @Query("SELECT COALESCE((SELECT gallery_version FROM user_photo_stats WHERE user_id = :userId), 0)")
+    Mono<Long> findGalleryVersionByUserId(UUID userId);
+
+    /**
+     * Find users whose counters differ from the actual photo counts.
+     */
+    @Query("WITH actual AS (" + ACTUAL_COUNTS_SELECT + """
+            GROUP BY user_id
+            )
+            SELECT COALESCE(a.user_id, s.user_id)
+            FROM actual a
+            FULL OUTER JOIN user_photo_stats s ON s.user_id = a.user_id
+            WHERE (COALESCE(a.total_count, 0), COALESCE(a.pending_processing_count, 0),
+                   COALESCE(a.processing_count, 0), COALESCE(a.ready_count, 0), COALESCE(a.failed_count, 0))
+                  IS DISTINCT FROM
+                  (COALESCE(s.total_count, 0), COALESCE(s.pending_processing_count, 0),
+                   COALESCE(s.processing_count, 0), COALESCE(s.ready_count, 0), COALESCE(s.failed_count, 0))
+            """)
+    Flux<UUID> findDriftedUserIds();
+
+    /**
+     * Lock the user's counter row so concurrent trigger updates wait for the recount.
+     */
+    @Query("SELECT user_id FROM user_photo_stats WHERE user_id = :userId FOR UPDATE")
+    Mono<UUID> lockByUserId(UUID userId);
+
+    /**
+     * Recompute the user's counters from the photos table.
+     * Must run after {@link #lockByUserId(UUID)} in the same transaction.
+     */
+    @Query("INSERT INTO user_photo_stats (user_id, total_count, pending_processing_count, processing_count, " +
+           "ready_count, failed_count, updated_at) " +
+           "SELECT :userId, COALESCE(MAX(total_count), 0), COALESCE(MAX(pending_processing_count), 0), " +
+           "COALESCE(MAX(processing_count), 0), COALESCE(MAX(ready_count), 0), COALESCE(MAX(failed_count), 0), " +
+           "CURRENT_TIMESTAMP FROM (" + ACTUAL_COUNTS_SELECT + " WHERE user_id = :userId GROUP BY user_id) a " +
+           "ON CONFLICT (user_id) DO UPDATE SET " +
+           "total_count = EXCLUDED.total_count, " +
+           "pending_processing_count = EXCLUDED.pending_processing_count, " +
+           "processing_count = EXCLUDED.processing_count, " +
+           "ready_count = EXCLUDED.ready_count, " +
+           "failed_count = EXCLUDED.failed_count, " +
+           "updated_at = EXCLUDED.updated_at")
+    Mono<Void> recomputeByUserId(UUID userId);
+}
@@ -0,0 +1,11 @@
+package com.rapidphoto.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * Number of active (initiated or uploaded) upload jobs of a user.
+ */
+public record ActiveUploadCountRow(
+        UUID userId,
+        long activeUploads
+) {}
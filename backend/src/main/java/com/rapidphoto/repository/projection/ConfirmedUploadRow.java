@@ -0,0 +1,11 @@
+package com.rapidphoto.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * An upload job confirmed by a batch update, and whether it was still active (holding a slot) before.
+ */
+public record ConfirmedUploadRow(
+        UUID id,
+        boolean wasActive
+) {}
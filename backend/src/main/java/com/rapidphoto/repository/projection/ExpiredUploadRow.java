@@ -0,0 +1,12 @@
+package com.rapidphoto.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * An upload job expired by a batch update; the multipart upload ID is null for single-PUT uploads.
+ */
+public record ExpiredUploadRow(
+        UUID userId,
+        String s3Key,
+        String multipartUploadId
+) {}
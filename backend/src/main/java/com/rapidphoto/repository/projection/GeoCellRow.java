@@ -0,0 +1,13 @@
+package com.rapidphoto.repository.projection;
+
+/**
+ * Number of photos in one map grid cell, with the centroid of their positions.
+ * Cells are indexed by floor(coordinate / cell size).
+ */
+public record GeoCellRow(
+        long cellRow,
+        long cellColumn,
+        long photoCount,
+        double latitude,
+        double longitude
+) {}
@@ -0,0 +1,9 @@
+package com.rapidphoto.repository.projection;
+
+/**
+ * A label name with the number of photos carrying it.
+ */
+public record LabelCountRow(
+        String labelName,
+        long photoCount
+) {}
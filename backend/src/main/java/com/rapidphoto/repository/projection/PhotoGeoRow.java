@@ -0,0 +1,13 @@
+package com.rapidphoto.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * A geotagged photo's position, with its distance from the query center for radius queries.
+ */
+public record PhotoGeoRow(
+        UUID id,
+        double latitude,
+        double longitude,
+        Double distanceMeters
+) {}
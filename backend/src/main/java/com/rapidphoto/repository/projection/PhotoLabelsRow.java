@@ -0,0 +1,13 @@
+package com.rapidphoto.repository.projection;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * A photo with its label names, used to build the in-memory label index.
+ */
+public record PhotoLabelsRow(
+        UUID id,
+        Instant createdAt,
+        String[] labels
+) {}
@@ -0,0 +1,24 @@
+package com.rapidphoto.repository.projection;
+
+import com.rapidphoto.domain.PhotoStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Read-model row for gallery list/grid views.
+ * One row per photo with its thumbnail key and aggregated label names,
+ * produced by a single query in {@link com.rapidphoto.repository.PhotoReadModelRepository}.
+ */
+public record PhotoListRow(
+        UUID id,
+        String fileName,
+        PhotoStatus status,
+        String originalS3Key,
+        Integer width,
+        Integer height,
+        Instant createdAt,
+        Instant takenAt,
+        String thumbnailS3Key,
+        String[] labels
+) {}
@@ -0,0 +1,11 @@
+package com.rapidphoto.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * A photo matching a tag search with its relevance score (mean confidence of the matched labels).
+ */
+public record RankedPhotoRow(
+        UUID photoId,
+        double score
+) {}
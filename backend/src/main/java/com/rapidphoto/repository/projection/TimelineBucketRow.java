@@ -0,0 +1,11 @@
+package com.rapidphoto.repository.projection;
+
+import java.time.Instant;
+
+/**
+ * Number of photos captured in the timeline bucket starting at {@code bucketStart}.
+ */
+public record TimelineBucketRow(
+        Instant bucketStart,
+        long photoCount
+) {}
@@ -0,0 +1,22 @@
+package com.rapidphoto.repository.projection;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * An upload job with the photo already created from it, if any (batch confirmation).
+ */
+public record UploadConfirmationRow(
+        UUID id,
+        String s3Key,
+        String fileName,
+        Long fileSize,
+        String mimeType,
+        String status,
+        Instant expiresAt,
+        String contentSha256,
+        boolean multipart,
+        String etag,
+        UUID photoId,
+        String photoStatus
+) {}
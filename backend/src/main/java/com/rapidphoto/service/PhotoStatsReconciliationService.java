@@ -0,0 +1,69 @@
+package com.rapidphoto.service;
+
+import com.rapidphoto.repository.UserPhotoStatsRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.util.UUID;
+
+/**
+ * Periodically repairs drift in the trigger-maintained user_photo_stats counters
+ * (e.g. after manual data fixes or restores that bypassed the trigger).
+ */
+@Slf4j
+@Service
+public class PhotoStatsReconciliationService {
+
+    private final UserPhotoStatsRepository userPhotoStatsRepository;
+    private final TransactionalOperator transactionalOperator;
+    private final Counter correctionCounter;
+
+    public PhotoStatsReconciliationService(UserPhotoStatsRepository userPhotoStatsRepository,
+                                           TransactionalOperator transactionalOperator,
+                                           MeterRegistry meterRegistry) {
+        this.userPhotoStatsRepository = userPhotoStatsRepository;
+        this.transactionalOperator = transactionalOperator;
+        this.correctionCounter = Counter.builder("photo.stats.reconciliation.corrections")
+                .description("Number of users whose photo counters were corrected")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Find drifted users with one read-only scan, then recount each under its row lock.
+     *
+     * @return number of users corrected
+     */
+    @Scheduled(initialDelayString = "${app.stats.reconcile-interval:PT1H}",
+               fixedDelayString = "${app.stats.reconcile-interval:PT1H}")
+    public Mono<Long> reconcile() {
+        return userPhotoStatsRepository.findDriftedUserIds()
+                .concatMap(userId -> reconcileUser(userId)
+                        .thenReturn(userId)
+                        .onErrorResume(error -> {
+                            log.warn("Failed to reconcile photo stats for userId: {}", userId, error);
+                            return Mono.empty();
+                        }))
+                .count()
+                .doOnNext(corrected -> {
+                    correctionCounter.increment(corrected);
+                    if (corrected > 0) {
+                        log.warn("Reconciled photo stats drift for {} users", corrected);
+                    }
+                });
+    }
+
+    /**
+     * Lock first, count in a later statement: a concurrent photo change either
+     * committed before the lock (and is counted) or applies its delta after us.
+     */
+    private Mono<Void> reconcileUser(UUID userId) {
+        return userPhotoStatsRepository.lockByUserId(userId)
+                .then(userPhotoStatsRepository.recomputeByUserId(userId))
+                .as(transactionalOperator::transactional);
+    }
+}
@@ -0,0 +1,28 @@
+-- V11: Per-user label counts for facet rendering
+-- Maintained by the application: incremented when processing results add labels
+-- and decremented when a photo is deleted, so the top facets of a user are an
+-- index range scan instead of a GROUP BY over all of their labels.
+
+CREATE TABLE IF NOT EXISTS user_label_counts (
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    label_name VARCHAR(255) NOT NULL,
+    photo_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (user_id, label_name)
+);
+
+-- Top-K facets of a user
+CREATE INDEX IF NOT EXISTS idx_user_label_counts_user_count
+    ON user_label_counts(user_id, photo_count DESC, label_name);
+
+-- Backfill counts for existing labels
+INSERT INTO user_label_counts (user_id, label_name, photo_count)
+SELECT p.user_id, pl.label_name, COUNT(DISTINCT pl.photo_id)
+FROM photo_labels pl
+JOIN photos p ON pl.photo_id = p.id
+GROUP BY p.user_id, pl.label_name
+ON CONFLICT (user_id, label_name) DO NOTHING;
+
+-- Comments
+COMMENT ON TABLE user_label_counts IS 'Per-user photo count of each label, maintained on label insert and photo delete';
+COMMENT ON COLUMN user_label_counts.photo_count IS 'Number of the user''s photos carrying the label';
@@ -0,0 +1,9 @@
+-- V12: Spatial index for map views
+-- Supports: WHERE user_id = ? AND gps_latitude BETWEEN ? AND ? AND gps_longitude BETWEEN ? AND ?
+-- as a latitude range scan within the user, with longitude checked from the index entries.
+-- Radius queries scan the bounding box of the circle and refine with the haversine distance.
+
+CREATE INDEX IF NOT EXISTS idx_photos_user_geo ON photos(user_id, gps_latitude, gps_longitude)
+    WHERE gps_latitude IS NOT NULL;
+
+COMMENT ON INDEX idx_photos_user_geo IS 'Bounding-box, radius and grid-cluster queries over geotagged photos';
@@ -0,0 +1,9 @@
+-- V13: Per-user capture time index for the timeline histogram
+-- Capture time is the EXIF taken_at, or the upload time for photos without one.
+-- Supports: WHERE user_id = ? GROUP BY date_trunc(?, COALESCE(taken_at, created_at), ?)
+-- as an ordered scan of the user's entries; idx_photos_taken_at is not scoped to the user.
+
+CREATE INDEX IF NOT EXISTS idx_photos_user_captured_at
+    ON photos(user_id, (COALESCE(taken_at, created_at)) DESC);
+
+COMMENT ON INDEX idx_photos_user_captured_at IS 'Timeline buckets by capture time (taken_at, falling back to created_at)';
@@ -0,0 +1,20 @@
+-- V14: Full-text search over file name and camera metadata
+-- Punctuation is folded to spaces before tokenizing, so "IMG_2041.JPG" indexes as
+-- img, 2041 and jpg, and a search for "IMG_2041" matches it term by term.
+-- The 'simple' configuration lowercases without stemming, which suits names and models.
+
+ALTER TABLE photos ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        to_tsvector('simple', regexp_replace(
+            COALESCE(file_name, '') || ' ' || COALESCE(camera_make, '') || ' ' || COALESCE(camera_model, ''),
+            '[^[:alnum:]]+', ' ', 'g'))
+    ) STORED;
+
+-- btree_gin lets one GIN index answer user_id = ? AND search_vector @@ ?
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+CREATE INDEX IF NOT EXISTS idx_photos_user_search_vector ON photos USING gin (user_id, search_vector);
+
+-- Comments
+COMMENT ON COLUMN photos.search_vector IS 'Generated full-text vector over file_name, camera_make and camera_model';
+COMMENT ON INDEX idx_photos_user_search_vector IS 'Per-user full-text search over file and camera metadata';
@@ -0,0 +1,56 @@
+-- V15: Denormalized gallery read model
+-- One row per photo with everything a gallery or search page shows: thumbnail key,
+-- labels (highest confidence first), dimensions, status and the sort keys.
+-- Maintained by the command handlers (confirm, processing complete, delete), which
+-- refresh the affected rows in the same transaction as their writes to the source
+-- tables, so gallery and search pages are single-table index scans instead of joins
+-- over photos, photo_versions and photo_labels.
+-- PhotoGalleryViewRepository can rebuild any part of it from the source tables.
+
+CREATE TABLE IF NOT EXISTS photo_gallery_view (
+    photo_id UUID PRIMARY KEY REFERENCES photos(id) ON DELETE CASCADE,
+    user_id UUID NOT NULL,
+    file_name VARCHAR(255) NOT NULL,
+    status photo_status NOT NULL,
+    original_s3_key VARCHAR(1024) NOT NULL,
+    thumbnail_s3_key VARCHAR(1024),
+    width INTEGER,
+    height INTEGER,
+    labels VARCHAR(255)[] NOT NULL DEFAULT '{}',
+    search_vector tsvector,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    taken_at TIMESTAMP WITH TIME ZONE,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Offset and keyset gallery pages, newest first
+CREATE INDEX IF NOT EXISTS idx_photo_gallery_view_user_created
+    ON photo_gallery_view(user_id, created_at DESC, photo_id DESC);
+
+-- All-tags filter (labels @> ?) and text search within a user; btree_gin is enabled by V14
+CREATE INDEX IF NOT EXISTS idx_photo_gallery_view_user_labels
+    ON photo_gallery_view USING gin (user_id, labels);
+CREATE INDEX IF NOT EXISTS idx_photo_gallery_view_user_search_vector
+    ON photo_gallery_view USING gin (user_id, search_vector);
+
+-- Text search now reads the view; photos.search_vector stays as its source
+DROP INDEX IF EXISTS idx_photos_user_search_vector;
+
+-- Backfill existing photos
+INSERT INTO photo_gallery_view (photo_id, user_id, file_name, status, original_s3_key, thumbnail_s3_key,
+                                width, height, labels, search_vector, created_at, taken_at)
+SELECT p.id, p.user_id, p.file_name, p.status, p.original_s3_key, t.s3_key,
+       p.width, p.height, COALESCE(l.labels, '{}'), p.search_vector, p.created_at, p.taken_at
+FROM photos p
+LEFT JOIN photo_versions t ON t.photo_id = p.id AND t.version_type = 'THUMBNAIL'
+LEFT JOIN LATERAL (
+    SELECT array_agg(pl.label_name ORDER BY pl.confidence DESC) AS labels
+    FROM photo_labels pl
+    WHERE pl.photo_id = p.id
+) l ON true
+ON CONFLICT (photo_id) DO NOTHING;
+
+-- Comments
+COMMENT ON TABLE photo_gallery_view IS 'Denormalized gallery and search read model, one row per photo';
+COMMENT ON COLUMN photo_gallery_view.labels IS 'Label names of the photo, highest confidence first';
+COMMENT ON COLUMN photo_gallery_view.search_vector IS 'Copy of photos.search_vector for single-table text search';
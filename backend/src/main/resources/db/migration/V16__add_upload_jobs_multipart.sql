@@ -0,0 +1,25 @@
+-- V16: Multipart upload state on upload jobs
+-- Large files can go up as S3 multipart uploads with one presigned URL per part.
+-- The job keeps the S3 upload ID, the part layout and the ETag of every part
+-- reported so far (NULL while a part is pending), so a client resumes by
+-- re-sending only the missing parts. Single-PUT jobs leave these columns NULL.
+
+ALTER TABLE upload_jobs
+    ADD COLUMN IF NOT EXISTS multipart_upload_id VARCHAR(1024),
+    ADD COLUMN IF NOT EXISTS part_size BIGINT,
+    ADD COLUMN IF NOT EXISTS part_count INTEGER,
+    ADD COLUMN IF NOT EXISTS part_etags VARCHAR(255)[];
+
+-- Multipart jobs are signed per part, so they have no single PUT URL
+ALTER TABLE upload_jobs ALTER COLUMN presigned_url DROP NOT NULL;
+
+-- S3 allows at most 10,000 parts per upload
+ALTER TABLE upload_jobs ADD CONSTRAINT chk_multipart_parts CHECK (
+    multipart_upload_id IS NULL
+    OR (part_size > 0 AND part_count BETWEEN 1 AND 10000 AND cardinality(part_etags) = part_count)
+);
+
+-- Comments
+COMMENT ON COLUMN upload_jobs.multipart_upload_id IS 'S3 multipart upload ID, NULL for single-PUT uploads';
+COMMENT ON COLUMN upload_jobs.part_size IS 'Size of every part but the last, in bytes';
+COMMENT ON COLUMN upload_jobs.part_etags IS 'ETag per part number (1-based), NULL while the part is pending';
@@ -0,0 +1,17 @@
+-- V17: Content-hash deduplication
+-- Clients may send the SHA-256 of a file when initiating its upload. If the user
+-- already has a photo with that hash, no upload happens at all; otherwise S3
+-- verifies the uploaded bytes against it, and the confirmed photo keeps the hash
+-- for later lookups.
+
+ALTER TABLE upload_jobs ADD COLUMN IF NOT EXISTS content_sha256 CHAR(64);
+ALTER TABLE photos ADD COLUMN IF NOT EXISTS content_sha256 CHAR(64);
+
+-- Duplicate lookup at initiate; most photos without a hash stay out of the index
+CREATE INDEX IF NOT EXISTS idx_photos_user_content_sha256
+    ON photos(user_id, content_sha256)
+    WHERE content_sha256 IS NOT NULL;
+
+-- Comments
+COMMENT ON COLUMN upload_jobs.content_sha256 IS 'Client-computed SHA-256 of the file (lowercase hex), if sent';
+COMMENT ON COLUMN photos.content_sha256 IS 'SHA-256 of the original (lowercase hex), set only when S3 verified it';
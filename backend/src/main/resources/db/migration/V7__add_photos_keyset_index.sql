@@ -0,0 +1,6 @@
+-- V7: Composite index for keyset (cursor) pagination of the gallery
+-- Supports: WHERE user_id = ? AND (created_at, id) < (?, ?) ORDER BY created_at DESC, id DESC
+
+CREATE INDEX IF NOT EXISTS idx_photos_user_created_id ON photos(user_id, created_at DESC, id DESC);
+
+COMMENT ON INDEX idx_photos_user_created_id IS 'Seek index for cursor-based gallery pagination';
@@ -0,0 +1,85 @@
+-- V8: Per-user photo counters maintained by trigger
+-- Replaces COUNT(*) over photos on every gallery page with an O(1) lookup.
+-- The trigger runs inside the statement that changes photos, so counters are
+-- updated in the same transaction as every insert, status change and delete.
+
+CREATE TABLE IF NOT EXISTS user_photo_stats (
+    user_id UUID PRIMARY KEY REFERENCES users(id) ON DELETE CASCADE,
+    total_count BIGINT NOT NULL DEFAULT 0,
+    pending_processing_count BIGINT NOT NULL DEFAULT 0,
+    processing_count BIGINT NOT NULL DEFAULT 0,
+    ready_count BIGINT NOT NULL DEFAULT 0,
+    failed_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Apply a +/- delta for one photo of the given status.
+-- Inserts create the row on demand; decrements only update, so cascaded deletes
+-- of a user never try to recreate the stats row of a user being removed.
+CREATE OR REPLACE FUNCTION apply_user_photo_stats_delta(p_user_id UUID, p_status photo_status, p_delta INTEGER)
+RETURNS VOID AS $$
+BEGIN
+    IF p_delta > 0 THEN
+        INSERT INTO user_photo_stats (user_id, total_count, pending_processing_count, processing_count,
+                                      ready_count, failed_count, updated_at)
+        VALUES (p_user_id, p_delta,
+                CASE WHEN p_status = 'PENDING_PROCESSING' THEN p_delta ELSE 0 END,
+                CASE WHEN p_status = 'PROCESSING' THEN p_delta ELSE 0 END,
+                CASE WHEN p_status = 'READY' THEN p_delta ELSE 0 END,
+                CASE WHEN p_status = 'FAILED' THEN p_delta ELSE 0 END,
+                CURRENT_TIMESTAMP)
+        ON CONFLICT (user_id) DO UPDATE SET
+            total_count = user_photo_stats.total_count + EXCLUDED.total_count,
+            pending_processing_count = user_photo_stats.pending_processing_count + EXCLUDED.pending_processing_count,
+            processing_count = user_photo_stats.processing_count + EXCLUDED.processing_count,
+            ready_count = user_photo_stats.ready_count + EXCLUDED.ready_count,
+            failed_count = user_photo_stats.failed_count + EXCLUDED.failed_count,
+            updated_at = EXCLUDED.updated_at;
+    ELSE
+        UPDATE user_photo_stats SET
+            total_count = total_count + p_delta,
+            pending_processing_count = pending_processing_count
+                + CASE WHEN p_status = 'PENDING_PROCESSING' THEN p_delta ELSE 0 END,
+            processing_count = processing_count + CASE WHEN p_status = 'PROCESSING' THEN p_delta ELSE 0 END,
+            ready_count = ready_count + CASE WHEN p_status = 'READY' THEN p_delta ELSE 0 END,
+            failed_count = failed_count + CASE WHEN p_status = 'FAILED' THEN p_delta ELSE 0 END,
+            updated_at = CURRENT_TIMESTAMP
+        WHERE user_id = p_user_id;
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION maintain_user_photo_stats()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        PERFORM apply_user_photo_stats_delta(NEW.user_id, NEW.status, 1);
+    ELSIF TG_OP = 'DELETE' THEN
+        PERFORM apply_user_photo_stats_delta(OLD.user_id, OLD.status, -1);
+    ELSIF OLD.status IS DISTINCT FROM NEW.status OR OLD.user_id IS DISTINCT FROM NEW.user_id THEN
+        PERFORM apply_user_photo_stats_delta(OLD.user_id, OLD.status, -1);
+        PERFORM apply_user_photo_stats_delta(NEW.user_id, NEW.status, 1);
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_photos_user_photo_stats
+    AFTER INSERT OR DELETE OR UPDATE OF status, user_id ON photos
+    FOR EACH ROW EXECUTE FUNCTION maintain_user_photo_stats();
+
+-- Backfill counters for existing photos
+INSERT INTO user_photo_stats (user_id, total_count, pending_processing_count, processing_count, ready_count, failed_count)
+SELECT user_id,
+       COUNT(*),
+       COUNT(*) FILTER (WHERE status = 'PENDING_PROCESSING'),
+       COUNT(*) FILTER (WHERE status = 'PROCESSING'),
+       COUNT(*) FILTER (WHERE status = 'READY'),
+       COUNT(*) FILTER (WHERE status = 'FAILED')
+FROM photos
+GROUP BY user_id
+ON CONFLICT (user_id) DO NOTHING;
+
+-- Comments
+COMMENT ON TABLE user_photo_stats IS 'Per-user photo counts maintained by trg_photos_user_photo_stats; reconciled periodically';
+COMMENT ON COLUMN user_photo_stats.total_count IS 'Number of photos owned by the user (all statuses)';
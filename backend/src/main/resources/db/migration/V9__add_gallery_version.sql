@@ -0,0 +1,94 @@
+-- V9: Per-user gallery version and reliable photos.updated_at
+-- Response ETags are derived from these values, so a conditional request can be
+-- answered without building the response.
+
+ALTER TABLE user_photo_stats ADD COLUMN IF NOT EXISTS gallery_version BIGINT NOT NULL DEFAULT 0;
+
+-- Bump the owner's gallery version on every photo insert, update and delete.
+-- Deletes only update, so cascaded deletes of a user never recreate its stats row.
+CREATE OR REPLACE FUNCTION bump_user_gallery_version()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        UPDATE user_photo_stats SET gallery_version = gallery_version + 1
+        WHERE user_id = OLD.user_id;
+    END IF;
+    IF TG_OP = 'INSERT' OR (TG_OP = 'UPDATE' AND OLD.user_id IS DISTINCT FROM NEW.user_id) THEN
+        INSERT INTO user_photo_stats (user_id, gallery_version)
+        VALUES (NEW.user_id, 1)
+        ON CONFLICT (user_id) DO UPDATE SET gallery_version = user_photo_stats.gallery_version + 1;
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_photos_gallery_version
+    AFTER INSERT OR DELETE OR UPDATE ON photos
+    FOR EACH ROW EXECUTE FUNCTION bump_user_gallery_version();
+
+-- Not every photo update sets updated_at (e.g. plain status changes); stamp it here
+CREATE OR REPLACE FUNCTION touch_photo_updated_at()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.updated_at IS NOT DISTINCT FROM OLD.updated_at THEN
+        NEW.updated_at = clock_timestamp();
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER trg_photos_touch_updated_at
+    BEFORE UPDATE ON photos
+    FOR EACH ROW EXECUTE FUNCTION touch_photo_updated_at();
+
+-- Versions and labels are part of the photo detail, so changing them touches the photo.
+-- Statement-level with transition tables: one UPDATE per statement, not per row. A photo
+-- already touched in this transaction (updated_at at or after its start) is skipped, so
+-- processing results with many versions and labels bump the gallery version once.
+CREATE OR REPLACE FUNCTION touch_parent_photos()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'DELETE' THEN
+        UPDATE photos SET updated_at = clock_timestamp()
+        WHERE id IN (SELECT photo_id FROM old_rows) AND updated_at < now();
+    ELSE
+        UPDATE photos SET updated_at = clock_timestamp()
+        WHERE id IN (SELECT photo_id FROM new_rows) AND updated_at < now();
+    END IF;
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Transition tables allow a single event per trigger
+CREATE TRIGGER trg_photo_versions_touch_photo_insert
+    AFTER INSERT ON photo_versions
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION touch_parent_photos();
+
+CREATE TRIGGER trg_photo_versions_touch_photo_update
+    AFTER UPDATE ON photo_versions
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION touch_parent_photos();
+
+CREATE TRIGGER trg_photo_versions_touch_photo_delete
+    AFTER DELETE ON photo_versions
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION touch_parent_photos();
+
+CREATE TRIGGER trg_photo_labels_touch_photo_insert
+    AFTER INSERT ON photo_labels
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION touch_parent_photos();
+
+CREATE TRIGGER trg_photo_labels_touch_photo_update
+    AFTER UPDATE ON photo_labels
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION touch_parent_photos();
+
+CREATE TRIGGER trg_photo_labels_touch_photo_delete
+    AFTER DELETE ON photo_labels
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT EXECUTE FUNCTION touch_parent_photos();
+
+-- Comments
+COMMENT ON COLUMN user_photo_stats.gallery_version IS 'Incremented on every change to the user''s photos; used for gallery ETags';
@@ -2,8 +2,12 @@ package com.rapidphoto.features.gallery;
 
 import com.rapidphoto.domain.*;
 import com.rapidphoto.domain.User;
+import com.rapidphoto.features.gallery.api.dto.GeoClusterDto;
 import com.rapidphoto.features.gallery.api.dto.PagedPhotosResponse;
+import com.rapidphoto.features.gallery.api.dto.PhotoListItemDto;
 import com.rapidphoto.features.gallery.api.dto.PhotoResponse;
+import com.rapidphoto.features.gallery.api.dto.TagSuggestionDto;
+import com.rapidphoto.features.gallery.api.dto.TimelineResponse;
 import com.rapidphoto.repository.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -22,6 +26,7 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -54,6 +59,11 @@ class GalleryIntegrationTest {
         registry.add("spring.flyway.url", postgres::getJdbcUrl);
         registry.add("spring.flyway.user", postgres::getUsername);
         registry.add("spring.flyway.password", postgres::getPassword);
+
+        // Fixtures are written straight to the repositories, bypassing the events that invalidate the page cache;
+        // the helpers below refresh the gallery view the way the command handlers do
+        registry.add("app.gallery.page-cache.pages", () -> 0);
+        registry.add("app.gallery.version-cache.ttl", () -> "0s");
     }
 
     @Autowired
@@ -71,6 +81,9 @@ class GalleryIntegrationTest {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PhotoGalleryViewRepository photoGalleryViewRepository;
+
     private UUID testUserId;
     private Photo testPhoto;
 
@@ -123,6 +136,39 @@ class GalleryIntegrationTest {
                 });
     }
 
+    @Test
+    @WithMockUser(username = "test-user")
+    void shouldClampOutOfRangePageSize() {
+        createTestPhoto(testUserId);
+
+        // When & Then - size=0 on the cursor path returns one item instead of failing
+        webTestClient.get()
+                .uri("/api/v1/photos?cursor=&size=0")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(PagedPhotosResponse.class)
+                .value(response -> {
+                    assertThat(response.getContent()).hasSize(1);
+                    assertThat(response.getSize()).isEqualTo(1);
+                    assertThat(response.isHasNext()).isTrue();
+                });
+
+        webTestClient.get()
+                .uri("/api/v1/photos/search?tags=beach&cursor=&size=-5")
+                .exchange()
+                .expectStatus().isOk();
+
+        webTestClient.get()
+                .uri("/api/v1/photos?page=-1&size=1000")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(PagedPhotosResponse.class)
+                .value(response -> {
+                    assertThat(response.getPage()).isZero();
+                    assertThat(response.getSize()).isEqualTo(100);
+                });
+    }
+
     @Test
     @WithMockUser(username = "test-user")
     void shouldGetPhotoDetail() {
@@ -195,6 +241,167 @@ class GalleryIntegrationTest {
                 });
     }
 
+    @Test
+    @WithMockUser(username = "test-user")
+    void shouldSearchPhotosByTagsWithCursor() {
+        // Given - three photos tagged dog+beach, one tagged dog only
+        createTestLabel(testPhoto.getId(), "dog", BigDecimal.valueOf(95));
+        createTestLabel(testPhoto.getId(), "beach", BigDecimal.valueOf(95));
+        for (int i = 0; i < 2; i++) {
+            Photo photo = createTestPhoto(testUserId);
+            createTestLabel(photo.getId(), "dog", BigDecimal.valueOf(95));
+            createTestLabel(photo.getId(), "beach", BigDecimal.valueOf(95));
+        }
+        Photo dogOnly = createTestPhoto(testUserId);
+        createTestLabel(dogOnly.getId(), "dog", BigDecimal.valueOf(95));
+
+        // First page
+        PagedPhotosResponse firstPage = webTestClient.get()
+                .uri("/api/v1/photos/search?tags=dog,beach&cursor=&size=2&includeTotal=true")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(PagedPhotosResponse.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(firstPage).isNotNull();
+        assertThat(firstPage.getContent()).hasSize(2);
+        assertThat(firstPage.getTotalElements()).isEqualTo(3);
+        assertThat(firstPage.isHasNext()).isTrue();
+
+        // Second page via cursor
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/v1/photos/search")
+                        .queryParam("tags", "dog,beach")
+                        .queryParam("cursor", firstPage.getNextCursor())
+                        .queryParam("size", 2)
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(PagedPhotosResponse.class)
+                .value(response -> {
+                    assertThat(response.getContent()).hasSize(1);
+                    assertThat(response.getContent().get(0).getId()).isEqualTo(testPhoto.getId());
+                    assertThat(response.isHasNext()).isFalse();
+                    assertThat(response.getTotalElements()).isNull();
+                });
+    }
+
+    @Test
+    @WithMockUser(username = "test-user")
+    void shouldRankSearchResultsByLabelConfidence() {
+        // Ranked by confidence, not recency; labels below the minimum confidence do not match
+        Photo confident = createTestPhoto(testUserId);
+        Photo lowConfidence = createTestPhoto(testUserId);
+        createTestLabel(testPhoto.getId(), "dog", BigDecimal.valueOf(80));
+        createTestLabel(confident.getId(), "dog", BigDecimal.valueOf(99.5));
+        createTestLabel(lowConfidence.getId(), "dog", BigDecimal.valueOf(50));
+
+        webTestClient.get()
+                .uri("/api/v1/photos/search?tags=dog&sort=relevance&size=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(PagedPhotosResponse.class)
+                .value(response -> {
+                    assertThat(response.getContent()).extracting(PhotoListItemDto::getId)
+                            .containsExactly(confident.getId());
+                    assertThat(response.getContent().get(0).getScore()).isEqualTo(99.5);
+                    assertThat(response.isHasNext()).isTrue();
+                });
+
+        webTestClient.get()
+                .uri("/api/v1/photos/search?tags=dog&sort=relevance&page=1&size=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(PagedPhotosResponse.class)
+                .value(response -> {
+                    assertThat(response.getContent()).extracting(PhotoListItemDto::getId)
+                            .containsExactly(testPhoto.getId());
+                    assertThat(response.isHasNext()).isFalse();
+                });
+    }
+
+    @Test
+    @WithMockUser(username = "test-user")
+    void shouldSearchPhotosByTextAndTags() {
+        Photo canonBeach = savePhoto(testPhotoBuilder(testUserId)
+                .fileName("IMG_2041.JPG")
+                .cameraMake("Canon")
+                .cameraModel("EOS R5")
+                .createdAt(Instant.now().minusSeconds(60))
+                .build());
+        Photo canonCity = savePhoto(testPhotoBuilder(testUserId)
+                .fileName("DSC_0001.JPG")
+                .cameraMake("Canon")
+                .build());
+        createTestLabel(canonBeach.getId(), "beach", BigDecimal.valueOf(95));
+        createTestLabel(canonCity.getId(), "city", BigDecimal.valueOf(95));
+
+        // File name search, matching on a prefix of the number
+        webTestClient.get()
+                .uri("/api/v1/photos/search?q=IMG_204")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(PagedPhotosResponse.class)
+                .value(response -> {
+                    assertThat(response.getContent()).extracting(PhotoListItemDto::getId)
+                            .containsExactly(canonBeach.getId());
+                    assertThat(response.getTotalElements()).isEqualTo(1);
+                });
+
+        // Camera make search, newest first, with cursor pagination
+        webTestClient.get()
+                .uri("/api/v1/photos/search?q=canon&cursor=&size=1")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(PagedPhotosResponse.class)
+                .value(response -> {
+                    assertThat(response.getContent()).extracting(PhotoListItemDto::getId)
+                            .containsExactly(canonCity.getId());
+                    assertThat(response.getNextCursor()).isNotNull();
+                });
+
+        // Text combined with a label filter
+        webTestClient.get()
+                .uri("/api/v1/photos/search?q=canon&tags=beach")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(PagedPhotosResponse.class)
+                .value(response -> assertThat(response.getContent()).extracting(PhotoListItemDto::getId)
+                        .containsExactly(canonBeach.getId()));
+    }
+
+    @Test
+    @WithMockUser(username = "test-user")
+    void shouldSuggestTagsByPrefixAndFuzzyMatch() {
+        createTestLabel(testPhoto.getId(), "mountain", BigDecimal.valueOf(95));
+        createTestLabel(createTestPhoto(testUserId).getId(), "mountain", BigDecimal.valueOf(95));
+
+        // Prefix completion
+        webTestClient.get()
+                .uri("/api/v1/photos/tags/suggest?q=mou")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(TagSuggestionDto.class)
+                .value(suggestions -> {
+                    assertThat(suggestions).hasSize(1);
+                    assertThat(suggestions.get(0).getLabel()).isEqualTo("mountain");
+                    assertThat(suggestions.get(0).getPhotoCount()).isEqualTo(2);
+                    assertThat(suggestions.get(0).isFuzzy()).isFalse();
+                });
+
+        // Typo falls back to trigram matching
+        webTestClient.get()
+                .uri("/api/v1/photos/tags/suggest?q=montain")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(TagSuggestionDto.class)
+                .value(suggestions -> {
+                    assertThat(suggestions).extracting(TagSuggestionDto::getLabel).containsExactly("mountain");
+                    assertThat(suggestions.get(0).isFuzzy()).isTrue();
+                });
+    }
+
     @Test
     @WithMockUser(username = "test-user")
     void shouldReturnEmptyForNonMatchingTags() {
@@ -310,8 +517,237 @@ class GalleryIntegrationTest {
                 });
     }
 
+    @Test
+    @WithMockUser(username = "test-user")
+    void shouldHandleCursorPagination() {
+        // Create multiple photos
+        for (int i = 0; i < 25; i++) {
+            createTestPhoto(testUserId);
+        }
+
+        // First page (empty cursor starts cursor mode)
+        PagedPhotosResponse firstPage = webTestClient.get()
+                .uri("/api/v1/photos?cursor=&size=20")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(PagedPhotosResponse.class)
+                .returnResult()
+                .getResponseBody();
+
+        assertThat(firstPage).isNotNull();
+        assertThat(firstPage.getContent()).hasSize(20);
+        assertThat(firstPage.isHasNext()).isTrue();
+        assertThat(firstPage.getNextCursor()).isNotBlank();
+        assertThat(firstPage.getTotalElements()).isNull();
+
+        // Second page via cursor, with exact total requested
+        webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/v1/photos")
+                        .queryParam("cursor", firstPage.getNextCursor())
+                        .queryParam("size", 20)
+                        .queryParam("includeTotal", true)
+                        .build())
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(PagedPhotosResponse.class)
+                .value(response -> {
+                    assertThat(response.getContent()).hasSize(6);
+                    assertThat(response.isHasNext()).isFalse();
+                    assertThat(response.getNextCursor()).isNull();
+                    assertThat(response.getTotalElements()).isEqualTo(26);
+                    assertThat(response.getContent())
+                            .extracting(item -> item.getId())
+                            .doesNotContainAnyElementsOf(firstPage.getContent().stream()
+                                    .map(item -> item.getId())
+                                    .toList());
+                });
+    }
+
+    @Test
+    @WithMockUser(username = "test-user")
+    void shouldRejectInvalidCursor() {
+        webTestClient.get()
+                .uri("/api/v1/photos?cursor=garbage&size=20")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    @WithMockUser(username = "test-user")
+    void shouldStreamPhotosAsNdjson() {
+        for (int i = 0; i < 4; i++) {
+            createTestPhoto(testUserId);
+        }
+
+        // First streamed page (empty cursor starts cursor mode)
+        List<PhotoListItemDto> firstItems = webTestClient.get()
+                .uri("/api/v1/photos/stream?cursor=&size=3")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+                .returnResult(PhotoListItemDto.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertThat(firstItems).hasSize(3);
+        assertThat(firstItems).allSatisfy(item -> assertThat(item.getCursor()).isNotBlank());
+
+        // Resume after the last rendered item
+        List<PhotoListItemDto> remaining = webTestClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/api/v1/photos/stream")
+                        .queryParam("cursor", firstItems.get(2).getCursor())
+                        .queryParam("size", 3)
+                        .build())
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(PhotoListItemDto.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertThat(remaining).hasSize(2);
+        assertThat(remaining)
+                .extracting(PhotoListItemDto::getId)
+                .doesNotContainAnyElementsOf(firstItems.stream().map(PhotoListItemDto::getId).toList());
+    }
+
+    @Test
+    @WithMockUser(username = "test-user")
+    void shouldChangeGalleryETagWhenPhotoDeleted() {
+        createTestPhoto(testUserId);
+        String etag = webTestClient.get()
+                .uri("/api/v1/photos?page=0&size=20")
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(PagedPhotosResponse.class)
+                .getResponseHeaders()
+                .getETag();
+
+        webTestClient.delete()
+                .uri("/api/v1/photos/{photoId}", testPhoto.getId())
+                .exchange()
+                .expectStatus().isNoContent();
+
+        // The stale ETag no longer matches, so the new page is returned
+        webTestClient.get()
+                .uri("/api/v1/photos?page=0&size=20")
+                .header("If-None-Match", etag)
+                .exchange()
+                .expectStatus().isOk()
+                .expectHeader().value("ETag", value -> assertThat(value).isNotEqualTo(etag))
+                .expectBody(PagedPhotosResponse.class)
+                .value(response -> assertThat(response.getContent()).hasSize(1));
+    }
+
+    @Test
+    @WithMockUser(username = "test-user")
+    void shouldFindPhotosNearbyInBoundsAndClusters() {
+        // Two photos in Paris, one in London
+        Photo louvre = createTestPhotoAt(testUserId, 48.8606, 2.3376);
+        Photo eiffelTower = createTestPhotoAt(testUserId, 48.8584, 2.2945);
+        Photo bigBen = createTestPhotoAt(testUserId, 51.5007, -0.1246);
+
+        // Within 5 km of Notre-Dame, nearest first
+        webTestClient.get()
+                .uri("/api/v1/photos/geo/nearby?lat=48.8530&lon=2.3499&radius=5000")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(PhotoListItemDto.class)
+                .value(photos -> {
+                    assertThat(photos).extracting(PhotoListItemDto::getId)
+                            .containsExactly(louvre.getId(), eiffelTower.getId());
+                    assertThat(photos.get(0).getDistanceMeters()).isBetween(1000.0, 1500.0);
+                });
+
+        webTestClient.get()
+                .uri("/api/v1/photos/geo/bounds?south=51&west=-1&north=52&east=0")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(PhotoListItemDto.class)
+                .value(photos -> {
+                    assertThat(photos).extracting(PhotoListItemDto::getId).containsExactly(bigBen.getId());
+                    assertThat(photos.get(0).getLatitude()).isEqualTo(51.5007);
+                });
+
+        // At zoom 5 (about 2.8 degree cells) Paris is one cluster and London another
+        webTestClient.get()
+                .uri("/api/v1/photos/geo/clusters?south=40&west=-10&north=60&east=10&zoom=5")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBodyList(GeoClusterDto.class)
+                .value(clusters -> assertThat(clusters).extracting(GeoClusterDto::getPhotoCount)
+                        .containsExactly(2L, 1L));
+
+        webTestClient.get()
+                .uri("/api/v1/photos/geo/nearby?lat=95&lon=0")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    @WithMockUser(username = "test-user")
+    void shouldGetTimelineHistogram() {
+        // testPhoto has no taken_at and is bucketed by its upload time
+        createTestPhotoTakenAt(testUserId, Instant.parse("2023-07-01T10:00:00Z"));
+        createTestPhotoTakenAt(testUserId, Instant.parse("2023-07-20T10:00:00Z"));
+        createTestPhotoTakenAt(testUserId, Instant.parse("2021-01-01T03:00:00Z"));
+
+        webTestClient.get()
+                .uri("/api/v1/photos/timeline?granularity=month&timeZone=UTC")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TimelineResponse.class)
+                .value(timeline -> {
+                    assertThat(timeline.getTotalCount()).isEqualTo(4);
+                    assertThat(timeline.getBuckets()).hasSize(3);
+                    assertThat(timeline.getBuckets().get(1).getStart())
+                            .isEqualTo(Instant.parse("2023-07-01T00:00:00Z"));
+                    assertThat(timeline.getBuckets().get(1).getPhotoCount()).isEqualTo(2);
+                });
+
+        // Buckets follow the requested time zone: 03:00 UTC on Jan 1 is still Dec 31 in New York
+        webTestClient.get()
+                .uri("/api/v1/photos/timeline?granularity=year&timeZone=America/New_York")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(TimelineResponse.class)
+                .value(timeline -> assertThat(timeline.getBuckets().get(timeline.getBuckets().size() - 1).getStart())
+                        .isEqualTo(Instant.parse("2020-01-01T05:00:00Z")));
+
+        webTestClient.get()
+                .uri("/api/v1/photos/timeline?granularity=week")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
     private Photo createTestPhoto(UUID userId) {
-        Photo photo = Photo.builder()
+        return savePhoto(testPhotoBuilder(userId).build());
+    }
+
+    private Photo createTestPhotoAt(UUID userId, double latitude, double longitude) {
+        Photo photo = testPhotoBuilder(userId)
+                .gpsLatitude(BigDecimal.valueOf(latitude))
+                .gpsLongitude(BigDecimal.valueOf(longitude))
+                .build();
+
+        return savePhoto(photo);
+    }
+
+    private Photo createTestPhotoTakenAt(UUID userId, Instant takenAt) {
+        return savePhoto(testPhotoBuilder(userId).takenAt(takenAt).build());
+    }
+
+    private Photo savePhoto(Photo photo) {
+        Photo saved = photoRepository.saveWithEnumCast(photo).block();
+        photoGalleryViewRepository.refresh(saved.getId()).block();
+        return saved;
+    }
+
+    private Photo.PhotoBuilder testPhotoBuilder(UUID userId) {
+        return Photo.builder()
                 .id(UUID.randomUUID())
                 .userId(userId)
                 .uploadJobId(UUID.randomUUID())
@@ -323,10 +759,7 @@ class GalleryIntegrationTest {
                 .height(1080)
                 .status(PhotoStatus.READY)
                 .createdAt(Instant.now())
-                .processedAt(Instant.now())
-                .build();
-
-        return photoRepository.saveWithEnumCast(photo).block();
+                .processedAt(Instant.now());
     }
 
     private PhotoVersion createTestVersion(UUID photoId, PhotoVersionType versionType) {
@@ -340,7 +773,9 @@ class GalleryIntegrationTest {
                 .mimeType("image/webp")
                 .build();
 
-        return photoVersionRepository.save(version).block();
+        PhotoVersion saved = photoVersionRepository.save(version).block();
+        photoGalleryViewRepository.refresh(photoId).block();
+        return saved;
     }
 
     private PhotoLabel createTestLabel(UUID photoId, String labelName, BigDecimal confidence) {
@@ -350,6 +785,8 @@ class GalleryIntegrationTest {
                 .confidence(confidence)
                 .build();
 
-        return photoLabelRepository.save(label).block();
+        PhotoLabel saved = photoLabelRepository.save(label).block();
+        photoGalleryViewRepository.refresh(photoId).block();
+        return saved;
     }
 }
@@ -0,0 +1,149 @@
+package com.rapidphoto.features.gallery.application;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.scheduler.VirtualTimeScheduler;
+import reactor.util.context.Context;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for BatchLoader.
+ */
+class BatchLoaderTest {
+
+    private static final Duration WINDOW = Duration.ofMillis(2);
+    private static final Duration QUERY_TIME = Duration.ofMillis(1);
+
+    private final VirtualTimeScheduler scheduler = VirtualTimeScheduler.create();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final List<Set<Integer>> batches = new ArrayList<>();
+
+    @Test
+    void shouldLoadImmediatelyWhenIdle() {
+        BatchLoader<Integer, String> loader = mappingLoader(100);
+        List<String> results = new ArrayList<>();
+
+        // When - nothing is in flight, so the lookup does not wait for the window
+        loader.load(1).subscribe(results::add);
+        assertThat(batches).containsExactly(Set.of(1));
+        scheduler.advanceTimeBy(QUERY_TIME);
+
+        // Then - the loader is idle again once the query finished
+        loader.load(2).subscribe(results::add);
+        assertThat(batches).containsExactly(Set.of(1), Set.of(2));
+        scheduler.advanceTimeBy(QUERY_TIME);
+        assertThat(results).containsExactly("value-1", "value-2");
+    }
+
+    @Test
+    void shouldCoalesceLookupsWithinWindow() {
+        // Given - a batch is in flight
+        BatchLoader<Integer, String> loader = mappingLoader(100);
+        List<String> results = new ArrayList<>();
+        loader.load(1).subscribe(results::add);
+
+        // When - three lookups (one duplicate) arrive in the same window
+        loader.load(2).subscribe(results::add);
+        loader.load(3).subscribe(results::add);
+        loader.load(2).subscribe(results::add);
+        assertThat(batches).containsExactly(Set.of(1));
+        scheduler.advanceTimeBy(WINDOW.plus(QUERY_TIME));
+
+        // Then - one query for the waiting keys, every caller answered
+        assertThat(batches).containsExactly(Set.of(1), Set.of(2, 3));
+        assertThat(results).containsExactlyInAnyOrder("value-1", "value-2", "value-3", "value-2");
+        assertThat(meterRegistry.get("gallery.batch.size").tag("loader", "test").summary().count()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldDispatchImmediatelyWhenBatchIsFull() {
+        BatchLoader<Integer, String> loader = mappingLoader(2);
+
+        loader.load(1).subscribe();
+        loader.load(2).subscribe();
+        loader.load(3).subscribe();
+        loader.load(4).subscribe();
+
+        // The first key goes alone, the next two fill a batch; the fourth waits for its window
+        assertThat(batches).containsExactly(Set.of(1), Set.of(2, 3));
+        scheduler.advanceTimeBy(WINDOW);
+        assertThat(batches).containsExactly(Set.of(1), Set.of(2, 3), Set.of(4));
+    }
+
+    @Test
+    void shouldRunBatchWithCallerContext() {
+        AtomicReference<String> requestId = new AtomicReference<>();
+        BatchLoader<Integer, String> loader = new BatchLoader<>("context",
+                keys -> Mono.deferContextual(context -> {
+                    requestId.set(context.getOrDefault("requestId", "none"));
+                    return Mono.just(Map.of(1, "value-1"));
+                }),
+                WINDOW, 100, scheduler, meterRegistry);
+
+        loader.load(1).contextWrite(Context.of("requestId", "abc")).subscribe();
+
+        assertThat(requestId.get()).isEqualTo("abc");
+    }
+
+    @Test
+    void shouldCompleteEmptyForMissingKeysAndGroupChildren() {
+        // Given - key 0 has no value, key 2 has two children
+        BatchLoader<Integer, String> single = mappingLoader(100);
+        BatchLoader<Integer, List<String>> grouped = BatchLoader.grouping("children",
+                keys -> Flux.just("2:a", "2:b", "3:a"),
+                child -> Integer.parseInt(child.substring(0, 1)),
+                WINDOW, 100, scheduler, meterRegistry);
+
+        AtomicReference<String> missing = new AtomicReference<>("unset");
+        AtomicReference<List<String>> children = new AtomicReference<>();
+        AtomicReference<List<String>> noChildren = new AtomicReference<>();
+
+        // When
+        single.load(0).defaultIfEmpty("empty").subscribe(missing::set);
+        grouped.load(2).subscribe(children::set);
+        grouped.load(4).subscribe(noChildren::set);
+        scheduler.advanceTimeBy(WINDOW.plus(QUERY_TIME));
+
+        // Then
+        assertThat(missing.get()).isEqualTo("empty");
+        assertThat(children.get()).containsExactly("2:a", "2:b");
+        assertThat(noChildren.get()).isEmpty();
+    }
+
+    @Test
+    void shouldPropagateBatchFailureToEveryCaller() {
+        BatchLoader<Integer, String> loader = new BatchLoader<>("failing",
+                keys -> Mono.error(new IllegalStateException("boom")),
+                WINDOW, 100, scheduler, meterRegistry);
+        List<Throwable> errors = new ArrayList<>();
+
+        loader.load(1).subscribe(value -> { }, errors::add);
+        loader.load(2).subscribe(value -> { }, errors::add);
+        scheduler.advanceTimeBy(WINDOW);
+
+        assertThat(errors).hasSize(2).allMatch(IllegalStateException.class::isInstance);
+    }
+
+    private BatchLoader<Integer, String> mappingLoader(int maxBatchSize) {
+        return BatchLoader.mapping("test",
+                keys -> {
+                    batches.add(Set.copyOf(keys));
+                    return Flux.fromIterable(keys)
+                            .filter(key -> key > 0)
+                            .map(key -> "value-" + key)
+                            .delaySubscription(QUERY_TIME, scheduler);
+                },
+                value -> Integer.parseInt(value.substring("value-".length())),
+                WINDOW, maxBatchSize, scheduler, meterRegistry);
+    }
+}
@@ -0,0 +1,134 @@
+package com.rapidphoto.features.gallery.application;
+
+import com.rapidphoto.domain.event.PhotoLibraryChangedEvent;
+import com.rapidphoto.features.gallery.api.dto.PagedPhotosResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for GalleryPageCache.
+ */
+class GalleryPageCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final GalleryVersionService galleryVersionService = mock(GalleryVersionService.class);
+    private final GalleryPageCache cache =
+            new GalleryPageCache(galleryVersionService, meterRegistry, 3, 2, Duration.ofMinutes(1), 100);
+    private final AtomicInteger loads = new AtomicInteger();
+    private final AtomicLong version = new AtomicLong(1);
+
+    GalleryPageCacheTest() {
+        when(galleryVersionService.currentVersion(any())).thenAnswer(invocation -> Mono.just(version.get()));
+    }
+
+    @Test
+    void shouldServeRepeatedPageFromCache() {
+        UUID userId = UUID.randomUUID();
+
+        StepVerifier.create(cache.getOrLoad(userId, "page:0:20", this::load)).expectNextCount(1).verifyComplete();
+        StepVerifier.create(cache.getOrLoad(userId, "page:0:20", this::load)).expectNextCount(1).verifyComplete();
+
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(meterRegistry.get("gallery.page.cache.hit.ratio").gauge().value()).isEqualTo(0.5);
+    }
+
+    @Test
+    void shouldInvalidateOnlyChangedUser() {
+        UUID userId = UUID.randomUUID();
+        UUID otherUserId = UUID.randomUUID();
+        cache.getOrLoad(userId, "page:0:20", this::load).block();
+        cache.getOrLoad(otherUserId, "page:0:20", this::load).block();
+
+        // When
+        cache.onPhotoLibraryChanged(new PhotoLibraryChangedEvent(
+                userId, UUID.randomUUID(), PhotoLibraryChangedEvent.ChangeType.ADDED));
+        cache.getOrLoad(userId, "page:0:20", this::load).block();
+        cache.getOrLoad(otherUserId, "page:0:20", this::load).block();
+
+        // Then - only the changed user is reloaded
+        assertThat(loads.get()).isEqualTo(3);
+        assertThat(meterRegistry.get("gallery.page.cache.invalidations").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotServePageLoadedBeforeInvalidation() {
+        UUID userId = UUID.randomUUID();
+        Sinks.One<PagedPhotosResponse> slowLoad = Sinks.one();
+
+        // Given - a load is in flight when the library changes
+        Mono<PagedPhotosResponse> inFlight = cache.getOrLoad(userId, "page:0:20", slowLoad::asMono).cache();
+        inFlight.subscribe();
+        cache.invalidate(userId);
+        slowLoad.tryEmitValue(page());
+        inFlight.block();
+
+        // When
+        cache.getOrLoad(userId, "page:0:20", this::load).block();
+
+        // Then - the stale result was discarded and the page reloaded
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReloadPageWhenGalleryVersionChanged() {
+        UUID userId = UUID.randomUUID();
+        cache.getOrLoad(userId, "page:0:20", this::load).block();
+
+        // When - another node changed the library, so no local event arrived
+        version.incrementAndGet();
+        cache.getOrLoad(userId, "page:0:20", this::load).block();
+        cache.getOrLoad(userId, "page:0:20", this::load).block();
+
+        // Then - the old page is not served for the new version
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldCapCachedPagesPerUser() {
+        UUID userId = UUID.randomUUID();
+        cache.getOrLoad(userId, "page:0:10", this::load).block();
+        cache.getOrLoad(userId, "page:0:20", this::load).block();
+        cache.getOrLoad(userId, "page:0:30", this::load).block();
+
+        // When
+        cache.getOrLoad(userId, "page:0:10", this::load).block();
+        cache.getOrLoad(userId, "page:0:30", this::load).block();
+
+        // Then - the third page shape was never cached
+        assertThat(loads.get()).isEqualTo(4);
+    }
+
+    @Test
+    void shouldOnlyCacheFirstPages() {
+        assertThat(cache.isCacheable(0)).isTrue();
+        assertThat(cache.isCacheable(2)).isTrue();
+        assertThat(cache.isCacheable(3)).isFalse();
+    }
+
+    private Mono<PagedPhotosResponse> load() {
+        loads.incrementAndGet();
+        return Mono.just(page());
+    }
+
+    private PagedPhotosResponse page() {
+        return PagedPhotosResponse.builder()
+                .content(List.of())
+                .page(0)
+                .size(20)
+                .build();
+    }
+}
@@ -0,0 +1,112 @@
+package com.rapidphoto.features.gallery.application;
+
+import com.rapidphoto.domain.event.PhotoLibraryChangedEvent;
+import com.rapidphoto.repository.PhotoRepository;
+import com.rapidphoto.repository.UserPhotoStatsRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for GalleryVersionService.
+ */
+@ExtendWith(MockitoExtension.class)
+class GalleryVersionServiceTest {
+
+    @Mock
+    private UserPhotoStatsRepository userPhotoStatsRepository;
+
+    @Mock
+    private PhotoRepository photoRepository;
+
+    @Mock
+    private S3DownloadUrlService s3DownloadUrlService;
+
+    private GalleryVersionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new GalleryVersionService(userPhotoStatsRepository, photoRepository, s3DownloadUrlService,
+                Duration.ofMinutes(1), 100);
+    }
+
+    @Test
+    void shouldServeRepeatedEtagsFromCachedVersion() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        when(userPhotoStatsRepository.findGalleryVersionByUserId(userId)).thenReturn(Mono.just(7L));
+        when(s3DownloadUrlService.currentSigningWindow()).thenReturn(1L);
+
+        // When
+        String first = service.galleryEtag(userId, "page:0:20").block();
+        String second = service.galleryEtag(userId, "page:0:20").block();
+
+        // Then
+        assertThat(first).isEqualTo(second).startsWith("\"").endsWith("\"");
+        verify(userPhotoStatsRepository, times(1)).findGalleryVersionByUserId(userId);
+    }
+
+    @Test
+    void shouldChangeEtagWhenVersionBumped() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        when(userPhotoStatsRepository.findGalleryVersionByUserId(userId))
+                .thenReturn(Mono.just(7L), Mono.just(8L));
+        when(s3DownloadUrlService.currentSigningWindow()).thenReturn(1L);
+        String before = service.galleryEtag(userId, "page:0:20").block();
+
+        // When
+        service.onPhotoLibraryChanged(new PhotoLibraryChangedEvent(
+                userId, UUID.randomUUID(), PhotoLibraryChangedEvent.ChangeType.DELETED));
+
+        // Then
+        assertThat(service.galleryEtag(userId, "page:0:20").block()).isNotEqualTo(before);
+    }
+
+    @Test
+    void shouldChangeEtagWithPageShapeAndSigningWindow() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        when(userPhotoStatsRepository.findGalleryVersionByUserId(userId)).thenReturn(Mono.just(7L));
+        when(s3DownloadUrlService.currentSigningWindow()).thenReturn(1L, 1L, 2L);
+
+        // When
+        String page0 = service.galleryEtag(userId, "page:0:20").block();
+        String page1 = service.galleryEtag(userId, "page:1:20").block();
+        String nextWindow = service.galleryEtag(userId, "page:0:20").block();
+
+        // Then - new signing windows hand out fresh URLs
+        assertThat(page0).isNotEqualTo(page1).isNotEqualTo(nextWindow);
+    }
+
+    @Test
+    void shouldDerivePhotoEtagFromUpdatedAt() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        UUID photoId = UUID.randomUUID();
+        UUID missingPhotoId = UUID.randomUUID();
+        when(photoRepository.findUpdatedAtByIdAndUserId(photoId, userId))
+                .thenReturn(Mono.just(Instant.parse("2025-06-01T10:00:00Z")),
+                        Mono.just(Instant.parse("2025-06-01T10:00:01Z")));
+        when(photoRepository.findUpdatedAtByIdAndUserId(missingPhotoId, userId)).thenReturn(Mono.empty());
+        when(s3DownloadUrlService.currentSigningWindow()).thenReturn(1L);
+
+        // When
+        String before = service.photoEtag(photoId, userId).block();
+        String after = service.photoEtag(photoId, userId).block();
+
+        // Then
+        assertThat(before).isNotNull().isNotEqualTo(after);
+        assertThat(service.photoEtag(missingPhotoId, userId).block()).isNull();
+    }
+}
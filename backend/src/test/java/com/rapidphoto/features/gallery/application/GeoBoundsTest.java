@@ -0,0 +1,53 @@
+package com.rapidphoto.features.gallery.application;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Unit tests for GeoBounds construction.
+ */
+class GeoBoundsTest {
+
+    @Test
+    void shouldBoundCircleAroundPoint() {
+        // 111.2 km is one degree of latitude
+        GeoBounds bounds = GeoBounds.around(0, 10, 111_195);
+
+        assertThat(bounds.south()).isCloseTo(-1, within(0.001));
+        assertThat(bounds.north()).isCloseTo(1, within(0.001));
+        assertThat(bounds.west()).isCloseTo(9, within(0.001));
+        assertThat(bounds.east()).isCloseTo(11, within(0.001));
+    }
+
+    @Test
+    void shouldWrapCircleAcrossAntimeridian() {
+        GeoBounds bounds = GeoBounds.around(0, 179.5, 111_195);
+
+        assertThat(bounds.west()).isCloseTo(178.5, within(0.001));
+        assertThat(bounds.east()).isCloseTo(-179.5, within(0.001));
+    }
+
+    @Test
+    void shouldSpanAllLongitudesWhenCircleReachesPole() {
+        GeoBounds bounds = GeoBounds.around(89.5, 0, 111_195);
+
+        assertThat(bounds.north()).isEqualTo(90);
+        assertThat(bounds.west()).isEqualTo(-180);
+        assertThat(bounds.east()).isEqualTo(180);
+    }
+
+    @Test
+    void shouldRejectInvalidInput() {
+        assertThatThrownBy(() -> GeoBounds.of(10, 0, -10, 1))
+                .isInstanceOf(GeoBounds.InvalidGeoQueryException.class);
+        assertThatThrownBy(() -> GeoBounds.of(0, -181, 1, 1))
+                .isInstanceOf(GeoBounds.InvalidGeoQueryException.class);
+        assertThatThrownBy(() -> GeoBounds.around(91, 0, 100))
+                .isInstanceOf(GeoBounds.InvalidGeoQueryException.class);
+        assertThatThrownBy(() -> GeoBounds.around(0, 0, 0))
+                .isInstanceOf(GeoBounds.InvalidGeoQueryException.class);
+    }
+}
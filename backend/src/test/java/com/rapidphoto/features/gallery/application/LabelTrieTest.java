@@ -0,0 +1,37 @@
+package com.rapidphoto.features.gallery.application;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for LabelTrie.
+ */
+class LabelTrieTest {
+
+    private final LabelTrie trie = new LabelTrie();
+
+    @Test
+    void shouldCompletePrefixCaseInsensitively() {
+        trie.insert("Dog");
+        trie.insert("Dolphin");
+        trie.insert("Door");
+        trie.insert("Cat");
+
+        assertThat(trie.withPrefix("do")).containsExactlyInAnyOrder("Dog", "Dolphin", "Door");
+        assertThat(trie.withPrefix("DOL")).containsExactly("Dolphin");
+        assertThat(trie.withPrefix("x")).isEmpty();
+    }
+
+    @Test
+    void shouldPruneRemovedLabels() {
+        trie.insert("Dog");
+        int nodesWithDog = trie.nodeCount();
+        trie.insert("Dogsled");
+
+        trie.remove("Dogsled");
+
+        assertThat(trie.withPrefix("dog")).containsExactly("Dog");
+        assertThat(trie.nodeCount()).isEqualTo(nodesWithDog);
+    }
+}
@@ -0,0 +1,40 @@
+package com.rapidphoto.features.gallery.application;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for PhotoCursor encoding.
+ */
+class PhotoCursorTest {
+
+    @Test
+    void shouldRoundTripCursor() {
+        // Given - microsecond precision matches PostgreSQL timestamps
+        PhotoCursor cursor = new PhotoCursor(Instant.parse("2025-03-14T09:26:53.589793Z"), UUID.randomUUID());
+
+        // When
+        String encoded = cursor.encode();
+
+        // Then
+        assertThat(encoded).doesNotContain("=", "+", "/");
+        assertThat(PhotoCursor.decode(encoded)).isEqualTo(cursor);
+    }
+
+    @Test
+    void shouldRejectMalformedCursor() {
+        assertThatThrownBy(() -> PhotoCursor.decode("not a cursor!"))
+                .isInstanceOf(PhotoCursor.InvalidCursorException.class);
+    }
+
+    @Test
+    void shouldRejectCursorWithWrongLength() {
+        assertThatThrownBy(() -> PhotoCursor.decode("AAAA"))
+                .isInstanceOf(PhotoCursor.InvalidCursorException.class);
+    }
+}
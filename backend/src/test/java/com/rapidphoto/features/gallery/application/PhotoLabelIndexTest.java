@@ -0,0 +1,120 @@
+package com.rapidphoto.features.gallery.application;
+
+import com.rapidphoto.domain.event.PhotoLibraryChangedEvent;
+import com.rapidphoto.repository.PhotoReadModelRepository;
+import com.rapidphoto.repository.UserPhotoStatsRepository;
+import com.rapidphoto.repository.projection.PhotoLabelsRow;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for PhotoLabelIndex.
+ */
+@ExtendWith(MockitoExtension.class)
+class PhotoLabelIndexTest {
+
+    @Mock
+    private PhotoReadModelRepository photoReadModelRepository;
+
+    @Mock
+    private UserPhotoStatsRepository userPhotoStatsRepository;
+
+    @Mock
+    private GalleryVersionService galleryVersionService;
+
+    private PhotoLabelIndex photoLabelIndex;
+
+    @BeforeEach
+    void setUp() {
+        photoLabelIndex = new PhotoLabelIndex(photoReadModelRepository, userPhotoStatsRepository,
+                galleryVersionService, new SimpleMeterRegistry(), DataSize.ofMegabytes(1), Duration.ofMinutes(10));
+    }
+
+    @Test
+    void shouldServeResidentIndexWhileVersionIsUnchanged() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        UUID photoId = UUID.randomUUID();
+        when(galleryVersionService.currentVersion(userId)).thenReturn(Mono.just(3L));
+        when(photoReadModelRepository.findLabelsRowsByUserId(userId))
+                .thenReturn(Flux.just(new PhotoLabelsRow(photoId, Instant.now(), new String[]{"cat"})));
+
+        // When & Then
+        StepVerifier.create(photoLabelIndex.match(userId, List.of("cat"), 0, 10)
+                        .then(photoLabelIndex.match(userId, List.of("cat"), 0, 10)))
+                .assertNext(matches -> assertThat(matches.photoIds()).containsExactly(photoId))
+                .verifyComplete();
+
+        verify(photoReadModelRepository, times(1)).findLabelsRowsByUserId(userId);
+    }
+
+    @Test
+    void shouldRebuildIndexWhenLibraryChangedOnAnotherNode() {
+        // Given - the second search sees a version bumped by a change this node never saw
+        UUID userId = UUID.randomUUID();
+        UUID oldPhotoId = UUID.randomUUID();
+        UUID newPhotoId = UUID.randomUUID();
+        Instant createdAt = Instant.now();
+        when(galleryVersionService.currentVersion(userId)).thenReturn(Mono.just(3L), Mono.just(5L));
+        when(photoReadModelRepository.findLabelsRowsByUserId(userId))
+                .thenReturn(Flux.just(new PhotoLabelsRow(oldPhotoId, createdAt, new String[]{"cat"})))
+                .thenReturn(Flux.just(
+                        new PhotoLabelsRow(oldPhotoId, createdAt, new String[]{"cat"}),
+                        new PhotoLabelsRow(newPhotoId, createdAt.plusSeconds(1), new String[]{"cat"})));
+
+        // When & Then
+        StepVerifier.create(photoLabelIndex.match(userId, List.of("cat"), 0, 10))
+                .assertNext(matches -> assertThat(matches.total()).isEqualTo(1))
+                .verifyComplete();
+        StepVerifier.create(photoLabelIndex.match(userId, List.of("cat"), 0, 10))
+                .assertNext(matches -> assertThat(matches.photoIds()).containsExactly(newPhotoId, oldPhotoId))
+                .verifyComplete();
+
+        verify(photoReadModelRepository, times(2)).findLabelsRowsByUserId(userId);
+    }
+
+    @Test
+    void shouldApplyLocalChangesWithoutRebuilding() {
+        // Given - a resident index at version 3
+        UUID userId = UUID.randomUUID();
+        UUID oldPhotoId = UUID.randomUUID();
+        UUID newPhotoId = UUID.randomUUID();
+        Instant createdAt = Instant.now();
+        when(galleryVersionService.currentVersion(userId)).thenReturn(Mono.just(3L), Mono.just(5L));
+        when(photoReadModelRepository.findLabelsRowsByUserId(userId))
+                .thenReturn(Flux.just(new PhotoLabelsRow(oldPhotoId, createdAt, new String[]{"cat"})));
+        photoLabelIndex.match(userId, List.of("cat"), 0, 10).block();
+
+        // When - this node labels a new photo and deletes the old one, bumping the version to 5
+        when(userPhotoStatsRepository.findGalleryVersionByUserId(userId)).thenReturn(Mono.just(4L), Mono.just(5L));
+        when(photoReadModelRepository.findLabelsRowByPhotoId(newPhotoId))
+                .thenReturn(Mono.just(new PhotoLabelsRow(newPhotoId, createdAt.plusSeconds(1), new String[]{"cat"})));
+        photoLabelIndex.onPhotoLibraryChanged(new PhotoLibraryChangedEvent(
+                userId, newPhotoId, PhotoLibraryChangedEvent.ChangeType.PROCESSED));
+        photoLabelIndex.onPhotoLibraryChanged(new PhotoLibraryChangedEvent(
+                userId, oldPhotoId, PhotoLibraryChangedEvent.ChangeType.DELETED));
+
+        // Then - the changes are served from the same index
+        StepVerifier.create(photoLabelIndex.match(userId, List.of("cat"), 0, 10))
+                .assertNext(matches -> assertThat(matches.photoIds()).containsExactly(newPhotoId))
+                .verifyComplete();
+
+        verify(photoReadModelRepository, times(1)).findLabelsRowsByUserId(userId);
+    }
+}
@@ -0,0 +1,138 @@
+package com.rapidphoto.features.gallery.application;
+
+import com.rapidphoto.domain.Photo;
+import com.rapidphoto.domain.PhotoLabel;
+import com.rapidphoto.domain.PhotoVersion;
+import com.rapidphoto.domain.PhotoVersionType;
+import com.rapidphoto.features.gallery.api.dto.PhotoResponse;
+import com.rapidphoto.features.gallery.api.dto.PhotoVersionDto;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for PhotoReadModelMapper with the real presigned URL cache and signer.
+ *
+ * Runs in the separate blockHoundTest task, whose JVM installs BlockHound, so that
+ * any blocking call made while mapping on a non-blocking (event-loop style) thread
+ * fails the test without instrumenting the rest of the suite. Credentials resolve
+ * with a blocking call, like instance profile credentials do, so signing a cache
+ * miss on the calling thread would be reported.
+ */
+@Tag("blockhound")
+class PhotoReadModelMapperTest {
+
+    private final AtomicInteger credentialResolutions = new AtomicInteger();
+    private final AwsCredentialsProvider blockingCredentials = () -> {
+        try {
+            Thread.sleep(1);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        credentialResolutions.incrementAndGet();
+        return AwsBasicCredentials.create("AKID", "secret");
+    };
+
+    private final S3DownloadUrlService s3DownloadUrlService = new S3DownloadUrlService(
+            new S3UrlSigner(blockingCredentials, "us-east-1", "rapid-photo-uploads", null),
+            Clock.systemUTC(),
+            Duration.ofMinutes(15),
+            Duration.ofMinutes(5));
+
+    private final PhotoReadModelMapper mapper = new PhotoReadModelMapper(s3DownloadUrlService);
+
+    @Test
+    void shouldSignCacheMissesWithoutBlocking() {
+        // Given - classes are loaded off the non-blocking thread, with keys of another photo
+        mapper.toPhotoResponse(photo("warmup"), List.of(), List.of()).block();
+        credentialResolutions.set(0);
+
+        Photo photo = photo("photo");
+        List<PhotoVersion> versions = versions(photo);
+        List<PhotoLabel> labels = List.of(PhotoLabel.builder()
+                .photoId(photo.getId())
+                .labelName("Dog")
+                .confidence(new BigDecimal("98.50"))
+                .build());
+
+        // When - subscribed on a non-blocking thread, with none of the URLs cached
+        Mono<PhotoResponse> result = Mono.defer(() -> mapper.toPhotoResponse(photo, versions, labels))
+                .subscribeOn(Schedulers.parallel());
+
+        // Then
+        StepVerifier.create(result)
+                .assertNext(response -> {
+                    assertThat(response.getOriginalUrl())
+                            .startsWith("https://rapid-photo-uploads.s3.amazonaws.com/originals/photo.jpg?")
+                            .contains("X-Amz-Signature=");
+                    assertThat(response.getThumbnailUrl()).contains("/thumbnails/photo.jpg?");
+                    assertThat(response.getVersions())
+                            .extracting(PhotoVersionDto::getVersionType)
+                            .containsExactly(PhotoVersionType.THUMBNAIL, PhotoVersionType.WEBP_640,
+                                    PhotoVersionType.WEBP_1280);
+                    assertThat(response.getLabels()).hasSize(1);
+                })
+                .verifyComplete();
+
+        // All URLs for the photo are signed in a single batch
+        assertThat(credentialResolutions.get()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldServeCachedUrlsWithoutBlocking() {
+        // Given
+        Photo photo = photo("photo");
+        List<PhotoVersion> versions = versions(photo);
+        PhotoResponse signed = mapper.toPhotoResponse(photo, versions, List.of()).block();
+        credentialResolutions.set(0);
+
+        // When
+        Mono<PhotoResponse> result = Mono.defer(() -> mapper.toPhotoResponse(photo, versions, List.of()))
+                .subscribeOn(Schedulers.parallel());
+
+        // Then
+        StepVerifier.create(result)
+                .assertNext(response -> assertThat(response.getOriginalUrl()).isEqualTo(signed.getOriginalUrl()))
+                .verifyComplete();
+        assertThat(credentialResolutions.get()).isZero();
+    }
+
+    private Photo photo(String name) {
+        return Photo.builder()
+                .id(UUID.randomUUID())
+                .userId(UUID.randomUUID())
+                .originalS3Key("originals/" + name + ".jpg")
+                .fileName(name + ".jpg")
+                .build();
+    }
+
+    private List<PhotoVersion> versions(Photo photo) {
+        String name = photo.getFileName().replace(".jpg", "");
+        return List.of(
+                version(photo, PhotoVersionType.THUMBNAIL, "thumbnails/" + name + ".jpg"),
+                version(photo, PhotoVersionType.WEBP_640, "webp/640/" + name + ".webp"),
+                version(photo, PhotoVersionType.WEBP_1280, "webp/1280/" + name + ".webp"));
+    }
+
+    private PhotoVersion version(Photo photo, PhotoVersionType type, String s3Key) {
+        return PhotoVersion.builder()
+                .id(UUID.randomUUID())
+                .photoId(photo.getId())
+                .versionType(type)
+                .s3Key(s3Key)
+                .build();
+    }
+}
@@ -0,0 +1,93 @@
+package com.rapidphoto.features.gallery.application;
+
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for S3DownloadUrlService time-bucketed signing.
+ */
+class S3DownloadUrlServiceTest {
+
+    private static final Duration EXPIRATION = Duration.ofMinutes(15);
+    private static final Duration BUCKET = Duration.ofMinutes(5);
+
+    private final S3UrlSigner signer = new S3UrlSigner(
+            StaticCredentialsProvider.create(AwsBasicCredentials.create("AKID", "secret")),
+            "us-east-1",
+            "rapid-photo-uploads",
+            null);
+
+    @Test
+    void shouldProduceIdenticalUrlsWithinSigningBucket() {
+        // Given - two nodes (separate caches) at different times in the same bucket
+        S3DownloadUrlService first = serviceAt("2025-06-01T10:01:10Z", BUCKET);
+        S3DownloadUrlService second = serviceAt("2025-06-01T10:04:59Z", BUCKET);
+
+        // When
+        S3DownloadUrlService.DownloadUrlResult a = first.generatePresignedGetUrl("originals/photo.jpg").block();
+        S3DownloadUrlService.DownloadUrlResult b = second.generatePresignedGetUrl("originals/photo.jpg").block();
+
+        // Then
+        assertThat(a.downloadUrl()).isEqualTo(b.downloadUrl());
+        assertThat(a.downloadUrl()).contains("X-Amz-Date=20250601T100000Z");
+        assertThat(a.expiresAt()).isEqualTo(Instant.parse("2025-06-01T10:15:00Z"));
+    }
+
+    @Test
+    void shouldSignWithNewTimestampInNextBucket() {
+        S3DownloadUrlService before = serviceAt("2025-06-01T10:04:59Z", BUCKET);
+        S3DownloadUrlService after = serviceAt("2025-06-01T10:05:00Z", BUCKET);
+
+        assertThat(before.generatePresignedGetUrl("originals/photo.jpg").block().downloadUrl())
+                .isNotEqualTo(after.generatePresignedGetUrl("originals/photo.jpg").block().downloadUrl());
+    }
+
+    @Test
+    void shouldPresignAllKeysConsistentlyWithSingleKey() {
+        // Given
+        S3DownloadUrlService service = serviceAt("2025-06-01T10:01:10Z", BUCKET);
+        S3DownloadUrlService other = serviceAt("2025-06-01T10:02:00Z", BUCKET);
+
+        // When
+        Map<String, S3DownloadUrlService.DownloadUrlResult> results = service
+                .presignAll(Arrays.asList("originals/a.jpg", null, "thumbnails/a.jpg", "originals/a.jpg"))
+                .block();
+
+        // Then
+        assertThat(results).containsOnlyKeys("originals/a.jpg", "thumbnails/a.jpg");
+        assertThat(results.get("thumbnails/a.jpg").downloadUrl())
+                .isEqualTo(other.generatePresignedGetUrl("thumbnails/a.jpg").block().downloadUrl());
+    }
+
+    @Test
+    void shouldSignWithCurrentTimeWhenBucketingDisabled() {
+        S3DownloadUrlService service = serviceAt("2025-06-01T10:01:10Z", Duration.ZERO);
+
+        S3DownloadUrlService.DownloadUrlResult result = service.generatePresignedGetUrl("originals/photo.jpg").block();
+
+        assertThat(result.downloadUrl()).contains("X-Amz-Date=20250601T100110Z");
+        assertThat(result.expiresAt()).isEqualTo(Instant.parse("2025-06-01T10:16:10Z"));
+    }
+
+    @Test
+    void shouldRejectBucketTooLargeForExpiration() {
+        assertThatThrownBy(() -> serviceAt("2025-06-01T10:00:00Z", Duration.ofMinutes(8)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private S3DownloadUrlService serviceAt(String now, Duration bucket) {
+        Clock clock = Clock.fixed(Instant.parse(now), ZoneOffset.UTC);
+        return new S3DownloadUrlService(signer, clock, EXPIRATION, bucket);
+    }
+}
@@ -0,0 +1,28 @@
+package com.rapidphoto.features.gallery.application;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the text search query builder.
+ */
+class SearchPhotosByTextHandlerTest {
+
+    @Test
+    void shouldBuildPrefixQueryFromFileName() {
+        assertThat(SearchPhotosByTextHandler.toPrefixTsQuery("IMG_2041")).isEqualTo("img:* & 2041:*");
+    }
+
+    @Test
+    void shouldDropTsQueryOperatorsFromInput() {
+        assertThat(SearchPhotosByTextHandler.toPrefixTsQuery("canon & !nikon | (eos:*)"))
+                .isEqualTo("canon:* & nikon:* & eos:*");
+    }
+
+    @Test
+    void shouldReturnEmptyQueryWithoutTerms() {
+        assertThat(SearchPhotosByTextHandler.toPrefixTsQuery(" _-. ")).isEmpty();
+        assertThat(SearchPhotosByTextHandler.toPrefixTsQuery(null)).isEmpty();
+    }
+}
@@ -0,0 +1,63 @@
+package com.rapidphoto.features.gallery.application;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for SearchTotalCache.
+ */
+class SearchTotalCacheTest {
+
+    private final GalleryVersionService galleryVersionService = mock(GalleryVersionService.class);
+    private final SearchTotalCache cache = new SearchTotalCache(galleryVersionService, Duration.ofMinutes(5), 100, 2);
+    private final AtomicInteger counts = new AtomicInteger();
+    private final AtomicLong version = new AtomicLong(1);
+
+    SearchTotalCacheTest() {
+        when(galleryVersionService.currentVersion(any())).thenAnswer(invocation -> Mono.just(version.get()));
+    }
+
+    @Test
+    void shouldRecountWhenGalleryVersionChanged() {
+        UUID userId = UUID.randomUUID();
+        cache.getOrCount(userId, "beach,dog", this::count).block();
+        cache.getOrCount(userId, "beach,dog", this::count).block();
+
+        // When - another node changed the library, so no local event arrived
+        version.incrementAndGet();
+        cache.getOrCount(userId, "beach,dog", this::count).block();
+
+        // Then
+        assertThat(counts.get()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldCapCachedTotalsPerUser() {
+        UUID userId = UUID.randomUUID();
+        cache.getOrCount(userId, "beach", this::count).block();
+        cache.getOrCount(userId, "dog", this::count).block();
+        cache.getOrCount(userId, "cat", this::count).block();
+
+        // When
+        cache.getOrCount(userId, "beach", this::count).block();
+        cache.getOrCount(userId, "cat", this::count).block();
+
+        // Then - the third search was never cached
+        assertThat(counts.get()).isEqualTo(4);
+    }
+
+    private Mono<Long> count() {
+        counts.incrementAndGet();
+        return Mono.just(42L);
+    }
+}
@@ -0,0 +1,60 @@
+package com.rapidphoto.features.gallery.application;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for boolean tag query parsing.
+ */
+class TagQueryTest {
+
+    @Test
+    void shouldParseNestedExpressionWithImplicitAnd() {
+        TagQuery query = TagQuery.parse("beach AND (dog OR cat) NOT night");
+
+        assertThat(query).isEqualTo(new TagQuery.And(List.of(
+                new TagQuery.Label("beach"),
+                new TagQuery.Or(List.of(new TagQuery.Label("dog"), new TagQuery.Label("cat"))),
+                new TagQuery.Not(new TagQuery.Label("night")))));
+    }
+
+    @Test
+    void shouldBindAndTighterThanOr() {
+        assertThat(TagQuery.parse("beach dog OR \"Golden Retriever\"")).isEqualTo(new TagQuery.Or(List.of(
+                new TagQuery.And(List.of(new TagQuery.Label("beach"), new TagQuery.Label("dog"))),
+                new TagQuery.Label("Golden Retriever"))));
+    }
+
+    @Test
+    void shouldOnlyTreatOperatorsAndGroupingAsExpressions() {
+        assertThat(TagQuery.isExpression("beach, dog")).isFalse();
+        assertThat(TagQuery.isExpression("Golden Retriever,Android")).isFalse();
+        assertThat(TagQuery.isExpression("beach NOT night")).isTrue();
+        assertThat(TagQuery.isExpression("(beach)")).isTrue();
+    }
+
+    @Test
+    void shouldRejectMalformedQueries() {
+        assertThatThrownBy(() -> TagQuery.parse("beach AND"))
+                .isInstanceOf(TagQuery.InvalidTagQueryException.class);
+        assertThatThrownBy(() -> TagQuery.parse("(beach OR dog"))
+                .isInstanceOf(TagQuery.InvalidTagQueryException.class);
+        assertThatThrownBy(() -> TagQuery.parse("beach) dog"))
+                .isInstanceOf(TagQuery.InvalidTagQueryException.class);
+        assertThatThrownBy(() -> TagQuery.parse("\"beach"))
+                .isInstanceOf(TagQuery.InvalidTagQueryException.class);
+    }
+
+    @Test
+    void shouldRejectOversizedQueries() {
+        assertThatThrownBy(() -> TagQuery.parse("a ".repeat(TagQuery.MAX_TERMS + 1)))
+                .isInstanceOf(TagQuery.InvalidTagQueryException.class);
+        assertThatThrownBy(() -> TagQuery.parse("(".repeat(TagQuery.MAX_DEPTH + 1) + "a"
+                + ")".repeat(TagQuery.MAX_DEPTH + 1)))
+                .isInstanceOf(TagQuery.InvalidTagQueryException.class);
+    }
+}
@@ -0,0 +1,54 @@
+package com.rapidphoto.features.gallery.application;
+
+import com.rapidphoto.domain.event.PhotoLibraryChangedEvent;
+import com.rapidphoto.features.gallery.api.dto.TimelineResponse;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for TimelineCache.
+ */
+class TimelineCacheTest {
+
+    private final TimelineCache cache = new TimelineCache(Duration.ofMinutes(1), 100);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void shouldKeepTimelineWhenPhotoIsProcessed() {
+        UUID userId = UUID.randomUUID();
+        cache.getOrLoad(userId, "MONTH:UTC", this::load).block();
+
+        cache.onPhotoLibraryChanged(new PhotoLibraryChangedEvent(
+                userId, UUID.randomUUID(), PhotoLibraryChangedEvent.ChangeType.PROCESSED));
+        cache.getOrLoad(userId, "MONTH:UTC", this::load).block();
+
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldReloadTimelineAfterUploadOrDelete() {
+        UUID userId = UUID.randomUUID();
+        cache.getOrLoad(userId, "MONTH:UTC", this::load).block();
+
+        cache.onPhotoLibraryChanged(new PhotoLibraryChangedEvent(
+                userId, UUID.randomUUID(), PhotoLibraryChangedEvent.ChangeType.ADDED));
+        cache.getOrLoad(userId, "MONTH:UTC", this::load).block();
+        cache.onPhotoLibraryChanged(new PhotoLibraryChangedEvent(
+                userId, UUID.randomUUID(), PhotoLibraryChangedEvent.ChangeType.DELETED));
+        cache.getOrLoad(userId, "MONTH:UTC", this::load).block();
+
+        assertThat(loads.get()).isEqualTo(3);
+    }
+
+    private Mono<TimelineResponse> load() {
+        loads.incrementAndGet();
+        return Mono.just(TimelineResponse.builder().granularity("MONTH").timeZone("UTC").buckets(List.of()).build());
+    }
+}
@@ -0,0 +1,136 @@
+package com.rapidphoto.features.gallery.application;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for UserLabelIndex.
+ */
+class UserLabelIndexTest {
+
+    private static final Instant T0 = Instant.parse("2025-06-01T10:00:00Z");
+
+    private final UserLabelIndex index = new UserLabelIndex();
+
+    @Test
+    void shouldIntersectLabelsNewestFirst() {
+        // Given
+        UUID oldDog = add(0, "Dog", "Beach");
+        add(1, "Dog");
+        UUID newDog = add(2, "Dog", "Beach", "Sunset");
+        add(3, "Beach");
+
+        // When
+        PhotoLabelIndex.LabelMatches matches = index.match(List.of("Dog", "Beach"), 0, 10);
+
+        // Then
+        assertThat(matches.total()).isEqualTo(2);
+        assertThat(matches.photoIds()).containsExactly(newDog, oldDog);
+    }
+
+    @Test
+    void shouldPageThroughMatchesByRecency() {
+        UUID[] photos = new UUID[5];
+        for (int i = 0; i < photos.length; i++) {
+            photos[i] = add(i, "Person");
+        }
+
+        PhotoLabelIndex.LabelMatches secondPage = index.match(List.of("Person"), 2, 2);
+        PhotoLabelIndex.LabelMatches beyondLast = index.match(List.of("Person"), 6, 2);
+
+        assertThat(secondPage.total()).isEqualTo(5);
+        assertThat(secondPage.photoIds()).containsExactly(photos[2], photos[1]);
+        assertThat(beyondLast.total()).isEqualTo(5);
+        assertThat(beyondLast.photoIds()).isEmpty();
+    }
+
+    @Test
+    void shouldReturnNoMatchesForUnknownLabel() {
+        add(0, "Dog");
+
+        assertThat(index.match(List.of("Dog", "Cat"), 0, 10).total()).isZero();
+    }
+
+    @Test
+    void shouldApplyIncrementalUpdatesAndDeletes() {
+        // Given - a photo added without labels, then processed
+        UUID photoId = add(0);
+        assertThat(index.put(photoId, T0, new String[]{"Mountain"})).isTrue();
+        assertThat(index.match(List.of("Mountain"), 0, 10).photoIds()).containsExactly(photoId);
+
+        // When - deleted, then a stale update arrives
+        index.remove(photoId);
+        index.put(photoId, T0, new String[]{"Mountain"});
+
+        // Then
+        assertThat(index.match(List.of("Mountain"), 0, 10).total()).isZero();
+    }
+
+    @Test
+    void shouldRejectNewPhotoOlderThanNewest() {
+        add(5, "Dog");
+
+        assertThat(index.put(UUID.randomUUID(), T0.plusSeconds(1), new String[]{"Dog"})).isFalse();
+    }
+
+    @Test
+    void shouldSuggestLabelsByPrefixMostUsedFirst() {
+        add(0, "Dolphin");
+        add(1, "Dog", "Beach");
+        UUID lastDog = add(2, "Dog");
+
+        assertThat(index.suggest("do", 10))
+                .containsExactly(new PhotoLabelIndex.LabelCount("Dog", 2), new PhotoLabelIndex.LabelCount("Dolphin", 1));
+
+        // Labels disappear from suggestions with their last photo
+        index.remove(lastDog);
+        index.remove(index.match(List.of("Dog"), 0, 1).photoIds().get(0));
+        assertThat(index.suggest("do", 10)).extracting(PhotoLabelIndex.LabelCount::label).containsExactly("Dolphin");
+    }
+
+    @Test
+    void shouldCountCoOccurringLabelsWithinFilter() {
+        add(1, "beach", "sunset", "dog");
+        add(2, "beach", "sunset");
+        add(3, "beach", "dog");
+        add(4, "mountain", "sunset");
+
+        assertThat(index.facets(List.of("beach"), 10))
+                .containsExactly(new PhotoLabelIndex.LabelCount("dog", 2), new PhotoLabelIndex.LabelCount("sunset", 2));
+        assertThat(index.facets(List.of("beach", "sunset"), 10))
+                .containsExactly(new PhotoLabelIndex.LabelCount("dog", 1));
+        assertThat(index.facets(List.of("beach"), 1)).hasSize(1);
+        assertThat(index.facets(List.of("unknown"), 10)).isEmpty();
+    }
+
+    @Test
+    void shouldEvaluateBooleanQueriesNewestFirst() {
+        UUID beachDog = add(1, "beach", "dog");
+        UUID beachCat = add(2, "beach", "cat");
+        add(3, "beach", "dog", "night");
+        add(4, "mountain", "dog");
+
+        PhotoLabelIndex.LabelMatches matches = index.query(TagQuery.parse("beach AND (dog OR cat) NOT night"), 0, 10);
+
+        assertThat(matches.total()).isEqualTo(2);
+        assertThat(matches.photoIds()).containsExactly(beachCat, beachDog);
+        assertThat(index.query(TagQuery.parse("NOT beach"), 0, 10).total()).isEqualTo(1);
+        assertThat(index.query(TagQuery.parse("beach AND unknown"), 0, 10).total()).isZero();
+        assertThat(index.query(TagQuery.parse("unknown OR cat"), 0, 10).photoIds()).containsExactly(beachCat);
+
+        // Removed photos no longer match negations
+        index.remove(beachCat);
+        assertThat(index.query(TagQuery.parse("NOT dog"), 0, 10).total()).isZero();
+    }
+
+    private UUID add(int secondsAfterT0, String... labels) {
+        UUID photoId = UUID.randomUUID();
+        assertThat(index.put(photoId, T0.plusSeconds(secondsAfterT0), labels)).isTrue();
+        return photoId;
+    }
+}
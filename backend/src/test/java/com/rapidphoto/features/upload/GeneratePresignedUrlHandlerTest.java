@@ -2,19 +2,24 @@ package com.rapidphoto.features.upload;
 
 import com.rapidphoto.features.upload.api.dto.GeneratePresignedUrlResponse;
 import com.rapidphoto.features.upload.application.GeneratePresignedUrlHandler;
+import com.rapidphoto.features.upload.application.S3ChecksumService;
 import com.rapidphoto.features.upload.application.S3PresignedUrlService;
 import com.rapidphoto.features.upload.application.UploadPolicyService;
 import com.rapidphoto.features.upload.domain.command.GeneratePresignedUrlCommand;
+import com.rapidphoto.repository.PhotoRepository;
 import com.rapidphoto.repository.UploadJobRepository;
+import com.rapidphoto.domain.Photo;
 import com.rapidphoto.domain.UploadJob;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -37,6 +42,9 @@ class GeneratePresignedUrlHandlerTest {
     @Mock
     private UploadJobRepository uploadJobRepository;
 
+    @Mock
+    private PhotoRepository photoRepository;
+
     @InjectMocks
     private GeneratePresignedUrlHandler handler;
 
@@ -60,7 +68,7 @@ class GeneratePresignedUrlHandlerTest {
 
         when(uploadPolicyService.verifyUploadLimit(userId)).thenReturn(Mono.empty());
         when(uploadPolicyService.validateFile(command.fileSize(), command.mimeType())).thenReturn(Mono.empty());
-        when(s3PresignedUrlService.generatePresignedPutUrl(userId, command.fileName(), command.mimeType()))
+        when(s3PresignedUrlService.generatePresignedPutUrl(userId, command.fileName(), command.mimeType(), null))
                 .thenReturn(Mono.just(presignedResult));
 
         UploadJob savedJob = UploadJob.builder()
@@ -90,10 +98,117 @@ class GeneratePresignedUrlHandlerTest {
 
         verify(uploadPolicyService).verifyUploadLimit(userId);
         verify(uploadPolicyService).validateFile(command.fileSize(), command.mimeType());
-        verify(s3PresignedUrlService).generatePresignedPutUrl(userId, command.fileName(), command.mimeType());
+        verify(s3PresignedUrlService).generatePresignedPutUrl(userId, command.fileName(), command.mimeType(), null);
         verify(uploadJobRepository).saveWithEnumCast(any(UploadJob.class));
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldGeneratePresignedUrlBatchWithOneLimitCheckAndOneInsert() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        List<GeneratePresignedUrlCommand> commands = List.of(
+                new GeneratePresignedUrlCommand(userId, "a.jpg", 1024L, "image/jpeg"),
+                new GeneratePresignedUrlCommand(userId, "b.png", 2048L, "image/png"));
+
+        when(uploadPolicyService.verifyUploadLimit(userId, 2)).thenReturn(Mono.empty());
+        when(uploadPolicyService.validateFile(any(), any())).thenReturn(Mono.empty());
+        when(s3PresignedUrlService.generatePresignedPutUrl(eq(userId), any(), any(), any()))
+                .thenAnswer(invocation -> Mono.just(new S3PresignedUrlService.PresignedUrlResult(
+                        "https://s3.amazonaws.com/test-bucket/" + invocation.getArgument(1),
+                        "originals/" + userId + "/" + UUID.randomUUID(),
+                        15)));
+        when(uploadJobRepository.saveAllWithEnumCast(any(List.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        // When & Then
+        StepVerifier.create(handler.handleBatch(userId, commands))
+                .assertNext(response -> {
+                    assertThat(response.getUploads()).hasSize(2);
+                    assertThat(response.getUploads().get(0).getFileName()).isEqualTo("a.jpg");
+                    assertThat(response.getUploads().get(1).getFileName()).isEqualTo("b.png");
+                    assertThat(response.getUploads().get(1).getPresignedUrl()).endsWith("/b.png");
+                    assertThat(response.getUploads()).allSatisfy(upload ->
+                            assertThat(upload.getUploadId()).isNotNull());
+                })
+                .verifyComplete();
+
+        verify(uploadPolicyService).verifyUploadLimit(userId, 2);
+        verify(uploadJobRepository).saveAllWithEnumCast(any(List.class));
+        verify(uploadJobRepository, never()).saveWithEnumCast(any());
+    }
+
+    @Test
+    void shouldReturnExistingPhotoWithoutUploadWhenContentAlreadyPresent() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        String sha256 = "AB".repeat(32);
+        GeneratePresignedUrlCommand command = new GeneratePresignedUrlCommand(
+                userId, "again.jpg", 1024L, "image/jpeg", sha256);
+        Photo existing = Photo.builder().id(UUID.randomUUID()).userId(userId)
+                .contentSha256(sha256.toLowerCase()).build();
+
+        when(photoRepository.findFirstByUserIdAndContentSha256(userId, sha256.toLowerCase()))
+                .thenReturn(Mono.just(existing));
+
+        // When & Then
+        StepVerifier.create(handler.handle(command))
+                .assertNext(response -> {
+                    assertThat(response.getAlreadyPresent()).isTrue();
+                    assertThat(response.getPhotoId()).isEqualTo(existing.getId());
+                    assertThat(response.getUploadId()).isNull();
+                    assertThat(response.getPresignedUrl()).isNull();
+                })
+                .verifyComplete();
+
+        verify(uploadPolicyService, never()).verifyUploadLimit(any());
+        verify(s3PresignedUrlService, never()).generatePresignedPutUrl(any(), any(), any(), any());
+        verify(uploadJobRepository, never()).saveWithEnumCast(any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldOnlyInitiateBatchFilesNotAlreadyPresent() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        String presentSha256 = "a".repeat(64);
+        String newSha256 = "b".repeat(64);
+        List<GeneratePresignedUrlCommand> commands = List.of(
+                new GeneratePresignedUrlCommand(userId, "present.jpg", 1024L, "image/jpeg", presentSha256),
+                new GeneratePresignedUrlCommand(userId, "new.jpg", 2048L, "image/jpeg", newSha256),
+                new GeneratePresignedUrlCommand(userId, "unhashed.jpg", 4096L, "image/jpeg"));
+        Photo existing = Photo.builder().id(UUID.randomUUID()).userId(userId).contentSha256(presentSha256).build();
+
+        when(photoRepository.findByUserIdAndContentSha256In(eq(userId), any(String[].class)))
+                .thenReturn(Flux.just(existing));
+        when(uploadPolicyService.verifyUploadLimit(userId, 2)).thenReturn(Mono.empty());
+        when(uploadPolicyService.validateFile(any(), any())).thenReturn(Mono.empty());
+        when(s3PresignedUrlService.generatePresignedPutUrl(eq(userId), any(), any(), any()))
+                .thenAnswer(invocation -> Mono.just(new S3PresignedUrlService.PresignedUrlResult(
+                        "https://s3.amazonaws.com/test-bucket/" + invocation.getArgument(1),
+                        "originals/" + userId + "/" + UUID.randomUUID(),
+                        15)));
+        when(uploadJobRepository.saveAllWithEnumCast(any(List.class)))
+                .thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+
+        // When & Then
+        StepVerifier.create(handler.handleBatch(userId, commands))
+                .assertNext(response -> {
+                    assertThat(response.getUploads()).hasSize(3);
+                    assertThat(response.getUploads().get(0).getAlreadyPresent()).isTrue();
+                    assertThat(response.getUploads().get(0).getPhotoId()).isEqualTo(existing.getId());
+                    assertThat(response.getUploads().get(1).getAlreadyPresent()).isFalse();
+                    assertThat(response.getUploads().get(1).getChecksumSha256())
+                            .isEqualTo(S3ChecksumService.toBase64(newSha256));
+                    assertThat(response.getUploads().get(2).getFileName()).isEqualTo("unhashed.jpg");
+                    assertThat(response.getUploads().get(2).getChecksumSha256()).isNull();
+                })
+                .verifyComplete();
+
+        verify(uploadPolicyService).verifyUploadLimit(userId, 2);
+        verify(s3PresignedUrlService, never()).generatePresignedPutUrl(any(), eq("present.jpg"), any(), any());
+    }
+
     @Test
     void shouldFailWhenUploadLimitExceeded() {
         // Given
@@ -115,7 +230,7 @@ class GeneratePresignedUrlHandlerTest {
 
         verify(uploadPolicyService).verifyUploadLimit(userId);
         verify(uploadPolicyService, never()).validateFile(any(), any());
-        verify(s3PresignedUrlService, never()).generatePresignedPutUrl(any(), any(), any());
+        verify(s3PresignedUrlService, never()).generatePresignedPutUrl(any(), any(), any(), any());
         verify(uploadJobRepository, never()).saveWithEnumCast(any());
     }
 
@@ -141,7 +256,8 @@ class GeneratePresignedUrlHandlerTest {
 
         verify(uploadPolicyService).verifyUploadLimit(userId);
         verify(uploadPolicyService).validateFile(command.fileSize(), command.mimeType());
-        verify(s3PresignedUrlService, never()).generatePresignedPutUrl(any(), any(), any());
+        verify(uploadPolicyService).releaseUploadSlots(userId, 1);
+        verify(s3PresignedUrlService, never()).generatePresignedPutUrl(any(), any(), any(), any());
         verify(uploadJobRepository, never()).saveWithEnumCast(any());
     }
 }
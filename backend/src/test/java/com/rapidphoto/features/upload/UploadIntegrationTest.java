@@ -26,6 +26,7 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import reactor.core.publisher.Mono;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -122,6 +123,150 @@ class UploadIntegrationTest {
                 });
     }
 
+    @Test
+    @WithMockUser(username = "test-user")
+    void shouldSkipUploadOfContentAlreadyPresent() {
+        // Given - a photo whose content hash was verified at upload
+        String sha256 = "c".repeat(64);
+        Photo photo = Photo.fromUploadJob(createTestUploadJob(testUserId));
+        photo.setContentSha256(sha256);
+        photoRepository.saveWithEnumCast(photo).block();
+
+        GeneratePresignedUrlRequest request = new GeneratePresignedUrlRequest();
+        request.setFileName("copy.jpg");
+        request.setFileSize(1024L);
+        request.setMimeType("image/jpeg");
+        request.setSha256(sha256.toUpperCase());
+
+        // When & Then
+        webTestClient.post()
+                .uri("/api/v1/uploads/initiate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(GeneratePresignedUrlResponse.class)
+                .value(response -> {
+                    assertThat(response.getAlreadyPresent()).isTrue();
+                    assertThat(response.getPhotoId()).isEqualTo(photo.getId());
+                    assertThat(response.getUploadId()).isNull();
+                    assertThat(response.getPresignedUrl()).isNull();
+                });
+
+        // A different file is uploaded, signed with its checksum
+        request.setSha256("d".repeat(64));
+        webTestClient.post()
+                .uri("/api/v1/uploads/initiate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(GeneratePresignedUrlResponse.class)
+                .value(response -> {
+                    assertThat(response.getAlreadyPresent()).isFalse();
+                    assertThat(response.getUploadId()).isNotNull();
+                    assertThat(response.getChecksumSha256()).isNotBlank();
+                    assertThat(response.getPresignedUrl()).containsIgnoringCase("x-amz-checksum-sha256");
+                });
+    }
+
+    @Test
+    @WithMockUser(username = "test-user")
+    void shouldNotSkipUploadOfContentWhosePhotoFailed() {
+        // Given - a photo with the same content failed processing
+        String sha256 = "e".repeat(64);
+        Photo photo = Photo.fromUploadJob(createTestUploadJob(testUserId));
+        photo.setContentSha256(sha256);
+        photo.markFailed("Corrupt image");
+        photoRepository.saveWithEnumCast(photo).block();
+
+        GeneratePresignedUrlRequest request = new GeneratePresignedUrlRequest();
+        request.setFileName("retry.jpg");
+        request.setFileSize(1024L);
+        request.setMimeType("image/jpeg");
+        request.setSha256(sha256);
+
+        // When & Then - the file is uploaded again
+        webTestClient.post()
+                .uri("/api/v1/uploads/initiate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(GeneratePresignedUrlResponse.class)
+                .value(response -> {
+                    assertThat(response.getAlreadyPresent()).isFalse();
+                    assertThat(response.getUploadId()).isNotNull();
+                });
+    }
+
+    @Test
+    @WithMockUser(username = "test-user")
+    void shouldInitiateUploadBatch() {
+        // Given
+        GeneratePresignedUrlRequest first = new GeneratePresignedUrlRequest();
+        first.setFileName("first.jpg");
+        first.setFileSize(1024L);
+        first.setMimeType("image/jpeg");
+        GeneratePresignedUrlRequest second = new GeneratePresignedUrlRequest();
+        second.setFileName("second.heic");
+        second.setFileSize(2048L);
+        second.setMimeType("image/heic");
+        BatchGeneratePresignedUrlRequest request = new BatchGeneratePresignedUrlRequest();
+        request.setFiles(List.of(first, second));
+
+        // When & Then
+        webTestClient.post()
+                .uri("/api/v1/uploads/initiate-batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody(BatchGeneratePresignedUrlResponse.class)
+                .value(response -> {
+                    assertThat(response.getUploads()).extracting(GeneratePresignedUrlResponse::getFileName)
+                            .containsExactly("first.jpg", "second.heic");
+                    assertThat(response.getUploads()).allSatisfy(upload -> {
+                        assertThat(upload.getPresignedUrl()).isNotBlank();
+                        assertThat(upload.getS3Key()).startsWith("originals/");
+                    });
+
+                    // Every job was persisted
+                    UploadJob persisted = uploadJobRepository.findById(response.getUploads().get(1).getUploadId())
+                            .block();
+                    assertThat(persisted).isNotNull();
+                    assertThat(persisted.getUserId()).isEqualTo(testUserId);
+                    assertThat(persisted.getFileSize()).isEqualTo(2048L);
+                    assertThat(persisted.getStatus()).isEqualTo(UploadJobStatus.INITIATED.name());
+                });
+    }
+
+    @Test
+    @WithMockUser(username = "test-user")
+    void shouldRejectBatchWithInvalidFile() {
+        // Given
+        GeneratePresignedUrlRequest valid = new GeneratePresignedUrlRequest();
+        valid.setFileName("photo.jpg");
+        valid.setFileSize(1024L);
+        valid.setMimeType("image/jpeg");
+        GeneratePresignedUrlRequest invalid = new GeneratePresignedUrlRequest();
+        invalid.setFileName("document.pdf");
+        invalid.setFileSize(1024L);
+        invalid.setMimeType("application/pdf");
+        BatchGeneratePresignedUrlRequest request = new BatchGeneratePresignedUrlRequest();
+        request.setFiles(List.of(valid, invalid));
+
+        // When & Then
+        webTestClient.post()
+                .uri("/api/v1/uploads/initiate-batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        assertThat(uploadJobRepository.findByUserIdOrderByCreatedAtDesc(testUserId).collectList().block()).isEmpty();
+    }
+
     @Test
     @WithMockUser(username = "test-user")
     void shouldRejectInvalidFileSize() {
@@ -195,6 +340,126 @@ class UploadIntegrationTest {
         assertThat(photo.getOriginalS3Key()).isEqualTo(uploadJob.getS3Key());
     }
 
+    @Test
+    @WithMockUser(username = "test-user")
+    void shouldConfirmUploadBatchIdempotently() {
+        // Given
+        UploadJob first = createTestUploadJob(testUserId);
+        UploadJob second = createTestUploadJob(testUserId);
+        UUID missing = UUID.randomUUID();
+
+        BatchConfirmUploadRequest request = new BatchConfirmUploadRequest();
+        request.setUploads(List.of(
+                new BatchConfirmUploadRequest.Upload(first.getId(), "etag-1"),
+                new BatchConfirmUploadRequest.Upload(missing, "etag-x"),
+                new BatchConfirmUploadRequest.Upload(second.getId(), "etag-2")));
+
+        // When
+        BatchConfirmUploadResponse response = webTestClient.post()
+                .uri("/api/v1/uploads/confirm-batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(BatchConfirmUploadResponse.class)
+                .returnResult()
+                .getResponseBody();
+
+        // Then
+        assertThat(response).isNotNull();
+        assertThat(response.getConfirmed()).extracting(ConfirmUploadResponse::getUploadId)
+                .containsExactly(first.getId(), second.getId());
+        assertThat(response.getConfirmed()).allSatisfy(confirmed ->
+                assertThat(confirmed.getStatus()).isEqualTo(PhotoStatus.PENDING_PROCESSING.name()));
+        assertThat(response.getFailed()).extracting(BatchConfirmUploadResponse.FailedUpload::getUploadId)
+                .containsExactly(missing);
+
+        UploadJob confirmedJob = uploadJobRepository.findById(second.getId()).block();
+        assertThat(confirmedJob.getStatus()).isEqualTo(UploadJobStatus.CONFIRMED.name());
+        assertThat(confirmedJob.getEtag()).isEqualTo("etag-2");
+        Photo photo = photoRepository.findByUploadJobId(second.getId()).block();
+        assertThat(photo).isNotNull();
+        assertThat(photo.getOriginalS3Key()).isEqualTo(second.getS3Key());
+
+        // Confirming again returns the same photos without creating new ones
+        webTestClient.post()
+                .uri("/api/v1/uploads/confirm-batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(BatchConfirmUploadResponse.class)
+                .value(again -> assertThat(again.getConfirmed()).extracting(ConfirmUploadResponse::getPhotoId)
+                        .containsExactlyElementsOf(response.getConfirmed().stream()
+                                .map(ConfirmUploadResponse::getPhotoId)
+                                .toList()));
+        assertThat(photoRepository.countByUserId(testUserId).block()).isEqualTo(2L);
+    }
+
+    @Test
+    @WithMockUser(username = "test-user")
+    void shouldRejectConfirmOfFailedUpload() {
+        // Given - an upload that failed (e.g. aborted or checksum mismatch)
+        UploadJob uploadJob = createTestUploadJob(testUserId);
+        assertThat(uploadJobRepository.markFailed(uploadJob.getId(), "Multipart upload aborted").block())
+                .isEqualTo(1L);
+
+        ConfirmUploadRequest request = new ConfirmUploadRequest();
+        request.setEtag("test-etag");
+
+        // When & Then
+        webTestClient.post()
+                .uri("/api/v1/uploads/{uploadId}/confirm", uploadJob.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isEqualTo(409);
+
+        assertThat(uploadJobRepository.findById(uploadJob.getId()).block().getStatus())
+                .isEqualTo(UploadJobStatus.FAILED.name());
+        assertThat(photoRepository.findByUploadJobId(uploadJob.getId()).block()).isNull();
+        // A failed job is final, so failing it again changes nothing
+        assertThat(uploadJobRepository.markFailed(uploadJob.getId(), "again").block()).isZero();
+    }
+
+    @Test
+    @WithMockUser(username = "test-user")
+    void shouldRejectConfirmOfMultipartUploadNotCompleted() {
+        // Given - a multipart upload whose parts were never assembled
+        UploadJob uploadJob = uploadJobRepository.saveMultipartWithEnumCast(UploadJob.createMultipart(
+                testUserId, "originals/" + testUserId + "/" + UUID.randomUUID(), "upload-123",
+                "large.jpg", 12L * 1024 * 1024, "image/jpeg", 5L * 1024 * 1024, 3,
+                java.time.Instant.now().plusSeconds(3600))).block();
+
+        ConfirmUploadRequest request = new ConfirmUploadRequest();
+        request.setEtag("test-etag");
+        BatchConfirmUploadRequest batchRequest = new BatchConfirmUploadRequest();
+        batchRequest.setUploads(List.of(new BatchConfirmUploadRequest.Upload(uploadJob.getId(), "test-etag")));
+
+        // When & Then
+        webTestClient.post()
+                .uri("/api/v1/uploads/{uploadId}/confirm", uploadJob.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(request)
+                .exchange()
+                .expectStatus().isEqualTo(409);
+
+        webTestClient.post()
+                .uri("/api/v1/uploads/confirm-batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(batchRequest)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(BatchConfirmUploadResponse.class)
+                .value(response -> {
+                    assertThat(response.getConfirmed()).isEmpty();
+                    assertThat(response.getFailed()).singleElement()
+                            .satisfies(failed -> assertThat(failed.getUploadId()).isEqualTo(uploadJob.getId()));
+                });
+
+        assertThat(photoRepository.findByUploadJobId(uploadJob.getId()).block()).isNull();
+    }
+
     @Test
     @WithMockUser(username = "test-user")
     void shouldReturnNotFoundForNonexistentUpload() {
@@ -2,6 +2,8 @@ package com.rapidphoto.features.upload;
 
 import com.rapidphoto.domain.UploadJob;
 import com.rapidphoto.domain.UploadJobStatus;
+import com.rapidphoto.features.upload.application.ActiveUploadCounter;
+import com.rapidphoto.features.upload.application.S3MultipartUploadService;
 import com.rapidphoto.features.upload.application.UploadPolicyService;
 import com.rapidphoto.repository.UploadJobRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,10 +14,13 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -27,11 +32,15 @@ class UploadPolicyServiceTest {
     @Mock
     private UploadJobRepository uploadJobRepository;
 
+    @Mock
+    private S3MultipartUploadService s3MultipartUploadService;
+
     private UploadPolicyService uploadPolicyService;
 
     @BeforeEach
     void setUp() {
-        uploadPolicyService = new UploadPolicyService(uploadJobRepository);
+        uploadPolicyService = new UploadPolicyService(
+                new ActiveUploadCounter(uploadJobRepository, s3MultipartUploadService, Duration.ofHours(1), 1000));
     }
 
     @Test
@@ -72,6 +81,58 @@ class UploadPolicyServiceTest {
                 .verify();
     }
 
+    @Test
+    void shouldCheckWholeBatchAgainstRemainingLimit() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        when(uploadJobRepository.countActiveUploadsByUserId(userId))
+                .thenReturn(Mono.just(60L));
+
+        // When & Then
+        StepVerifier.create(uploadPolicyService.verifyUploadLimit(userId, 40))
+                .verifyComplete();
+        StepVerifier.create(uploadPolicyService.verifyUploadLimit(userId, 41))
+                .expectError(UploadPolicyService.UploadLimitExceededException.class)
+                .verify();
+    }
+
+    @Test
+    void shouldCountReservationsInMemoryAfterSeeding() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        when(uploadJobRepository.countActiveUploadsByUserId(userId))
+                .thenReturn(Mono.just(98L));
+
+        // When & Then - two slots left, then the limit is reached without another query
+        StepVerifier.create(uploadPolicyService.verifyUploadLimit(userId))
+                .verifyComplete();
+        StepVerifier.create(uploadPolicyService.verifyUploadLimit(userId))
+                .verifyComplete();
+        StepVerifier.create(uploadPolicyService.verifyUploadLimit(userId))
+                .expectError(UploadPolicyService.UploadLimitExceededException.class)
+                .verify();
+
+        verify(uploadJobRepository, times(1)).countActiveUploadsByUserId(userId);
+    }
+
+    @Test
+    void shouldAllowUploadAgainAfterSlotIsReleased() {
+        // Given
+        UUID userId = UUID.randomUUID();
+        when(uploadJobRepository.countActiveUploadsByUserId(userId))
+                .thenReturn(Mono.just(100L));
+        StepVerifier.create(uploadPolicyService.verifyUploadLimit(userId))
+                .expectError(UploadPolicyService.UploadLimitExceededException.class)
+                .verify();
+
+        // When
+        uploadPolicyService.releaseUploadSlots(userId, 1);
+
+        // Then
+        StepVerifier.create(uploadPolicyService.verifyUploadLimit(userId))
+                .verifyComplete();
+    }
+
     @Test
     void shouldValidateCorrectFileSize() {
         // When & Then
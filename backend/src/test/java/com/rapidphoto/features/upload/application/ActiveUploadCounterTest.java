@@ -0,0 +1,139 @@
+package com.rapidphoto.features.upload.application;
+
+import com.rapidphoto.repository.UploadJobRepository;
+import com.rapidphoto.repository.projection.ActiveUploadCountRow;
+import com.rapidphoto.repository.projection.ExpiredUploadRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for ActiveUploadCounter.
+ */
+@ExtendWith(MockitoExtension.class)
+class ActiveUploadCounterTest {
+
+    @Mock
+    private UploadJobRepository uploadJobRepository;
+
+    @Mock
+    private S3MultipartUploadService s3MultipartUploadService;
+
+    private ActiveUploadCounter counter;
+
+    @BeforeEach
+    void setUp() {
+        counter = new ActiveUploadCounter(uploadJobRepository, s3MultipartUploadService, Duration.ofHours(1), 1000);
+    }
+
+    @Test
+    void shouldNeverGrantMoreThanLimitUnderContention() throws Exception {
+        // Given
+        UUID userId = UUID.randomUUID();
+        when(uploadJobRepository.countActiveUploadsByUserId(userId)).thenReturn(Mono.just(0L));
+        AtomicInteger granted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+
+        // When - 16 threads race for 100 slots with 400 reservations
+        try {
+            List<CompletableFuture<Void>> tasks = new ArrayList<>();
+            for (int thread = 0; thread < 16; thread++) {
+                tasks.add(CompletableFuture.runAsync(() -> {
+                    for (int i = 0; i < 25; i++) {
+                        if (counter.tryReserve(userId, 1, 100).block().granted()) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).get();
+        } finally {
+            executor.shutdown();
+        }
+
+        // Then
+        assertThat(granted.get()).isEqualTo(100);
+        assertThat(counter.tryReserve(userId, 0, 100).block().active()).isEqualTo(100);
+    }
+
+    @Test
+    void shouldReserveBatchAllOrNothing() {
+        UUID userId = UUID.randomUUID();
+        when(uploadJobRepository.countActiveUploadsByUserId(userId)).thenReturn(Mono.just(60L));
+
+        assertThat(counter.tryReserve(userId, 41, 100).block().granted()).isFalse();
+        assertThat(counter.tryReserve(userId, 40, 100).block().granted()).isTrue();
+        assertThat(counter.tryReserve(userId, 1, 100).block().granted()).isFalse();
+    }
+
+    @Test
+    void shouldReleaseExpiredJobsAndResetDriftedCounters() {
+        // Given - the database has 3 active uploads, this node counts 10
+        UUID userId = UUID.randomUUID();
+        when(uploadJobRepository.countActiveUploadsByUserId(userId)).thenReturn(Mono.just(10L));
+        counter.tryReserve(userId, 0, 100).block();
+        when(uploadJobRepository.expireInitiatedJobs(any())).thenReturn(Flux.just(
+                new ExpiredUploadRow(userId, "originals/a", null),
+                new ExpiredUploadRow(userId, "originals/b", null)));
+        when(uploadJobRepository.countActiveUploadsByUserIds(any()))
+                .thenReturn(Flux.just(new ActiveUploadCountRow(userId, 3L)));
+
+        // When & Then
+        StepVerifier.create(counter.reconcile())
+                .expectNext(1L)
+                .verifyComplete();
+        assertThat(counter.tryReserve(userId, 0, 100).block().active()).isEqualTo(3);
+    }
+
+    @Test
+    void shouldAbortMultipartUploadsOfExpiredJobs() {
+        // Given - one abort fails, which must not stop the reconciliation
+        UUID userId = UUID.randomUUID();
+        when(uploadJobRepository.expireInitiatedJobs(any())).thenReturn(Flux.just(
+                new ExpiredUploadRow(userId, "originals/a", "upload-a"),
+                new ExpiredUploadRow(userId, "originals/b", "upload-b"),
+                new ExpiredUploadRow(userId, "originals/c", null)));
+        when(s3MultipartUploadService.abortMultipartUpload("originals/a", "upload-a")).thenReturn(Mono.empty());
+        when(s3MultipartUploadService.abortMultipartUpload("originals/b", "upload-b"))
+                .thenReturn(Mono.error(new IllegalStateException("S3 unavailable")));
+
+        // When & Then
+        StepVerifier.create(counter.reconcile())
+                .expectNext(0L)
+                .verifyComplete();
+        verify(s3MultipartUploadService).abortMultipartUpload("originals/a", "upload-a");
+        verify(s3MultipartUploadService).abortMultipartUpload("originals/b", "upload-b");
+        verifyNoMoreInteractions(s3MultipartUploadService);
+    }
+
+    @Test
+    void shouldNotReleaseBelowZero() {
+        UUID userId = UUID.randomUUID();
+        when(uploadJobRepository.countActiveUploadsByUserId(userId)).thenReturn(Mono.just(1L));
+        counter.tryReserve(userId, 0, 100).block();
+
+        counter.release(userId, 5);
+
+        assertThat(counter.tryReserve(userId, 0, 100).block().active()).isZero();
+    }
+}
@@ -0,0 +1,140 @@
+package com.rapidphoto.features.upload.application;
+
+import com.rapidphoto.domain.UploadJob;
+import com.rapidphoto.features.upload.api.dto.ConfirmUploadResponse;
+import com.rapidphoto.features.upload.domain.command.CompleteMultipartUploadCommand;
+import com.rapidphoto.features.upload.domain.command.ConfirmUploadCommand;
+import com.rapidphoto.repository.UploadJobRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for MultipartUploadHandler.
+ */
+@ExtendWith(MockitoExtension.class)
+class MultipartUploadHandlerTest {
+
+    @Mock
+    private UploadPolicyService uploadPolicyService;
+
+    @Mock
+    private S3MultipartUploadService s3MultipartUploadService;
+
+    @Mock
+    private UploadJobRepository uploadJobRepository;
+
+    @Mock
+    private ConfirmUploadHandler confirmUploadHandler;
+
+    @InjectMocks
+    private MultipartUploadHandler handler;
+
+    @Test
+    void shouldCompleteWithRecordedAndReportedPartsAndConfirm() {
+        // Given - part 1 was recorded earlier, parts 2 and 3 come with the completion
+        UploadJob uploadJob = multipartJob(new String[]{"etag-1", null, null});
+        CompleteMultipartUploadCommand command = new CompleteMultipartUploadCommand(
+                uploadJob.getId(), uploadJob.getUserId(), Map.of(2, "etag-2", 3, "etag-3"));
+        ConfirmUploadResponse confirmed = ConfirmUploadResponse.builder()
+                .photoId(UUID.randomUUID())
+                .uploadId(uploadJob.getId())
+                .status("PENDING_PROCESSING")
+                .build();
+
+        when(uploadJobRepository.findById(uploadJob.getId())).thenReturn(Mono.just(uploadJob));
+        when(uploadJobRepository.updatePartEtags(eq(uploadJob.getId()), any())).thenReturn(Mono.empty());
+        when(s3MultipartUploadService.completeMultipartUpload(eq(uploadJob.getS3Key()), eq("upload-123"),
+                aryEq(new String[]{"etag-1", "etag-2", "etag-3"}))).thenReturn(Mono.just("final-etag"));
+        when(uploadJobRepository.updateStatusWithEnumCast(uploadJob.getId(), "UPLOADED", "final-etag", null))
+                .thenReturn(Mono.empty());
+        when(confirmUploadHandler.handle(new ConfirmUploadCommand(uploadJob.getId(), uploadJob.getUserId(),
+                "final-etag"))).thenReturn(Mono.just(confirmed));
+
+        // When & Then
+        StepVerifier.create(handler.complete(command))
+                .expectNext(confirmed)
+                .verifyComplete();
+
+        verify(uploadJobRepository).updatePartEtags(eq(uploadJob.getId()),
+                aryEq(new String[]{null, "etag-2", "etag-3"}));
+    }
+
+    @Test
+    void shouldRejectCompletionWithMissingParts() {
+        // Given
+        UploadJob uploadJob = multipartJob(new String[]{"etag-1", null, null});
+        CompleteMultipartUploadCommand command = new CompleteMultipartUploadCommand(
+                uploadJob.getId(), uploadJob.getUserId(), Map.of(2, "etag-2"));
+        when(uploadJobRepository.findById(uploadJob.getId())).thenReturn(Mono.just(uploadJob));
+
+        // When & Then
+        StepVerifier.create(handler.complete(command))
+                .expectErrorSatisfies(error -> assertThat(error)
+                        .isInstanceOf(MultipartUploadHandler.InvalidMultipartUploadException.class)
+                        .hasMessage("Missing parts: [3]"))
+                .verify();
+
+        verify(s3MultipartUploadService, never()).completeMultipartUpload(any(), any(), any());
+    }
+
+    @Test
+    void shouldAbortUploadAndFailJob() {
+        // Given
+        UploadJob uploadJob = multipartJob(new String[]{"etag-1", null, null});
+        when(uploadJobRepository.findById(uploadJob.getId())).thenReturn(Mono.just(uploadJob));
+        when(s3MultipartUploadService.abortMultipartUpload(uploadJob.getS3Key(), "upload-123"))
+                .thenReturn(Mono.empty());
+        when(uploadJobRepository.markFailed(uploadJob.getId(), "Multipart upload aborted")).thenReturn(Mono.just(1L));
+
+        // When & Then
+        StepVerifier.create(handler.abort(uploadJob.getId(), uploadJob.getUserId()))
+                .verifyComplete();
+
+        verify(uploadJobRepository).markFailed(uploadJob.getId(), "Multipart upload aborted");
+        verify(uploadPolicyService).releaseUploadSlots(uploadJob.getUserId(), 1);
+    }
+
+    @Test
+    void shouldNotReleaseSlotAgainWhenAbortingFailedJob() {
+        // Given - a repeated abort
+        UploadJob uploadJob = multipartJob(new String[]{"etag-1", null, null});
+        uploadJob.setStatus("FAILED");
+        when(uploadJobRepository.findById(uploadJob.getId())).thenReturn(Mono.just(uploadJob));
+        when(s3MultipartUploadService.abortMultipartUpload(uploadJob.getS3Key(), "upload-123"))
+                .thenReturn(Mono.empty());
+        when(uploadJobRepository.markFailed(uploadJob.getId(), "Multipart upload aborted")).thenReturn(Mono.just(0L));
+
+        // When & Then
+        StepVerifier.create(handler.abort(uploadJob.getId(), uploadJob.getUserId()))
+                .verifyComplete();
+
+        verify(uploadPolicyService, never()).releaseUploadSlots(any(), anyInt());
+    }
+
+    private UploadJob multipartJob(String[] partEtags) {
+        UUID userId = UUID.randomUUID();
+        UploadJob uploadJob = UploadJob.createMultipart(userId, "originals/" + userId + "/file", "upload-123",
+                "large.jpg", 12L * 1024 * 1024, "image/jpeg", S3MultipartUploadService.MIN_PART_SIZE,
+                partEtags.length, Instant.now().plusSeconds(3600));
+        uploadJob.setPartEtags(partEtags);
+        return uploadJob;
+    }
+}
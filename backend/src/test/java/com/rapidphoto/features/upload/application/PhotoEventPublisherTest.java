@@ -0,0 +1,79 @@
+package com.rapidphoto.features.upload.application;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.rapidphoto.features.upload.domain.event.PhotoUploadConfirmedEvent;
+import io.awspring.cloud.sqs.operations.SqsTemplate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.messaging.Message;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PhotoEventPublisherTest {
+
+    private static final String QUEUE = "photo-upload-queue";
+
+    @Mock
+    private SqsTemplate sqsTemplate;
+
+    private PhotoEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new PhotoEventPublisher(sqsTemplate, new ObjectMapper().registerModule(new JavaTimeModule()));
+        ReflectionTestUtils.setField(publisher, "photoUploadQueueName", QUEUE);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldSendEventsInBatchesOfTen() {
+        List<PhotoUploadConfirmedEvent> events = IntStream.range(0, 23)
+                .mapToObj(i -> new PhotoUploadConfirmedEvent(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(),
+                        "originals/key-" + i, "photo-" + i + ".jpg", 1024L, "image/jpeg", Instant.now()))
+                .toList();
+        when(sqsTemplate.sendManyAsync(eq(QUEUE), any(Collection.class)))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        StepVerifier.create(publisher.publishPhotoUploadConfirmedBatch(events))
+                .verifyComplete();
+
+        ArgumentCaptor<Collection<Message<String>>> batches = ArgumentCaptor.forClass(Collection.class);
+        verify(sqsTemplate, times(3)).sendManyAsync(eq(QUEUE), batches.capture());
+        assertThat(batches.getAllValues()).extracting(Collection::size).containsExactly(10, 10, 3);
+        assertThat(batches.getAllValues().get(2).iterator().next().getPayload()).contains("photo-20.jpg");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldFailWhenBatchSendFails() {
+        List<PhotoUploadConfirmedEvent> events = List.of(new PhotoUploadConfirmedEvent(UUID.randomUUID(),
+                UUID.randomUUID(), UUID.randomUUID(), "originals/key", "photo.jpg", 1024L, "image/jpeg",
+                Instant.now()));
+        when(sqsTemplate.sendManyAsync(eq(QUEUE), any(Collection.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("SQS unavailable")));
+
+        StepVerifier.create(publisher.publishPhotoUploadConfirmedBatch(events))
+                .expectError(PhotoEventPublisher.EventPublishException.class)
+                .verify();
+    }
+}
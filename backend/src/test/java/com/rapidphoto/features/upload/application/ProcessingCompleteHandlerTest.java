@@ -5,10 +5,13 @@ import com.rapidphoto.domain.PhotoLabel;
 import com.rapidphoto.domain.PhotoStatus;
 import com.rapidphoto.domain.PhotoVersion;
 import com.rapidphoto.domain.PhotoVersionType;
+import com.rapidphoto.domain.event.PhotoLibraryChangedEvent;
 import com.rapidphoto.features.upload.api.dto.ProcessingCompleteRequest;
+import com.rapidphoto.repository.PhotoGalleryViewRepository;
 import com.rapidphoto.repository.PhotoLabelRepository;
 import com.rapidphoto.repository.PhotoRepository;
 import com.rapidphoto.repository.PhotoVersionRepository;
+import com.rapidphoto.repository.UserLabelCountRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -16,6 +19,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import reactor.core.publisher.Mono;
 import reactor.test.StepVerifier;
 
@@ -43,6 +47,15 @@ class ProcessingCompleteHandlerTest {
     @Mock
     private PhotoLabelRepository photoLabelRepository;
 
+    @Mock
+    private UserLabelCountRepository userLabelCountRepository;
+
+    @Mock
+    private PhotoGalleryViewRepository photoGalleryViewRepository;
+
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+
     @InjectMocks
     private ProcessingCompleteHandler handler;
 
@@ -71,6 +84,8 @@ class ProcessingCompleteHandlerTest {
         verify(photoRepository, never()).updateProcessingResults(any(), any(), any(), any(), any(), any());
         verify(photoVersionRepository, never()).saveWithEnumCast(any());
         verify(photoLabelRepository, never()).save(any(PhotoLabel.class));
+        verify(userLabelCountRepository, never()).incrementLabels(any(), any());
+        verify(photoGalleryViewRepository, never()).refresh(any());
     }
 
     @Test
@@ -125,6 +140,8 @@ class ProcessingCompleteHandlerTest {
             arg.setConfidence(BigDecimal.valueOf(arg.getConfidence().doubleValue()));
             return Mono.just(arg);
         });
+        when(userLabelCountRepository.incrementLabels(any(), any())).thenReturn(Mono.empty());
+        when(photoGalleryViewRepository.refresh(photoId)).thenReturn(Mono.empty());
 
         StepVerifier.create(handler.handle(photoId, request))
                 .verifyComplete();
@@ -148,5 +165,9 @@ class ProcessingCompleteHandlerTest {
         ArgumentCaptor<PhotoLabel> labelCaptor = ArgumentCaptor.forClass(PhotoLabel.class);
         verify(photoLabelRepository).save(labelCaptor.capture());
         assertThat(labelCaptor.getValue().getLabelName()).isEqualTo("Landscape");
+        verify(userLabelCountRepository).incrementLabels(any(), eq(new String[]{"Landscape"}));
+
+        verify(photoGalleryViewRepository).refresh(photoId);
+        verify(applicationEventPublisher).publishEvent(any(PhotoLibraryChangedEvent.class));
     }
 }
@@ -0,0 +1,94 @@
+package com.rapidphoto.features.upload.application;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.test.StepVerifier;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+
+import java.io.IOException;
+import java.net.URI;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for S3ChecksumService against a local S3 stand-in (MockWebServer).
+ */
+class S3ChecksumServiceTest {
+
+    private static final String BUCKET = "rapid-photo-uploads";
+
+    // SHA-256 of "abc"
+    private static final String SHA256_HEX = "ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad";
+    private static final String SHA256_BASE64 = "ungWv48Bz+pBQUDeXa4iI7ADYaOWF3qctBD/YfIAFa0=";
+
+    private MockWebServer s3;
+    private S3AsyncClient s3AsyncClient;
+    private S3ChecksumService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        s3 = new MockWebServer();
+        s3.start();
+
+        s3AsyncClient = S3AsyncClient.builder()
+                .region(Region.US_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("AKID", "secret")))
+                .endpointOverride(URI.create("http://localhost:" + s3.getPort()))
+                .forcePathStyle(true)
+                .build();
+
+        service = new S3ChecksumService(s3AsyncClient);
+        ReflectionTestUtils.setField(service, "bucketName", BUCKET);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        s3AsyncClient.close();
+        s3.shutdown();
+    }
+
+    @Test
+    void shouldConvertHexToS3Base64() {
+        assertThat(S3ChecksumService.toBase64(SHA256_HEX)).isEqualTo(SHA256_BASE64);
+    }
+
+    @Test
+    void shouldVerifyStoredChecksum() throws InterruptedException {
+        // Given
+        s3.enqueue(new MockResponse().setHeader("x-amz-checksum-sha256", SHA256_BASE64));
+
+        // When & Then
+        StepVerifier.create(service.verifySha256("originals/key", SHA256_HEX))
+                .expectNext(S3ChecksumService.ChecksumVerification.VERIFIED)
+                .verifyComplete();
+
+        RecordedRequest request = s3.takeRequest();
+        assertThat(request.getMethod()).isEqualTo("HEAD");
+        assertThat(request.getPath()).isEqualTo("/" + BUCKET + "/originals/key");
+        assertThat(request.getHeader("x-amz-checksum-mode")).isEqualTo("ENABLED");
+    }
+
+    @Test
+    void shouldReportMismatchedOrMissingChecksum() {
+        // Given
+        s3.enqueue(new MockResponse().setHeader("x-amz-checksum-sha256",
+                S3ChecksumService.toBase64("0".repeat(64))));
+        s3.enqueue(new MockResponse());
+
+        // When & Then
+        StepVerifier.create(service.verifySha256("originals/key", SHA256_HEX))
+                .expectNext(S3ChecksumService.ChecksumVerification.MISMATCH)
+                .verifyComplete();
+        StepVerifier.create(service.verifySha256("originals/key", SHA256_HEX))
+                .expectNext(S3ChecksumService.ChecksumVerification.UNAVAILABLE)
+                .verifyComplete();
+    }
+}
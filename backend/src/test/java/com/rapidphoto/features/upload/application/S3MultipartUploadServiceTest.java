@@ -0,0 +1,195 @@
+package com.rapidphoto.features.upload.application;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.test.StepVerifier;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
+import software.amazon.awssdk.services.s3.S3Configuration;
+import software.amazon.awssdk.services.s3.model.NoSuchUploadException;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests for S3MultipartUploadService against a local S3 stand-in (MockWebServer).
+ */
+class S3MultipartUploadServiceTest {
+
+    private static final String BUCKET = "rapid-photo-uploads";
+
+    private MockWebServer s3;
+    private S3AsyncClient s3AsyncClient;
+    private S3Presigner s3Presigner;
+    private S3MultipartUploadService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        s3 = new MockWebServer();
+        s3.start();
+
+        URI endpoint = URI.create("http://localhost:" + s3.getPort());
+        StaticCredentialsProvider credentials =
+                StaticCredentialsProvider.create(AwsBasicCredentials.create("AKID", "secret"));
+        s3AsyncClient = S3AsyncClient.builder()
+                .region(Region.US_EAST_1)
+                .credentialsProvider(credentials)
+                .endpointOverride(endpoint)
+                .forcePathStyle(true)
+                .build();
+        s3Presigner = S3Presigner.builder()
+                .region(Region.US_EAST_1)
+                .credentialsProvider(credentials)
+                .endpointOverride(endpoint)
+                .serviceConfiguration(S3Configuration.builder().pathStyleAccessEnabled(true).build())
+                .build();
+
+        service = new S3MultipartUploadService(s3AsyncClient, s3Presigner);
+        ReflectionTestUtils.setField(service, "bucketName", BUCKET);
+        ReflectionTestUtils.setField(service, "multipartUrlExpirationMinutes", 60);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        s3AsyncClient.close();
+        s3Presigner.close();
+        s3.shutdown();
+    }
+
+    @Test
+    void shouldCreateUploadAndPresignEveryPart() throws InterruptedException {
+        // Given - 12 MiB splits into two 5 MiB parts and a 2 MiB remainder
+        UUID userId = UUID.randomUUID();
+        s3.enqueue(xml("""
+                <InitiateMultipartUploadResult>
+                    <Bucket>rapid-photo-uploads</Bucket>
+                    <Key>originals/key</Key>
+                    <UploadId>upload-123</UploadId>
+                </InitiateMultipartUploadResult>
+                """));
+
+        // When & Then
+        StepVerifier.create(service.createMultipartUpload(userId, 12L * 1024 * 1024, "image/jpeg"))
+                .assertNext(result -> {
+                    assertThat(result.multipartUploadId()).isEqualTo("upload-123");
+                    assertThat(result.s3Key()).startsWith("originals/" + userId + "/");
+                    assertThat(result.partSize()).isEqualTo(S3MultipartUploadService.MIN_PART_SIZE);
+                    assertThat(result.partCount()).isEqualTo(3);
+                    assertThat(result.partUrls().get(1))
+                            .startsWith("http://localhost:" + s3.getPort() + "/" + BUCKET + "/" + result.s3Key())
+                            .contains("partNumber=2")
+                            .contains("uploadId=upload-123")
+                            .contains("X-Amz-Signature=");
+                })
+                .verifyComplete();
+
+        RecordedRequest request = s3.takeRequest();
+        assertThat(request.getMethod()).isEqualTo("POST");
+        assertThat(request.getPath()).startsWith("/" + BUCKET + "/originals/" + userId + "/").endsWith("?uploads");
+        assertThat(request.getHeader("Content-Type")).isEqualTo("image/jpeg");
+    }
+
+    @Test
+    void shouldCompleteWithPartsInPartNumberOrder() throws InterruptedException {
+        // Given
+        s3.enqueue(xml("""
+                <CompleteMultipartUploadResult>
+                    <Bucket>rapid-photo-uploads</Bucket>
+                    <Key>originals/key</Key>
+                    <ETag>"final-etag-2"</ETag>
+                </CompleteMultipartUploadResult>
+                """));
+
+        // When & Then
+        StepVerifier.create(service.completeMultipartUpload("originals/key", "upload-123",
+                        new String[]{"\"etag-1\"", "\"etag-2\""}))
+                .expectNext("\"final-etag-2\"")
+                .verifyComplete();
+
+        RecordedRequest request = s3.takeRequest();
+        assertThat(request.getMethod()).isEqualTo("POST");
+        assertThat(request.getPath()).isEqualTo("/" + BUCKET + "/originals/key?uploadId=upload-123");
+        String body = request.getBody().readUtf8();
+        assertThat(body.indexOf("<PartNumber>1</PartNumber>")).isLessThan(body.indexOf("<PartNumber>2</PartNumber>"));
+        assertThat(body).contains("etag-1").contains("etag-2");
+    }
+
+    @Test
+    void shouldTreatUnknownUploadWithExistingObjectAsCompleted() throws InterruptedException {
+        // Given - an earlier complete assembled the object but its response was lost
+        s3.enqueue(noSuchUpload());
+        s3.enqueue(new MockResponse().addHeader("ETag", "\"final-etag-2\""));
+
+        // When & Then
+        StepVerifier.create(service.completeMultipartUpload("originals/key", "upload-123",
+                        new String[]{"\"etag-1\"", "\"etag-2\""}))
+                .expectNext("\"final-etag-2\"")
+                .verifyComplete();
+
+        s3.takeRequest();
+        RecordedRequest head = s3.takeRequest();
+        assertThat(head.getMethod()).isEqualTo("HEAD");
+        assertThat(head.getPath()).isEqualTo("/" + BUCKET + "/originals/key");
+    }
+
+    @Test
+    void shouldFailCompletionOfUnknownUploadWithoutObject() {
+        // Given - the upload was aborted before it was completed
+        s3.enqueue(noSuchUpload());
+        s3.enqueue(new MockResponse().setResponseCode(404));
+
+        // When & Then
+        StepVerifier.create(service.completeMultipartUpload("originals/key", "upload-123",
+                        new String[]{"\"etag-1\""}))
+                .expectError(NoSuchUploadException.class)
+                .verify();
+    }
+
+    @Test
+    void shouldTreatUnknownUploadAsAlreadyAborted() throws InterruptedException {
+        // Given
+        s3.enqueue(noSuchUpload());
+
+        // When & Then
+        StepVerifier.create(service.abortMultipartUpload("originals/key", "upload-123"))
+                .verifyComplete();
+
+        RecordedRequest request = s3.takeRequest();
+        assertThat(request.getMethod()).isEqualTo("DELETE");
+        assertThat(request.getPath()).isEqualTo("/" + BUCKET + "/originals/key?uploadId=upload-123");
+    }
+
+    @Test
+    void shouldGrowPartSizeOnlyBeyondPartLimit() {
+        assertThat(S3MultipartUploadService.partSize(1024)).isEqualTo(S3MultipartUploadService.MIN_PART_SIZE);
+        assertThat(S3MultipartUploadService.partSize(100_000_000L)).isEqualTo(S3MultipartUploadService.MIN_PART_SIZE);
+
+        long huge = S3MultipartUploadService.MIN_PART_SIZE * S3MultipartUploadService.MAX_PARTS * 2;
+        long partSize = S3MultipartUploadService.partSize(huge);
+        assertThat((huge + partSize - 1) / partSize).isLessThanOrEqualTo(S3MultipartUploadService.MAX_PARTS);
+    }
+
+    private static MockResponse noSuchUpload() {
+        return new MockResponse()
+                .setResponseCode(404)
+                .addHeader("Content-Type", "application/xml")
+                .setBody("<Error><Code>NoSuchUpload</Code><Message>Gone</Message></Error>");
+    }
+
+    private static MockResponse xml(String body) {
+        return new MockResponse()
+                .addHeader("Content-Type", "application/xml")
+                .setBody(body);
+    }
+}
@@ -0,0 +1,221 @@
+package com.rapidphoto.repository;
+
+import com.rapidphoto.domain.Photo;
+import com.rapidphoto.domain.PhotoLabel;
+import com.rapidphoto.domain.PhotoStatus;
+import com.rapidphoto.domain.PhotoVersion;
+import com.rapidphoto.domain.PhotoVersionType;
+import com.rapidphoto.domain.UploadJob;
+import com.rapidphoto.domain.UploadJobStatus;
+import com.rapidphoto.domain.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for PhotoReadModelRepository using Testcontainers.
+ */
+@DataR2dbcTest
+@Testcontainers
+class PhotoReadModelRepositoryTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17.6")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.r2dbc.url", () ->
+                String.format("r2dbc:postgresql://%s:%d/%s",
+                        postgres.getHost(),
+                        postgres.getFirstMappedPort(),
+                        postgres.getDatabaseName()));
+        registry.add("spring.r2dbc.username", postgres::getUsername);
+        registry.add("spring.r2dbc.password", postgres::getPassword);
+        registry.add("spring.flyway.url", postgres::getJdbcUrl);
+        registry.add("spring.flyway.user", postgres::getUsername);
+        registry.add("spring.flyway.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private PhotoReadModelRepository photoReadModelRepository;
+
+    @Autowired
+    private PhotoRepository photoRepository;
+
+    @Autowired
+    private PhotoVersionRepository photoVersionRepository;
+
+    @Autowired
+    private PhotoLabelRepository photoLabelRepository;
+
+    @Autowired
+    private UploadJobRepository uploadJobRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PhotoGalleryViewRepository photoGalleryViewRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        photoLabelRepository.deleteAll().block();
+        photoVersionRepository.deleteAll().block();
+        photoRepository.deleteAll().block();
+        uploadJobRepository.deleteAll().block();
+        userRepository.deleteAll().block();
+
+        user = User.builder()
+                .id(UUID.randomUUID())
+                .cognitoUserId("cognito-user")
+                .email("test@example.com")
+                .name("Test User")
+                .lastLoginAt(Instant.now())
+                .build();
+        userRepository.insert(user).block();
+    }
+
+    @Test
+    void shouldReturnThumbnailAndLabelsInSingleRow() {
+        // Given
+        Photo photo = createPhoto(Instant.now());
+        photoVersionRepository.saveWithEnumCast(PhotoVersion.create(
+                photo.getId(), PhotoVersionType.THUMBNAIL, "thumbnails/" + photo.getId(),
+                10_000L, 300, 300, "image/jpeg")).block();
+        photoVersionRepository.saveWithEnumCast(PhotoVersion.create(
+                photo.getId(), PhotoVersionType.WEBP_640, "versions/" + photo.getId() + "/webp_640.webp",
+                50_000L, 640, 360, "image/webp")).block();
+        photoLabelRepository.save(PhotoLabel.create(photo.getId(), "Beach", BigDecimal.valueOf(97.5))).block();
+        photoLabelRepository.save(PhotoLabel.create(photo.getId(), "Dog", BigDecimal.valueOf(99.1))).block();
+        photoGalleryViewRepository.refresh(photo.getId()).block();
+
+        // When & Then
+        StepVerifier.create(photoReadModelRepository.findPageByUserId(user.getId(), 20, 0))
+                .assertNext(row -> {
+                    assertThat(row.id()).isEqualTo(photo.getId());
+                    assertThat(row.status()).isEqualTo(PhotoStatus.READY);
+                    assertThat(row.thumbnailS3Key()).isEqualTo("thumbnails/" + photo.getId());
+                    assertThat(row.labels()).containsExactly("Dog", "Beach");
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldReturnEmptyLabelsWhenPhotoHasNone() {
+        // Given
+        Photo photo = createPhoto(Instant.now());
+
+        // When & Then
+        StepVerifier.create(photoReadModelRepository.findByIds(new UUID[]{photo.getId()}))
+                .assertNext(row -> {
+                    assertThat(row.thumbnailS3Key()).isNull();
+                    assertThat(row.labels()).isEmpty();
+                })
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldSeekPastCursor() {
+        // Given
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        Photo newest = createPhoto(now);
+        Photo middle = createPhoto(now.minusSeconds(60));
+        Photo oldest = createPhoto(now.minusSeconds(120));
+
+        // When & Then
+        StepVerifier.create(photoReadModelRepository.findPageByUserIdAfterCursor(
+                        user.getId(), newest.getCreatedAt(), newest.getId(), 10))
+                .assertNext(row -> assertThat(row.id()).isEqualTo(middle.getId()))
+                .assertNext(row -> assertThat(row.id()).isEqualTo(oldest.getId()))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldRebuildViewFromSourceTables() {
+        // Given: labels written without refreshing the view
+        Photo photo = createPhoto(Instant.now());
+        photoLabelRepository.save(PhotoLabel.create(photo.getId(), "Beach", BigDecimal.valueOf(97.5))).block();
+        StepVerifier.create(photoReadModelRepository.findFirstSearchPageByUserId(
+                        user.getId(), new String[]{"Beach"}, 10))
+                .verifyComplete();
+
+        // When
+        StepVerifier.create(photoGalleryViewRepository.rebuildByUserId(user.getId()))
+                .expectNext(1L)
+                .verifyComplete();
+
+        // Then
+        StepVerifier.create(photoReadModelRepository.findFirstSearchPageByUserId(
+                        user.getId(), new String[]{"Beach"}, 10))
+                .assertNext(row -> {
+                    assertThat(row.id()).isEqualTo(photo.getId());
+                    assertThat(row.labels()).containsExactly("Beach");
+                })
+                .verifyComplete();
+        StepVerifier.create(photoReadModelRepository.countSearchByUserId(user.getId(), new String[]{"Beach", "Dog"}))
+                .expectNext(0L)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldDropViewRowWithPhoto() {
+        // Given
+        Photo photo = createPhoto(Instant.now());
+
+        // When
+        photoRepository.deleteById(photo.getId()).block();
+
+        // Then
+        StepVerifier.create(photoReadModelRepository.findByIds(new UUID[]{photo.getId()}))
+                .verifyComplete();
+    }
+
+    private Photo createPhoto(Instant createdAt) {
+        UploadJob uploadJob = UploadJob.builder()
+                .id(UUID.randomUUID())
+                .userId(user.getId())
+                .s3Key("originals/" + user.getId() + "/" + UUID.randomUUID())
+                .presignedUrl("https://example.com/upload")
+                .fileName("photo.jpg")
+                .fileSize(2_000_000L)
+                .mimeType("image/jpeg")
+                .status(UploadJobStatus.CONFIRMED.name())
+                .expiresAt(Instant.now().plus(1, ChronoUnit.HOURS))
+                .build();
+        uploadJobRepository.saveWithEnumCast(uploadJob).block();
+
+        Photo photo = Photo.builder()
+                .id(UUID.randomUUID())
+                .userId(user.getId())
+                .uploadJobId(uploadJob.getId())
+                .originalS3Key(uploadJob.getS3Key())
+                .fileName("photo.jpg")
+                .fileSize(2_000_000L)
+                .mimeType("image/jpeg")
+                .status(PhotoStatus.READY)
+                .createdAt(createdAt)
+                .build();
+        Photo saved = photoRepository.saveWithEnumCast(photo).block();
+        photoGalleryViewRepository.refresh(saved.getId()).block();
+        return saved;
+    }
+}
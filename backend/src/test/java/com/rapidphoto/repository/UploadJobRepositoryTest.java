@@ -165,6 +165,28 @@ class UploadJobRepositoryTest {
                 .verifyComplete();
     }
 
+    @Test
+    void shouldExpireOverdueInitiatedJobsAndCountPerUser() {
+        // Given
+        Instant pastExpiry = Instant.now().minus(1, ChronoUnit.HOURS);
+        Instant futureExpiry = Instant.now().plus(1, ChronoUnit.HOURS);
+        uploadJobRepository.save(createUploadJob("expired.jpg", UploadJobStatus.INITIATED, pastExpiry)).block();
+        uploadJobRepository.save(createUploadJob("active.jpg", UploadJobStatus.INITIATED, futureExpiry)).block();
+        uploadJobRepository.save(createUploadJob("confirmed.jpg", UploadJobStatus.CONFIRMED, pastExpiry)).block();
+
+        // When & Then - only the overdue INITIATED job expires
+        StepVerifier.create(uploadJobRepository.expireInitiatedJobs(Instant.now()))
+                .expectNext(testUser.getId())
+                .verifyComplete();
+        StepVerifier.create(uploadJobRepository.countActiveUploadsByUserIds(
+                        new UUID[]{testUser.getId(), UUID.randomUUID()}))
+                .assertNext(row -> {
+                    assertThat(row.userId()).isEqualTo(testUser.getId());
+                    assertThat(row.activeUploads()).isEqualTo(1);
+                })
+                .verifyComplete();
+    }
+
     @Test
     void shouldFindUploadJobByS3Key() {
         // Given
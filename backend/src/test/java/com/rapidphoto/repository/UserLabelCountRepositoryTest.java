@@ -0,0 +1,157 @@
+package com.rapidphoto.repository;
+
+import com.rapidphoto.domain.Photo;
+import com.rapidphoto.domain.PhotoLabel;
+import com.rapidphoto.domain.PhotoStatus;
+import com.rapidphoto.domain.UploadJob;
+import com.rapidphoto.domain.UploadJobStatus;
+import com.rapidphoto.domain.User;
+import com.rapidphoto.repository.projection.LabelCountRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+/**
+ * Integration tests for the per-user label counts using Testcontainers.
+ */
+@DataR2dbcTest
+@Testcontainers
+class UserLabelCountRepositoryTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17.6")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.r2dbc.url", () ->
+                String.format("r2dbc:postgresql://%s:%d/%s",
+                        postgres.getHost(),
+                        postgres.getFirstMappedPort(),
+                        postgres.getDatabaseName()));
+        registry.add("spring.r2dbc.username", postgres::getUsername);
+        registry.add("spring.r2dbc.password", postgres::getPassword);
+        registry.add("spring.flyway.url", postgres::getJdbcUrl);
+        registry.add("spring.flyway.user", postgres::getUsername);
+        registry.add("spring.flyway.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private UserLabelCountRepository userLabelCountRepository;
+
+    @Autowired
+    private PhotoLabelRepository photoLabelRepository;
+
+    @Autowired
+    private PhotoRepository photoRepository;
+
+    @Autowired
+    private UploadJobRepository uploadJobRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        photoLabelRepository.deleteAll().block();
+        photoRepository.deleteAll().block();
+        uploadJobRepository.deleteAll().block();
+        userRepository.deleteAll().block();
+
+        user = User.builder()
+                .id(UUID.randomUUID())
+                .cognitoUserId("cognito-user")
+                .email("test@example.com")
+                .name("Test User")
+                .lastLoginAt(Instant.now())
+                .build();
+        userRepository.insert(user).block();
+    }
+
+    @Test
+    void shouldIncrementAndDecrementLabelCounts() {
+        Photo first = createPhoto();
+        Photo second = createPhoto();
+        labelAndCount(first, "beach", "sunset");
+        labelAndCount(second, "beach");
+
+        StepVerifier.create(userLabelCountRepository.findTopByUserId(user.getId(), 10))
+                .expectNext(new LabelCountRow("beach", 2))
+                .expectNext(new LabelCountRow("sunset", 1))
+                .verifyComplete();
+
+        // Deleting the first photo drops its labels from the counts
+        userLabelCountRepository.decrementLabelsForPhoto(user.getId(), first.getId())
+                .then(userLabelCountRepository.deleteEmptyByUserId(user.getId()))
+                .block();
+
+        StepVerifier.create(userLabelCountRepository.findTopByUserId(user.getId(), 10))
+                .expectNext(new LabelCountRow("beach", 1))
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldLimitTopLabels() {
+        labelAndCount(createPhoto(), "beach", "dog", "sunset");
+        labelAndCount(createPhoto(), "dog");
+
+        StepVerifier.create(userLabelCountRepository.findTopByUserId(user.getId(), 1))
+                .expectNext(new LabelCountRow("dog", 2))
+                .verifyComplete();
+    }
+
+    private void labelAndCount(Photo photo, String... labelNames) {
+        for (String labelName : labelNames) {
+            PhotoLabel label = new PhotoLabel();
+            label.setPhotoId(photo.getId());
+            label.setLabelName(labelName);
+            label.setConfidence(BigDecimal.valueOf(99));
+            label.setCreatedAt(Instant.now());
+            photoLabelRepository.save(label).block();
+        }
+        userLabelCountRepository.incrementLabels(user.getId(), labelNames).block();
+    }
+
+    private Photo createPhoto() {
+        UploadJob uploadJob = UploadJob.builder()
+                .id(UUID.randomUUID())
+                .userId(user.getId())
+                .s3Key("originals/" + user.getId() + "/" + UUID.randomUUID())
+                .presignedUrl("https://example.com/upload")
+                .fileName("photo.jpg")
+                .fileSize(2_000_000L)
+                .mimeType("image/jpeg")
+                .status(UploadJobStatus.CONFIRMED.name())
+                .expiresAt(Instant.now().plus(1, ChronoUnit.HOURS))
+                .build();
+        uploadJobRepository.saveWithEnumCast(uploadJob).block();
+
+        Photo photo = Photo.builder()
+                .id(UUID.randomUUID())
+                .userId(user.getId())
+                .uploadJobId(uploadJob.getId())
+                .originalS3Key(uploadJob.getS3Key())
+                .fileName("photo.jpg")
+                .fileSize(2_000_000L)
+                .mimeType("image/jpeg")
+                .status(PhotoStatus.READY)
+                .build();
+        return photoRepository.saveWithEnumCast(photo).block();
+    }
+}
@@ -0,0 +1,169 @@
+package com.rapidphoto.repository;
+
+import com.rapidphoto.domain.Photo;
+import com.rapidphoto.domain.PhotoStatus;
+import com.rapidphoto.domain.UploadJob;
+import com.rapidphoto.domain.UploadJobStatus;
+import com.rapidphoto.domain.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import reactor.test.StepVerifier;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for trigger-maintained UserPhotoStats counters using Testcontainers.
+ */
+@DataR2dbcTest
+@Testcontainers
+class UserPhotoStatsRepositoryTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17.6")
+            .withDatabaseName("testdb")
+            .withUsername("test")
+            .withPassword("test");
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.r2dbc.url", () ->
+                String.format("r2dbc:postgresql://%s:%d/%s",
+                        postgres.getHost(),
+                        postgres.getFirstMappedPort(),
+                        postgres.getDatabaseName()));
+        registry.add("spring.r2dbc.username", postgres::getUsername);
+        registry.add("spring.r2dbc.password", postgres::getPassword);
+        registry.add("spring.flyway.url", postgres::getJdbcUrl);
+        registry.add("spring.flyway.user", postgres::getUsername);
+        registry.add("spring.flyway.password", postgres::getPassword);
+    }
+
+    @Autowired
+    private UserPhotoStatsRepository userPhotoStatsRepository;
+
+    @Autowired
+    private PhotoRepository photoRepository;
+
+    @Autowired
+    private UploadJobRepository uploadJobRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        photoRepository.deleteAll().block();
+        uploadJobRepository.deleteAll().block();
+        userRepository.deleteAll().block();
+
+        user = User.builder()
+                .id(UUID.randomUUID())
+                .cognitoUserId("cognito-user")
+                .email("test@example.com")
+                .name("Test User")
+                .lastLoginAt(Instant.now())
+                .build();
+        userRepository.insert(user).block();
+    }
+
+    @Test
+    void shouldMaintainCountersOnInsertStatusChangeAndDelete() {
+        // Given
+        Photo first = createPhoto();
+        Photo second = createPhoto();
+
+        // When - one photo finishes processing, the other is deleted
+        photoRepository.updateProcessingResults(first.getId(), PhotoStatus.READY.name(),
+                100, 100, Instant.now(), Instant.now()).block();
+        photoRepository.deleteById(second.getId()).block();
+
+        // Then
+        StepVerifier.create(userPhotoStatsRepository.findById(user.getId()))
+                .assertNext(stats -> {
+                    assertThat(stats.getTotalCount()).isEqualTo(1);
+                    assertThat(stats.countFor(PhotoStatus.READY)).isEqualTo(1);
+                    assertThat(stats.countFor(PhotoStatus.PENDING_PROCESSING)).isZero();
+                })
+                .verifyComplete();
+        StepVerifier.create(userPhotoStatsRepository.findTotalCountByUserId(user.getId()))
+                .expectNext(1L)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldReturnZeroTotalForUserWithoutPhotos() {
+        StepVerifier.create(userPhotoStatsRepository.findTotalCountByUserId(user.getId()))
+                .expectNext(0L)
+                .verifyComplete();
+    }
+
+    @Test
+    void shouldDetectAndRepairDrift() {
+        // Given - counters changed behind the trigger's back
+        createPhoto();
+        createPhoto();
+        databaseClient.sql("UPDATE user_photo_stats SET total_count = 42 WHERE user_id = :userId")
+                .bind("userId", user.getId())
+                .then()
+                .block();
+
+        // When
+        StepVerifier.create(userPhotoStatsRepository.findDriftedUserIds())
+                .expectNext(user.getId())
+                .verifyComplete();
+        userPhotoStatsRepository.lockByUserId(user.getId())
+                .then(userPhotoStatsRepository.recomputeByUserId(user.getId()))
+                .block();
+
+        // Then
+        StepVerifier.create(userPhotoStatsRepository.findTotalCountByUserId(user.getId()))
+                .expectNext(2L)
+                .verifyComplete();
+        StepVerifier.create(userPhotoStatsRepository.findDriftedUserIds())
+                .verifyComplete();
+    }
+
+    private Photo createPhoto() {
+        UploadJob uploadJob = UploadJob.builder()
+                .id(UUID.randomUUID())
+                .userId(user.getId())
+                .s3Key("originals/" + user.getId() + "/" + UUID.randomUUID())
+                .presignedUrl("https://example.com/upload")
+                .fileName("photo.jpg")
+                .fileSize(2_000_000L)
+                .mimeType("image/jpeg")
+                .status(UploadJobStatus.CONFIRMED.name())
+                .expiresAt(Instant.now().plus(1, ChronoUnit.HOURS))
+                .build();
+        uploadJobRepository.saveWithEnumCast(uploadJob).block();
+
+        Photo photo = Photo.builder()
+                .id(UUID.randomUUID())
+                .userId(user.getId())
+                .uploadJobId(uploadJob.getId())
+                .originalS3Key(uploadJob.getS3Key())
+                .fileName("photo.jpg")
+                .fileSize(2_000_000L)
+                .mimeType("image/jpeg")
+                .status(PhotoStatus.PENDING_PROCESSING)
+                .build();
+        return photoRepository.saveWithEnumCast(photo).block();
+    }
+}